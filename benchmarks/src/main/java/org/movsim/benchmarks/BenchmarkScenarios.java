@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+
+import org.movsim.autogen.Movsim;
+import org.movsim.input.ProjectMetaData;
+import org.movsim.xml.InputLoader;
+
+import com.google.common.base.Preconditions;
+import com.google.common.io.Files;
+
+/**
+ * Locates the bundled scenarios in the <code>sim/</code> directory of the source tree and prepares modified copies of
+ * them in a temporary directory.
+ */
+final class BenchmarkScenarios {
+
+    /** system property for the location of the <code>sim/</code> directory, set by the exec plugin */
+    static final String SIM_DIR_PROPERTY = "movsim.sim.dir";
+
+    private BenchmarkScenarios() {
+        throw new IllegalStateException("do not invoke");
+    }
+
+    static File simDirectory() {
+        final String property = System.getProperty(SIM_DIR_PROPERTY);
+        if (property != null) {
+            return checkDirectory(new File(property));
+        }
+        for (String candidate : new String[] { "sim", "../sim" }) {
+            final File dir = new File(candidate);
+            if (dir.isDirectory()) {
+                return dir;
+            }
+        }
+        throw new IllegalStateException("cannot find scenario directory, set -D" + SIM_DIR_PROPERTY);
+    }
+
+    private static File checkDirectory(File dir) {
+        Preconditions.checkState(dir.isDirectory(), "not a directory: " + dir);
+        return dir;
+    }
+
+    /**
+     * Loads a bundled scenario.
+     * 
+     * @param scenario
+     *            path of the scenario relative to the <code>sim/</code> directory and without file ending, for example
+     *            <code>bookScenarioSimpleOnramp/onramp_IDM</code>
+     * @return the unmarshalled scenario
+     */
+    static Movsim load(String scenario) {
+        return InputLoader.unmarshallMovsim(scenarioFile(scenario));
+    }
+
+    private static File scenarioFile(String scenario) {
+        return new File(simDirectory(), scenario + ProjectMetaData.getMovsimConfigFileEnding());
+    }
+
+    /**
+     * Copies the directory of the bundled scenario to a new temporary directory, replaces the project file with the
+     * given (modified) scenario and points the {@link ProjectMetaData} to the copy. Output files are written to the
+     * temporary directory as well.
+     * 
+     * @param scenario
+     *            path of the scenario relative to the <code>sim/</code> directory and without file ending
+     * @param movsim
+     *            the modified scenario
+     * @return the temporary directory
+     */
+    static File install(String scenario, Movsim movsim) throws IOException, JAXBException {
+        final File source = scenarioFile(scenario);
+        final File tempDir = Files.createTempDir();
+        final File[] files = Preconditions.checkNotNull(source.getParentFile().listFiles());
+        for (File file : files) {
+            if (file.isFile()) {
+                Files.copy(file, new File(tempDir, file.getName()));
+            }
+        }
+        final String projectName = new File(scenario).getName();
+        JAXBContext.newInstance(Movsim.class).createMarshaller()
+                .marshal(movsim, new File(tempDir, projectName + ProjectMetaData.getMovsimConfigFileEnding()));
+
+        final ProjectMetaData projectMetaData = ProjectMetaData.getInstance();
+        projectMetaData.setProjectName(projectName);
+        projectMetaData.setPathToProjectXmlFile(tempDir.getAbsolutePath() + File.separator);
+        projectMetaData.setOutputPath(tempDir.getAbsolutePath());
+        return tempDir;
+    }
+
+    static void delete(File dir) {
+        final File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+}
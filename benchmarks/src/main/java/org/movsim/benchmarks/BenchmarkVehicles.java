@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.benchmarks;
+
+import org.movsim.autogen.LaneChangeModelType;
+import org.movsim.autogen.ModelParameterMOBIL;
+import org.movsim.simulator.roadnetwork.Lanes;
+import org.movsim.simulator.roadnetwork.RoadSegment;
+import org.movsim.simulator.vehicles.Vehicle;
+import org.movsim.simulator.vehicles.lanechange.LaneChangeModel;
+import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.IDM;
+import org.movsim.utilities.MyRandom;
+
+/**
+ * Builds vehicles and road segments with reproducible random states for the benchmarks.
+ */
+final class BenchmarkVehicles {
+
+    static final double VEHICLE_LENGTH = 6.0;
+
+    private BenchmarkVehicles() {
+        throw new IllegalStateException("do not invoke");
+    }
+
+    static Vehicle newVehicle(double rearPosition, double speed, int lane) {
+        final Vehicle vehicle = new Vehicle(rearPosition, speed, lane, VEHICLE_LENGTH, 2.5);
+        vehicle.setLongitudinalModel(new IDM(33.0, 1.0, 1.5, 1.2, 2.0, 0.0));
+        vehicle.setSpeedlimit(120 / 3.6);
+        return vehicle;
+    }
+
+    static Vehicle newVehicleWithLaneChangeModel(double rearPosition, double speed, int lane) {
+        final Vehicle vehicle = newVehicle(rearPosition, speed, lane);
+        vehicle.setLaneChangeModel(new LaneChangeModel(vehicle, createLaneChangeModelType()));
+        return vehicle;
+    }
+
+    static LaneChangeModelType createLaneChangeModelType() {
+        ModelParameterMOBIL param = new ModelParameterMOBIL();
+        param.setMinimumGap(2.0);
+        param.setSafeDeceleration(4.0);
+        param.setPoliteness(0.1);
+        param.setThresholdAcceleration(0.2);
+        param.setRightBiasAcceleration(0.3);
+        LaneChangeModelType lcType = new LaneChangeModelType();
+        lcType.setModelParameterMOBIL(param);
+        lcType.setEuropeanRules(true);
+        lcType.setCritSpeedEur(5);
+        return lcType;
+    }
+
+    /**
+     * Fills all lanes of the road segment with vehicles at equidistant positions with randomized offsets and speeds.
+     * 
+     * @param roadSegment
+     * @param vehiclesPerLane
+     * @param withLaneChangeModel
+     */
+    static void fill(RoadSegment roadSegment, int vehiclesPerLane, boolean withLaneChangeModel) {
+        MyRandom.initializeWithSeed(42);
+        final double spacing = roadSegment.roadLength() / vehiclesPerLane;
+        for (int lane = Lanes.LANE1; lane <= roadSegment.laneCount(); lane++) {
+            for (int i = 0; i < vehiclesPerLane; i++) {
+                final double position = i * spacing + 0.5 * MyRandom.nextDouble() * (spacing - VEHICLE_LENGTH);
+                final double speed = 15 + 10 * MyRandom.nextDouble();
+                final Vehicle vehicle = withLaneChangeModel ? newVehicleWithLaneChangeModel(position, speed, lane)
+                        : newVehicle(position, speed, lane);
+                roadSegment.addVehicle(vehicle);
+            }
+        }
+    }
+}
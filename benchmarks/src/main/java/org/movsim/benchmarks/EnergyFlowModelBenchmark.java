@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.movsim.autogen.ConsumptionModel;
+import org.movsim.consumption.model.EnergyFlowModel;
+import org.movsim.consumption.model.EnergyFlowModels;
+import org.movsim.consumption.model.FuelAndGear;
+import org.movsim.utilities.MyRandom;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the minimum fuel flow over all gears, using the car consumption model of the bundled output example.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EnergyFlowModelBenchmark {
+
+    private static final String SCENARIO = "features/output/onramp_example";
+
+    private static final int STATE_COUNT = 1024;
+
+    private EnergyFlowModel energyFlowModel;
+    private final double[] speeds = new double[STATE_COUNT];
+    private final double[] accelerations = new double[STATE_COUNT];
+    private int index;
+
+    @Setup
+    public void setUp() {
+        final ConsumptionModel consumptionModel = BenchmarkScenarios.load(SCENARIO).getConsumption()
+                .getConsumptionModels().getConsumptionModel().get(0);
+        consumptionModel.setOutput(false);
+        energyFlowModel = EnergyFlowModels.create(consumptionModel);
+        MyRandom.initializeWithSeed(42);
+        for (int i = 0; i < STATE_COUNT; ++i) {
+            speeds[i] = 35 * MyRandom.nextDouble();
+            accelerations[i] = -3 + 5 * MyRandom.nextDouble();
+        }
+    }
+
+    @Benchmark
+    public FuelAndGear getMinFuelFlow() {
+        index = (index + 1) % STATE_COUNT;
+        return energyFlowModel.getMinFuelFlow(speeds[index], accelerations[index], 0, true);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.movsim.simulator.roadnetwork.Lanes;
+import org.movsim.simulator.roadnetwork.RoadSegment;
+import org.movsim.simulator.vehicles.Vehicle;
+import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.IDM;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the IDM acceleration function for a vehicle and its leader.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IDMBenchmark {
+
+    private IDM idm;
+    private Vehicle me;
+    private Vehicle front;
+
+    @Setup
+    public void setUp() {
+        RoadSegment roadSegment = new RoadSegment(1000, 1);
+        me = BenchmarkVehicles.newVehicle(100, 20, Lanes.LANE1);
+        front = BenchmarkVehicles.newVehicle(140, 18, Lanes.LANE1);
+        roadSegment.addVehicle(me);
+        roadSegment.addVehicle(front);
+        idm = (IDM) me.getLongitudinalModel();
+    }
+
+    @Benchmark
+    public double calcAcc() {
+        return idm.calcAcc(me, front, 1.0, 1.0, 1.0);
+    }
+
+    @Benchmark
+    public double calcAccSimple() {
+        return idm.calcAccSimple(40.0 - BenchmarkVehicles.VEHICLE_LENGTH, 20, 2);
+    }
+}
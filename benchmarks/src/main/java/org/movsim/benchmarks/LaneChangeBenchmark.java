@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.movsim.simulator.roadnetwork.RoadSegment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the lane-change decisions and lane changes of all vehicles on a three-lane road segment.
+ * 
+ * <p>
+ * The road segment is refilled before each iteration since lane changes alter the lane occupancy. Vehicles that have
+ * changed lanes stay in the lane-changing state for the rest of the iteration, so the first invocations of an iteration
+ * include the actual lane changes and the later ones mostly the decisions.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LaneChangeBenchmark {
+
+    @Param({ "10", "100" })
+    public int vehiclesPerLane;
+
+    private RoadSegment roadSegment;
+    private long iterationCount;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        roadSegment = new RoadSegment(50 * vehiclesPerLane, 3);
+        BenchmarkVehicles.fill(roadSegment, vehiclesPerLane, true);
+        iterationCount = 0;
+    }
+
+    @Benchmark
+    public int makeLaneChanges() {
+        ++iterationCount;
+        roadSegment.makeLaneChanges(0.2, 0.2 * iterationCount, iterationCount);
+        return roadSegment.getVehicleCount();
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.movsim.simulator.roadnetwork.LaneSegment;
+import org.movsim.simulator.roadnetwork.Lanes;
+import org.movsim.simulator.roadnetwork.Link;
+import org.movsim.simulator.roadnetwork.RoadSegment;
+import org.movsim.simulator.vehicles.Vehicle;
+import org.movsim.utilities.MyRandom;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the vehicle bookkeeping in a single lane segment.
+ * 
+ * <p>
+ * The road segment is joined to itself (ring road) so that {@link LaneSegment#outFlow(double, double, long)} moves the
+ * front vehicle to the rear of the same lane and the lane keeps a constant number of vehicles.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LaneSegmentBenchmark {
+
+    private static final int POSITION_COUNT = 1024;
+
+    @Param({ "100", "1000" })
+    public int vehicleCount;
+
+    private RoadSegment roadSegment;
+    private LaneSegment laneSegment;
+    private double spacing;
+    private Vehicle probe;
+    private final double[] positions = new double[POSITION_COUNT];
+    private int positionIndex;
+
+    @Setup
+    public void setUp() {
+        roadSegment = new RoadSegment(10 * vehicleCount, 1);
+        Link.addJoin(roadSegment, roadSegment);
+        BenchmarkVehicles.fill(roadSegment, vehicleCount, false);
+        laneSegment = roadSegment.laneSegment(Lanes.LANE1);
+        spacing = roadSegment.roadLength() / vehicleCount;
+        for (int i = 0; i < POSITION_COUNT; ++i) {
+            positions[i] = MyRandom.nextDouble() * roadSegment.roadLength();
+        }
+        probe = BenchmarkVehicles.newVehicle(0, 20, Lanes.LANE1);
+        probe.setRoadSegment(roadSegment);
+    }
+
+    private double nextPosition() {
+        positionIndex = (positionIndex + 1) % POSITION_COUNT;
+        return positions[positionIndex];
+    }
+
+    /**
+     * Inserts a vehicle at a random position and removes it again, the lane keeps its size.
+     */
+    @Benchmark
+    public int addAndRemoveVehicle() {
+        probe.setRearPosition(nextPosition());
+        laneSegment.addVehicle(probe);
+        laneSegment.removeVehicle(probe);
+        return laneSegment.vehicleCount();
+    }
+
+    @Benchmark
+    public Vehicle frontVehicle() {
+        probe.setRearPosition(nextPosition());
+        return laneSegment.frontVehicle(probe);
+    }
+
+    /**
+     * Moves the front vehicle past the end of the road segment and lets it flow out to the rear of the ring road.
+     */
+    @Benchmark
+    public int outFlow() {
+        final Vehicle front = laneSegment.frontVehicle();
+        final Vehicle rear = laneSegment.rearVehicle();
+        front.setRearPosition(roadSegment.roadLength() + rear.getRearPosition() - spacing);
+        laneSegment.outFlow(0.2, 0, 0);
+        return laneSegment.vehicleCount();
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.movsim.simulator.roadnetwork.Lanes;
+import org.movsim.simulator.roadnetwork.RoadSegment;
+import org.movsim.simulator.vehicles.Vehicle;
+import org.movsim.simulator.vehicles.lanechange.MOBIL;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the MOBIL acceleration balance for a vehicle in the middle lane of a three-lane road segment.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MOBILBenchmark {
+
+    @Param({ "10", "100" })
+    public int vehiclesPerLane;
+
+    private RoadSegment roadSegment;
+    private Vehicle me;
+    private MOBIL mobil;
+
+    @Setup
+    public void setUp() {
+        roadSegment = new RoadSegment(5000, 3);
+        BenchmarkVehicles.fill(roadSegment, vehiclesPerLane, true);
+        me = roadSegment.laneSegment(Lanes.LANE2).getVehicle(vehiclesPerLane / 2);
+        mobil = new MOBIL(me, BenchmarkVehicles.createLaneChangeModelType().getModelParameterMOBIL());
+    }
+
+    @Benchmark
+    public double calcAccelerationBalanceToLeft() {
+        return mobil.calcAccelerationBalance(me, Lanes.TO_LEFT, roadSegment);
+    }
+
+    @Benchmark
+    public double calcAccelerationBalanceToRight() {
+        return mobil.calcAccelerationBalance(me, Lanes.TO_RIGHT, roadSegment);
+    }
+}
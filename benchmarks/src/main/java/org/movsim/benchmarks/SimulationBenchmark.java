@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.benchmarks;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.movsim.autogen.Inflow;
+import org.movsim.autogen.Movsim;
+import org.movsim.autogen.Road;
+import org.movsim.autogen.Simulation;
+import org.movsim.simulator.Simulator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of complete simulation runs of the bundled scenarios at several traffic densities.
+ * 
+ * <p>
+ * All inflows (upstream boundaries and simple ramps) of the scenario are scaled with the density factor. The simulated
+ * duration is capped and the file output of the scenario is switched off, so that the benchmark measures the
+ * simulation itself.
+ * </p>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class SimulationBenchmark {
+
+    private static final double MAX_DURATION = 1800;
+
+    @Param({ "bookScenarioSimpleOnramp/onramp_IDM", "bookScenarioSimpleOnramp/onramp_ACC",
+            "bookScenarioStartStop/startStop_IDM" })
+    public String scenario;
+
+    @Param({ "0.5", "1.0", "1.5" })
+    public double densityFactor;
+
+    private Movsim movsim;
+    private File tempDir;
+    private Simulator simulator;
+
+    @Setup(Level.Trial)
+    public void install() throws Exception {
+        movsim = BenchmarkScenarios.load(scenario);
+        final Simulation simulation = movsim.getScenario().getSimulation();
+        for (Road road : simulation.getRoad()) {
+            if (road.isSetTrafficSource()) {
+                scaleInflows(road.getTrafficSource().getInflow());
+            }
+            if (road.isSetSimpleRamp()) {
+                scaleInflows(road.getSimpleRamp().getInflow());
+            }
+        }
+        if (!simulation.isSetDuration() || simulation.getDuration() < 0 || simulation.getDuration() > MAX_DURATION) {
+            simulation.setDuration(MAX_DURATION);
+        }
+        movsim.getScenario().setOutputConfiguration(null);
+        tempDir = BenchmarkScenarios.install(scenario, movsim);
+    }
+
+    private void scaleInflows(Iterable<Inflow> inflows) {
+        for (Inflow inflow : inflows) {
+            inflow.setQPerHour(densityFactor * inflow.getQPerHour());
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void initialize() throws Exception {
+        simulator = new Simulator(movsim);
+        simulator.initialize();
+    }
+
+    @Benchmark
+    public double runToCompletion() {
+        simulator.runToCompletion();
+        return simulator.getSimulationRunnable().simulationTime();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteTempDir() {
+        BenchmarkScenarios.delete(tempDir);
+    }
+}
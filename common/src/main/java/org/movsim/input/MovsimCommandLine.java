@@ -105,6 +105,14 @@ public class MovsimCommandLine {
         final Option xmlSimFile = OptionBuilder.create("f");
         options.addOption(xmlSimFile);
 
+        OptionBuilder.withArgName("steps");
+        OptionBuilder.hasOptionalArg();
+        OptionBuilder.withLongOpt("performance");
+        OptionBuilder.withDescription("writes timing and throughput metrics of the simulation update to file "
+                + "(optional argument: number of update steps between intermediate summaries)");
+        final Option performanceOption = OptionBuilder.create("p");
+        options.addOption(performanceOption);
+
         OptionBuilder.withArgName("directory");
         OptionBuilder.hasArg();
         OptionBuilder.withDescription("argument is the output path relative to calling directory");
@@ -137,6 +145,9 @@ public class MovsimCommandLine {
 	if (cmdline.hasOption("s")) {
 	    ProjectMetaData.getInstance().setScanMode(true);
 	}
+        if (cmdline.hasOption("p")) {
+            optionPerformanceMetrics(cmdline);
+        }
         requiredOptionOutputPath(cmdline);
         requiredOptionSimulation(cmdline);
     }
@@ -158,6 +169,19 @@ public class MovsimCommandLine {
         ProjectMetaData.getInstance().setOutputPath(FileUtils.getCanonicalPath(outputPath));
     }
 
+    private static void optionPerformanceMetrics(CommandLine cmdline) {
+        ProjectMetaData.getInstance().setPerformanceMetrics(true);
+        final String interval = cmdline.getOptionValue('p');
+        if (interval != null) {
+            try {
+                ProjectMetaData.getInstance().setPerformanceMetricsInterval(Long.parseLong(interval));
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid number of update steps for option -p: " + interval);
+                System.exit(-1);
+            }
+        }
+    }
+
     /**
      * Option: writes log4j.properties to local filesystem
      */
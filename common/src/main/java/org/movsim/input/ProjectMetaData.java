@@ -55,6 +55,10 @@ public final class ProjectMetaData {
 
     private boolean scanMode = false;
 
+    private boolean performanceMetrics = false;
+
+    private long performanceMetricsInterval = 0;
+
     private long timeOffsetMillis = 0;
 
     /**
@@ -314,4 +318,24 @@ public final class ProjectMetaData {
     public boolean isScanMode() {
         return scanMode;
     }
+
+    public boolean isPerformanceMetrics() {
+        return performanceMetrics;
+    }
+
+    public void setPerformanceMetrics(boolean performanceMetrics) {
+        this.performanceMetrics = performanceMetrics;
+    }
+
+    /**
+     * @return number of update steps between intermediate performance summaries, 0 if only written at the end
+     */
+    public long getPerformanceMetricsInterval() {
+        return performanceMetricsInterval;
+    }
+
+    public void setPerformanceMetricsInterval(long performanceMetricsInterval) {
+        Preconditions.checkArgument(performanceMetricsInterval >= 0, "interval must be non-negative");
+        this.performanceMetricsInterval = performanceMetricsInterval;
+    }
 }
@@ -15,6 +15,11 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URL;
 
+import javax.xml.XMLConstants;
+import javax.xml.transform.sax.SAXResult;
+import javax.xml.transform.sax.SAXSource;
+import javax.xml.validation.SchemaFactory;
+
 import org.movsim.autogen.Movsim;
 import org.movsim.network.autogen.opendrive.OpenDRIVE;
 import org.movsim.scenario.boundary.autogen.MovsimMicroscopicBoundaryConditions;
@@ -23,6 +28,9 @@ import org.movsim.scenario.vehicle.autogen.MovsimExternalVehicleControl;
 import org.movsim.utilities.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
 
 public final class InputLoader {
 
@@ -83,6 +91,24 @@ public final class InputLoader {
                 xsdResourcen.getUrl());
     }
 
+    /**
+     * Validates the microscopic boundary conditions in a single streaming pass without unmarshalling them.
+     * 
+     * @param contentHandler
+     *            receives the elements of the validated file
+     * @throws IllegalStateException
+     */
+    public static void validateMicroBoundaryConditions(File xmlFile, ContentHandler contentHandler) {
+        XmlInput xsdResourcen = XmlInput.MICRO_BOUNDARY_CONDITIONS;
+        try {
+            SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+            schemaFactory.newSchema(xsdResourcen.getUrl()).newValidator()
+                    .validate(new SAXSource(new InputSource(xmlFile.toURI().toString())), new SAXResult(contentHandler));
+        } catch (SAXException | IOException e) {
+            throw new IllegalStateException(e.toString());
+        }
+    }
+
     /**
      * @throws IllegalStateException
      */
@@ -25,19 +25,30 @@
  */
 package org.movsim.output;
 
+import java.util.Formatter;
+
 import org.movsim.input.ProjectMetaData;
 import org.movsim.io.FileOutputBase;
 import org.movsim.simulator.roadnetwork.Lanes;
+import org.movsim.simulator.roadnetwork.controller.DetectorAggregation;
+import org.movsim.simulator.roadnetwork.controller.DetectorAggregation.AggregationCallback;
 import org.movsim.simulator.roadnetwork.controller.LoopDetector;
 import org.movsim.utilities.Units;
 
 /**
  * The Class FileDetector.
+ * 
+ * <p>
+ * Writes the aggregated data of one sample interval of a {@link LoopDetector}. Each record is formatted into a reused
+ * buffer and written as a single line, the writer is flushed when it is closed on shutdown.
+ * </p>
  */
-public class FileDetector extends FileOutputBase {
+public class FileDetector extends FileOutputBase implements AggregationCallback {
 
     private static final String extensionFormat = ".det.road_%s.x_%d.csv";
 
+    private static final String extensionFormatSampleInterval = ".det.road_%s.x_%d.dt_%s.csv";
+
     private static final String outputHeadingTime = String.format("%s%10s,", COMMENT_CHAR, "t[s]");
     private static final String outputHeadingLaneAverage = String.format("%10s,%10s,%10s,%10s,%10s,%10s,%10s,",
             "nVehTotal[1]", "nTotalAccum[1]", "V[km/h]", "flow[1/h/lane]", "occup[1]", "1/<1/v>[km/h]",
@@ -50,28 +61,44 @@ public class FileDetector extends FileOutputBase {
     private static final String outputFormatTime = "%10.1f, ";
     private static final String outputFormat = "%10d, %10d, %10.3f, %10.1f, %10.7f, %10.3f, %10.5f, ";
 
-    private final LoopDetector detector;
+    private final DetectorAggregation aggregation;
     private int laneCount;
     private final boolean loggingLanes;
 
+    private final StringBuilder line = new StringBuilder();
+    private final Formatter formatter = new Formatter(line);
+
     /**
      * Instantiates a new file detector.
      * 
      * @param detector
      *            the detector
-     * @param laneCount
+     * @param aggregation
+     *            the aggregation of the sample interval to write
+     * @param roadId
+     * @param withSampleIntervalInFilename
+     *            true to distinguish the file of an additional sample interval
+     * @param loggingLanes
      */
-    public FileDetector(LoopDetector detector, String roadId, int laneCount, boolean loggingLanes) {
+    public FileDetector(LoopDetector detector, DetectorAggregation aggregation, String roadId,
+            boolean withSampleIntervalInFilename, boolean loggingLanes) {
         super(ProjectMetaData.getInstance().getOutputPath(), ProjectMetaData.getInstance().getProjectName());
         final int xDetectorInt = (int) detector.position();
-        this.detector = detector;
-        this.laneCount = laneCount;
+        this.aggregation = aggregation;
+        this.laneCount = aggregation.laneCount();
         this.loggingLanes = (loggingLanes || laneCount == 1) ? true : false;
 
-        writer = createWriter(String.format(extensionFormat, roadId, xDetectorInt));
+        writer = createWriter(withSampleIntervalInFilename ? String.format(extensionFormatSampleInterval, roadId,
+                xDetectorInt, formatSampleInterval(aggregation.getSampleInterval())) : String.format(extensionFormat,
+                roadId, xDetectorInt));
         writeHeader();
     }
 
+    private static String formatSampleInterval(double sampleInterval) {
+        return (sampleInterval == Math.rint(sampleInterval)) ? Long.toString((long) sampleInterval) : Double
+                .toString(sampleInterval);
+    }
+
     /**
      * Writes the header.
      * 
@@ -80,7 +107,7 @@ public class FileDetector extends FileOutputBase {
         writer.printf(
                 COMMENT_CHAR + " number of lanes = %d. (most inner lane is = %d and increasing to outer lanes)%n",
                 laneCount, Lanes.MOST_INNER_LANE);
-        writer.printf(COMMENT_CHAR + " dtSample in seconds = %-8.4f%n", detector.getDtSample());
+        writer.printf(COMMENT_CHAR + " dtSample in seconds = %-8.4f%n", aggregation.getSampleInterval());
         writer.printf(COMMENT_CHAR + " logging lanes = %s%n", loggingLanes);
         writer.printf(outputHeadingTime);
         if (laneCount > 1) {
@@ -95,6 +122,11 @@ public class FileDetector extends FileOutputBase {
         writer.flush();
     }
 
+    @Override
+    public void aggregated(DetectorAggregation detectorAggregation, double simulationTime) {
+        writeAggregatedData(simulationTime);
+    }
+
     /**
      * Pulls data and writes aggregated data to output file.
      * 
@@ -102,39 +134,39 @@ public class FileDetector extends FileOutputBase {
      *            the time
      */
     public void writeAggregatedData(double time) {
-        writer.printf(outputFormatTime, time);
+        line.setLength(0);
+        formatter.format(outputFormatTime, time);
         if (laneCount > 1) {
-            writeLaneAverages();
+            formatLaneAverages();
         }
         if (loggingLanes) {
-            writeQuantitiesPerLane();
+            formatQuantitiesPerLane();
         }
-        writer.printf("%n");
+        formatter.format("%n");
+        writer.append(line);
     }
 
     /**
-     * Writes out the values per lane.
-     * 
-     * @param time
+     * Formats the values per lane.
      */
-    private void writeQuantitiesPerLane() {
+    private void formatQuantitiesPerLane() {
         for (int i = 0; i < laneCount; i++) {
-            write(outputFormat, detector.getVehCountOutput(i), detector.getVehCumulatedCountOutput(i), Units.MS_TO_KMH
-                    * detector.getMeanSpeed(i), Units.INVS_TO_INVH * detector.getFlow(i), detector.getOccupancy(i),
-                    Units.MS_TO_KMH * detector.getMeanSpeedHarmonic(i), detector.getMeanTimegapHarmonic(i));
+            formatter.format(outputFormat, aggregation.getVehCountOutput(i), aggregation.getVehCumulatedCountOutput(i),
+                    Units.MS_TO_KMH * aggregation.getMeanSpeed(i), Units.INVS_TO_INVH * aggregation.getFlow(i),
+                    aggregation.getOccupancy(i), Units.MS_TO_KMH * aggregation.getMeanSpeedHarmonic(i),
+                    aggregation.getMeanTimegapHarmonic(i));
         }
     }
 
     /**
-     * Writes out the values over all lanes.
-     * 
-     * @param time
+     * Formats the values over all lanes.
      */
-    private void writeLaneAverages() {
-        write(outputFormat, detector.getVehCountOutputAllLanes(), detector.getVehCumulatedCountOutputAllLanes(),
-                Units.MS_TO_KMH * detector.getMeanSpeedAllLanes(), Units.INVS_TO_INVH * detector.getFlowAllLanes(),
-                detector.getOccupancyAllLanes(), Units.MS_TO_KMH * detector.getMeanSpeedHarmonicAllLanes(),
-                detector.getMeanTimegapHarmonicAllLanes());
+    private void formatLaneAverages() {
+        formatter.format(outputFormat, aggregation.getVehCountOutputAllLanes(),
+                aggregation.getVehCumulatedCountOutputAllLanes(), Units.MS_TO_KMH * aggregation.getMeanSpeedAllLanes(),
+                Units.INVS_TO_INVH * aggregation.getFlowAllLanes(), aggregation.getOccupancyAllLanes(),
+                Units.MS_TO_KMH * aggregation.getMeanSpeedHarmonicAllLanes(),
+                aggregation.getMeanTimegapHarmonicAllLanes());
     }
 
 }
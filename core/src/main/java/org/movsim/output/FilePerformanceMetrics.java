@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.output;
+
+import org.movsim.input.ProjectMetaData;
+import org.movsim.io.FileOutputBase;
+import org.movsim.simulator.PerformanceMetrics;
+import org.movsim.simulator.PerformanceMetrics.OutputModule;
+import org.movsim.simulator.PerformanceMetrics.Phase;
+import org.movsim.simulator.roadnetwork.controller.RoadObject.RoadObjectType;
+
+/**
+ * Writes the cumulative {@link PerformanceMetrics} to file, one line per summary. Times are wall-clock seconds.
+ */
+public class FilePerformanceMetrics extends FileOutputBase implements PerformanceMetrics.RecordDataCallback {
+
+    private static final String extension = ".performance.csv";
+
+    public FilePerformanceMetrics() {
+        super(ProjectMetaData.getInstance().getOutputPath(), ProjectMetaData.getInstance().getProjectName());
+        writer = createWriter(extension);
+        writer.println(header());
+    }
+
+    private static String header() {
+        StringBuilder sb = new StringBuilder(COMMENT_CHAR);
+        sb.append(" t[s], iterations, wallTime[s], realTimeFactor, vehicleUpdates, vehicleUpdatesPerSecond");
+        sb.append(", routingQueries, routingQueryTime[s]");
+        for (Phase phase : Phase.values()) {
+            sb.append(SEPARATOR_CHAR).append(" phase_").append(phase);
+        }
+        for (RoadObjectType type : RoadObjectType.values()) {
+            sb.append(SEPARATOR_CHAR).append(" roadObject_").append(type);
+        }
+        for (OutputModule module : OutputModule.values()) {
+            sb.append(SEPARATOR_CHAR).append(" output_").append(module);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void recordData(double simulationTime, PerformanceMetrics metrics) {
+        writer.printf("%10.2f, %10d, %10.3f, %8.2f, %12d, %12.0f, %10d, %.6f", simulationTime,
+                metrics.iterations(), metrics.wallTime(), metrics.realTimeFactor(), metrics.vehicleUpdates(),
+                metrics.vehicleUpdatesPerSecond(), metrics.routingQueries(), metrics.routingQueryTime());
+        for (Phase phase : Phase.values()) {
+            writer.printf(", %.6f", metrics.wallTime(phase));
+        }
+        for (RoadObjectType type : RoadObjectType.values()) {
+            writer.printf(", %.6f", metrics.wallTime(type));
+        }
+        for (OutputModule module : OutputModule.values()) {
+            writer.printf(", %.6f", metrics.wallTime(module));
+        }
+        writer.println();
+        writer.flush();
+    }
+
+}
@@ -45,6 +45,8 @@ import org.movsim.output.route.FileTrajectories;
 import org.movsim.output.route.IndividualTravelTimesOnRoute;
 import org.movsim.output.route.SpatioTemporal;
 import org.movsim.output.route.TravelTimeOnRoute;
+import org.movsim.simulator.PerformanceMetrics;
+import org.movsim.simulator.PerformanceMetrics.OutputModule;
 import org.movsim.simulator.SimulationTimeStep;
 import org.movsim.simulator.observer.ServiceProvider;
 import org.movsim.simulator.observer.ServiceProviders;
@@ -83,6 +85,8 @@ public class SimulationOutput implements SimulationTimeStep {
 
     private final Routing routing;
 
+    private PerformanceMetrics performanceMetrics = PerformanceMetrics.disabled();
+
     public SimulationOutput(double simulationTimestep, boolean writeOutput, OutputConfiguration outputConfiguration,
             RoadNetwork roadNetwork, Routing routing, VehicleFactory vehicleFactory,
             @Nullable ServiceProviders serviceProviders) {
@@ -165,38 +169,56 @@ public class SimulationOutput implements SimulationTimeStep {
         }
     }
 
+    public void setPerformanceMetrics(PerformanceMetrics performanceMetrics) {
+        this.performanceMetrics = Preconditions.checkNotNull(performanceMetrics);
+    }
+
     @Override
     public void timeStep(double dt, double simulationTime, long iterationCount) {
 
+        long start = performanceMetrics.tic();
         for (FloatingCars floatingCars : floatingCarOutputs) {
             floatingCars.timeStep(dt, simulationTime, iterationCount);
         }
+        performanceMetrics.toc(OutputModule.FLOATING_CARS, start);
 
+        start = performanceMetrics.tic();
         for (final SpatioTemporal sp : spatioTemporals) {
             sp.timeStep(dt, simulationTime, iterationCount);
         }
+        performanceMetrics.toc(OutputModule.SPATIO_TEMPORAL, start);
 
+        start = performanceMetrics.tic();
         for (final FileTrajectories filetraj : filesTrajectories.values()) {
             filetraj.timeStep(dt, simulationTime, iterationCount);
         }
+        performanceMetrics.toc(OutputModule.TRAJECTORIES, start);
 
+        start = performanceMetrics.tic();
         for (final TravelTimeOnRoute travelTime : travelTimeOnRoutes.values()) {
             travelTime.timeStep(dt, simulationTime, iterationCount);
         }
+        performanceMetrics.toc(OutputModule.TRAVEL_TIMES, start);
 
+        start = performanceMetrics.tic();
         for (final IndividualTravelTimesOnRoute indivTravelTimes : individualTravelTimeOnRoutes.values()) {
             indivTravelTimes.timeStep(dt, simulationTime, iterationCount);
         }
+        performanceMetrics.toc(OutputModule.INDIVIDUAL_TRAVEL_TIMES, start);
 
+        start = performanceMetrics.tic();
         for (final ConsumptionOnRoute consumption : consumptionOnRoutes.values()) {
             consumption.timeStep(dt, simulationTime, iterationCount);
         }
+        performanceMetrics.toc(OutputModule.CONSUMPTION, start);
 
+        start = performanceMetrics.tic();
         if (serviceProviders != null) {
             for (final ServiceProvider serviceProvider : serviceProviders) {
                 serviceProvider.timeStep(dt, simulationTime, iterationCount);
             }
         }
+        performanceMetrics.toc(OutputModule.SERVICE_PROVIDERS, start);
 
     }
 
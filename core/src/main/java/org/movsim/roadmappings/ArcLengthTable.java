@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+
+package org.movsim.roadmappings;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Arc length parameterization of a curved road mapping. The position and direction of the road's center line is
+ * tabulated once at equidistant road positions, mapping a road position is then a table lookup with linear
+ * interpolation.
+ * 
+ * <p>
+ * The table spacing is refined at construction until the deviation of the interpolated center line from the curve,
+ * measured at the midpoints between the tabulated positions, is below the requested maximum error. This deviation
+ * bounds the lateral error of the mapping.
+ * </p>
+ */
+final class ArcLengthTable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ArcLengthTable.class);
+
+    /**
+     * Curve to be tabulated.
+     */
+    interface Curve {
+        /**
+         * Maps a road position onto the center line of the curve. Only called while the table is built, so this may
+         * be expensive. Within each pass over the table the road positions are requested in increasing order.
+         * 
+         * @param roadPos
+         * @param posTheta
+         * @return the supplied posTheta
+         */
+        PosTheta map(double roadPos, PosTheta posTheta);
+    }
+
+    /** default maximum error (m) */
+    static final double MAX_ERROR = 0.01;
+
+    /** initial spacing (m) of the tabulated positions, refined until the maximum error is reached */
+    private static final double MAX_STEP = 10.0;
+
+    private static final int MAX_COUNT = 1 << 16;
+
+    private final double roadLength;
+    private final double maxError;
+    private int count;
+    private double invStep;
+    private double[] xValues;
+    private double[] yValues;
+    private double[] cosValues;
+    private double[] sinValues;
+
+    ArcLengthTable(double roadLength, Curve curve) {
+        this(roadLength, curve, MAX_ERROR);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param roadLength
+     *            length of the curve (m)
+     * @param curve
+     *            the curve
+     * @param maxError
+     *            requested maximum deviation (m) of the interpolated center line from the curve
+     */
+    ArcLengthTable(double roadLength, Curve curve, double maxError) {
+        Preconditions.checkArgument(roadLength >= 0, "roadLength=" + roadLength);
+        Preconditions.checkArgument(maxError > 0, "maxError=" + maxError);
+        this.roadLength = roadLength;
+        count = Math.max(2, (int) Math.ceil(roadLength / MAX_STEP) + 1);
+        double error = build(curve);
+        while (error > maxError && count < MAX_COUNT) {
+            count = 2 * count - 1;
+            error = build(curve);
+        }
+        if (error > maxError) {
+            LOG.warn("arc length table with {} entries exceeds maximum error: {}m", count, error);
+        }
+        this.maxError = error;
+    }
+
+    private double build(Curve curve) {
+        xValues = new double[count];
+        yValues = new double[count];
+        cosValues = new double[count];
+        sinValues = new double[count];
+        final double step = roadLength / (count - 1);
+        invStep = roadLength > 0 ? 1.0 / step : 0.0;
+        final PosTheta posTheta = new PosTheta();
+        for (int i = 0; i < count; ++i) {
+            curve.map(i * step, posTheta);
+            xValues[i] = posTheta.x;
+            yValues[i] = posTheta.y;
+            cosValues[i] = posTheta.cosTheta;
+            sinValues[i] = posTheta.sinTheta;
+        }
+        // compare with the curve at the midpoints
+        final PosTheta interpolated = new PosTheta();
+        double error = 0;
+        for (int i = 0; i < count - 1; ++i) {
+            final double roadPos = (i + 0.5) * step;
+            curve.map(roadPos, posTheta);
+            map(roadPos, interpolated);
+            final double dx = interpolated.x - posTheta.x;
+            final double dy = interpolated.y - posTheta.y;
+            error = Math.max(error, Math.sqrt(dx * dx + dy * dy));
+        }
+        return error;
+    }
+
+    /**
+     * Maps a road position onto the center line by linear interpolation. Road positions outside the curve are
+     * extrapolated linearly.
+     * 
+     * @param roadPos
+     * @param posTheta
+     * @return the supplied posTheta
+     */
+    PosTheta map(double roadPos, PosTheta posTheta) {
+        final double x = roadPos * invStep;
+        final int i = Math.max(0, Math.min((int) x, count - 2));
+        final double f = x - i;
+        posTheta.x = xValues[i] + f * (xValues[i + 1] - xValues[i]);
+        posTheta.y = yValues[i] + f * (yValues[i + 1] - yValues[i]);
+        final double cosTheta = cosValues[i] + f * (cosValues[i + 1] - cosValues[i]);
+        final double sinTheta = sinValues[i] + f * (sinValues[i + 1] - sinValues[i]);
+        final double h = Math.sqrt(cosTheta * cosTheta + sinTheta * sinTheta);
+        posTheta.cosTheta = cosTheta / h;
+        posTheta.sinTheta = sinTheta / h;
+        return posTheta;
+    }
+
+    /**
+     * Returns the maximum deviation (m) of the interpolated center line from the curve, determined at construction.
+     * 
+     * @return the maximum error
+     */
+    double getMaxError() {
+        return maxError;
+    }
+
+    int size() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "ArcLengthTable [roadLength=" + roadLength + ", count=" + count + ", maxError=" + maxError + "]";
+    }
+}
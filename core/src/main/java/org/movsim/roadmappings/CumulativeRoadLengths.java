@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+
+package org.movsim.roadmappings;
+
+import java.util.Arrays;
+
+/**
+ * Cumulative road lengths of a sequence of consecutive road mappings. Allows the road mapping containing a given road
+ * position to be found by binary search rather than by a linear scan over all road mappings.
+ */
+final class CumulativeRoadLengths {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    // ends[i] is the road position at the end of the i-th road mapping
+    private double[] ends = new double[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Appends a road mapping of the given length.
+     * 
+     * @param roadLength
+     */
+    void add(double roadLength) {
+        if (size == ends.length) {
+            ends = Arrays.copyOf(ends, 2 * size);
+        }
+        ends[size] = start(size) + roadLength;
+        ++size;
+    }
+
+    /**
+     * Recalculates the cumulative lengths, needed when road mappings have been modified.
+     * 
+     * @param roadMappings
+     */
+    void reset(Iterable<? extends RoadMapping> roadMappings) {
+        size = 0;
+        for (final RoadMapping roadMapping : roadMappings) {
+            add(roadMapping.roadLength());
+        }
+    }
+
+    /**
+     * Returns the index of the first road mapping that ends at or beyond the given road position. Returns
+     * {@link #size()} if the road position lies beyond the end of the last road mapping.
+     * 
+     * @param roadPos
+     * @return index of the road mapping containing roadPos
+     */
+    int indexOf(double roadPos) {
+        int index = Arrays.binarySearch(ends, 0, size, roadPos);
+        if (index < 0) {
+            // index == -(insertion point) - 1
+            return -index - 1;
+        }
+        // exact match, take the first of any zero-length road mappings
+        while (index > 0 && ends[index - 1] == roadPos) {
+            --index;
+        }
+        return index;
+    }
+
+    /**
+     * Returns the road position at the start of the road mapping with the given index.
+     * 
+     * @param index
+     * @return road position at the start of the road mapping
+     */
+    double start(int index) {
+        return index == 0 ? 0.0 : ends[index - 1];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void trimToSize() {
+        ends = Arrays.copyOf(ends, Math.max(size, 1));
+    }
+}
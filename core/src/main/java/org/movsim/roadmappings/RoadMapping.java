@@ -39,13 +39,29 @@ import org.movsim.simulator.vehicles.Vehicle;
 public abstract class RoadMapping {
 
     /**
+     * Maps a road position onto a position and direction in real space and writes the result into the given
+     * posTheta. The road mapping itself is not modified, so this method may be called concurrently as long as each
+     * caller supplies its own posTheta.
      * 
      * @param roadPos
      * @param lateralOffset
      *            offset from center of road, used mainly for drawing roadlines and road edges
-     * @return a PosTheta object giving position and direction
+     * @param posTheta
+     *            the object the position and direction is written to
+     * @return the supplied posTheta
      */
-    public abstract PosTheta map(double roadPos, double lateralOffset);
+    public abstract PosTheta map(double roadPos, double lateralOffset, PosTheta posTheta);
+
+    /**
+     * 
+     * @param roadPos
+     * @param lateralOffset
+     *            offset from center of road, used mainly for drawing roadlines and road edges
+     * @return a PosTheta object giving position and direction, this object is shared and reused by the road mapping
+     */
+    public PosTheta map(double roadPos, double lateralOffset) {
+        return map(roadPos, lateralOffset, posTheta);
+    }
 
     // Immutable Properties
     protected LaneGeometries laneGeometries;
@@ -57,7 +73,7 @@ public abstract class RoadMapping {
 
     // Positioning
     // pre-allocate single posTheta for the road mapping. This is shared and reused, so must be used
-    // carefully.
+    // carefully. Callers that need thread safety supply their own posTheta to map().
     protected final PosTheta posTheta = new PosTheta();
     protected double x0;
     protected double y0;
@@ -121,7 +137,18 @@ public abstract class RoadMapping {
      * @return start position of the road for given lateral offset
      */
     public PosTheta startPos(double lateralOffset) {
-        return map(0.0, lateralOffset);
+        return startPos(lateralOffset, posTheta);
+    }
+
+    /**
+     * Writes the start position of the road for a given lateral offset into the given posTheta.
+     * 
+     * @param lateralOffset
+     * @param posTheta
+     * @return the supplied posTheta
+     */
+    public PosTheta startPos(double lateralOffset, PosTheta posTheta) {
+        return map(0.0, lateralOffset, posTheta);
     }
 
     /**
@@ -141,7 +168,18 @@ public abstract class RoadMapping {
      * @return end position of the road for given lateral offset
      */
     public PosTheta endPos(double lateralOffset) {
-        return map(roadLength, lateralOffset);
+        return endPos(lateralOffset, posTheta);
+    }
+
+    /**
+     * Writes the end position of the road for a given lateral offset into the given posTheta.
+     * 
+     * @param lateralOffset
+     * @param posTheta
+     * @return the supplied posTheta
+     */
+    public PosTheta endPos(double lateralOffset, PosTheta posTheta) {
+        return map(roadLength, lateralOffset, posTheta);
     }
 
     /**
@@ -306,8 +344,22 @@ public abstract class RoadMapping {
         return outsideClippingPolygon;
     }
 
-    // FIXME number of operations can be reduced for optimization
     public PolygonFloat mapFloat(PosTheta posTheta, double length, double width) {
+        return mapFloat(posTheta, length, width, polygonFloat);
+    }
+
+    /**
+     * Writes the corners of a rectangle of the given length and width centered at posTheta into the given polygon.
+     * 
+     * @param posTheta
+     * @param length
+     * @param width
+     * @param polygonFloat
+     *            polygon with (at least) four points
+     * @return the supplied polygon
+     */
+    // FIXME number of operations can be reduced for optimization
+    public static PolygonFloat mapFloat(PosTheta posTheta, double length, double width, PolygonFloat polygonFloat) {
         final double lca = 0.5 * length * posTheta.cosTheta;
         final double wsa = 0.5 * width * posTheta.sinTheta;
         // final double xbr = posTheta.x - 0.5 * (lca - wsa); // back right position
@@ -332,6 +384,19 @@ public abstract class RoadMapping {
     }
 
     public PolygonFloat mapLine(PosTheta posTheta, double length) {
+        return mapLine(posTheta, length, lineFloat);
+    }
+
+    /**
+     * Writes a line of the given length perpendicular to the road direction at posTheta into the given polygon.
+     * 
+     * @param posTheta
+     * @param length
+     * @param lineFloat
+     *            polygon with (at least) two points
+     * @return the supplied polygon
+     */
+    public static PolygonFloat mapLine(PosTheta posTheta, double length, PolygonFloat lineFloat) {
         final double wsa = length * posTheta.sinTheta;
         lineFloat.xPoints[0] = (float) (posTheta.x);
         lineFloat.xPoints[1] = (float) (posTheta.x - wsa);
@@ -346,12 +411,26 @@ public abstract class RoadMapping {
      * Returns a polygon with its vertices at the corners of the subject vehicle.
      * 
      * @param vehicle
-     * @return polygon representing vehicle
+     * @return polygon representing vehicle, this object is shared and reused by the road mapping
      */
     public PolygonFloat mapFloat(Vehicle vehicle) {
-        final PosTheta posTheta = map(vehicle.physicalQuantities().getMidPosition(),
-                -laneCenterOffset(vehicle.getContinousLane()));
-        return mapFloat(posTheta, vehicle.physicalQuantities().getLength(), vehicle.physicalQuantities().getWidth());
+        return mapFloat(vehicle, posTheta, polygonFloat);
+    }
+
+    /**
+     * Writes the corners of the subject vehicle into the given polygon. The supplied posTheta is used as scratch
+     * object, so this method may be called concurrently as long as each caller supplies its own objects.
+     * 
+     * @param vehicle
+     * @param posTheta
+     * @param polygonFloat
+     *            polygon with (at least) four points
+     * @return the supplied polygon
+     */
+    public PolygonFloat mapFloat(Vehicle vehicle, PosTheta posTheta, PolygonFloat polygonFloat) {
+        map(vehicle.physicalQuantities().getMidPosition(), -laneCenterOffset(vehicle.getContinousLane()), posTheta);
+        return mapFloat(posTheta, vehicle.physicalQuantities().getLength(), vehicle.physicalQuantities().getWidth(),
+                polygonFloat);
     }
 
     @SuppressWarnings("static-method")
@@ -384,7 +463,7 @@ public abstract class RoadMapping {
          * @param pointCount
          *            number of points in the polygon.
          */
-        PolygonFloat(int pointCount) {
+        public PolygonFloat(int pointCount) {
             this.pointCount = pointCount;
             xPoints = new float[pointCount];
             yPoints = new float[pointCount];
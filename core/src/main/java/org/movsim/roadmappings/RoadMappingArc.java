@@ -85,7 +85,7 @@ public class RoadMappingArc extends RoadMapping {
     }
 
     @Override
-    public PosTheta map(double roadPos, double lateralOffset) {
+    public PosTheta map(double roadPos, double lateralOffset, PosTheta posTheta) {
         // tangent to arc (road direction)
         final double theta = clockwise ? startAngle - roadPos / radius : startAngle + roadPos / radius;
         // angle arc subtends at center
@@ -41,8 +41,9 @@ public class RoadMappingBezier extends RoadMapping {
     protected double p2x;
     protected double p2y;
     // arc length parameterization
-    protected int S_COUNT = 10;
+    protected int S_COUNT = 257;
     protected double sValues[];
+    private ArcLengthTable arcLengthTable;
 
     /**
      * Constructor.
@@ -69,12 +70,23 @@ public class RoadMappingBezier extends RoadMapping {
         p1y = cY;
         p2x = x1;
         p2y = y1;
-        roadLength = bezierLength();
+        init();
         assert !Double.isNaN(roadLength);
     }
 
+    /**
+     * (Re-)computes the road length and the arc length parameterization, needs to be called whenever the curve
+     * points have been changed.
+     */
     protected void init() {
+        sValues = null;
         roadLength = bezierLength();
+        arcLengthTable = new ArcLengthTable(roadLength, new ArcLengthTable.Curve() {
+            @Override
+            public PosTheta map(double roadPos, PosTheta posTheta) {
+                return bezier(roadPosToT(roadPos), posTheta);
+            }
+        });
     }
 
     /**
@@ -108,7 +120,7 @@ public class RoadMappingBezier extends RoadMapping {
         // final double t = length / 2.0;
         p1x = c;
         p1y = d;
-        roadLength = bezierLength();
+        init();
     }
 
     /**
@@ -135,7 +147,7 @@ public class RoadMappingBezier extends RoadMapping {
         p2y = y1;
         // System.out.println("Bezier t=" + (int)t); //$NON-NLS-1$
         // System.out.println("Bezier C=" + (int)p1x + ", " + (int)p1y); //$NON-NLS-1$ //$NON-NLS-2$
-        roadLength = bezierLength();
+        init();
         // road length must be longer than a that of a straight line connecting the two endpoints
         assert roadLength >= Math.sqrt((p2x - p0x) * (p2x - p0x) + (p2y - p0y) * (p2y - p0y));
     }
@@ -193,7 +205,7 @@ public class RoadMappingBezier extends RoadMapping {
     }
 
     @Override
-    public PosTheta endPos() {
+    public PosTheta endPos(double lateralOffset, PosTheta posTheta) {
         posTheta.x = p2x;
         posTheta.y = p2y;
         final double opp = p2y - p1y;
@@ -201,12 +213,6 @@ public class RoadMappingBezier extends RoadMapping {
         final double h = Math.sqrt(opp * opp + adj * adj);
         posTheta.sinTheta = -opp / h;
         posTheta.cosTheta = adj / h;
-        return posTheta;
-    }
-
-    @Override
-    public PosTheta endPos(double lateralOffset) {
-        final PosTheta posTheta = endPos();
         // adjust for the lateral offset
         posTheta.x += lateralOffset * posTheta.sinTheta;
         posTheta.y += lateralOffset * posTheta.cosTheta;
@@ -216,7 +222,7 @@ public class RoadMappingBezier extends RoadMapping {
 
     /**
      * Arc length parameterization. Convert from road position (arc length) to natural Bezier parameter(t) using linear
-     * interpolation of pre-computed arc lengths.
+     * interpolation of pre-computed arc lengths. Only used to build the arc length table.
      * 
      * @param roadPos
      * @return natural Bezier parameter
@@ -259,9 +265,8 @@ public class RoadMappingBezier extends RoadMapping {
     }
 
     @Override
-    public PosTheta map(double roadPos, double lateralOffset) {
-        final double t = roadPosToT(roadPos);
-        bezier(t);
+    public PosTheta map(double roadPos, double lateralOffset, PosTheta posTheta) {
+        arcLengthTable.map(roadPos, posTheta);
         // and finally adjust for the lateral offset
         posTheta.x += lateralOffset * posTheta.sinTheta;
         posTheta.y += lateralOffset * posTheta.cosTheta;
@@ -269,7 +274,7 @@ public class RoadMappingBezier extends RoadMapping {
         return posTheta;
     }
 
-    private PosTheta bezier(double t) {
+    private PosTheta bezier(double t, PosTheta posTheta) {
         // see http://www.cubic.org/docs/bezier.htm for a good visual explanation of the
         // the DeCasteljau algorithm for evaluating points on a Bezier curve
         // calculate the interpolated point between p0 and p1
@@ -291,7 +296,7 @@ public class RoadMappingBezier extends RoadMapping {
         return posTheta;
     }
 
-    private PosTheta bezierPos(double t) {
+    private PosTheta bezierPos(double t, PosTheta posTheta) {
         // see http://www.cubic.org/docs/bezier.htm for a good visual explanation of the
         // the DeCasteljau algorithm for evaluating points on a Bezier curve
         // calculate the interpolated point between p0 and p1
@@ -313,12 +318,12 @@ public class RoadMappingBezier extends RoadMapping {
             final double dt = 1.0 / (S_COUNT - 1);
             double t = 0.0;
             sValues[0] = 0.0;
-            PosTheta p = bezierPos(t);
+            PosTheta p = bezierPos(t, posTheta);
             double x0 = p.x;
             double y0 = p.y;
             for (int i = 1; i < S_COUNT; ++i) {
                 t += dt;
-                p = bezierPos(t);
+                p = bezierPos(t, posTheta);
                 final double dx = x0 - p.x;
                 final double dy = y0 - p.y;
                 sValues[i] = sValues[i - 1] + Math.sqrt(dx * dx + dy * dy);
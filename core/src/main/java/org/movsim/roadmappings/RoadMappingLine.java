@@ -44,6 +44,9 @@ public class RoadMappingLine extends RoadMapping {
 
     protected double x1;
     protected double y1;
+    // direction of line
+    protected double cosTheta;
+    protected double sinTheta;
 
     /**
      * Constructor.
@@ -84,10 +87,10 @@ public class RoadMappingLine extends RoadMapping {
     RoadMappingLine(LaneGeometries laneGeometries, double s, double x0, double y0, double theta, double length) {
         super(laneGeometries, x0, y0);
         roadLength = length;
-        posTheta.sinTheta = Math.sin(theta);
-        posTheta.cosTheta = Math.cos(theta);
-        x1 = x0 + length * posTheta.cosTheta;
-        y1 = y0 + length * posTheta.sinTheta;
+        sinTheta = Math.sin(theta);
+        cosTheta = Math.cos(theta);
+        x1 = x0 + length * cosTheta;
+        y1 = y0 + length * sinTheta;
     }
 
     /**
@@ -129,8 +132,8 @@ public class RoadMappingLine extends RoadMapping {
         final double opp = y1 - y0;
         final double adj = x1 - x0;
         roadLength = Math.sqrt(opp * opp + adj * adj);
-        posTheta.sinTheta = -opp / roadLength;
-        posTheta.cosTheta = adj / roadLength;
+        sinTheta = -opp / roadLength;
+        cosTheta = adj / roadLength;
     }
 
     protected void moveStart(double dx, double dy) {
@@ -139,10 +142,12 @@ public class RoadMappingLine extends RoadMapping {
     }
 
     @Override
-    public PosTheta map(double roadPos, double lateralOffset) {
+    public PosTheta map(double roadPos, double lateralOffset, PosTheta posTheta) {
         // lateralOffset offset is perpendicular to road, offset to right < 0!
-        posTheta.x = x0 + roadPos * posTheta.cosTheta - lateralOffset * posTheta.sinTheta;
-        posTheta.y = y0 + roadPos * posTheta.sinTheta + lateralOffset * posTheta.cosTheta;
+        posTheta.cosTheta = cosTheta;
+        posTheta.sinTheta = sinTheta;
+        posTheta.x = x0 + roadPos * cosTheta - lateralOffset * sinTheta;
+        posTheta.y = y0 + roadPos * sinTheta + lateralOffset * cosTheta;
         return posTheta;
     }
 
@@ -19,16 +19,16 @@ public class RoadMappingPeer extends RoadMapping {
     }
 
     @Override
-    public PosTheta map(double roadPos, double lateralOffset) {
+    public PosTheta map(double roadPos, double lateralOffset, PosTheta posTheta) {
         // counterdirection simply be inverting roadPos
-        return roadMapping.map(roadLength - roadPos, lateralOffset);
+        return roadMapping.map(roadLength - roadPos, lateralOffset, posTheta);
     }
 
     @Override
-    public PolygonFloat mapFloat(Vehicle vehicle) {
-        final PosTheta posTheta = map(vehicle.physicalQuantities().getMidPosition(),
-                laneCenterOffset(vehicle.getContinousLane()));
-        return mapFloat(posTheta, vehicle.physicalQuantities().getLength(), vehicle.physicalQuantities().getWidth());
+    public PolygonFloat mapFloat(Vehicle vehicle, PosTheta posTheta, PolygonFloat polygonFloat) {
+        map(vehicle.physicalQuantities().getMidPosition(), laneCenterOffset(vehicle.getContinousLane()), posTheta);
+        return mapFloat(posTheta, vehicle.physicalQuantities().getLength(), vehicle.physicalQuantities().getWidth(),
+                polygonFloat);
     }
 
     @Override
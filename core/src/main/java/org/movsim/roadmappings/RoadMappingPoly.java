@@ -42,6 +42,7 @@ public class RoadMappingPoly extends RoadMapping implements Iterable<RoadMapping
     private static final Logger LOG = LoggerFactory.getLogger(RoadMappingPoly.class);
 
     protected final ArrayList<RoadMapping> roadMappings = new ArrayList<>();
+    private final CumulativeRoadLengths roadMappingLengths = new CumulativeRoadLengths();
 
     @Override
     public Iterator<RoadMapping> iterator() {
@@ -60,7 +61,7 @@ public class RoadMappingPoly extends RoadMapping implements Iterable<RoadMapping
         super(laneGeometries, x0, y0);
         final RoadMapping roadMapping = new RoadMappingLine(laneGeometries, x0, y0, x1, y1);
         roadLength = roadMapping.roadLength();
-        roadMappings.add(roadMapping);
+        addRoadMapping(roadMapping);
     }
 
     /**
@@ -70,51 +71,44 @@ public class RoadMappingPoly extends RoadMapping implements Iterable<RoadMapping
     @Override
     protected void onLowMemory() {
         roadMappings.trimToSize();
+        roadMappingLengths.trimToSize();
     }
 
-    @Override
-    public PosTheta startPos() {
-        return roadMappings.get(0).startPos();
+    private void addRoadMapping(RoadMapping roadMapping) {
+        roadMappings.add(roadMapping);
+        roadMappingLengths.add(roadMapping.roadLength());
     }
 
     @Override
-    public PosTheta startPos(double lateralOffset) {
-        return roadMappings.get(0).startPos(lateralOffset);
+    public PosTheta startPos() {
+        return roadMappings.get(0).startPos();
     }
 
     @Override
-    public PosTheta endPos() {
-        return roadMappings.get(roadMappings.size() - 1).endPos();
+    public PosTheta startPos(double lateralOffset, PosTheta posTheta) {
+        return roadMappings.get(0).startPos(lateralOffset, posTheta);
     }
 
     @Override
-    public PosTheta endPos(double lateralOffset) {
-        return roadMappings.get(roadMappings.size() - 1).endPos(lateralOffset);
+    public PosTheta endPos(double lateralOffset, PosTheta posTheta) {
+        return roadMappings.get(roadMappings.size() - 1).endPos(lateralOffset, posTheta);
     }
 
     @Override
-    public PosTheta map(double roadPos, double lateralOffset) {
-
-        double pos = roadPos;
-        for (final RoadMapping roadMapping : roadMappings) {
-            if (pos <= roadMapping.roadLength()) {
-                return roadMapping.map(pos, lateralOffset);
-            }
-            pos -= roadMapping.roadLength();
-        }
-        // have gone past end of last road mapping in road segment
+    public PosTheta map(double roadPos, double lateralOffset, PosTheta posTheta) {
+        // if roadPos is beyond the end of the last road mapping in road segment use the last road mapping:
         // this can happen by up to half a vehicle length - vehicle's rear position is
         // on road mapping, but vehicle's mid position (which is used for drawing) has
         // gone past the end, so fix this as a special case.
-        final RoadMapping roadMapping = roadMappings.get(roadMappings.size() - 1);
-        return roadMapping.map(pos + roadMapping.roadLength(), lateralOffset);
+        final int index = Math.min(roadMappingLengths.indexOf(roadPos), roadMappings.size() - 1);
+        return roadMappings.get(index).map(roadPos - roadMappingLengths.start(index), lateralOffset, posTheta);
     }
 
     public void addLinePoint(double x, double y) {
         final RoadMapping lastRoadMapping = roadMappings.get(roadMappings.size() - 1);
         final RoadMappingLine roadMapping = new RoadMappingLine(lastRoadMapping, this.laneGeometries, x, y);
         roadLength += roadMapping.roadLength();
-        roadMappings.add(roadMapping);
+        addRoadMapping(roadMapping);
     }
 
     public void addLinePointRelative(double dx, double dy) {
@@ -123,13 +117,13 @@ public class RoadMappingPoly extends RoadMapping implements Iterable<RoadMapping
         final RoadMappingLine roadMapping = new RoadMappingLine(lastRoadMapping, this.laneGeometries, posTheta.x + dx,
                 posTheta.y + dy);
         roadLength += roadMapping.roadLength();
-        roadMappings.add(roadMapping);
+        addRoadMapping(roadMapping);
     }
 
     public void addLine(double s, double x0, double y0, double theta, double length) {
         final RoadMappingLine roadMapping = new RoadMappingLine(this.laneGeometries, s, x0, y0, theta, length);
         roadLength += length;
-        roadMappings.add(roadMapping);
+        addRoadMapping(roadMapping);
     }
 
     public void addLine(Geometry geometry) {
@@ -145,7 +139,7 @@ public class RoadMappingPoly extends RoadMapping implements Iterable<RoadMapping
         // RoadMappingArc(laneCount, s, x0, y0, theta, length, curvature) {
         final RoadMappingArc roadMapping = new RoadMappingArc(this.laneGeometries, s, x0, y0, theta, length, curvature);
         roadLength += length;
-        roadMappings.add(roadMapping);
+        addRoadMapping(roadMapping);
     }
 
     public void addArc(Geometry geometry) {
@@ -158,7 +152,7 @@ public class RoadMappingPoly extends RoadMapping implements Iterable<RoadMapping
         final RoadMappingSpiral roadMapping = new RoadMappingSpiral(this.laneGeometries, s, x0, y0, theta, length,
                 startCurvature, endCurvature);
         roadLength += length;
-        roadMappings.add(roadMapping);
+        addRoadMapping(roadMapping);
     }
 
     public void addSpiral(Geometry geometry) {
@@ -170,7 +164,7 @@ public class RoadMappingPoly extends RoadMapping implements Iterable<RoadMapping
             double d) {
         RoadMappingBezier roadMapping = new RoadMappingBezier(laneGeometries, s, x0, y0, theta, length, a, b, c, d);
         roadLength += length;
-        roadMappings.add(roadMapping);
+        addRoadMapping(roadMapping);
     }
 
     public void add(RoadGeometry roadGeometry) {
@@ -181,7 +175,6 @@ public class RoadMappingPoly extends RoadMapping implements Iterable<RoadMapping
         } else if (roadGeometry.geometryType() == GeometryType.POLY3) {
             throw new IllegalArgumentException("POLY3 geometry not yet supported");
         } else if (roadGeometry.geometryType() == GeometryType.SPIRAL) {
-            LOG.warn("SPIRAL geometry not yet fully supported but approximated by an arc");
             addSpiral(roadGeometry.geometry());
         } else {
             throw new IllegalArgumentException("Unknown geometry");
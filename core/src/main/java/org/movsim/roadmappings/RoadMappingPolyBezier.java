@@ -39,6 +39,7 @@ public class RoadMappingPolyBezier extends RoadMapping implements Iterable<RoadM
     public static final int RELATIVE_CALCULATE_CONTROL_POINTS = 2;
 
     private final ArrayList<RoadMappingBezier> roadMappings = new ArrayList<>();
+    private final CumulativeRoadLengths roadMappingLengths = new CumulativeRoadLengths();
 
     @Override
     public Iterator<RoadMappingBezier> iterator() {
@@ -61,7 +62,7 @@ public class RoadMappingPolyBezier extends RoadMapping implements Iterable<RoadM
         super(laneGeometries, x0, y0);
         final RoadMappingBezier roadMapping = new RoadMappingBezier(laneGeometries, x0, y0, x1, y1, cX, cY);
         roadLength = roadMapping.roadLength();
-        roadMappings.add(roadMapping);
+        addRoadMapping(roadMapping);
     }
 
     /**
@@ -84,7 +85,7 @@ public class RoadMappingPolyBezier extends RoadMapping implements Iterable<RoadM
         final RoadMappingBezier roadMapping = new RoadMappingBezier(laneGeometries, s, x0, y0, theta, length, a, b, c,
                 d);
         roadLength = length;
-        roadMappings.add(roadMapping);
+        addRoadMapping(roadMapping);
     }
 
     /**
@@ -101,7 +102,7 @@ public class RoadMappingPolyBezier extends RoadMapping implements Iterable<RoadM
         final RoadMappingBezier roadMapping = new RoadMappingBezier(laneGeometries, values[0], values[1], values[2],
                 values[3], values[4], values[5]);
         roadLength = roadMapping.roadLength();
-        roadMappings.add(roadMapping);
+        addRoadMapping(roadMapping);
         if (valuesType == ABSOLUTE_POINTS) {
             for (int i = 6; i < values.length; i += 3) {
                 addPoint(values[i], values[i + 1], values[i + 2]);
@@ -125,43 +126,41 @@ public class RoadMappingPolyBezier extends RoadMapping implements Iterable<RoadM
     @Override
     protected void onLowMemory() {
         roadMappings.trimToSize();
+        roadMappingLengths.trimToSize();
     }
 
-    @Override
-    public PosTheta startPos() {
-        return roadMappings.get(0).startPos();
+    private void addRoadMapping(RoadMappingBezier roadMapping) {
+        roadMappings.add(roadMapping);
+        roadMappingLengths.add(roadMapping.roadLength());
     }
 
     @Override
-    public PosTheta startPos(double lateralOffset) {
-        return roadMappings.get(0).startPos(lateralOffset);
+    public PosTheta startPos() {
+        return roadMappings.get(0).startPos();
     }
 
     @Override
-    public PosTheta endPos() {
-        return roadMappings.get(roadMappings.size() - 1).endPos();
+    public PosTheta startPos(double lateralOffset, PosTheta posTheta) {
+        return roadMappings.get(0).startPos(lateralOffset, posTheta);
     }
 
     @Override
-    public PosTheta endPos(double lateralOffset) {
-        return roadMappings.get(roadMappings.size() - 1).endPos(lateralOffset);
+    public PosTheta endPos(double lateralOffset, PosTheta posTheta) {
+        return roadMappings.get(roadMappings.size() - 1).endPos(lateralOffset, posTheta);
     }
 
     @Override
-    public PosTheta map(double roadPos, double lateralOffset) {
-
-        double pos = roadPos;
-        for (final RoadMappingBezier roadMapping : roadMappings) {
-            if (pos <= roadMapping.roadLength()) {
-                return roadMapping.map(pos, lateralOffset);
-            }
-            pos -= roadMapping.roadLength();
+    public PosTheta map(double roadPos, double lateralOffset, PosTheta posTheta) {
+        final int index = roadMappingLengths.indexOf(roadPos);
+        if (index < roadMappings.size()) {
+            return roadMappings.get(index).map(roadPos - roadMappingLengths.start(index), lateralOffset, posTheta);
         }
         // have gone past end of last road mapping in road segment
         // this can happen by up to half a vehicle length - vehicle's rear position is
         // on road mapping, but vehicle's mid position (which is used for drawing) has
         // gone past the end, so fix this as a special case.
-        final PosTheta posTheta = endPos(lateralOffset);
+        final double pos = roadPos - roadMappingLengths.start(index);
+        endPos(lateralOffset, posTheta);
         posTheta.x += pos * posTheta.cosTheta;
         posTheta.y -= pos * posTheta.sinTheta;
         return posTheta;
@@ -172,7 +171,7 @@ public class RoadMappingPolyBezier extends RoadMapping implements Iterable<RoadM
         final RoadMappingBezier lastRoadMapping = roadMappings.get(roadMappings.size() - 1);
         final RoadMappingBezier roadMapping = new RoadMappingBezier(lastRoadMapping, this.laneGeometries, x, y, t);
         roadLength += roadMapping.roadLength();
-        roadMappings.add(roadMapping);
+        addRoadMapping(roadMapping);
     }
 
     public void addPoint(double s, double x0, double y0, double theta, double length, double a, double b, double c,
@@ -180,7 +179,7 @@ public class RoadMappingPolyBezier extends RoadMapping implements Iterable<RoadM
         final RoadMappingBezier roadMapping = new RoadMappingBezier(this.laneGeometries, s, x0, y0, theta, length, a,
                 b, c, d);
         roadLength += length;
-        roadMappings.add(roadMapping);
+        addRoadMapping(roadMapping);
     }
 
     public void addPointRelative(double dx, double dy, double t) {
@@ -190,7 +189,7 @@ public class RoadMappingPolyBezier extends RoadMapping implements Iterable<RoadM
         final RoadMappingBezier roadMapping = new RoadMappingBezier(lastRoadMapping, this.laneGeometries, posTheta.x
                 + dx, posTheta.y + dy, t);
         roadLength += roadMapping.roadLength();
-        roadMappings.add(roadMapping);
+        addRoadMapping(roadMapping);
     }
 
     public void addPointRelative(double dx, double dy) {
@@ -210,7 +209,7 @@ public class RoadMappingPolyBezier extends RoadMapping implements Iterable<RoadM
         final RoadMappingBezier roadMapping = new RoadMappingBezier(lastRoadMapping, this.laneGeometries, posTheta.x
                 + dx, posTheta.y + dy, t);
         roadLength += roadMapping.roadLength();
-        roadMappings.add(roadMapping);
+        addRoadMapping(roadMapping);
     }
 
     public void movePoint(int index, double dx, double dy) {
@@ -227,5 +226,6 @@ public class RoadMappingPolyBezier extends RoadMapping implements Iterable<RoadM
         for (final RoadMapping roadMapping : roadMappings) {
             roadLength += roadMapping.roadLength();
         }
+        roadMappingLengths.reset(roadMappings);
     }
 }
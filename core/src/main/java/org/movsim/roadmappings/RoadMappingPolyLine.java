@@ -38,6 +38,7 @@ public class RoadMappingPolyLine extends RoadMapping implements Iterable<RoadMap
     public static final int ABSOLUTE_POINTS = 1;
 
     protected final ArrayList<RoadMappingLine> roadMappings = new ArrayList<>();
+    private final CumulativeRoadLengths roadMappingLengths = new CumulativeRoadLengths();
 
     @Override
     public Iterator<RoadMappingLine> iterator() {
@@ -57,7 +58,7 @@ public class RoadMappingPolyLine extends RoadMapping implements Iterable<RoadMap
         super(laneGeometries, x0, y0);
         final RoadMappingLine roadMapping = new RoadMappingLine(laneGeometries, x0, y0, x1, y1);
         roadLength = roadMapping.roadLength();
-        roadMappings.add(roadMapping);
+        addRoadMapping(roadMapping);
     }
 
     /**
@@ -74,7 +75,7 @@ public class RoadMappingPolyLine extends RoadMapping implements Iterable<RoadMap
         super(laneGeometries, x0, y0);
         final RoadMappingLine roadMapping = new RoadMappingLine(laneGeometries, s, x0, y0, theta, length);
         roadLength = length;
-        roadMappings.add(roadMapping);
+        addRoadMapping(roadMapping);
     }
 
     /**
@@ -91,7 +92,7 @@ public class RoadMappingPolyLine extends RoadMapping implements Iterable<RoadMap
         final RoadMappingLine roadMapping = new RoadMappingLine(laneGeometries, values[0], values[1], values[2],
                 values[3]);
         roadLength = roadMapping.roadLength();
-        roadMappings.add(roadMapping);
+        addRoadMapping(roadMapping);
         if (valuesType == RELATIVE_POINTS) {
             for (int i = 4; i < values.length; i += 2) {
                 addPointRelative(values[i], values[i + 1]);
@@ -110,57 +111,50 @@ public class RoadMappingPolyLine extends RoadMapping implements Iterable<RoadMap
     @Override
     protected void onLowMemory() {
         roadMappings.trimToSize();
+        roadMappingLengths.trimToSize();
     }
 
-    @Override
-    public PosTheta startPos() {
-        return roadMappings.get(0).startPos();
+    private void addRoadMapping(RoadMappingLine roadMapping) {
+        roadMappings.add(roadMapping);
+        roadMappingLengths.add(roadMapping.roadLength());
     }
 
     @Override
-    public PosTheta startPos(double lateralOffset) {
-        return roadMappings.get(0).startPos(lateralOffset);
+    public PosTheta startPos() {
+        return roadMappings.get(0).startPos();
     }
 
     @Override
-    public PosTheta endPos() {
-        return roadMappings.get(roadMappings.size() - 1).endPos();
+    public PosTheta startPos(double lateralOffset, PosTheta posTheta) {
+        return roadMappings.get(0).startPos(lateralOffset, posTheta);
     }
 
     @Override
-    public PosTheta endPos(double lateralOffset) {
-        return roadMappings.get(roadMappings.size() - 1).endPos(lateralOffset);
+    public PosTheta endPos(double lateralOffset, PosTheta posTheta) {
+        return roadMappings.get(roadMappings.size() - 1).endPos(lateralOffset, posTheta);
     }
 
     @Override
-    public PosTheta map(double roadPos, double lateralOffset) {
-
-        double pos = roadPos;
-        for (final RoadMapping roadMapping : roadMappings) {
-            if (pos <= roadMapping.roadLength()) {
-                return roadMapping.map(pos, lateralOffset);
-            }
-            pos -= roadMapping.roadLength();
-        }
-        // have gone past end of last road mapping in road segment
+    public PosTheta map(double roadPos, double lateralOffset, PosTheta posTheta) {
+        // if roadPos is beyond the end of the last road mapping in road segment use the last road mapping:
         // this can happen by up to half a vehicle length - vehicle's rear position is
         // on road mapping, but vehicle's mid position (which is used for drawing) has
         // gone past the end, so fix this as a special case.
-        final RoadMapping roadMapping = roadMappings.get(roadMappings.size() - 1);
-        return roadMapping.map(pos + roadMapping.roadLength(), lateralOffset);
+        final int index = Math.min(roadMappingLengths.indexOf(roadPos), roadMappings.size() - 1);
+        return roadMappings.get(index).map(roadPos - roadMappingLengths.start(index), lateralOffset, posTheta);
     }
 
     public void addPoint(double x, double y) {
         final RoadMapping lastRoadMapping = roadMappings.get(roadMappings.size() - 1);
         final RoadMappingLine roadMapping = new RoadMappingLine(lastRoadMapping, this.laneGeometries, x, y);
         roadLength += roadMapping.roadLength();
-        roadMappings.add(roadMapping);
+        addRoadMapping(roadMapping);
     }
 
     public void addPoint(double s, double x0, double y0, double theta, double length) {
         final RoadMappingLine roadMapping = new RoadMappingLine(this.laneGeometries, s, x0, y0, theta, length);
         roadLength += length;
-        roadMappings.add(roadMapping);
+        addRoadMapping(roadMapping);
     }
 
     public void addPointRelative(double dx, double dy) {
@@ -169,7 +163,7 @@ public class RoadMappingPolyLine extends RoadMapping implements Iterable<RoadMap
         final RoadMappingLine roadMapping = new RoadMappingLine(lastRoadMapping, this.laneGeometries, posTheta.x + dx,
                 posTheta.y + dy);
         roadLength += roadMapping.roadLength();
-        roadMappings.add(roadMapping);
+        addRoadMapping(roadMapping);
     }
 
     public void movePoint(int index, double dx, double dy) {
@@ -185,6 +179,7 @@ public class RoadMappingPolyLine extends RoadMapping implements Iterable<RoadMap
         for (final RoadMapping roadMapping : roadMappings) {
             roadLength += roadMapping.roadLength();
         }
+        roadMappingLengths.reset(roadMappings);
     }
 
     @Override
@@ -26,20 +26,132 @@
 
 package org.movsim.roadmappings;
 
+import org.movsim.network.autogen.opendrive.OpenDRIVE.Road.PlanView.Geometry;
+
 /**
- * Maps a road segment onto a spiral.
+ * Maps a road segment onto a spiral (clothoid), that is a curve whose curvature changes linearly from the start
+ * curvature to the end curvature. Angles and curvatures are interpreted as in {@link RoadMappingArc}.
+ * 
+ * <p>
+ * The spiral has no closed form, so its center line is integrated numerically once and stored in an
+ * {@link ArcLengthTable}.
+ * </p>
  */
-// TODO - spiral is approximated by an arc - fix to use proper spiral
-public class RoadMappingSpiral extends RoadMappingArc {
-    double startCurvature;
-    double endCurvature;
+public class RoadMappingSpiral extends RoadMapping {
+
+    // maximum integration step (m) used when building the arc length table
+    private static final double INTEGRATION_STEP = 0.25;
+
+    protected final double startAngle;
+    protected final double startCurvature;
+    protected final double endCurvature;
+    private final ArcLengthTable arcLengthTable;
+
+    public static RoadMappingSpiral create(RoadGeometry roadGeometry) {
+        return create(roadGeometry.getLaneGeometries(), roadGeometry.geometry());
+    }
+
+    private static RoadMappingSpiral create(LaneGeometries laneGeometries, Geometry geometry) {
+        return new RoadMappingSpiral(laneGeometries, geometry.getS(), geometry.getX(), geometry.getY(),
+                geometry.getHdg(), geometry.getLength(), geometry.getSpiral().getCurvStart(), geometry.getSpiral()
+                        .getCurvEnd());
+    }
 
+    /**
+     * Constructor.
+     * 
+     * @param laneGeometries
+     * @param s
+     * @param x0
+     *            start of spiral, x coordinate
+     * @param y0
+     *            start of spiral, y coordinate
+     * @param theta
+     *            start direction of spiral
+     * @param length
+     *            length of spiral
+     * @param startCurvature
+     *            curvature at start of spiral
+     * @param endCurvature
+     *            curvature at end of spiral
+     */
     RoadMappingSpiral(LaneGeometries laneGeometries, double s, double x0, double y0, double theta, double length,
             double startCurvature, double endCurvature) {
-        super(laneGeometries, s, x0, y0, theta, length, (startCurvature + endCurvature) / 2.0);
+        super(laneGeometries, x0, y0);
+        this.startAngle = theta;
         this.startCurvature = startCurvature;
         this.endCurvature = endCurvature;
         roadLength = length;
+        arcLengthTable = new ArcLengthTable(roadLength, new Integrator());
+    }
+
+    /**
+     * Returns the direction of the spiral at the given road position.
+     * 
+     * @param roadPos
+     * @return direction, radians
+     */
+    private double heading(double roadPos) {
+        final double curvatureChange = roadLength > 0 ? (endCurvature - startCurvature) / roadLength : 0;
+        return startAngle + roadPos * (startCurvature + 0.5 * curvatureChange * roadPos);
+    }
+
+    /**
+     * Integrates the direction of the spiral using Simpson's rule. The integration continues from the previously
+     * requested road position, so that a pass over the arc length table integrates the spiral only once. A smaller road
+     * position restarts the integration at the start of the spiral.
+     */
+    private final class Integrator implements ArcLengthTable.Curve {
+        private double roadPos;
+        private double x = x0;
+        private double y = y0;
+
+        @Override
+        public PosTheta map(double newRoadPos, PosTheta posTheta) {
+            if (newRoadPos < roadPos) {
+                roadPos = 0;
+                x = x0;
+                y = y0;
+            }
+            final double length = newRoadPos - roadPos;
+            final int n = 2 * Math.max(1, (int) Math.ceil(0.5 * length / INTEGRATION_STEP));
+            final double h = length / n;
+            double sumX = Math.cos(heading(roadPos)) + Math.cos(heading(newRoadPos));
+            double sumY = Math.sin(heading(roadPos)) + Math.sin(heading(newRoadPos));
+            for (int i = 1; i < n; ++i) {
+                final double weight = (i % 2 == 0) ? 2 : 4;
+                final double theta = heading(roadPos + i * h);
+                sumX += weight * Math.cos(theta);
+                sumY += weight * Math.sin(theta);
+            }
+            x += sumX * h / 3;
+            y += sumY * h / 3;
+            roadPos = newRoadPos;
+            final double theta = heading(newRoadPos);
+            posTheta.x = x;
+            posTheta.y = y;
+            posTheta.cosTheta = Math.cos(theta);
+            posTheta.sinTheta = Math.sin(theta);
+            return posTheta;
+        }
+    }
+
+    @Override
+    public PosTheta map(double roadPos, double lateralOffset, PosTheta posTheta) {
+        arcLengthTable.map(roadPos, posTheta);
+        // lateralOffset is perpendicular to road
+        posTheta.x -= lateralOffset * posTheta.sinTheta;
+        posTheta.y += lateralOffset * posTheta.cosTheta;
+        return posTheta;
+    }
+
+    /**
+     * Returns the start angle of the spiral.
+     * 
+     * @return the start angle of the spiral, radians
+     */
+    public double startAngle() {
+        return startAngle;
     }
 
     public double startCurvature() {
@@ -49,4 +161,10 @@ public class RoadMappingSpiral extends RoadMappingArc {
     public double endCurvature() {
         return endCurvature;
     }
+
+    @Override
+    public String toString() {
+        return "RoadMappingSpiral [x0=" + x0 + ", y0=" + y0 + ", startAngle=" + startAngle + ", startCurvature="
+                + startCurvature + ", endCurvature=" + endCurvature + ", " + arcLengthTable + "]";
+    }
 }
@@ -36,7 +36,7 @@ public final class RoadMappingUtils {
         } else if (roadGeometry.geometry().isSetPoly3()) {
             throw new IllegalArgumentException("POLY3 geometry not yet supported. ");
         } else if (roadGeometry.geometry().isSetSpiral()) {
-            throw new IllegalArgumentException("SPIRAL geometry not yet supported. ");
+            roadMapping = RoadMappingSpiral.create(roadGeometry);
         } else {
             throw new IllegalArgumentException("Unknown geometry: " + roadGeometry.geometry());
         }
@@ -0,0 +1,283 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.simulator;
+
+import java.util.concurrent.TimeUnit;
+
+import org.movsim.simulator.roadnetwork.controller.RoadObject.RoadObjectType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Low-overhead wall-clock instrumentation of the simulation update. Accumulates the time spent in the phases of the
+ * update step, in the {@link RoadObjectType}s and in the output modules, based on {@link System#nanoTime()}.
+ * 
+ * <p>
+ * Usage pattern: {@code long start = metrics.tic(); ... metrics.toc(Phase.XY, start);}. If the metrics are disabled
+ * {@code tic} returns immediately and {@code toc} does nothing, so that the instrumented code paths can remain in the
+ * simulation loop.
+ * </p>
+ */
+public final class PerformanceMetrics {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PerformanceMetrics.class);
+
+    /**
+     * Phases of a simulation update step in their order of execution. Each phase is measured once per step, so the
+     * shares do not overlap.
+     */
+    public enum Phase {
+        TRAFFIC_LIGHTS, REGULATORS, TRAVEL_TIME_ROUTING, EXTERNAL_VEHICLES, ROAD_OBJECTS, ROUTING_DECISIONS,
+        LANE_CHANGES, ACCELERATIONS, POSITIONS_AND_SPEEDS, INCONSISTENCY_CHECK, OUTFLOW, INFLOW_AND_SIGNAL_POINTS,
+        TRAVEL_TIME_ESTIMATES, OUTPUT;
+    }
+
+    /** Output modules updated in {@link org.movsim.output.SimulationOutput}. */
+    public enum OutputModule {
+        FLOATING_CARS, SPATIO_TEMPORAL, TRAJECTORIES, TRAVEL_TIMES, INDIVIDUAL_TRAVEL_TIMES, CONSUMPTION,
+        SERVICE_PROVIDERS;
+    }
+
+    /** Callback for writing the summaries, e.g. to file. */
+    public interface RecordDataCallback {
+        void recordData(double simulationTime, PerformanceMetrics metrics);
+    }
+
+    private static final PerformanceMetrics DISABLED = new PerformanceMetrics(false, 0);
+
+    private final boolean enabled;
+
+    private final long summaryInterval;
+
+    private final long[] phaseNanos = new long[Phase.values().length];
+
+    private final long[] roadObjectNanos = new long[RoadObjectType.values().length];
+
+    private final long[] outputNanos = new long[OutputModule.values().length];
+
+    private long totalNanos;
+
+    private long iterations;
+
+    private long vehicleUpdates;
+
+    private long routingQueries;
+
+    private long routingQueryNanos;
+
+    private double simulationTime;
+
+    private RecordDataCallback recorder;
+
+    /**
+     * Constructor.
+     * 
+     * @param enabled
+     *            if false, all calls are no-ops
+     * @param summaryInterval
+     *            number of update steps between intermediate summaries, 0 for a summary at the end of the simulation only
+     */
+    public PerformanceMetrics(boolean enabled, long summaryInterval) {
+        this.enabled = enabled;
+        this.summaryInterval = summaryInterval;
+    }
+
+    /**
+     * Returns a shared, disabled instance.
+     * 
+     * @return disabled performance metrics
+     */
+    public static PerformanceMetrics disabled() {
+        return DISABLED;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setRecorder(RecordDataCallback recorder) {
+        this.recorder = recorder;
+    }
+
+    public long tic() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    public void toc(Phase phase, long start) {
+        if (enabled) {
+            phaseNanos[phase.ordinal()] += System.nanoTime() - start;
+        }
+    }
+
+    public void toc(RoadObjectType type, long start) {
+        if (enabled) {
+            roadObjectNanos[type.ordinal()] += System.nanoTime() - start;
+        }
+    }
+
+    public void toc(OutputModule module, long start) {
+        if (enabled) {
+            outputNanos[module.ordinal()] += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Adds the number of vehicles updated in the current step.
+     * 
+     * @param vehicleCount
+     */
+    public void addVehicleUpdates(int vehicleCount) {
+        if (enabled) {
+            vehicleUpdates += vehicleCount;
+        }
+    }
+
+    /**
+     * Adds a shortest-path query of the routing. The query time is not part of the phase shares since queries are
+     * issued from several phases.
+     * 
+     * @param start
+     *            the {@link #tic()} at the beginning of the query
+     */
+    public void addRoutingQuery(long start) {
+        if (enabled) {
+            routingQueryNanos += System.nanoTime() - start;
+            routingQueries++;
+        }
+    }
+
+    /**
+     * Finishes an update step and writes an intermediate summary if the summary interval is reached.
+     * 
+     * @param start
+     *            the {@link #tic()} at the beginning of the whole update step
+     * @param simulationTime
+     */
+    public void stepCompleted(long start, double simulationTime) {
+        if (!enabled) {
+            return;
+        }
+        totalNanos += System.nanoTime() - start;
+        iterations++;
+        this.simulationTime = simulationTime;
+        if (summaryInterval > 0 && iterations % summaryInterval == 0) {
+            record();
+        }
+    }
+
+    /**
+     * Writes the final summary.
+     */
+    public void simulationCompleted() {
+        if (!enabled) {
+            return;
+        }
+        record();
+        LOG.info(toString());
+    }
+
+    private void record() {
+        if (recorder != null) {
+            recorder.recordData(simulationTime, this);
+        }
+    }
+
+    public long iterations() {
+        return iterations;
+    }
+
+    public long vehicleUpdates() {
+        return vehicleUpdates;
+    }
+
+    public long routingQueries() {
+        return routingQueries;
+    }
+
+    /**
+     * @return the wall-clock time spent in routing queries (s)
+     */
+    public double routingQueryTime() {
+        return toSeconds(routingQueryNanos);
+    }
+
+    /**
+     * @return the wall-clock time spent in the update steps (s)
+     */
+    public double wallTime() {
+        return toSeconds(totalNanos);
+    }
+
+    public double vehicleUpdatesPerSecond() {
+        return totalNanos == 0 ? 0 : vehicleUpdates / wallTime();
+    }
+
+    /**
+     * @return ratio of simulated time to wall-clock time
+     */
+    public double realTimeFactor() {
+        return totalNanos == 0 ? 0 : simulationTime / wallTime();
+    }
+
+    public double wallTime(Phase phase) {
+        return toSeconds(phaseNanos[phase.ordinal()]);
+    }
+
+    public double wallTime(RoadObjectType type) {
+        return toSeconds(roadObjectNanos[type.ordinal()]);
+    }
+
+    public double wallTime(OutputModule module) {
+        return toSeconds(outputNanos[module.ordinal()]);
+    }
+
+    private static double toSeconds(long nanos) {
+        return nanos / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("performance metrics: iterations=%d, wall time=%.3fs, real-time factor=%.2f, "
+                + "vehicle updates=%d (%.0f per second)%n", iterations, wallTime(), realTimeFactor(), vehicleUpdates,
+                vehicleUpdatesPerSecond()));
+        sb.append(String.format("  routing queries=%d, query time=%.3fs (%.1f microseconds per query)%n",
+                routingQueries, routingQueryTime(), routingQueries == 0 ? 0 : 1e-3 * routingQueryNanos
+                        / routingQueries));
+        appendShares(sb, "phase", phaseNanos, Phase.values());
+        appendShares(sb, "road object", roadObjectNanos, RoadObjectType.values());
+        appendShares(sb, "output", outputNanos, OutputModule.values());
+        return sb.toString();
+    }
+
+    private void appendShares(StringBuilder sb, String category, long[] nanos, Enum<?>[] names) {
+        for (int i = 0; i < nanos.length; i++) {
+            sb.append(String.format("  %-12s %-26s %10.3fs %6.2f%%%n", category, names[i], toSeconds(nanos[i]),
+                    totalNanos == 0 ? 0 : 100. * nanos[i] / totalNanos));
+        }
+    }
+
+}
@@ -14,8 +14,6 @@ package org.movsim.simulator;
 import java.io.File;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.concurrent.TimeUnit;
 
 import javax.xml.bind.JAXBException;
@@ -33,12 +31,13 @@ import org.movsim.autogen.TrafficSinkType;
 import org.movsim.autogen.TrafficSourceType;
 import org.movsim.input.ProjectMetaData;
 import org.movsim.input.network.OpenDriveReader;
+import org.movsim.output.FilePerformanceMetrics;
 import org.movsim.output.FileTrafficSinkData;
 import org.movsim.output.FileTrafficSourceData;
 import org.movsim.output.SimulationOutput;
-import org.movsim.scenario.boundary.autogen.BoundaryConditionsType;
 import org.movsim.scenario.vehicle.autogen.MovsimExternalVehicleControl;
 import org.movsim.shutdown.ShutdownHooks;
+import org.movsim.simulator.PerformanceMetrics.Phase;
 import org.movsim.simulator.observer.ServiceProviders;
 import org.movsim.simulator.roadnetwork.RoadNetwork;
 import org.movsim.simulator.roadnetwork.RoadSegment;
@@ -62,6 +61,7 @@ import org.movsim.simulator.vehicles.ExternalVehiclesController;
 import org.movsim.simulator.vehicles.TrafficCompositionGenerator;
 import org.movsim.simulator.vehicles.Vehicle;
 import org.movsim.simulator.vehicles.VehicleFactory;
+import org.movsim.simulator.vehicles.VehiclePool;
 import org.movsim.utilities.MyRandom;
 import org.movsim.xml.InputLoader;
 import org.slf4j.Logger;
@@ -75,6 +75,8 @@ public class Simulator implements SimulationTimeStep, SimulationRun.CompletionCa
     /** The Constant LOG. */
     private static final Logger LOG = LoggerFactory.getLogger(Simulator.class);
 
+    private static final String XML_EXTENSION = ".xml";
+
     private long startTimeMillis;
 
     private final ProjectMetaData projectMetaData;
@@ -85,6 +87,8 @@ public class Simulator implements SimulationTimeStep, SimulationRun.CompletionCa
 
     private VehicleFactory vehicleFactory;
 
+    private VehiclePool vehiclePool;
+
     private TrafficCompositionGenerator defaultTrafficComposition;
 
     private TrafficLights trafficLights;
@@ -105,6 +109,8 @@ public class Simulator implements SimulationTimeStep, SimulationRun.CompletionCa
 
     private long timeOffsetMillis;
 
+    private PerformanceMetrics performanceMetrics = PerformanceMetrics.disabled();
+
     /**
      * Constructor.
      * 
@@ -187,6 +193,7 @@ public class Simulator implements SimulationTimeStep, SimulationRun.CompletionCa
         // For each road in the MovSim XML input data, find the corresponding roadSegment and
         // set its input data accordingly
         matchRoadSegmentsAndRoadInput(simulationInput.getRoad(), microBoundaryConditions);
+        initVehiclePool();
 
         if (movsimInput.getScenario().isSetInitialConditionsFilename()) {
             String filename = movsimInput.getScenario().getInitialConditionsFilename();
@@ -195,19 +202,55 @@ public class Simulator implements SimulationTimeStep, SimulationRun.CompletionCa
             initialConditions.setInitialConditions(roadNetwork, defaultTrafficComposition);
         }
 
+        initPerformanceMetrics();
+
         reset();
         startTimeMillis = System.currentTimeMillis();
     }
 
+    private void initVehiclePool() {
+        vehiclePool = vehicleFactory.getVehiclePool();
+        if (vehiclePool != null) {
+            LOG.info("recycle vehicles removed by traffic sinks");
+            for (RoadSegment roadSegment : roadNetwork) {
+                if (roadSegment.hasSink()) {
+                    roadSegment.sink().setVehiclePool(vehiclePool);
+                }
+            }
+        }
+    }
+
+    private void initPerformanceMetrics() {
+        if (projectMetaData.isPerformanceMetrics()) {
+            performanceMetrics = new PerformanceMetrics(true, projectMetaData.getPerformanceMetricsInterval());
+            performanceMetrics.setRecorder(new FilePerformanceMetrics());
+            LOG.info("performance metrics enabled with summary interval={} update steps",
+                    projectMetaData.getPerformanceMetricsInterval());
+        } else {
+            performanceMetrics = PerformanceMetrics.disabled();
+        }
+        roadNetwork.setPerformanceMetrics(performanceMetrics);
+        routing.setPerformanceMetrics(performanceMetrics);
+    }
+
+    public PerformanceMetrics getPerformanceMetrics() {
+        return performanceMetrics;
+    }
+
     private ExternalVehiclesController createExternalVehicleController() {
         ExternalVehiclesController externalVehicleController = new ExternalVehiclesController();
         if (movsimInput.getScenario().isSetExternalVehicleControlFilename()) {
             String filename = movsimInput.getScenario().getExternalVehicleControlFilename();
             File file = projectMetaData.getFile(filename);
             Preconditions.checkArgument(file.exists(), "external vehicle control file " + file + " not found");
-            MovsimExternalVehicleControl input = InputLoader.unmarshallExternalVehicleControl(file);
-            LOG.info("loaded external vehicle control from file={}", file);
-            externalVehicleController.setInput(input);
+            if (file.getName().endsWith(XML_EXTENSION)) {
+                MovsimExternalVehicleControl input = InputLoader.unmarshallExternalVehicleControl(file);
+                LOG.info("loaded external vehicle control from file={}", file);
+                externalVehicleController.setInput(input);
+            } else {
+                // time-sorted trajectory records streamed from csv or binary file
+                externalVehicleController.setInput(file);
+            }
         }
         return externalVehicleController;
     }
@@ -320,18 +363,20 @@ public class Simulator implements SimulationTimeStep, SimulationRun.CompletionCa
         if (roadInput.isSetTrafficSource()) {
             TrafficSourceType trafficSourceData = roadInput.getTrafficSource();
             AbstractTrafficSource trafficSource = null;
-            if (trafficSourceData.isSetInflow()) {
+            if (trafficSourceData.isSetInflowFilename()) {
+                // macroscopic boundary conditions streamed from file
+                InflowTimeSeries inflowTimeSeries = new InflowTimeSeries(projectMetaData.getFile(trafficSourceData
+                        .getInflowFilename()));
+                trafficSource = new TrafficSourceMacro(composition, roadSegment, inflowTimeSeries);
+            } else if (trafficSourceData.isSetInflow()) {
                 // macroscopic boundary conditions
                 InflowTimeSeries inflowTimeSeries = new InflowTimeSeries(trafficSourceData.getInflow());
                 trafficSource = new TrafficSourceMacro(composition, roadSegment, inflowTimeSeries);
             } else if (microBoundaryConditions != null) {
                 // microscopic boundary conditions
-                BoundaryConditionsType boundaryConditions = microBoundaryConditions
-                        .getBoundaryConditions(roadSegment.userId());
-                MicroscopicBoundaryInputData inputData = new MicroscopicBoundaryInputData(boundaryConditions,
-                        microBoundaryConditions.getTimeFormat(), timeOffsetMillis, routing);
-                trafficSource = new TrafficSourceMicro(composition, roadSegment);
-                addVehiclesToSource((TrafficSourceMicro) trafficSource, inputData);
+                MicroscopicBoundaryInputData inputData = new MicroscopicBoundaryInputData(
+                        microBoundaryConditions.openReader(roadSegment.userId(), timeOffsetMillis), routing);
+                trafficSource = new TrafficSourceMicro(composition, roadSegment, inputData);
             } else {
                 throw new IllegalStateException(
                         "no micro nor macro boundary condition data provided for traffic source on roadSegment="
@@ -354,7 +399,9 @@ public class Simulator implements SimulationTimeStep, SimulationRun.CompletionCa
         // set up simple ramp with dropping mechanism
         if (roadInput.isSetSimpleRamp()) {
             org.movsim.autogen.SimpleRamp simpleRampData = roadInput.getSimpleRamp();
-            InflowTimeSeries inflowTimeSeries = new InflowTimeSeries(simpleRampData.getInflow());
+            InflowTimeSeries inflowTimeSeries = simpleRampData.isSetInflowFilename() ? new InflowTimeSeries(
+                    projectMetaData.getFile(simpleRampData.getInflowFilename())) : new InflowTimeSeries(
+                    simpleRampData.getInflow());
             SimpleRamp simpleRamp = new SimpleRamp(composition, roadSegment, simpleRampData, inflowTimeSeries);
             if (simpleRampData.isLogging()) {
                 simpleRamp.setRecorder(new FileTrafficSourceData(roadSegment.userId()));
@@ -367,8 +414,10 @@ public class Simulator implements SimulationTimeStep, SimulationRun.CompletionCa
             boolean log = roadInput.getDetectors().isLogging();
             boolean logLanes = roadInput.getDetectors().isLoggingLanes();
             double sampleDt = roadInput.getDetectors().getSampleInterval();
+            List<Double> additionalSampleIntervals = roadInput.getDetectors().getAdditionalSampleIntervals();
             for (CrossSection crossSection : roadInput.getDetectors().getCrossSection()) {
-                LoopDetector det = new LoopDetector(roadSegment, crossSection.getPosition(), sampleDt, log, logLanes);
+                LoopDetector det = new LoopDetector(roadSegment, crossSection.getPosition(), sampleDt,
+                        additionalSampleIntervals, log, logLanes);
                 roadSegment.roadObjects().add(det);
             }
         }
@@ -393,13 +442,6 @@ public class Simulator implements SimulationTimeStep, SimulationRun.CompletionCa
 
     }
 
-    private void addVehiclesToSource(TrafficSourceMicro trafficSource, MicroscopicBoundaryInputData inputData) {
-        Map<Long, Vehicle> vehicles = inputData.createVehicles((TrafficSourceMicro) trafficSource);
-        for (Entry<Long, Vehicle> veh : vehicles.entrySet()) {
-            trafficSource.addVehicleToQueue(veh.getKey(), veh.getValue());
-        }
-    }
-
     private static void configureTrafficSink(TrafficSinkType trafficSinkType, RoadSegment roadSegment) {
         if (!roadSegment.hasSink()) {
             throw new IllegalArgumentException("roadsegment=" + roadSegment.userId() + " does not have a TrafficSink.");
@@ -415,6 +457,7 @@ public class Simulator implements SimulationTimeStep, SimulationRun.CompletionCa
             simOutput = new SimulationOutput(simulationRunnable.timeStep(), projectMetaData.isInstantaneousFileOutput(),
                     movsimInput.getScenario().getOutputConfiguration(), roadNetwork, routing, vehicleFactory,
                     serviceProviders);
+            simOutput.setPerformanceMetrics(performanceMetrics);
         }
         obstacleCount = roadNetwork.obstacleCount();
     }
@@ -447,6 +490,10 @@ public class Simulator implements SimulationTimeStep, SimulationRun.CompletionCa
                 simulationTime, simulationTime / 3600., projectName));
 
         regulators.simulationCompleted(simulationTime);
+        performanceMetrics.simulationCompleted();
+        if (vehiclePool != null) {
+            LOG.info("reused vehicles={}", vehiclePool.reusedCount());
+        }
 
         LOG.info("total traveltime={} seconds", (int) roadNetwork.totalVehicleTravelTime());
         LOG.info("total distance traveled={} meters", (int) roadNetwork.totalVehicleTravelDistance());
@@ -490,13 +537,30 @@ public class Simulator implements SimulationTimeStep, SimulationRun.CompletionCa
                     simulationTime, simulationTime / 3600, dt, numberOfVehicles, projectName));
         }
 
+        final long stepStart = performanceMetrics.tic();
+        long start = stepStart;
         trafficLights.timeStep(dt, simulationTime, iterationCount);
+        performanceMetrics.toc(Phase.TRAFFIC_LIGHTS, start);
+
+        start = performanceMetrics.tic();
         regulators.timeStep(dt, simulationTime, iterationCount);
+        performanceMetrics.toc(Phase.REGULATORS, start);
+
+        start = performanceMetrics.tic();
+        routing.timeStep(dt, simulationTime, iterationCount);
+        performanceMetrics.toc(Phase.TRAVEL_TIME_ROUTING, start);
+
+        if (vehiclePool != null) {
+            vehiclePool.timeStep(dt, simulationTime, iterationCount);
+        }
         roadNetwork.timeStep(dt, simulationTime, iterationCount);
 
         if (simOutput != null) {
+            start = performanceMetrics.tic();
             simOutput.timeStep(dt, simulationTime, iterationCount);
+            performanceMetrics.toc(Phase.OUTPUT, start);
         }
+        performanceMetrics.stepCompleted(stepStart, simulationTime + dt);
     }
 
     public Regulators getRegulators() {
@@ -1,18 +1,29 @@
 package org.movsim.simulator.observer;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.List;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
 import org.movsim.autogen.DecisionPointType;
 import org.movsim.autogen.RouteAlternativeType;
+import org.movsim.simulator.roadnetwork.RoadSegment;
+import org.movsim.simulator.roadnetwork.RoadSegment.TravelTimeCallback;
 import org.movsim.simulator.roadnetwork.routing.Route;
 import org.movsim.simulator.roadnetwork.routing.Routing;
 
 import com.google.common.base.Preconditions;
 
+/**
+ * Route alternatives offered at a road segment.
+ * 
+ * <p>
+ * The vehicles passing the decision point draw their route from the cumulative logit probabilities of the
+ * alternatives. The probabilities depend on the disutilities of the alternatives and on the vehicle's uncertainty. They
+ * are calculated once per update of the disutilities for each distinct uncertainty (bucket) on first use and shared by
+ * all vehicles of the bucket, so that a decision needs a single random number and a binary search.
+ * </p>
+ */
 public class DecisionPoint implements Iterable<RouteAlternative> {
 
     private final String roadId;
@@ -20,6 +31,24 @@ public class DecisionPoint implements Iterable<RouteAlternative> {
     /** sorted according to routeLabel for assuring a consistent */
     private final SortedMap<String, RouteAlternative> routeAlternatives = new TreeMap<>();
 
+    /** true if the travel time of an alternative has changed since the last evaluation */
+    private boolean changed = true;
+
+    private double lastEvaluationTime = Double.NEGATIVE_INFINITY;
+
+    private final RouteAlternative[] alternatives;
+
+    private final double[] disutilities;
+
+    /** incremented with each update of the disutilities */
+    private long version;
+
+    // uncertainty buckets with their cumulative probabilities, valid if bucketVersions[i] == version
+    private int bucketCount;
+    private double[] bucketUncertainties = new double[1];
+    private double[][] cumulativeProbabilities = new double[1][];
+    private long[] bucketVersions = new long[1];
+
     public DecisionPoint(DecisionPointType configuration, Routing routing) {
         Preconditions.checkNotNull(configuration);
         if (!configuration.isSetRouteAlternative() || configuration.getRouteAlternative().isEmpty()) {
@@ -33,6 +62,44 @@ public class DecisionPoint implements Iterable<RouteAlternative> {
                     + " not configured in <Routes> input!");
             RouteAlternative alternative = new RouteAlternative(route);
             routeAlternatives.put(alternative.getRoute().getName(), alternative);
+            subscribeTravelTimes(alternative);
+        }
+        alternatives = routeAlternatives.values().toArray(new RouteAlternative[routeAlternatives.size()]);
+        disutilities = new double[alternatives.length];
+    }
+
+    /**
+     * Maintains the route's travel time as sum of the road segments' travel time estimates by their changes.
+     */
+    private void subscribeTravelTimes(final RouteAlternative alternative) {
+        TravelTimeCallback callback = new TravelTimeCallback() {
+            @Override
+            public void travelTimeChanged(RoadSegment roadSegment, double delta) {
+                alternative.addTravelTime(delta);
+                changed = true;
+            }
+        };
+        double travelTime = 0;
+        for (RoadSegment roadSegment : alternative.getRoute()) {
+            roadSegment.addTravelTimeCallback(callback);
+            travelTime += roadSegment.getTravelTimeEstimate();
+        }
+        alternative.initTravelTime(travelTime);
+    }
+
+    /**
+     * Recomputes the routes' travel times from the road segments' travel time estimates.
+     */
+    void recalcTravelTimes() {
+        for (RouteAlternative alternative : alternatives) {
+            double travelTime = 0;
+            for (RoadSegment roadSegment : alternative.getRoute()) {
+                travelTime += roadSegment.getTravelTimeEstimate();
+            }
+            if (travelTime != alternative.getTravelTime()) {
+                alternative.setTravelTime(travelTime);
+                changed = true;
+            }
         }
     }
 
@@ -40,17 +107,100 @@ public class DecisionPoint implements Iterable<RouteAlternative> {
         return roadId;
     }
 
+    boolean hasChanged() {
+        return changed;
+    }
+
+    void setChanged(boolean changed) {
+        this.changed = changed;
+    }
+
+    double getLastEvaluationTime() {
+        return lastEvaluationTime;
+    }
+
+    void setLastEvaluationTime(double lastEvaluationTime) {
+        this.lastEvaluationTime = lastEvaluationTime;
+    }
+
     @Override
     public Iterator<RouteAlternative> iterator() {
         return routeAlternatives.values().iterator();
     }
 
-    public List<RouteAlternative> createRouteAlternatives() {
-        List<RouteAlternative> alternatives = new ArrayList<>(routeAlternatives.size());
-        for(RouteAlternative routeAlternative : routeAlternatives.values()){
-            alternatives.add(new RouteAlternative(routeAlternative));
+    /**
+     * Invalidates the choice probabilities after the disutilities of the alternatives have been updated.
+     */
+    void disutilitiesChanged() {
+        ++version;
+    }
+
+    public boolean contains(RouteAlternative alternative) {
+        for (RouteAlternative routeAlternative : alternatives) {
+            if (routeAlternative == alternative) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Selects a route alternative according to the logit probabilities for the given uncertainty.
+     * 
+     * @param uncertainty
+     *            the vehicle's uncertainty of the disutilities (s), 0 for a deterministic choice
+     * @param random
+     *            random number in [0, 1)
+     * @return the selected alternative
+     */
+    public RouteAlternative selectAlternative(double uncertainty, double random) {
+        return alternatives[LogitRouteDecisionMaking.selectAlternative(cumulativeProbabilities(uncertainty), random)];
+    }
+
+    /**
+     * Sets the probabilities of the alternatives, see {@link RouteAlternative#getProbability()}, to the logit
+     * probabilities for the given uncertainty.
+     * 
+     * @param uncertainty
+     *            uncertainty of the disutilities (s), 0 for a deterministic choice
+     */
+    void updateProbabilities(double uncertainty) {
+        final double[] cumulative = cumulativeProbabilities(uncertainty);
+        double previous = 0;
+        for (int i = 0; i < alternatives.length; i++) {
+            alternatives[i].setProbability(cumulative[i] - previous);
+            previous = cumulative[i];
+        }
+    }
+
+    private double[] cumulativeProbabilities(double uncertainty) {
+        final int bucket = bucket(uncertainty);
+        if (bucketVersions[bucket] != version) {
+            for (int i = 0; i < alternatives.length; i++) {
+                disutilities[i] = alternatives[i].getDisutility();
+            }
+            LogitRouteDecisionMaking.calcCumulativeProbabilities(disutilities, uncertainty,
+                    cumulativeProbabilities[bucket]);
+            bucketVersions[bucket] = version;
+        }
+        return cumulativeProbabilities[bucket];
+    }
+
+    private int bucket(double uncertainty) {
+        for (int i = 0; i < bucketCount; i++) {
+            if (bucketUncertainties[i] == uncertainty) {
+                return i;
+            }
+        }
+        if (bucketCount == bucketUncertainties.length) {
+            bucketUncertainties = Arrays.copyOf(bucketUncertainties, 2 * bucketCount);
+            cumulativeProbabilities = Arrays.copyOf(cumulativeProbabilities, 2 * bucketCount);
+            bucketVersions = Arrays.copyOf(bucketVersions, 2 * bucketCount);
         }
-        return alternatives;
+        bucketUncertainties[bucketCount] = uncertainty;
+        cumulativeProbabilities[bucketCount] = new double[alternatives.length];
+        bucketVersions[bucketCount] = version - 1;
+        return bucketCount++;
     }
 
 }
@@ -1,85 +1,69 @@
 package org.movsim.simulator.observer;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Iterables;
 
 class LogitRouteDecisionMaking {
 
-    /** The Constant LOG. */
-    private static final Logger LOG = LoggerFactory.getLogger(LogitRouteDecisionMaking.class);
-
-    private static final int TOO_LARGE_EXPONENT = 100;
-
-    static RouteAlternative selectMostProbableAlternative(Iterable<RouteAlternative> alternatives, double random) {
+    /**
+     * Returns the index of the alternative selected by the random number, i.e. the first alternative whose cumulative
+     * probability is not smaller than random, by binary search.
+     * 
+     * @param cumulativeProbabilities
+     *            non-decreasing cumulative probabilities with last value 1
+     * @param random
+     *            random number in [0, 1)
+     * @return the index of the selected alternative
+     */
+    static int selectAlternative(double[] cumulativeProbabilities, double random) {
         Preconditions.checkArgument(random >= 0 && random < 1);
-        double sumProb = 0;
-        for (RouteAlternative alternative : alternatives) {
-            sumProb += alternative.getProbability();
-            LOG.debug("alternative={}, sumProb={}", alternative.toString(), sumProb);
-            if (random <= sumProb) {
-                return alternative;
+        int low = 0;
+        int high = cumulativeProbabilities.length - 1;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (cumulativeProbabilities[mid] < random) {
+                low = mid + 1;
+            } else {
+                high = mid;
             }
         }
-        Preconditions.checkState(false, "probabilities not sumed correctly: random=" + random + ", sumProb=" + sumProb);
-        return null;
+        return low;
     }
 
-    private static boolean hasTooLargeExponent(double beta, RouteAlternative alternative,
-            Iterable<RouteAlternative> alternatives) {
-        for (RouteAlternative otherAlternative : alternatives) {
-            double delta = Math.abs(alternative.getDisutility() - otherAlternative.getDisutility());
-            if (beta * delta > TOO_LARGE_EXPONENT) {
-                return true;
+    /**
+     * Calculates the cumulative logit probabilities of the alternatives without allocations. The exponentials are
+     * evaluated relative to the smallest disutility, so that one exponential per alternative is needed and overflows
+     * cannot occur. For zero uncertainty the alternative with the smallest disutility is chosen deterministically.
+     * 
+     * @param disutilities
+     * @param uncertainty
+     * @param cumulativeProbabilities
+     *            output array of the same length as the disutilities
+     */
+    static void calcCumulativeProbabilities(double[] disutilities, double uncertainty,
+            double[] cumulativeProbabilities) {
+        final int n = disutilities.length;
+        int best = n - 1;
+        for (int i = 0; i < n; i++) {
+            if (disutilities[i] < disutilities[best]) {
+                best = i;
             }
         }
-        return false;
-    }
-
-    static void calcProbabilities(Iterable<RouteAlternative> alternatives, double uncertainty) {
         if (uncertainty > 0) {
-            calcProbabilityIfStochastic(alternatives, uncertainty);
-        } else {
-            calcProbabilityForDeterministic(alternatives);
-        }
-    }
-
-    private static void calcProbabilityIfStochastic(Iterable<RouteAlternative> alternatives, double uncertainty) {
-        final double beta = -1 / uncertainty;
-        for (RouteAlternative alternative : alternatives) {
-            // check first for large exponential
-            if (hasTooLargeExponent(beta, alternative, alternatives)) {
-                // probability of 0 as trivial result
-                alternative.setProbability(0);
-
-            } else {
-                double probAlternative = calcProbability(beta, alternative, alternatives);
-                alternative.setProbability(probAlternative);
+            final double beta = -1 / uncertainty;
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += Math.exp(beta * (disutilities[i] - disutilities[best]));
+                cumulativeProbabilities[i] = sum;
             }
-            LOG.debug("calculated prob for stochastic case: {}", alternative);
-        }
-    }
-
-    private static double calcProbability(double beta, RouteAlternative alternative,
-            Iterable<RouteAlternative> alternatives) {
-        double denom = 0;
-        for (RouteAlternative otherAlternative : alternatives) {
-            denom += Math.exp(beta * (otherAlternative.getDisutility() - alternative.getDisutility()));
-        }
-        return 1. / denom;
-    }
-
-    private static void calcProbabilityForDeterministic(Iterable<RouteAlternative> alternatives) {
-        RouteAlternative bestAlternative = Iterables.getLast(alternatives);
-        for (RouteAlternative alternative : alternatives) {
-            alternative.setProbability(0);
-            if (alternative.getDisutility() < bestAlternative.getDisutility()) {
-                bestAlternative = alternative;
+            for (int i = 0; i < n; i++) {
+                cumulativeProbabilities[i] /= sum;
+            }
+        } else {
+            for (int i = 0; i < n; i++) {
+                cumulativeProbabilities[i] = (i < best) ? 0 : 1;
             }
         }
-        bestAlternative.setProbability(1);
+        cumulativeProbabilities[n - 1] = 1;
     }
 
 }
@@ -43,6 +43,10 @@ public class Noise {
         return randomMu0Sigma1;
     }
 
+    public boolean isWienerProcess() {
+        return isWienerProcess;
+    }
+
     public double getTimeError() {
         return xiTime;
     }
@@ -6,6 +6,9 @@ import com.google.common.base.Preconditions;
 
 public class RouteAlternative {
 
+    /** tolerance (s) below which the smoothed travel time is considered as converged */
+    private static final double SMOOTHING_TOLERANCE = 1e-3;
+
     private final Route route;
 
     /** disutility corresponds to traveltime is seconds (plus additional noise errors). Is updated regularly by service provider */
@@ -16,6 +19,11 @@ public class RouteAlternative {
     /** for logging purposes */
     private double travelTimeError = 0.0;
 
+    /** sum of the travel time estimates of the route's road segments, maintained incrementally */
+    private double travelTime;
+
+    private double smoothedTravelTime;
+
     public RouteAlternative(Route route) {
         Preconditions.checkArgument(route != null);
         this.route = route;
@@ -28,12 +36,47 @@ public class RouteAlternative {
         this.disutility = routeAlternative.getDisutility();
         this.probability = routeAlternative.getProbability();
         this.travelTimeError = routeAlternative.getTravelTimeError();
+        this.travelTime = routeAlternative.getTravelTime();
+        this.smoothedTravelTime = routeAlternative.getSmoothedTravelTime();
     }
 
     public Route getRoute() {
         return route;
     }
 
+    public double getTravelTime() {
+        return travelTime;
+    }
+
+    void initTravelTime(double travelTime) {
+        this.travelTime = travelTime;
+        this.smoothedTravelTime = travelTime;
+    }
+
+    void setTravelTime(double travelTime) {
+        this.travelTime = travelTime;
+    }
+
+    void addTravelTime(double delta) {
+        travelTime += delta;
+    }
+
+    public double getSmoothedTravelTime() {
+        return smoothedTravelTime;
+    }
+
+    /**
+     * Applies an exponential smoothing step to the travel time.
+     * 
+     * @param weight
+     *            weight of the current travel time in [0, 1]
+     * @return true if the smoothed travel time has converged to the current travel time
+     */
+    boolean smoothTravelTime(double weight) {
+        smoothedTravelTime += weight * (travelTime - smoothedTravelTime);
+        return Math.abs(travelTime - smoothedTravelTime) < SMOOTHING_TOLERANCE;
+    }
+
     public double getDisutility() {
         return disutility;
     }
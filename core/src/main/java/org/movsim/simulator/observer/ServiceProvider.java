@@ -1,13 +1,10 @@
 package org.movsim.simulator.observer;
 
-import java.util.List;
-
 import javax.annotation.CheckForNull;
 
 import org.movsim.autogen.ServiceProviderType;
 import org.movsim.simulator.SimulationTimeStep;
 import org.movsim.simulator.roadnetwork.RoadNetwork;
-import org.movsim.simulator.roadnetwork.RoadNetworkUtils;
 import org.movsim.simulator.roadnetwork.RoadSegment;
 import org.movsim.simulator.roadnetwork.routing.Routing;
 import org.slf4j.Logger;
@@ -19,7 +16,8 @@ public class ServiceProvider implements SimulationTimeStep {
 
     private static final Logger LOG = LoggerFactory.getLogger(ServiceProvider.class);
 
-    private static final double GRID_LENGTH_TRAVELTIME_ESTIMATION = 100;
+    /** interval (s) for recomputing the route travel times from scratch if the server updates in every time step */
+    private static final double DEFAULT_TRAVEL_TIME_RECALC_INTERVAL = 60;
 
     private final String label;
 
@@ -29,8 +27,17 @@ public class ServiceProvider implements SimulationTimeStep {
 
     private final double vehicleUpdateInterval;
 
+    private final double smoothingTime;
+
+    private final double travelTimeRecalcInterval;
+
+    private double nextTravelTimeRecalcTime;
+
     private final DecisionPoints decisionPoints;
 
+    /** decision points indexed by the road segment id, avoids the lookup by road user id in the vehicle updates */
+    private final DecisionPoint[] decisionPointsPerRoadSegmentId;
+
     private final Noise noise;
 
     private final ServiceProviderLogging fileOutput;
@@ -40,7 +47,12 @@ public class ServiceProvider implements SimulationTimeStep {
         this.label = configuration.getLabel();
         this.serverUpdateInterval = configuration.getServerUpdateInterval();
         this.vehicleUpdateInterval = configuration.getVehicleUpdateInterval();
+        this.smoothingTime = configuration.getSmoothingTime();
+        this.travelTimeRecalcInterval = serverUpdateInterval > 0 ? serverUpdateInterval
+                : DEFAULT_TRAVEL_TIME_RECALC_INTERVAL;
+        roadNetwork.requestTravelTimeUpdateInterval(configuration.getTravelTimeUpdateInterval());
         this.decisionPoints = new DecisionPoints(configuration.getDecisionPoints(), routing);
+        this.decisionPointsPerRoadSegmentId = createDecisionPointIndex(roadNetwork, decisionPoints);
         this.noise = new Noise(configuration.getTau(), configuration.getFluctStrength());
         this.fileOutput = configuration.isLogging() ? new ServiceProviderLogging(this) : null;
     }
@@ -62,34 +74,28 @@ public class ServiceProvider implements SimulationTimeStep {
         if (serverUpdateInterval != 0) {
             serverUpdate = (iterationCount % (serverUpdateInterval / dt) == 0) ? true : false;
         }
-        evaluateDecisionPoints(dt);
+        evaluateDecisionPoints(dt, simulationTime);
         if (fileOutput != null) {
             fileOutput.timeStep(dt, simulationTime, iterationCount);
         }
     }
 
-    /** calculate individual probabilities */
-    public static void updateRouteAlternatives(Iterable<RouteAlternative> alternatives, double uncertainty) {
-        LogitRouteDecisionMaking.calcProbabilities(alternatives, uncertainty);
-    }
-
-    public static RouteAlternative selectMostProbableAlternative(Iterable<RouteAlternative> alternatives,
-            double random) {
-        return LogitRouteDecisionMaking.selectMostProbableAlternative(alternatives, random);
-    }
-
-    @CheckForNull
-    public List<RouteAlternative> getAlternativesForDecisionPoint(RoadSegment roadSegment) {
-        DecisionPoint decisionPoint = getDecisionPoint(roadSegment.userId());
-        if (decisionPoint == null) {
-            return null;
+    private static DecisionPoint[] createDecisionPointIndex(RoadNetwork roadNetwork, DecisionPoints decisionPoints) {
+        int maxId = -1;
+        for (RoadSegment roadSegment : roadNetwork) {
+            maxId = Math.max(maxId, roadSegment.id());
+        }
+        DecisionPoint[] index = new DecisionPoint[maxId + 1];
+        for (RoadSegment roadSegment : roadNetwork) {
+            index[roadSegment.id()] = decisionPoints.get(roadSegment.userId());
         }
-        return decisionPoint.createRouteAlternatives();
+        return index;
     }
 
     @CheckForNull
-    private DecisionPoint getDecisionPoint(String roadSegmentUserId) {
-        return decisionPoints.get(roadSegmentUserId);
+    public DecisionPoint getDecisionPoint(RoadSegment roadSegment) {
+        final int id = roadSegment.id();
+        return id < decisionPointsPerRoadSegmentId.length ? decisionPointsPerRoadSegmentId[id] : null;
     }
 
     // public RouteAlternative selectRouteAlternative(Iterable<RouteAlternative> alternatives, double uncertainty,
@@ -99,30 +105,53 @@ public class ServiceProvider implements SimulationTimeStep {
     // return new RouteAlternative(routeAlternative);
     // }
 
-    private void evaluateDecisionPoints(double dt) {
+    /**
+     * Re-evaluates the decision points whose route travel times have changed. The travel times are maintained
+     * incrementally by the {@link DecisionPoint}s from the changes of the road segments' travel time estimates.
+     */
+    private void evaluateDecisionPoints(double dt, double simulationTime) {
         double uncertainty = decisionPoints.getUncertainty();
         // uncertainty as standard deviation must be >=0, already required by xsd
+        final boolean recalcTravelTimes = simulationTime >= nextTravelTimeRecalcTime;
+        if (recalcTravelTimes) {
+            nextTravelTimeRecalcTime = simulationTime + travelTimeRecalcInterval;
+        }
         for (DecisionPoint decisionPoint : decisionPoints) {
-            evaluateDecisionPoint(dt, uncertainty, decisionPoint);
+            if (recalcTravelTimes) {
+                // avoid the accumulation of rounding errors in the incrementally maintained travel times
+                decisionPoint.recalcTravelTimes();
+            }
+            updateTravelTimeErrors(dt, decisionPoint);
+            if (serverUpdate && decisionPoint.hasChanged()) {
+                evaluateDecisionPoint(simulationTime, uncertainty, decisionPoint);
+            }
         }
     }
 
-    private void evaluateDecisionPoint(double dt, double uncertainty, DecisionPoint decisionPoint) {
+    private void updateTravelTimeErrors(double dt, DecisionPoint decisionPoint) {
+        // noise draws a random number also if it is not a Wiener process, keeps the random sequence of the simulation
         for (RouteAlternative alternative : decisionPoint) {
-            double traveltimeError = 0;
-            if (noise != null) {
-                noise.update(dt, alternative.getTravelTimeError());
-                traveltimeError = noise.getTimeError();
-            }
+            noise.update(dt, alternative.getTravelTimeError());
+            alternative.setTravelTimeError(noise.getTimeError());
+        }
+        if (noise.isWienerProcess()) {
+            decisionPoint.setChanged(true);
+        }
+    }
+
+    private void evaluateDecisionPoint(double simulationTime, double uncertainty, DecisionPoint decisionPoint) {
+        final double weight = (smoothingTime == 0) ? 1 : 1 - Math.exp(-(simulationTime - decisionPoint
+                .getLastEvaluationTime()) / smoothingTime);
+        boolean converged = true;
+        for (RouteAlternative alternative : decisionPoint) {
+            converged &= alternative.smoothTravelTime(weight);
             // traveltime is the metric for disutility
-            double traveltime = traveltimeError + RoadNetworkUtils.instantaneousTravelTimeOnGrid(alternative.getRoute(),
-                    GRID_LENGTH_TRAVELTIME_ESTIMATION);
-            alternative.setTravelTimeError(traveltimeError);
-            if (serverUpdate) {
-                alternative.setDisutility(traveltime);
-            }
+            alternative.setDisutility(alternative.getTravelTimeError() + alternative.getSmoothedTravelTime());
         }
-        LogitRouteDecisionMaking.calcProbabilities(decisionPoint, uncertainty);
+        decisionPoint.setLastEvaluationTime(simulationTime);
+        decisionPoint.setChanged(!converged);
+        decisionPoint.disutilitiesChanged();
+        decisionPoint.updateProbabilities(uncertainty);
     }
 
 }
@@ -29,6 +29,7 @@ package org.movsim.simulator.roadnetwork;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 
 import org.movsim.simulator.roadnetwork.boundaries.TrafficSink;
 import org.movsim.simulator.vehicles.Vehicle;
@@ -70,7 +71,9 @@ public class LaneSegment implements Iterable<Vehicle> {
     // physical lane, not the laneIndex
     private final int lane;
     private Lanes.Type type;
-    private final ArrayList<Vehicle> vehicles;
+    private ArrayList<Vehicle> vehicles;
+    /** swapped with the vehicles list when merging lane changes */
+    private ArrayList<Vehicle> mergedVehicles;
     private int removedVehicleCount; // used for calculating traffic flow
 
     /**
@@ -86,6 +89,7 @@ public class LaneSegment implements Iterable<Vehicle> {
         // assert lane >= Lanes.MOST_INNER_LANE;
         this.lane = lane;
         vehicles = new ArrayList<>(VEHICLES_PER_LANE_INITIAL_SIZE);
+        mergedVehicles = new ArrayList<>(VEHICLES_PER_LANE_INITIAL_SIZE);
         type = Lanes.Type.TRAFFIC;
     }
 
@@ -168,6 +172,9 @@ public class LaneSegment implements Iterable<Vehicle> {
      * Clears this lane segment of any vehicles.
      */
     public final void clearVehicles() {
+        for (final Vehicle vehicle : vehicles) {
+            roadSegment.vehicleLeftNetwork(vehicle);
+        }
         vehicles.clear();
     }
 
@@ -286,7 +293,7 @@ public class LaneSegment implements Iterable<Vehicle> {
      *            index of vehicle to remove
      */
     public void removeVehicle(int index) {
-        vehicles.remove(index);
+        roadSegment.vehicleLeftNetwork(vehicles.remove(index));
     }
 
     /**
@@ -295,16 +302,84 @@ public class LaneSegment implements Iterable<Vehicle> {
      * @param vehicleToRemove
      */
     public void removeVehicle(Vehicle vehicleToRemove) {
-        // TODO improve primitive implementation
-        final long vehicleId = vehicleToRemove.getId();
+        final int index = indexOf(vehicleToRemove);
+        if (index >= 0) {
+            removeVehicle(index);
+        }
+    }
+
+    /**
+     * Returns the index of the given vehicle in this lane segment, or -1 if the vehicle is not on this lane segment.
+     * The vehicle is looked up by its position, so the lane segment must be sorted.
+     * 
+     * @param vehicle
+     * @return the index of the vehicle or -1
+     */
+    private int indexOf(Vehicle vehicle) {
+        final long vehicleId = vehicle.getId();
+        final double rearPosition = vehicle.getRearPosition();
+        final int index = positionBinarySearch(rearPosition);
+        if (index >= 0) {
+            // check all vehicles at the same position
+            for (int i = index; i >= 0 && vehicles.get(i).getRearPosition() == rearPosition; --i) {
+                if (vehicles.get(i).getId() == vehicleId) {
+                    return i;
+                }
+            }
+            for (int i = index + 1; i < vehicles.size() && vehicles.get(i).getRearPosition() == rearPosition; ++i) {
+                if (vehicles.get(i).getId() == vehicleId) {
+                    return i;
+                }
+            }
+        }
+        // not found by position, fall back to a linear search
+        final int count = vehicles.size();
+        for (int i = 0; i < count; ++i) {
+            if (vehicles.get(i).getId() == vehicleId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Removes the outgoing and inserts the incoming vehicles of the lane changes of one time step in a single merge
+     * pass. Both lists must be sorted like the vehicles of this lane segment, in decreasing order of position, and all
+     * outgoing vehicles must be on this lane segment. The lane of the incoming vehicles is set by the caller.
+     * 
+     * @param outgoing
+     *            vehicles leaving this lane segment
+     * @param incoming
+     *            vehicles entering this lane segment
+     */
+    void mergeVehicles(List<Vehicle> outgoing, List<Vehicle> incoming) {
         final int count = vehicles.size();
+        final int incomingCount = incoming.size();
+        assert mergedVehicles.isEmpty();
+        mergedVehicles.ensureCapacity(count + incomingCount);
+        int outgoingIndex = 0;
+        int incomingIndex = 0;
         for (int i = 0; i < count; ++i) {
             final Vehicle vehicle = vehicles.get(i);
-            if (vehicle.getId() == vehicleId) {
-                vehicles.remove(i);
-                return;
+            if (outgoingIndex < outgoing.size() && outgoing.get(outgoingIndex) == vehicle) {
+                ++outgoingIndex;
+                continue;
+            }
+            while (incomingIndex < incomingCount
+                    && incoming.get(incomingIndex).getRearPosition() > vehicle.getRearPosition()) {
+                mergedVehicles.add(incoming.get(incomingIndex++));
             }
+            mergedVehicles.add(vehicle);
         }
+        while (incomingIndex < incomingCount) {
+            mergedVehicles.add(incoming.get(incomingIndex++));
+        }
+        assert outgoingIndex == outgoing.size() : "outgoing vehicles not found or not sorted";
+        final ArrayList<Vehicle> previous = vehicles;
+        vehicles = mergedVehicles;
+        mergedVehicles = previous;
+        mergedVehicles.clear();
+        assert laneIsSorted();
     }
 
     /**
@@ -312,7 +387,7 @@ public class LaneSegment implements Iterable<Vehicle> {
      */
     public void removeFrontVehicleOnLane() {
         if (vehicles.size() > 0) {
-            vehicles.remove(0);
+            removeVehicle(0);
         }
     }
 
@@ -328,7 +403,7 @@ public class LaneSegment implements Iterable<Vehicle> {
         // remove any vehicles that have gone past the end of this road segment
         while (vehicleCount > 0 && vehicles.get(0).getRearPosition() > roadLength) {
             sink.recordRemovedVehicle(vehicles.get(0));
-            vehicles.remove(0);
+            removeVehicle(0);
             ++removedVehicleCount;
             --vehicleCount;
             ++count;
@@ -373,32 +448,18 @@ public class LaneSegment implements Iterable<Vehicle> {
             // vehicle is in the same position as an existing vehicle - this should not happen
             assert false;
         }
+        roadSegment.vehicleEnteredNetwork(vehicle);
         assert laneIsSorted();
         assert assertInvariant();
     }
 
-    public int addVehicleTemp(Vehicle vehicle) {
-        // assert vehicle.getFrontPosition() >= 0.0;
-        assert vehicle.getSpeed() >= 0.0;
-        assert vehicle.lane() == lane;
-        assert assertInvariant();
-        final int index = positionBinarySearch(vehicle.getRearPosition());
-        int pos = 0;
-        if (index < 0) {
-            pos = -index - 1;
-            vehicles.add(pos, vehicle);
-        } else if (index == 0) {
-            vehicles.add(pos, vehicle);
-        } else {
-            // vehicle is in the same position as an existing vehicle - this should not happen
-            assert false;
-        }
-        assert laneIsSorted();
-        assert assertInvariant();
-        return pos;
-    }
-
-    public void appendVehicle(Vehicle vehicle) {
+    /**
+     * Adds a vehicle behind all other vehicles of this lane segment. Does not update the vehicle index of the road
+     * network, so either the vehicle moves from another lane segment of the network or the caller updates the index.
+     * 
+     * @param vehicle
+     */
+    void appendVehicle(Vehicle vehicle) {
         assert vehicle.getFrontPosition() >= 0.0;
         assert vehicle.getSpeed() >= 0.0;
         assert vehicle.lane() == lane;
@@ -13,13 +13,20 @@
 package org.movsim.simulator.roadnetwork;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 
 import javax.annotation.CheckForNull;
 
+import org.movsim.simulator.PerformanceMetrics;
+import org.movsim.simulator.PerformanceMetrics.Phase;
 import org.movsim.simulator.SimulationTimeStep;
+import org.movsim.simulator.roadnetwork.controller.RoadObject;
+import org.movsim.simulator.roadnetwork.controller.RoadObject.RoadObjectType;
 import org.movsim.simulator.roadnetwork.routing.Route;
 import org.movsim.simulator.vehicles.ExternalVehiclesController;
+import org.movsim.simulator.vehicles.Vehicle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,12 +42,25 @@ public class RoadNetwork implements SimulationTimeStep, Iterable<RoadSegment> {
 
     private final ArrayList<RoadSegment> roadSegments = new ArrayList<>();
 
+    private final Map<Integer, RoadSegment> roadSegmentsById = new HashMap<>();
+
+    private final Map<String, RoadSegment> roadSegmentsByUserId = new HashMap<>();
+
+    /** all vehicles in the road network by vehicle id, the vehicle knows its road segment and lane */
+    private final Map<Long, Vehicle> vehiclesById = new HashMap<>();
+
     private String name;
 
     private boolean isWithCrashExit;
 
     private ExternalVehiclesController externalVehicleController;
 
+    private PerformanceMetrics performanceMetrics = PerformanceMetrics.disabled();
+
+    private double travelTimeUpdateInterval = Double.POSITIVE_INFINITY;
+
+    private double nextTravelTimeUpdate = Double.POSITIVE_INFINITY;
+
     /**
      * Sets the name of the road network.
      * 
@@ -66,12 +86,7 @@ public class RoadNetwork implements SimulationTimeStep, Iterable<RoadSegment> {
      * @return the road segment with the given id
      */
     public RoadSegment findById(int id) {
-        for (final RoadSegment roadSegment : roadSegments) {
-            if (roadSegment.id() == id) {
-                return roadSegment;
-            }
-        }
-        return null;
+        return roadSegmentsById.get(id);
     }
 
     /**
@@ -82,12 +97,41 @@ public class RoadNetwork implements SimulationTimeStep, Iterable<RoadSegment> {
      */
     @CheckForNull
     public RoadSegment findByUserId(String userId) {
-        for (final RoadSegment roadSegment : roadSegments) {
-            if (roadSegment.userId() != null && roadSegment.userId().equals(userId)) {
-                return roadSegment;
-            }
+        return roadSegmentsByUserId.get(userId);
+    }
+
+    /**
+     * Given its id, find a vehicle in the road network.
+     * 
+     * @param vehicleId
+     * @return the vehicle with the given id, or null if there is no such vehicle in the road network
+     */
+    @CheckForNull
+    public Vehicle findVehicleById(long vehicleId) {
+        return vehiclesById.get(vehicleId);
+    }
+
+    /**
+     * Returns the lane segment the given vehicle is on.
+     * 
+     * @param vehicle
+     * @return the lane segment of the vehicle
+     */
+    public LaneSegment findLaneSegment(Vehicle vehicle) {
+        final RoadSegment roadSegment = Preconditions.checkNotNull(findById(vehicle.roadSegmentId()),
+                "vehicle not on a road segment of the road network: " + vehicle);
+        if (vehicle.lane() == Lanes.OVERTAKING) {
+            return roadSegment.overtakingSegment();
         }
-        return null;
+        return roadSegment.laneSegment(vehicle.lane());
+    }
+
+    void indexVehicle(Vehicle vehicle) {
+        vehiclesById.put(vehicle.getId(), vehicle);
+    }
+
+    void unindexVehicle(Vehicle vehicle) {
+        vehiclesById.remove(vehicle.getId());
     }
 
     /**
@@ -100,7 +144,13 @@ public class RoadNetwork implements SimulationTimeStep, Iterable<RoadSegment> {
         RoadSegment.resetNextId();
         // TrafficFlowBase.resetNextId();
         // Vehicle.resetNextId();
+        for (final RoadSegment roadSegment : roadSegments) {
+            roadSegment.setRoadNetwork(null);
+        }
         roadSegments.clear();
+        roadSegmentsById.clear();
+        roadSegmentsByUserId.clear();
+        vehiclesById.clear();
     }
 
     /**
@@ -120,7 +170,7 @@ public class RoadNetwork implements SimulationTimeStep, Iterable<RoadSegment> {
     }
 
     /**
-     * Adds a road segment to the road network.
+     * Adds a road segment to the road network. The userId of the road segment must be set before.
      * 
      * @param roadSegment
      * @return roadSegment for convenience
@@ -129,6 +179,19 @@ public class RoadNetwork implements SimulationTimeStep, Iterable<RoadSegment> {
         assert roadSegment != null;
         assert roadSegment.eachLaneIsSorted();
         roadSegments.add(roadSegment);
+        roadSegmentsById.put(roadSegment.id(), roadSegment);
+        if (roadSegment.userId() != null) {
+            if (roadSegmentsByUserId.containsKey(roadSegment.userId())) {
+                LOG.warn("road segment userId={} not unique, find by userId returns the first one",
+                        roadSegment.userId());
+            } else {
+                roadSegmentsByUserId.put(roadSegment.userId(), roadSegment);
+            }
+        }
+        roadSegment.setRoadNetwork(this);
+        for (final Vehicle vehicle : roadSegment) {
+            indexVehicle(vehicle);
+        }
         return roadSegment;
     }
 
@@ -189,42 +252,113 @@ public class RoadNetwork implements SimulationTimeStep, Iterable<RoadSegment> {
         // onto the next road segment.
 
         LOG.debug("called timeStep: time={}, timestep={}", simulationTime, dt);
+        long start = performanceMetrics.tic();
         externalVehicleController.addAndRemoveVehicles(simulationTime, this);
-        for (final RoadSegment roadSegment : roadSegments) {
-            roadSegment.updateRoadConditions(dt, simulationTime, iterationCount);
+        performanceMetrics.toc(Phase.EXTERNAL_VEHICLES, start);
+
+        start = performanceMetrics.tic();
+        if (performanceMetrics.isEnabled()) {
+            updateRoadConditionsWithMetrics(dt, simulationTime, iterationCount);
+        } else {
+            for (final RoadSegment roadSegment : roadSegments) {
+                roadSegment.updateRoadConditions(dt, simulationTime, iterationCount);
+            }
         }
+        performanceMetrics.toc(Phase.ROAD_OBJECTS, start);
 
+        start = performanceMetrics.tic();
         for (RoadSegment roadSegment : roadSegments) {
             roadSegment.makeDynamicRoutingDecisions(dt, simulationTime, iterationCount);
         }
+        performanceMetrics.toc(Phase.ROUTING_DECISIONS, start);
 
         // Note: must do lane changes before vehicle positions are updated (or after outFlow) to ensure
         // the vehicle's roadSegmentId is correctly set
+        start = performanceMetrics.tic();
         for (final RoadSegment roadSegment : roadSegments) {
             roadSegment.makeLaneChanges(dt, simulationTime, iterationCount);
         }
+        performanceMetrics.toc(Phase.LANE_CHANGES, start);
 
+        start = performanceMetrics.tic();
         for (final RoadSegment roadSegment : roadSegments) {
             roadSegment.updateVehicleAccelerations(dt, simulationTime, iterationCount);
         }
+        performanceMetrics.toc(Phase.ACCELERATIONS, start);
+        if (performanceMetrics.isEnabled()) {
+            performanceMetrics.addVehicleUpdates(vehicleCount());
+        }
 
+        start = performanceMetrics.tic();
         externalVehicleController.setSpeeds(simulationTime);
         for (final RoadSegment roadSegment : roadSegments) {
             roadSegment.updateVehiclePositionsAndSpeeds(dt, simulationTime, iterationCount);
         }
+        performanceMetrics.toc(Phase.POSITIONS_AND_SPEEDS, start);
 
+        start = performanceMetrics.tic();
         for (final RoadSegment roadSegment : roadSegments) {
             roadSegment.checkForInconsistencies(simulationTime, iterationCount, isWithCrashExit);
         }
+        performanceMetrics.toc(Phase.INCONSISTENCY_CHECK, start);
 
+        start = performanceMetrics.tic();
         for (final RoadSegment roadSegment : roadSegments) {
             roadSegment.outFlow(dt, simulationTime, iterationCount);
         }
+        performanceMetrics.toc(Phase.OUTFLOW, start);
 
+        start = performanceMetrics.tic();
         for (final RoadSegment roadSegment : roadSegments) {
             roadSegment.inFlow(dt, simulationTime, iterationCount);
             roadSegment.updateSignalPointsAfterOutflowAndInflow(simulationTime);
         }
+        performanceMetrics.toc(Phase.INFLOW_AND_SIGNAL_POINTS, start);
+
+        if (simulationTime >= nextTravelTimeUpdate) {
+            start = performanceMetrics.tic();
+            nextTravelTimeUpdate = simulationTime + travelTimeUpdateInterval;
+            for (final RoadSegment roadSegment : roadSegments) {
+                if (roadSegment.hasTravelTimeCallbacks()) {
+                    roadSegment.updateTravelTimeEstimate();
+                }
+            }
+            performanceMetrics.toc(Phase.TRAVEL_TIME_ESTIMATES, start);
+        }
+    }
+
+    /**
+     * Requests the update of the travel time estimates of the road segments, see
+     * {@link RoadSegment#addTravelTimeCallback(RoadSegment.TravelTimeCallback)}, at least with the given interval. The
+     * estimates are updated with the smallest interval requested, by default they are not updated. Each update scans
+     * all vehicles on the road segments with subscribers, so an update in every step costs about as much as a second
+     * pass over these vehicles.
+     * 
+     * @param interval
+     *            update interval (s), 0 for an update in every step
+     */
+    public void requestTravelTimeUpdateInterval(double interval) {
+        Preconditions.checkArgument(interval >= 0, "negative interval=" + interval);
+        if (interval < travelTimeUpdateInterval) {
+            travelTimeUpdateInterval = interval;
+            nextTravelTimeUpdate = Math.min(nextTravelTimeUpdate, 0);
+        }
+    }
+
+    /**
+     * Same as {@link RoadSegment#updateRoadConditions(double, double, long)} for all road segments but accumulates the
+     * time per {@link RoadObjectType}. The road objects are updated in the same order.
+     */
+    private void updateRoadConditionsWithMetrics(double dt, double simulationTime, long iterationCount) {
+        for (final RoadSegment roadSegment : roadSegments) {
+            for (RoadObjectType type : RoadObjectType.values()) {
+                final long start = performanceMetrics.tic();
+                for (RoadObject roadObject : roadSegment.roadObjects().values(type)) {
+                    roadObject.timeStep(dt, simulationTime, iterationCount);
+                }
+                performanceMetrics.toc(type, start);
+            }
+        }
     }
 
     public void setWithCrashExit(boolean isWithCrashExit) {
@@ -381,4 +515,8 @@ public class RoadNetwork implements SimulationTimeStep, Iterable<RoadSegment> {
 
     }
 
+    public void setPerformanceMetrics(PerformanceMetrics performanceMetrics) {
+        this.performanceMetrics = Preconditions.checkNotNull(performanceMetrics);
+    }
+
 }
@@ -16,6 +16,7 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Set;
 
 import javax.annotation.CheckForNull;
@@ -93,6 +94,23 @@ public class RoadSegment extends DefaultWeightedEdge implements Iterable<Vehicle
     /** vehicle's minimum speed for calculating traveltime, in m/s */
     private static final double MIN_SPEED_TT = 1;
 
+    /** length of the sections for the grid-based travel time estimation, see {@link #updateTravelTimeEstimate()} */
+    public static final double GRID_LENGTH_TRAVELTIME_ESTIMATION = 100;
+
+    /**
+     * Callback to receive the changes of the estimated travel time of a road segment.
+     */
+    public interface TravelTimeCallback {
+        /**
+         * Called when the travel time estimate of the road segment has changed.
+         * 
+         * @param roadSegment
+         * @param delta
+         *            the change of the travel time estimate (s)
+         */
+        void travelTimeChanged(RoadSegment roadSegment, double delta);
+    }
+
     private static int nextId = INITIAL_ID;
 
     private RoadSegmentDirection directionType = RoadSegmentDirection.FORWARD;
@@ -126,6 +144,60 @@ public class RoadSegment extends DefaultWeightedEdge implements Iterable<Vehicle
 
     private boolean overtakingSegmentInitialized = false;
 
+    /** vehicles that decided to change lane in the current time step, reused in each time step */
+    private final List<Vehicle> laneChangingVehicles = new ArrayList<>();
+
+    /** pending lane changes per lane (index lane - 1), will be initialized lazily and reused in each time step */
+    private LaneChanges[] laneChanges;
+
+    /**
+     * Pending lane changes out of and into a lane, all sorted in decreasing order of position.
+     */
+    private static final class LaneChanges {
+        final List<Vehicle> out = new ArrayList<>();
+        /** from the neighbouring lane with the lower lane number */
+        final List<Vehicle> inFromLeft = new ArrayList<>();
+        /** from the neighbouring lane with the higher lane number */
+        final List<Vehicle> inFromRight = new ArrayList<>();
+        /** merged incoming lane changes */
+        final List<Vehicle> in = new ArrayList<>();
+
+        void clear() {
+            out.clear();
+            inFromLeft.clear();
+            inFromRight.clear();
+            in.clear();
+        }
+
+        boolean isEmpty() {
+            return out.isEmpty() && in.isEmpty();
+        }
+
+        /**
+         * Merges the two sorted runs of incoming lane changes in linear time. For equal positions the lane change from
+         * the left comes first, since it has been decided first.
+         */
+        void mergeIncoming() {
+            final int leftCount = inFromLeft.size();
+            final int rightCount = inFromRight.size();
+            int leftIndex = 0;
+            int rightIndex = 0;
+            while (leftIndex < leftCount && rightIndex < rightCount) {
+                if (inFromLeft.get(leftIndex).getRearPosition() >= inFromRight.get(rightIndex).getRearPosition()) {
+                    in.add(inFromLeft.get(leftIndex++));
+                } else {
+                    in.add(inFromRight.get(rightIndex++));
+                }
+            }
+            while (leftIndex < leftCount) {
+                in.add(inFromLeft.get(leftIndex++));
+            }
+            while (rightIndex < rightCount) {
+                in.add(inFromRight.get(rightIndex++));
+            }
+        }
+    }
+
     // Sources and Sinks
     private AbstractTrafficSource trafficSource;
 
@@ -135,6 +207,9 @@ public class RoadSegment extends DefaultWeightedEdge implements Iterable<Vehicle
 
     private RoadSegment peerRoadSegment;
 
+    /** the road network this road segment has been added to, maintains the vehicle index */
+    private RoadNetwork roadNetwork;
+
     private Node origin = new NodeImpl("origin");
 
     private Node destination = new NodeImpl("destination");
@@ -150,6 +225,11 @@ public class RoadSegment extends DefaultWeightedEdge implements Iterable<Vehicle
     /** static freeflow speed as maximum speed that is allowed. */
     private double freeFlowSpeed = RoadTypeSpeeds.INSTANCE.getDefaultFreeFlowSpeed();
 
+    /** subscribers to the travel time estimate, null if there are none */
+    private List<TravelTimeCallback> travelTimeCallbacks;
+
+    private double travelTimeEstimate;
+
     public static class TestCar {
         public double s = 0.0; // distance
 
@@ -663,6 +743,47 @@ public class RoadSegment extends DefaultWeightedEdge implements Iterable<Vehicle
         return totalTravelTime;
     }
 
+    /**
+     * Subscribes to the changes of the grid-based travel time estimate of this road segment. The estimate is updated by
+     * the {@link RoadNetwork} at the end of the update step if there are any subscribers.
+     * 
+     * @param callback
+     */
+    public void addTravelTimeCallback(TravelTimeCallback callback) {
+        if (travelTimeCallbacks == null) {
+            travelTimeCallbacks = new ArrayList<>();
+            travelTimeEstimate = instantaneousTravelTimeOnGrid(GRID_LENGTH_TRAVELTIME_ESTIMATION);
+        }
+        travelTimeCallbacks.add(Preconditions.checkNotNull(callback));
+    }
+
+    public boolean hasTravelTimeCallbacks() {
+        return travelTimeCallbacks != null;
+    }
+
+    /**
+     * Returns the grid-based travel time estimate as of the last update, only maintained if there are subscribers.
+     * 
+     * @return the travel time estimate (s)
+     */
+    public double getTravelTimeEstimate() {
+        return travelTimeEstimate;
+    }
+
+    /**
+     * Recalculates the grid-based travel time estimate and notifies the subscribers if it has changed.
+     */
+    public void updateTravelTimeEstimate() {
+        final double newEstimate = instantaneousTravelTimeOnGrid(GRID_LENGTH_TRAVELTIME_ESTIMATION);
+        final double delta = newEstimate - travelTimeEstimate;
+        if (delta != 0) {
+            travelTimeEstimate = newEstimate;
+            for (int i = 0, n = travelTimeCallbacks.size(); i < n; i++) {
+                travelTimeCallbacks.get(i).travelTimeChanged(this, delta);
+            }
+        }
+    }
+
     private static double travelTimeInRange(double begin, double end, double maxRoadSpeed,
             LinkedList<Vehicle> vehicles) {
         int count = 0;
@@ -743,6 +864,26 @@ public class RoadSegment extends DefaultWeightedEdge implements Iterable<Vehicle
         return vehiclesPastEnd;
     }
 
+    final LaneSegment overtakingSegment() {
+        return overtakingSegment;
+    }
+
+    final void setRoadNetwork(RoadNetwork roadNetwork) {
+        this.roadNetwork = roadNetwork;
+    }
+
+    final void vehicleEnteredNetwork(Vehicle vehicle) {
+        if (roadNetwork != null) {
+            roadNetwork.indexVehicle(vehicle);
+        }
+    }
+
+    final void vehicleLeftNetwork(Vehicle vehicle) {
+        if (roadNetwork != null) {
+            roadNetwork.unindexVehicle(vehicle);
+        }
+    }
+
     /**
      * Adds an obstacle to this road segment.
      * 
@@ -765,13 +906,14 @@ public class RoadSegment extends DefaultWeightedEdge implements Iterable<Vehicle
     }
 
     /**
-     * Adds a vehicle to the start of this road segment.
+     * Adds a vehicle to the start of this road segment. The vehicle must be behind all other vehicles of its lane.
      * 
      * @param vehicle
      */
     public void appendVehicle(Vehicle vehicle) {
         vehicle.setRoadSegment(this);
         laneSegments[vehicle.lane() - 1].appendVehicle(vehicle);
+        vehicleEnteredNetwork(vehicle);
     }
 
     /**
@@ -825,7 +967,9 @@ public class RoadSegment extends DefaultWeightedEdge implements Iterable<Vehicle
     /**
      * Lanes change.
      * <p>
-     * For each vehicle check if a lane change is desired and safe and, if so, make the lane change.
+     * For each vehicle check if a lane change is desired and safe and, if so, make the lane change. All decisions are
+     * made first, based on the lanes of the beginning of the time step, and the lane changes are performed afterwards.
+     * A lane change is cancelled if the target gap has been taken by another lane change in the same time step.
      * </p>
      * <p>
      * <code>makeLaneChanges</code> preserves the vehicle sort order, since only lateral movements of vehicles are made.
@@ -850,34 +994,138 @@ public class RoadSegment extends DefaultWeightedEdge implements Iterable<Vehicle
         }
 
         // TODO assure priority for lane changes from slow to fast lanes
+        // decisions: the lane segments are not modified
         for (final LaneSegment laneSegment : laneSegments) {
             assert laneSegment.assertInvariant();
-            for (Iterator<Vehicle> vehIterator = laneSegment.iterator(); vehIterator.hasNext();) {
-                Vehicle vehicle = vehIterator.next();
+            for (final Vehicle vehicle : laneSegment) {
                 assert vehicle.roadSegmentId() == id;
                 if (vehicle.inProcessOfLaneChange()) {
                     // !!! assure update in each simulation timestep
                     vehicle.updateLaneChangeDelay(dt);
                 } else if (vehicle.considerLaneChange(dt, this)) {
-                    final int targetLane = vehicle.getTargetLane();
-                    assert targetLane != Lanes.NONE;
-                    assert laneSegment(targetLane).type() != Lanes.Type.ENTRANCE;
-                    vehIterator.remove();
-                    vehicle.setLane(targetLane);
-                    laneSegment(targetLane).addVehicle(vehicle);
+                    assert vehicle.getTargetLane() != Lanes.NONE;
+                    assert laneSegment(vehicle.getTargetLane()).type() != Lanes.Type.ENTRANCE;
+                    laneChangingVehicles.add(vehicle);
                 } else if (vehicle.considerOvertakingViaPeer(dt, this)) {
-                    LOG.debug("### perform overtaking: vehicle={}", vehicle);
-                    int targetLane = vehicle.getTargetLane();
-                    assert targetLane == Lanes.OVERTAKING;
-                    vehIterator.remove();
-                    vehicle.setLane(targetLane);
-                    overtakingSegment.addVehicle(vehicle);
+                    assert vehicle.getTargetLane() == Lanes.OVERTAKING;
+                    laneChangingVehicles.add(vehicle);
                 }
             }
         }
+
+        if (!laneChangingVehicles.isEmpty()) {
+            collectLaneChanges();
+            cancelConflictingLaneChanges();
+            // collect again without the cancelled lane changes
+            collectLaneChanges();
+            performLaneChanges();
+            laneChangingVehicles.clear();
+        }
         checkFinishingOvertaking(dt);
     }
 
+    /**
+     * Cancels lane changes into the same gap of a target lane. Two vehicles entering a lane take the same gap if no
+     * vehicle of the target lane remains between them. The lane change decided first (lower source lane, then further
+     * downstream) takes priority, the other one is cancelled.
+     */
+    private void cancelConflictingLaneChanges() {
+        for (final LaneSegment laneSegment : laneSegments) {
+            final List<Vehicle> laneChangesOut = laneChanges[laneSegment.lane() - 1].out;
+            final List<Vehicle> laneChangesIn = laneChanges[laneSegment.lane() - 1].in;
+            final int count = laneSegment.vehicleCount();
+            int index = 0;
+            int outIndex = 0;
+            Vehicle previousIn = null; // entering vehicle with no remaining vehicle between it and the current one
+            for (final Vehicle vehicle : laneChangesIn) {
+                while (index < count && laneSegment.getVehicle(index).getRearPosition() >= vehicle.getRearPosition()) {
+                    final Vehicle other = laneSegment.getVehicle(index++);
+                    if (outIndex < laneChangesOut.size() && laneChangesOut.get(outIndex) == other) {
+                        ++outIndex;
+                    } else {
+                        previousIn = null;
+                    }
+                }
+                if (previousIn != null) {
+                    final Vehicle cancelled = decidedBefore(previousIn, vehicle) ? vehicle : previousIn;
+                    LOG.debug("cancel lane change, target gap taken: vehicle={}", cancelled);
+                    cancelled.cancelLaneChange();
+                    if (cancelled == vehicle) {
+                        continue;
+                    }
+                }
+                previousIn = vehicle;
+            }
+        }
+    }
+
+    private static boolean decidedBefore(Vehicle vehicle, Vehicle other) {
+        return vehicle.lane() < other.lane()
+                || (vehicle.lane() == other.lane() && vehicle.getRearPosition() > other.getRearPosition());
+    }
+
+    /**
+     * Performs the (not cancelled) lane changes with a single merge pass per lane segment.
+     */
+    private void performLaneChanges() {
+        for (final LaneSegment laneSegment : laneSegments) {
+            final LaneChanges changes = laneChanges[laneSegment.lane() - 1];
+            if (!changes.isEmpty()) {
+                laneSegment.mergeVehicles(changes.out, changes.in);
+            }
+            changes.clear();
+        }
+        for (final Vehicle vehicle : laneChangingVehicles) {
+            final int targetLane = vehicle.getTargetLane();
+            if (targetLane == Lanes.NONE) {
+                continue; // cancelled
+            }
+            vehicle.setLane(targetLane);
+            if (targetLane == Lanes.OVERTAKING) {
+                LOG.debug("### perform overtaking: vehicle={}", vehicle);
+                overtakingSegment.addVehicle(vehicle);
+            }
+        }
+        for (final LaneSegment laneSegment : laneSegments) {
+            assert laneSegment.assertInvariant();
+        }
+    }
+
+    /**
+     * Collects the pending lane changes per lane in one pass over the decisions.
+     */
+    private void collectLaneChanges() {
+        if (laneChanges == null) {
+            laneChanges = new LaneChanges[laneCount];
+            for (int index = 0; index < laneCount; ++index) {
+                laneChanges[index] = new LaneChanges();
+            }
+        }
+        for (final LaneChanges changes : laneChanges) {
+            changes.clear();
+        }
+        // decisions are made from the front to the rear of each lane and lane by lane, so each bucket is sorted
+        for (final Vehicle vehicle : laneChangingVehicles) {
+            final int targetLane = vehicle.getTargetLane();
+            if (targetLane == Lanes.NONE) {
+                continue; // cancelled
+            }
+            laneChanges[vehicle.lane() - 1].out.add(vehicle);
+            if (targetLane == Lanes.OVERTAKING) {
+                continue;
+            }
+            final LaneChanges target = laneChanges[targetLane - 1];
+            if (targetLane > vehicle.lane()) {
+                target.inFromLeft.add(vehicle);
+            } else {
+                target.inFromRight.add(vehicle);
+            }
+        }
+        for (final LaneChanges changes : laneChanges) {
+            changes.mergeIncoming();
+        }
+    }
+
     public void makeDynamicRoutingDecisions(double dt, double simulationTime, long iterationCount) {
         for (LaneSegment laneSegment : laneSegments) {
             for (Vehicle vehicle : laneSegment) {
@@ -40,6 +40,13 @@ import com.google.common.collect.Iterators;
 
 public class SignalPoint {
 
+    /**
+     * Callback notified when vehicles have passed the signal point during the road segment update.
+     */
+    public interface PassedVehiclesCallback {
+        void vehiclesPassed(SignalPoint signalPoint);
+    }
+
     private final double position;
 
     private final Predicate<Vehicle> predicate; // TODO measure performance for this vehicle iterator
@@ -48,6 +55,8 @@ public class SignalPoint {
 
     protected Set<Vehicle> vehiclesPassed = new LinkedHashSet<>(); // to assure uniqueness of entries
 
+    private PassedVehiclesCallback passedVehiclesCallback;
+
     // TODO roadSegment not needed as reference, just check here for correct position
     public SignalPoint(double position, RoadSegment roadSegment) {
         Preconditions.checkArgument(position >= 0 && position <= roadSegment.roadLength(),
@@ -60,6 +69,13 @@ public class SignalPoint {
     void registerPassingVehicles(double simulationTime, Iterator<Vehicle> vehicles) {
         this.simulationTime = simulationTime;
         Iterators.addAll(vehiclesPassed, Iterators.filter(vehicles, predicate));
+        if (passedVehiclesCallback != null && !vehiclesPassed.isEmpty()) {
+            passedVehiclesCallback.vehiclesPassed(this);
+        }
+    }
+
+    public void setPassedVehiclesCallback(PassedVehiclesCallback passedVehiclesCallback) {
+        this.passedVehiclesCallback = Preconditions.checkNotNull(passedVehiclesCallback);
     }
 
     public double position() {
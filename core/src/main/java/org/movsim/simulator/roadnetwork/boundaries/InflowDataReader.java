@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.simulator.roadnetwork.boundaries;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Sequential source of inflow data points in increasing time order.
+ * 
+ * <p>
+ * A data point consists of the time (s), the flow per lane (1/s) and the speed (m/s). Readers only keep the data
+ * points that have not been consumed yet, so that long demand profiles need not be held in memory.
+ * </p>
+ */
+public interface InflowDataReader extends Closeable {
+
+    /** index of the time in a data point */
+    int TIME = 0;
+
+    /** index of the flow per lane in a data point */
+    int FLOW = 1;
+
+    /** index of the speed in a data point */
+    int SPEED = 2;
+
+    /** number of values of a data point */
+    int SIZE = 3;
+
+    /**
+     * Reads the next data point.
+     * 
+     * @param dataPoint
+     *            array of length {@link #SIZE} to be filled
+     * @return false if the end of the data has been reached
+     * @throws IOException
+     */
+    boolean next(double[] dataPoint) throws IOException;
+
+    /**
+     * Restarts reading with the first data point.
+     * 
+     * @throws IOException
+     */
+    void rewind() throws IOException;
+
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.simulator.roadnetwork.boundaries;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.List;
+
+import org.movsim.autogen.Inflow;
+import org.movsim.utilities.Units;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Factory for {@link InflowDataReader}s.
+ * 
+ * <p>
+ * Inflow files are read in buffered chunks while the simulation proceeds. A file with the extension
+ * {@value #BINARY_EXTENSION} contains consecutive triples of big-endian doubles (time in s, flow per lane in 1/h,
+ * speed in m/s). Otherwise the file is read as text with one data point per line in the same order and units,
+ * separated by comma, semicolon or whitespace. Empty lines and lines starting with {@value #COMMENT_CHAR} are
+ * ignored. The times of the data points must not decrease.
+ * </p>
+ */
+public final class InflowDataReaders {
+
+    public static final String BINARY_EXTENSION = ".bin";
+
+    static final String COMMENT_CHAR = "#";
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private InflowDataReaders() {
+        throw new IllegalStateException("do not instanciate");
+    }
+
+    /**
+     * Returns a reader over the inflow data points of the scenario input.
+     */
+    public static InflowDataReader of(List<Inflow> inflow) {
+        return new InflowListReader(inflow);
+    }
+
+    /**
+     * Returns a reader streaming the inflow data points from the given file.
+     * 
+     * @throws IOException
+     */
+    public static InflowDataReader open(File file) throws IOException {
+        Preconditions.checkArgument(file.exists(), "inflow file " + file + " not found");
+        return file.getName().endsWith(BINARY_EXTENSION) ? new InflowBinaryReader(file) : new InflowCsvReader(file);
+    }
+
+    private static final class InflowListReader implements InflowDataReader {
+
+        private final List<Inflow> inflow;
+
+        private int index;
+
+        InflowListReader(List<Inflow> inflow) {
+            this.inflow = Preconditions.checkNotNull(inflow);
+            for (int i = 1, n = inflow.size(); i < n; i++) {
+                Preconditions.checkArgument(inflow.get(i).getT() >= inflow.get(i - 1).getT(), "inflow time="
+                        + inflow.get(i).getT() + " of data point " + (i + 1) + " before previous time="
+                        + inflow.get(i - 1).getT());
+            }
+        }
+
+        @Override
+        public boolean next(double[] dataPoint) {
+            if (index >= inflow.size()) {
+                return false;
+            }
+            final Inflow dataPoint0 = inflow.get(index++);
+            dataPoint[TIME] = dataPoint0.getT();
+            // convert flow per lane per hour in 1/s
+            dataPoint[FLOW] = dataPoint0.getQPerHour() * Units.INVH_TO_INVS;
+            dataPoint[SPEED] = dataPoint0.getV(); // in m/s
+            return true;
+        }
+
+        @Override
+        public void rewind() {
+            index = 0;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static final class InflowCsvReader implements InflowDataReader {
+
+        private final File file;
+
+        private BufferedReader reader;
+
+        private int lineNumber;
+
+        private double previousTime;
+
+        InflowCsvReader(File file) throws IOException {
+            this.file = file;
+            rewind();
+        }
+
+        @Override
+        public boolean next(double[] dataPoint) throws IOException {
+            if (reader == null) {
+                return false;
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                ++lineNumber;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith(COMMENT_CHAR)) {
+                    continue;
+                }
+                final String[] values = line.split("[,;\\s]+");
+                if (values.length < SIZE) {
+                    throw new IOException("expected time, flow and speed in line " + lineNumber + " of " + file);
+                }
+                try {
+                    dataPoint[TIME] = Double.parseDouble(values[TIME]);
+                    dataPoint[FLOW] = Double.parseDouble(values[FLOW]) * Units.INVH_TO_INVS;
+                    dataPoint[SPEED] = Double.parseDouble(values[SPEED]);
+                } catch (NumberFormatException e) {
+                    throw new IOException("cannot parse line " + lineNumber + " of " + file, e);
+                }
+                if (dataPoint[TIME] < previousTime) {
+                    throw new IOException("time=" + dataPoint[TIME] + " in line " + lineNumber + " of " + file
+                            + " before previous time=" + previousTime);
+                }
+                previousTime = dataPoint[TIME];
+                return true;
+            }
+            close();
+            return false;
+        }
+
+        @Override
+        public void rewind() throws IOException {
+            close();
+            reader = new BufferedReader(new FileReader(file), BUFFER_SIZE);
+            lineNumber = 0;
+            previousTime = Double.NEGATIVE_INFINITY;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (reader != null) {
+                reader.close();
+                reader = null;
+            }
+        }
+    }
+
+    private static final class InflowBinaryReader implements InflowDataReader {
+
+        private final File file;
+
+        private DataInputStream input;
+
+        private int dataPointNumber;
+
+        private double previousTime;
+
+        InflowBinaryReader(File file) throws IOException {
+            this.file = file;
+            rewind();
+        }
+
+        @Override
+        public boolean next(double[] dataPoint) throws IOException {
+            if (input == null) {
+                return false;
+            }
+            try {
+                dataPoint[TIME] = input.readDouble();
+            } catch (EOFException e) {
+                close();
+                return false;
+            }
+            dataPoint[FLOW] = input.readDouble() * Units.INVH_TO_INVS;
+            dataPoint[SPEED] = input.readDouble();
+            ++dataPointNumber;
+            if (dataPoint[TIME] < previousTime) {
+                throw new IOException("time=" + dataPoint[TIME] + " of data point " + dataPointNumber + " in " + file
+                        + " before previous time=" + previousTime);
+            }
+            previousTime = dataPoint[TIME];
+            return true;
+        }
+
+        @Override
+        public void rewind() throws IOException {
+            close();
+            input = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+            dataPointNumber = 0;
+            previousTime = Double.NEGATIVE_INFINITY;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (input != null) {
+                input.close();
+                input = null;
+            }
+        }
+    }
+
+}
@@ -11,19 +11,31 @@
  */
 package org.movsim.simulator.roadnetwork.boundaries;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.List;
 
 import org.movsim.autogen.Inflow;
-import org.movsim.utilities.LinearInterpolatedFunction;
+import org.movsim.shutdown.ShutdownHooks;
+import org.movsim.shutdown.SimulationShutDown;
 import org.movsim.utilities.Units;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Preconditions;
+
 /**
  * The Class InflowTimeSeries.
+ * 
+ * <p>
+ * Flow and speed are linearly interpolated between the data points and kept constant before the first and after the
+ * last data point. The data points are consumed from an {@link InflowDataReader} with a cursor that walks forward with
+ * the simulation time, so only the two data points around the current time are held. Flow and speed are evaluated
+ * once per simulation time and reused by all queries at the same time.
+ * </p>
  */
 // TODO time format not aligned with complex date format (as string)
-public class InflowTimeSeries {
+public class InflowTimeSeries implements SimulationShutDown {
 
     /** The Constant LOG. */
     private static final Logger LOG = LoggerFactory.getLogger(InflowTimeSeries.class);
@@ -32,51 +44,125 @@ public class InflowTimeSeries {
 
     private final double constantInitSpeed = 80 / 3.6;
 
-    private LinearInterpolatedFunction flowFunction;
+    private final InflowDataReader reader;
+
+    /** last data point at or before the current time, or the first data point */
+    private final double[] previous = new double[InflowDataReader.SIZE];
+
+    private final double[] next = new double[InflowDataReader.SIZE];
+
+    private boolean empty;
+
+    /** true if no data point follows the previous one */
+    private boolean endReached;
+
+    private long previousIndex;
+
+    private double currentTime = Double.NaN;
 
-    private LinearInterpolatedFunction speedFunction;
+    private double currentFlowPerLane;
+
+    private double currentSpeed;
 
     /**
      * Instantiates a new inflow time series.
      * 
      */
     public InflowTimeSeries(List<Inflow> inflow) {
+        this(InflowDataReaders.of(inflow));
         LOG.info(" inflowDataPoint.size = {}", inflow.size());
-        if (!inflow.isEmpty()) {
-            generateTimeSeriesData(inflow);
+    }
+
+    /**
+     * Instantiates a new inflow time series streamed from the given file, see {@link InflowDataReaders}.
+     * 
+     * @param file
+     */
+    public InflowTimeSeries(File file) {
+        this(openReader(file));
+        ShutdownHooks.INSTANCE.addCallback(this);
+        LOG.info("stream inflow data points from file={}", file);
+    }
+
+    public InflowTimeSeries(InflowDataReader reader) {
+        this.reader = Preconditions.checkNotNull(reader);
+        start();
+    }
+
+    private static InflowDataReader openReader(File file) {
+        try {
+            return InflowDataReaders.open(file);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("cannot read inflow file " + file, e);
         }
     }
 
-    private void generateTimeSeriesData(List<Inflow> inflow) {
-        final int size = inflow.size();
-        double[] timeValues = new double[size];
-        double[] flowValues = new double[size];
-        double[] speedValues = new double[size];
-        for (int i = 0; i < size; i++) {
-            final Inflow dataPoint = inflow.get(i);
-            timeValues[i] = dataPoint.getT();
-            // convert flow per lane per hour in 1/s
-            flowValues[i] = dataPoint.getQPerHour() * Units.INVH_TO_INVS;
-            speedValues[i] = dataPoint.getV(); // in m/s
-            LOG.debug("add data: flow={}, speed={}", flowValues[i], speedValues[i]);
+    private void start() {
+        try {
+            reader.rewind();
+            empty = !reader.next(previous);
+            endReached = empty || !reader.next(next);
+        } catch (IOException e) {
+            throw new IllegalStateException("cannot read inflow data", e);
         }
+        previousIndex = 0;
+        currentTime = Double.NaN;
+    }
 
-        flowFunction = new LinearInterpolatedFunction(timeValues, flowValues);
-        speedFunction = new LinearInterpolatedFunction(timeValues, speedValues);
+    private void update(double time) {
+        if (time == currentTime) {
+            return;
+        }
+        if (time < previous[InflowDataReader.TIME] && previousIndex > 0) {
+            // time went backwards, read again from the beginning
+            start();
+        }
+        try {
+            while (!endReached && time >= next[InflowDataReader.TIME]) {
+                System.arraycopy(next, 0, previous, 0, InflowDataReader.SIZE);
+                ++previousIndex;
+                endReached = !reader.next(next);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("cannot read inflow data", e);
+        }
+        final double dt = time - previous[InflowDataReader.TIME];
+        if (endReached || dt <= 0) {
+            currentFlowPerLane = previous[InflowDataReader.FLOW];
+            currentSpeed = previous[InflowDataReader.SPEED];
+        } else {
+            final double interval = next[InflowDataReader.TIME] - previous[InflowDataReader.TIME];
+            currentFlowPerLane = previous[InflowDataReader.FLOW]
+                    + (next[InflowDataReader.FLOW] - previous[InflowDataReader.FLOW]) / interval * dt;
+            currentSpeed = previous[InflowDataReader.SPEED]
+                    + (next[InflowDataReader.SPEED] - previous[InflowDataReader.SPEED]) / interval * dt;
+        }
+        currentTime = time;
     }
 
     public double getFlowPerLane(double time) {
-        if (flowFunction == null) {
+        if (empty) {
             return constantFlowPerLane;
         }
-        return flowFunction.value(time);
+        update(time);
+        return currentFlowPerLane;
     }
 
     public double getSpeed(double time) {
-        if (flowFunction == null) {
+        if (empty) {
             return constantInitSpeed;
         }
-        return speedFunction.value(time);
+        update(time);
+        return currentSpeed;
+    }
+
+    @Override
+    public void onShutDown() {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            LOG.warn("cannot close inflow data reader", e);
+        }
     }
 
 }
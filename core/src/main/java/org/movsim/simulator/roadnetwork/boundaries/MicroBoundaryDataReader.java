@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.simulator.roadnetwork.boundaries;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+import org.movsim.simulator.vehicles.Vehicle;
+
+/**
+ * Sequential source of the microscopic boundary conditions of a single road.
+ * 
+ * <p>
+ * Each record describes a vehicle entering the road. Records should be given in increasing time order, the
+ * {@link MicroscopicBoundaryInputData} tolerates only locally unsorted input. Readers only hold the record read last,
+ * so that long schedules need not be held in memory.
+ * </p>
+ */
+public interface MicroBoundaryDataReader extends Closeable {
+
+    /**
+     * Mutable data record filled by the reader.
+     */
+    final class Record {
+
+        /** entry time (s) */
+        double time;
+
+        /** vehicle type label */
+        String label;
+
+        /** entry lane or {@link Vehicle#LANE_NOT_SET} */
+        int lane = Vehicle.LANE_NOT_SET;
+
+        /** entry speed (m/s) or NaN if not set */
+        double speed = Double.NaN;
+
+        /** vehicle length (m) or NaN if not set */
+        double length = Double.NaN;
+
+        /** route name, may be null */
+        String route;
+
+        /** destination node of the route, may be null */
+        String destination;
+
+        /** additional key-value pairs, may be null */
+        Map<String, String> userData;
+
+        /** position in the input, orders records with equal entry times */
+        long index;
+
+        void reset() {
+            lane = Vehicle.LANE_NOT_SET;
+            speed = Double.NaN;
+            length = Double.NaN;
+            route = null;
+            destination = null;
+            userData = null;
+        }
+
+        @Override
+        public String toString() {
+            return "Record [time=" + time + ", label=" + label + ", lane=" + lane + "]";
+        }
+    }
+
+    /**
+     * Reads the next record.
+     * 
+     * @param record
+     *            the record to be filled
+     * @return false if the end of the data has been reached
+     * @throws IOException
+     */
+    boolean next(Record record) throws IOException;
+
+}
@@ -0,0 +1,377 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.simulator.roadnetwork.boundaries;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.movsim.simulator.roadnetwork.boundaries.MicroBoundaryDataReader.Record;
+import org.movsim.simulator.vehicles.Vehicle;
+import org.movsim.utilities.TimeUtilities;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Factory for {@link MicroBoundaryDataReader}s.
+ * 
+ * <p>
+ * Boundary condition files are read in buffered chunks while the simulation proceeds, each reader passes over the
+ * records of a single road and skips the others. A file with the extension {@value #XML_EXTENSION} is parsed
+ * element-wise, see {@link MicroscopicBoundaryConditions}. A text file contains one record per line with the values
+ * separated by comma or semicolon:
+ * 
+ * <pre>
+ * roadId, time, label[, lane[, speed[, length[, route[, destination[, key=value...]]]]]]
+ * </pre>
+ * 
+ * Times are given in seconds, speeds in m/s, empty values are not set. Empty lines and lines starting with
+ * {@value #COMMENT_CHAR} are ignored. A file with the extension {@value #BINARY_EXTENSION} contains the same records
+ * in big-endian binary form: roadId (UTF), time (double), label (UTF), lane (int, {@link Vehicle#LANE_NOT_SET} if not
+ * set), speed and length (double, NaN if not set), route and destination (UTF, empty if not set), the number of
+ * user data entries (int) followed by their keys and values (UTF).
+ * </p>
+ */
+public final class MicroBoundaryDataReaders {
+
+    public static final String XML_EXTENSION = ".xml";
+
+    public static final String BINARY_EXTENSION = ".bin";
+
+    static final String COMMENT_CHAR = "#";
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private MicroBoundaryDataReaders() {
+        throw new IllegalStateException("do not instanciate");
+    }
+
+    /**
+     * Returns a reader streaming the boundary conditions of the given road from the given file.
+     * 
+     * @param file
+     * @param roadId
+     * @param timeFormat
+     *            format of the times in an xml file, empty for seconds
+     * @param timeOffsetMillis
+     *            subtracted from the input times
+     * @throws IOException
+     */
+    public static MicroBoundaryDataReader open(File file, String roadId, String timeFormat, long timeOffsetMillis)
+            throws IOException {
+        Preconditions.checkArgument(file.exists(), "micro boundary conditions file " + file + " not found");
+        Preconditions.checkNotNull(roadId);
+        final String name = file.getName();
+        if (name.endsWith(XML_EXTENSION)) {
+            return new MicroBoundaryXmlReader(file, roadId, timeFormat, timeOffsetMillis);
+        }
+        return name.endsWith(BINARY_EXTENSION) ? new MicroBoundaryBinaryReader(file, roadId, timeOffsetMillis)
+                : new MicroBoundaryCsvReader(file, roadId, timeOffsetMillis);
+    }
+
+    private static final class MicroBoundaryXmlReader implements MicroBoundaryDataReader {
+
+        private static final String ROAD = "RoadMicroscopicBoundaryConditions";
+
+        private static final String BOUNDARY_CONDITION = "BoundaryCondition";
+
+        private static final String USER_DATA = "VehicleUserData";
+
+        private final File file;
+
+        private final String roadId;
+
+        private final String timeFormat;
+
+        private final long timeOffsetMillis;
+
+        private final InputStream inputStream;
+
+        private XMLStreamReader reader;
+
+        private boolean inRoad;
+
+        MicroBoundaryXmlReader(File file, String roadId, String timeFormat, long timeOffsetMillis)
+                throws IOException {
+            this.file = file;
+            this.roadId = roadId;
+            this.timeFormat = Preconditions.checkNotNull(timeFormat);
+            this.timeOffsetMillis = timeOffsetMillis;
+            inputStream = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE);
+            try {
+                reader = XMLInputFactory.newInstance().createXMLStreamReader(inputStream);
+            } catch (XMLStreamException e) {
+                inputStream.close();
+                throw new IOException("cannot parse " + file, e);
+            }
+        }
+
+        @Override
+        public boolean next(Record record) throws IOException {
+            if (reader == null) {
+                return false;
+            }
+            try {
+                while (reader.hasNext()) {
+                    final int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        if (ROAD.equals(reader.getLocalName())) {
+                            inRoad = roadId.equals(reader.getAttributeValue(null, "id"));
+                        } else if (inRoad && BOUNDARY_CONDITION.equals(reader.getLocalName())) {
+                            readBoundaryCondition(record);
+                            return true;
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT && inRoad
+                            && ROAD.equals(reader.getLocalName())) {
+                        // road ids are unique, see MicroscopicBoundaryConditions
+                        break;
+                    }
+                }
+            } catch (XMLStreamException | IllegalArgumentException e) {
+                throw new IOException("cannot parse " + file + " at line "
+                        + (reader == null ? -1 : reader.getLocation().getLineNumber()), e);
+            }
+            close();
+            return false;
+        }
+
+        private void readBoundaryCondition(Record record) throws XMLStreamException {
+            record.reset();
+            record.time = TimeUtilities.convertToSeconds(reader.getAttributeValue(null, "time"), timeFormat,
+                    timeOffsetMillis);
+            record.label = reader.getAttributeValue(null, "label");
+            final String lane = reader.getAttributeValue(null, "lane");
+            if (lane != null) {
+                record.lane = Integer.parseInt(lane.trim());
+            }
+            final String speed = reader.getAttributeValue(null, "speed");
+            if (speed != null) {
+                record.speed = Double.parseDouble(speed);
+            }
+            final String length = reader.getAttributeValue(null, "length");
+            if (length != null) {
+                record.length = Double.parseDouble(length);
+            }
+            record.route = reader.getAttributeValue(null, "route");
+            record.destination = reader.getAttributeValue(null, "destination");
+            // nested user data until the end of the boundary condition element
+            int event;
+            while ((event = reader.next()) != XMLStreamConstants.END_ELEMENT
+                    || !BOUNDARY_CONDITION.equals(reader.getLocalName())) {
+                if (event == XMLStreamConstants.START_ELEMENT && USER_DATA.equals(reader.getLocalName())) {
+                    if (record.userData == null) {
+                        record.userData = new LinkedHashMap<>();
+                    }
+                    record.userData.put(reader.getAttributeValue(null, "key"), reader.getAttributeValue(null, "value"));
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    throw new IOException(e);
+                } finally {
+                    reader = null;
+                    inputStream.close();
+                }
+            }
+        }
+    }
+
+    private static final class MicroBoundaryCsvReader implements MicroBoundaryDataReader {
+
+        private static final int MIN_SIZE = 3;
+
+        private static final int ROAD_ID = 0;
+        private static final int TIME = 1;
+        private static final int LABEL = 2;
+        private static final int LANE = 3;
+        private static final int SPEED = 4;
+        private static final int LENGTH = 5;
+        private static final int ROUTE = 6;
+        private static final int DESTINATION = 7;
+        private static final int USER_DATA = 8;
+
+        private final File file;
+
+        private final String roadId;
+
+        private final long timeOffsetMillis;
+
+        private BufferedReader reader;
+
+        private int lineNumber;
+
+        MicroBoundaryCsvReader(File file, String roadId, long timeOffsetMillis) throws IOException {
+            this.file = file;
+            this.roadId = roadId;
+            this.timeOffsetMillis = timeOffsetMillis;
+            reader = new BufferedReader(new FileReader(file), BUFFER_SIZE);
+        }
+
+        @Override
+        public boolean next(Record record) throws IOException {
+            if (reader == null) {
+                return false;
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                ++lineNumber;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith(COMMENT_CHAR)) {
+                    continue;
+                }
+                final String[] values = line.split("\\s*[,;]\\s*");
+                if (values.length < MIN_SIZE) {
+                    throw new IOException("expected roadId, time and label in line " + lineNumber + " of " + file);
+                }
+                if (!roadId.equals(values[ROAD_ID])) {
+                    continue;
+                }
+                try {
+                    record.reset();
+                    record.time = TimeUtilities.convertToSeconds(values[TIME], "", timeOffsetMillis);
+                    record.label = values[LABEL];
+                    if (isSet(values, LANE)) {
+                        record.lane = Integer.parseInt(values[LANE]);
+                    }
+                    if (isSet(values, SPEED)) {
+                        record.speed = Double.parseDouble(values[SPEED]);
+                    }
+                    if (isSet(values, LENGTH)) {
+                        record.length = Double.parseDouble(values[LENGTH]);
+                    }
+                    record.route = isSet(values, ROUTE) ? values[ROUTE] : null;
+                    record.destination = isSet(values, DESTINATION) ? values[DESTINATION] : null;
+                    for (int i = USER_DATA; i < values.length; i++) {
+                        final int separator = values[i].indexOf('=');
+                        if (separator < 0) {
+                            throw new IOException("expected key=value as user data in line " + lineNumber + " of "
+                                    + file);
+                        }
+                        if (record.userData == null) {
+                            record.userData = new LinkedHashMap<>();
+                        }
+                        record.userData.put(values[i].substring(0, separator), values[i].substring(separator + 1));
+                    }
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("cannot parse line " + lineNumber + " of " + file, e);
+                }
+                return true;
+            }
+            close();
+            return false;
+        }
+
+        private static boolean isSet(String[] values, int index) {
+            return index < values.length && !values[index].isEmpty();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (reader != null) {
+                reader.close();
+                reader = null;
+            }
+        }
+    }
+
+    private static final class MicroBoundaryBinaryReader implements MicroBoundaryDataReader {
+
+        private final String roadId;
+
+        private final long timeOffsetMillis;
+
+        private DataInputStream input;
+
+        MicroBoundaryBinaryReader(File file, String roadId, long timeOffsetMillis) throws IOException {
+            this.roadId = roadId;
+            this.timeOffsetMillis = timeOffsetMillis;
+            input = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+        }
+
+        @Override
+        public boolean next(Record record) throws IOException {
+            if (input == null) {
+                return false;
+            }
+            while (true) {
+                final String recordRoadId;
+                try {
+                    recordRoadId = input.readUTF();
+                } catch (EOFException e) {
+                    close();
+                    return false;
+                }
+                record.reset();
+                record.time = input.readDouble() - timeOffsetMillis / 1000.;
+                record.label = input.readUTF();
+                record.lane = input.readInt();
+                record.speed = input.readDouble();
+                record.length = input.readDouble();
+                final String route = input.readUTF();
+                record.route = route.isEmpty() ? null : route;
+                final String destination = input.readUTF();
+                record.destination = destination.isEmpty() ? null : destination;
+                final int userDataCount = input.readInt();
+                if (userDataCount > 0) {
+                    record.userData = new LinkedHashMap<>();
+                    for (int i = 0; i < userDataCount; i++) {
+                        record.userData.put(input.readUTF(), input.readUTF());
+                    }
+                }
+                if (roadId.equals(recordRoadId)) {
+                    return true;
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (input != null) {
+                input.close();
+                input = null;
+            }
+        }
+    }
+
+}
@@ -1,64 +1,89 @@
 package org.movsim.simulator.roadnetwork.boundaries;
 
 import java.io.File;
-import java.util.HashMap;
-import java.util.Map;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
 
-import javax.annotation.CheckForNull;
-
-import org.movsim.scenario.boundary.autogen.BoundaryConditionsType;
-import org.movsim.scenario.boundary.autogen.MovsimMicroscopicBoundaryConditions;
-import org.movsim.scenario.boundary.autogen.RoadMicroscopicBoundaryConditionsType;
 import org.movsim.xml.InputLoader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
 
 import com.google.common.base.Preconditions;
 
+/**
+ * Microscopic boundary conditions file, see {@link MicroBoundaryDataReaders} for the supported formats.
+ *
+ * <p>
+ * An xml file is validated once without building the object tree, the boundary conditions are streamed per road by
+ * {@link #openReader(String, long)}.
+ * </p>
+ */
 public class MicroscopicBoundaryConditions {
 
     private static final Logger LOG = LoggerFactory.getLogger(MicroscopicBoundaryConditions.class);
 
-    private final Map<String, RoadMicroscopicBoundaryConditionsType> roadToBoundaryConditions;
-
     private final File file;
 
-    private final String timeFormat;
+    private final Set<String> roadIds = new HashSet<>();
+
+    private String timeFormat = "";
 
     public MicroscopicBoundaryConditions(File file) {
         this.file = Preconditions.checkNotNull(file);
         Preconditions.checkArgument(file.exists(), "micro boundary conditions file " + file + " not found");
-        roadToBoundaryConditions = new HashMap<>();
-
-        MovsimMicroscopicBoundaryConditions input = InputLoader.unmarshallMicroBoundaryConditions(file);
-        LOG.info("loaded initial conditions from file={}", file);
-
-        this.timeFormat = input.getTimeFormat();
-        LOG.debug("for input file={} use time format={}", file, timeFormat);
-        fillMapping(input);
+        if (file.getName().endsWith(MicroBoundaryDataReaders.XML_EXTENSION)) {
+            validate();
+        }
     }
 
     /**
      * @throws IllegalStateException
      */
-    private void fillMapping(MovsimMicroscopicBoundaryConditions input) {
-        for (RoadMicroscopicBoundaryConditionsType roadConditions : input.getRoadMicroscopicBoundaryConditions()){
-            String roadId = roadConditions.getId();
-            if (roadToBoundaryConditions.containsKey(roadId)) {
-                throw new IllegalStateException("roadId=" + roadId + "already used in input file=" + file);
+    private void validate() {
+        InputLoader.validateMicroBoundaryConditions(file, new DefaultHandler() {
+            @Override
+            public void startElement(String uri, String localName, String qName, Attributes attributes) {
+                if ("MovsimMicroscopicBoundaryConditions".equals(localName)) {
+                    final String format = attributes.getValue("time_format");
+                    timeFormat = format == null ? "" : format;
+                } else if ("RoadMicroscopicBoundaryConditions".equals(localName)) {
+                    final String roadId = attributes.getValue("id");
+                    if (!roadIds.add(roadId)) {
+                        throw new IllegalStateException("roadId=" + roadId + " already used in input file=" + file);
+                    }
+                }
             }
-            roadToBoundaryConditions.put(roadId, roadConditions);
-        }
-        LOG.info("unmarshalled initial conditions for {} roads", roadToBoundaryConditions.size());
+        });
+        LOG.info("validated microscopic boundary conditions for {} roads from file={}", roadIds.size(), file);
+        LOG.debug("for input file={} use time format={}", file, timeFormat);
     }
 
     public String getTimeFormat() {
         return timeFormat;
     }
 
-    @CheckForNull
-    public BoundaryConditionsType getBoundaryConditions(String roadUserId) {
-        return roadToBoundaryConditions.get(roadUserId).getBoundaryConditions();
+    /**
+     * Opens a reader over the boundary conditions of the given road.
+     *
+     * @param roadUserId
+     * @param timeOffsetMillis
+     *            subtracted from the input times
+     * @return the reader
+     * @throws IllegalStateException
+     *             if the file cannot be read
+     */
+    public MicroBoundaryDataReader openReader(String roadUserId, long timeOffsetMillis) {
+        if (file.getName().endsWith(MicroBoundaryDataReaders.XML_EXTENSION) && !roadIds.contains(roadUserId)) {
+            LOG.warn("no microscopic boundary conditions for road={} in file={}", roadUserId, file);
+        }
+        try {
+            return MicroBoundaryDataReaders.open(file, roadUserId, timeFormat, timeOffsetMillis);
+        } catch (IOException e) {
+            throw new IllegalStateException("cannot read micro boundary conditions file " + file, e);
+        }
     }
 
 }
@@ -1,84 +1,207 @@
 package org.movsim.simulator.roadnetwork.boundaries;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Comparator;
 import java.util.Map;
+import java.util.PriorityQueue;
 
-import org.movsim.scenario.boundary.autogen.BoundaryConditionType;
-import org.movsim.scenario.boundary.autogen.BoundaryConditionsType;
-import org.movsim.scenario.boundary.autogen.VehicleUserDataType;
+import org.movsim.shutdown.ShutdownHooks;
+import org.movsim.shutdown.SimulationShutDown;
 import org.movsim.simulator.roadnetwork.Lanes;
+import org.movsim.simulator.roadnetwork.RoadSegment;
+import org.movsim.simulator.roadnetwork.boundaries.MicroBoundaryDataReader.Record;
 import org.movsim.simulator.roadnetwork.routing.Route;
 import org.movsim.simulator.roadnetwork.routing.Routing;
 import org.movsim.simulator.vehicles.Vehicle;
-import org.movsim.utilities.TimeUtilities;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Preconditions;
 
-public class MicroscopicBoundaryInputData {
+/**
+ * Schedule of microscopic boundary conditions for a single traffic source.
+ *
+ * <p>
+ * The entry records are streamed from a {@link MicroBoundaryDataReader} and consumed in the order of their entry times
+ * (in seconds, including fractions of seconds) by a forward cursor. Only a look-ahead window of records is held in
+ * memory: input that is unsorted within the window is reordered, records with equal entry times keep their order of
+ * the input. A record that is due earlier than an already consumed record is rejected. The {@link Vehicle}s are not
+ * created upfront but on demand when their entry is due, see {@link #createNextVehicle(TrafficSourceMicro)}.
+ * </p>
+ */
+public class MicroscopicBoundaryInputData implements SimulationShutDown {
 
     private static final Logger LOG = LoggerFactory.getLogger(MicroscopicBoundaryInputData.class);
 
-    private final BoundaryConditionsType boundaryConditions;
-    private final long timeOffsetMillis;
-    private final String timeFormat;
+    /** default number of records read ahead of the cursor */
+    public static final int DEFAULT_LOOK_AHEAD = 1000;
+
+    private static final Comparator<Record> ENTRY_ORDER = new Comparator<Record>() {
+        @Override
+        public int compare(Record o1, Record o2) {
+            final int result = Double.compare(o1.time, o2.time);
+            return result != 0 ? result : Long.compare(o1.index, o2.index);
+        }
+    };
+
+    private final MicroBoundaryDataReader reader;
+
     private final Routing routing;
 
-    public MicroscopicBoundaryInputData(BoundaryConditionsType boundaryConditions, String timeFormat,
-            long timeOffsetMillis, Routing routing) {
-        this.boundaryConditions = Preconditions.checkNotNull(boundaryConditions);
+    private final int lookAhead;
+
+    /** records read ahead of the cursor, ordered by entry time */
+    private final PriorityQueue<Record> window;
+
+    /** consumed records for reuse */
+    private final ArrayDeque<Record> unusedRecords = new ArrayDeque<>();
+
+    private boolean endReached;
+
+    private long recordCount;
+
+    private double lastEntryTime = Double.NEGATIVE_INFINITY;
+
+    public MicroscopicBoundaryInputData(MicroBoundaryDataReader reader, Routing routing) {
+        this(reader, routing, DEFAULT_LOOK_AHEAD);
+    }
+
+    public MicroscopicBoundaryInputData(MicroBoundaryDataReader reader, Routing routing, int lookAhead) {
+        this.reader = Preconditions.checkNotNull(reader);
         this.routing = Preconditions.checkNotNull(routing);
-        this.timeFormat = timeFormat;
-        this.timeOffsetMillis = timeOffsetMillis;
+        Preconditions.checkArgument(lookAhead > 0, "lookAhead=" + lookAhead);
+        this.lookAhead = lookAhead;
+        this.window = new PriorityQueue<>(lookAhead, ENTRY_ORDER);
+        fillWindow();
+        ShutdownHooks.INSTANCE.addCallback(this);
     }
 
-    public Map<Long, Vehicle> createVehicles(TrafficSourceMicro trafficSource) {
-        Preconditions.checkNotNull(trafficSource);
-        Map<Long, Vehicle> vehicles = new HashMap<>();
-        int size = boundaryConditions.getBoundaryCondition().size();
-        LOG.info("number of vehicleBoundaryCondition entries=" + size);
-        for (BoundaryConditionType boundaryCondition : boundaryConditions.getBoundaryCondition()) {
-            Vehicle vehicle = createVehicle(boundaryCondition, trafficSource);
-            // round to seconds
-            long time = Math.round(TimeUtilities.convertToSeconds(boundaryCondition.getTime(), timeFormat, timeOffsetMillis));
-            Preconditions.checkArgument(!vehicles.containsKey(time), "time=" + time
-                    + " already used as micro boundary condition");
-            vehicles.put(time, vehicle);
+    /**
+     * @throws IllegalStateException
+     */
+    private void fillWindow() {
+        try {
+            while (!endReached && window.size() < lookAhead) {
+                final Record record = unusedRecords.isEmpty() ? new Record() : unusedRecords.removeFirst();
+                if (!reader.next(record)) {
+                    endReached = true;
+                    reader.close();
+                    LOG.info("number of vehicleBoundaryCondition entries={}", recordCount);
+                    break;
+                }
+                if (record.time < lastEntryTime) {
+                    throw new IllegalStateException("entry time=" + record.time + " of microscopic boundary condition "
+                            + record + " before already due entry time=" + lastEntryTime
+                            + ", input not sorted within look-ahead of " + lookAhead + " records");
+                }
+                record.index = recordCount++;
+                window.add(record);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("cannot read microscopic boundary conditions", e);
+        }
+    }
+
+    /**
+     * Returns true if no more entry records are available.
+     *
+     * @return true if all entry records have been consumed
+     */
+    public boolean isEmpty() {
+        return window.isEmpty();
+    }
+
+    /**
+     * Returns the entry time of the next record. The entry times are non-decreasing.
+     *
+     * @return the entry time (s) or {@link Double#POSITIVE_INFINITY} if no record is left
+     */
+    public double nextEntryTime() {
+        return window.isEmpty() ? Double.POSITIVE_INFINITY : window.peek().time;
+    }
+
+    /**
+     * Returns the entry lane of the next record, limited to the lanes of the road segment.
+     *
+     * @param roadSegment
+     * @return the entry lane or {@link Vehicle#LANE_NOT_SET} if the record does not specify a lane
+     */
+    public int nextEntryLane(RoadSegment roadSegment) {
+        final Record record = Preconditions.checkNotNull(window.peek());
+        if (record.lane == Vehicle.LANE_NOT_SET) {
+            return Vehicle.LANE_NOT_SET;
+        }
+        int lane = record.lane;
+        final int laneCount = roadSegment.laneCount();
+        if (lane > laneCount) {
+            LOG.warn("input lane={} not available on road={}, set to laneCount=" + laneCount, lane,
+                    roadSegment.userId());
+            lane = laneCount;
+        }
+        if (lane < Lanes.MOST_INNER_LANE) {
+            LOG.warn("input lane={} not available on road={}, set lane to lane=" + Lanes.MOST_INNER_LANE, lane,
+                    roadSegment.userId());
+            lane = Lanes.MOST_INNER_LANE;
         }
-        return vehicles;
+        return lane;
+    }
+
+    /**
+     * Creates the vehicle of the next record and advances the cursor.
+     *
+     * @param trafficSource
+     * @return the new vehicle
+     */
+    public Vehicle createNextVehicle(TrafficSourceMicro trafficSource) {
+        Preconditions.checkNotNull(trafficSource);
+        final Record record = pollRecord();
+        final Vehicle vehicle = createVehicle(record, trafficSource);
+        record.userData = null;
+        unusedRecords.addLast(record);
+        return vehicle;
     }
 
-    private Vehicle createVehicle(BoundaryConditionType record, TrafficSourceMicro trafficSource) {
-        final Vehicle vehicle = trafficSource.vehGenerator.createVehicle(record.getLabel());
+    /**
+     * Removes the next record and reads ahead.
+     */
+    Record pollRecord() {
+        final Record record = Preconditions.checkNotNull(window.poll());
+        lastEntryTime = record.time;
+        fillWindow();
+        return record;
+    }
+
+    private Vehicle createVehicle(Record record, TrafficSourceMicro trafficSource) {
+        final Vehicle vehicle = trafficSource.vehGenerator.createVehicle(record.label);
 
-        if (record.isSetSpeed()) {
-            vehicle.setSpeed(record.getSpeed());
+        if (!Double.isNaN(record.speed)) {
+            vehicle.setSpeed(record.speed);
         }
 
-        if (record.isSetLength()) {
-            vehicle.getDimensions().setLength(record.getLength());
+        if (!Double.isNaN(record.length)) {
+            vehicle.getDimensions().setLength(record.length);
         }
 
         Route route = null;
-        if (record.isSetRoute()) {
-            if (routing.hasRoute(record.getRoute())) {
-                route = routing.get(record.getRoute());
+        if (record.route != null) {
+            if (routing.hasRoute(record.route)) {
+                route = routing.get(record.route);
                 LOG.info("overwrites vehicle's default route by input file: route={}", route.getName());
             } else {
-                throw new IllegalStateException("cannot find route=" + record.getRoute());
+                throw new IllegalStateException("cannot find route=" + record.route);
             }
         }
-        if (record.isSetDestination()) {
-            if (record.isSetRoute()) {
-                throw new IllegalStateException("ambiguous microscopic boundary condition: route=" + record.getRoute()
-                        + " and destination=" + record.getDestination());
+        if (record.destination != null) {
+            if (record.route != null) {
+                throw new IllegalStateException("ambiguous microscopic boundary condition: route=" + record.route
+                        + " and destination=" + record.destination);
             }
             // determine route by destination
-            route = routing.findRoute(trafficSource.roadSegment.userId(), record.getDestination());
+            route = routing.findRoute(trafficSource.roadSegment.userId(), record.destination);
             if (route == null) {
                 LOG.error("no route assigned to vehicle={}", vehicle);
-                throw new IllegalStateException("cannot find route by destination node=" + record.getDestination());
+                throw new IllegalStateException("cannot find route by destination node=" + record.destination);
             }
         }
 
@@ -87,29 +210,22 @@ public class MicroscopicBoundaryInputData {
             vehicle.setRoute(route);
         }
 
-        if (record.isSetLane()) {
-            int lane = record.getLane();
-            int laneCount = trafficSource.roadSegment.laneCount();
-            if (lane > trafficSource.roadSegment.laneCount()) {
-                LOG.warn("input lane={} not available on road={}, set to laneCount=" + laneCount, lane,
-                        trafficSource.roadSegment.userId());
-                lane = laneCount;
-            }
-            if (lane < Lanes.MOST_INNER_LANE) {
-                LOG.warn("input lane={} not available on road={}, set lane to lane=" + Lanes.MOST_INNER_LANE, lane,
-                        trafficSource.roadSegment.userId());
-                lane = Lanes.MOST_INNER_LANE;
-            }
-            record.setLane(lane);
-        }
-
-        if (!record.getVehicleUserData().isEmpty()) {
-            for (VehicleUserDataType vehUserData : record.getVehicleUserData()) {
-                vehicle.getUserData().put(vehUserData.getKey(), vehUserData.getValue());
+        if (record.userData != null) {
+            for (Map.Entry<String, String> userData : record.userData.entrySet()) {
+                vehicle.getUserData().put(userData.getKey(), userData.getValue());
             }
         }
 
         return vehicle;
     }
 
+    @Override
+    public void onShutDown() {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            LOG.warn("cannot close microscopic boundary conditions reader", e);
+        }
+    }
+
 }
@@ -25,9 +25,6 @@
  */
 package org.movsim.simulator.roadnetwork.boundaries;
 
-import java.util.SortedSet;
-import java.util.TreeSet;
-
 import org.movsim.simulator.MovsimConstants;
 import org.movsim.simulator.roadnetwork.LaneSegment;
 import org.movsim.simulator.roadnetwork.RoadSegment;
@@ -43,6 +40,11 @@ import org.slf4j.LoggerFactory;
  * 
  * Ignores the initial speed settings from input.
  * 
+ * <p>
+ * The largest gap is found in a single pass over the adjacent vehicle pairs of each lane, which are sorted by
+ * position. Several waiting vehicles are dropped within one update, each into the largest gap that is left.
+ * </p>
+ * 
  */
 public class SimpleRamp extends AbstractTrafficSource {
 
@@ -56,6 +58,18 @@ public class SimpleRamp extends AbstractTrafficSource {
 
     private final InflowTimeSeries inflowTimeSeries;
 
+    // largest gap found by the last search
+
+    private boolean gapFound;
+
+    private double bestGapToLeader;
+
+    private int bestLane;
+
+    private double bestEnterPosition;
+
+    private double bestEnterSpeed;
+
     public SimpleRamp(TrafficCompositionGenerator vehGenerator, RoadSegment roadSegment,
             org.movsim.autogen.SimpleRamp simpleRampData, InflowTimeSeries inflowTimeSeries) {
         super(vehGenerator, roadSegment);
@@ -77,79 +91,99 @@ public class SimpleRamp extends AbstractTrafficSource {
 
         calcApproximateInflow(dt);
 
-        if (nWait >= 1.0) {
-            // try to insert vehicle
+        while (nWait >= 1.0) {
+            // try to insert vehicle, the previously inserted vehicle splits its gap
             final TestVehicle testVehicle = vehGenerator.getTestVehicle();
-            SortedSet<GapCandidate> gapCandidates = findLargestPossibleGap(testVehicle); // only one insert per timestep
-
-            if (!gapCandidates.isEmpty()) {
-                GapCandidate gap = gapCandidates.first();
-                addVehicle(roadSegment.laneSegment(gap.laneIndex), testVehicle, gap.enterPosition, gap.enterSpeed);
-                // TODO testwise adding, check for accidents
-                nWait--;
-                incrementInflowCount(1);
-                recordData(simulationTime, totalInflow);
+            if (!findLargestPossibleGap(testVehicle)) {
+                return;
             }
+            addVehicle(roadSegment.laneSegment(bestLane), testVehicle, bestEnterPosition, bestEnterSpeed);
+            // TODO testwise adding, check for accidents
+            nWait--;
+            incrementInflowCount(1);
+            recordData(simulationTime, totalInflow);
         }
     }
 
-    private SortedSet<GapCandidate> findLargestPossibleGap(TestVehicle testVehicle) {
-        SortedSet<GapCandidate> gapCandidates = new TreeSet<>();
-
+    private boolean findLargestPossibleGap(TestVehicle testVehicle) {
+        gapFound = false;
+        final double roadLength = roadSegment.roadLength();
         for (LaneSegment laneSegment : roadSegment.laneSegments()) {
-            for (Vehicle vehicle : laneSegment) {
-                evaluateVehicle(vehicle, laneSegment, testVehicle, gapCandidates);
+            final int count = laneSegment.vehicleCount();
+            // vehicles are sorted by decreasing position, so each vehicle is followed by its rear vehicle
+            for (int i = 0; i < count; i++) {
+                final Vehicle vehicle = laneSegment.getVehicle(i);
+                final double rearPosition = vehicle.getRearPosition();
+                if (rearPosition < testVehicle.length() + MINIMUM_GAP_BOUNDARY) {
+                    // available upstream road segment too small, also for all following vehicles
+                    LOG.debug("no sufficient upstream gap: rearPosition={}", rearPosition);
+                    break;
+                }
+                // the rear vehicle of the last vehicle is searched on the upstream road segment
+                final Vehicle rearVehicle = (i + 1 < count) ? laneSegment.getVehicle(i + 1) : laneSegment
+                        .rearVehicle(rearPosition - 1);
+                evaluateGap(rearPosition, vehicle.getSpeed(), rearVehicle, laneSegment.lane(), testVehicle);
             }
 
             // check also rear vehicles of next downstream segment
-            Vehicle rearVehicleNextLaneSegment = laneSegment.sinkLaneSegment().rearVehicle();
+            final Vehicle rearVehicleNextLaneSegment = laneSegment.sinkLaneSegment() == null ? null : laneSegment
+                    .sinkLaneSegment().rearVehicle();
             if (rearVehicleNextLaneSegment != null) {
-                evaluateVehicle(rearVehicleNextLaneSegment, laneSegment, testVehicle, gapCandidates);
-            }
-            if (rearVehicleNextLaneSegment == null && laneSegment.vehicleCountWithoutObstacles() == 0) {
-                gapCandidates.add(new GapCandidate(MovsimConstants.GAP_INFINITY, laneSegment.lane(), 0.5
-                        * roadSegment.roadLength() - testVehicle.length(), testVehicle.getRelativeRandomizationV0()));
+                // position of the downstream leader relative to this road segment
+                final double rearPosition = rearVehicleNextLaneSegment.getRearPosition() + roadLength;
+                evaluateGap(rearPosition, rearVehicleNextLaneSegment.getSpeed(),
+                        laneSegment.rearVehicle(rearPosition - 1), laneSegment.lane(), testVehicle);
+            } else if (laneSegment.vehicleCountWithoutObstacles() == 0) {
+                updateLargestGap(MovsimConstants.GAP_INFINITY, laneSegment.lane(), 0.5 * roadLength
+                        - testVehicle.length(), testVehicle.getRelativeRandomizationV0());
             }
         }
-
-        // if (false) {
-        // int counter = 0;
-        // System.out.println("gap candidated size=" + gapCandidates.size());
-        // for (GapCandidate gap : gapCandidates) {
-        // ++counter;
-        // System.out.println("candidate " + counter + ":" + gap.toString());
-        // }
-        // }
-
-        return gapCandidates;
-
+        return gapFound;
     }
 
-    private void evaluateVehicle(Vehicle vehicle, LaneSegment laneSegment, TestVehicle testVehicle,
-            SortedSet<GapCandidate> gapCandidates) {
-        if (vehicle.getRearPosition() < testVehicle.length() + MINIMUM_GAP_BOUNDARY) {
+    /**
+     * Evaluates the gap between the leader and its rear vehicle.
+     * 
+     * @param leaderRearPosition
+     *            rear position of the leader
+     * @param leaderSpeed
+     * @param rearVehicle
+     *            the rear vehicle, may be null
+     * @param lane
+     * @param testVehicle
+     */
+    private void evaluateGap(double leaderRearPosition, double leaderSpeed, Vehicle rearVehicle, int lane,
+            TestVehicle testVehicle) {
+        if (leaderRearPosition < testVehicle.length() + MINIMUM_GAP_BOUNDARY) {
             // available upstream road segment too small
-            LOG.debug("no sufficient upstream gap: rearPosition={}", vehicle.getRearPosition());
             return;
         }
-        Vehicle rearVehicle = laneSegment.rearVehicle(vehicle.getRearPosition() - 1); // TODO finds not rear vehicle but
-                                                                                      // itself !!!
-                                                                                      // if (rearVehicle == vehicle) {
-        // System.out.println("!!! rear vehicle is identical to vehicle!");
-        // }
-        final double gap = vehicle.getNetDistanceToRearVehicle(rearVehicle);
+        final double gap = (rearVehicle == null) ? MovsimConstants.GAP_INFINITY : leaderRearPosition
+                - rearVehicle.getFrontPosition();
         if (gap < testVehicle.length() + 2 * MINIMUM_GAP_BOUNDARY) {
             // gap too small
-            // System.out.println("gap too small, gap=" + gap + ", vehicle=" + vehicle.toString() + ", rearVehicle="
-            // + rearVehicle.toString());
             return;
         }
 
-        double enterFrontPosition = Math.max(testVehicle.length(), vehicle.getRearPosition() - relativeGapToLeader
+        final double enterFrontPosition = Math.max(testVehicle.length(), leaderRearPosition - relativeGapToLeader
                 * gap + 0.5 * testVehicle.length());
-        final double gapToLeader = vehicle.getRearPosition() - enterFrontPosition;
-        double speed = relativeSpeedToLeader * vehicle.getSpeed();
-        gapCandidates.add(new GapCandidate(gapToLeader, laneSegment.lane(), enterFrontPosition, speed));
+        if (enterFrontPosition > roadSegment.roadLength()) {
+            // leader is on the downstream road segment and the gap lies mostly downstream of this road segment
+            return;
+        }
+        final double gapToLeader = leaderRearPosition - enterFrontPosition;
+        updateLargestGap(gapToLeader, lane, enterFrontPosition, relativeSpeedToLeader * leaderSpeed);
+    }
+
+    private void updateLargestGap(double gapToLeader, int lane, double enterPosition, double enterSpeed) {
+        // prefer the first candidate for identical gaps, the lanes are evaluated starting with the most inner lane
+        if (!gapFound || gapToLeader > bestGapToLeader) {
+            gapFound = true;
+            bestGapToLeader = gapToLeader;
+            bestLane = lane;
+            bestEnterPosition = enterPosition;
+            bestEnterSpeed = enterSpeed;
+        }
     }
 
     @Override
@@ -157,52 +191,4 @@ public class SimpleRamp extends AbstractTrafficSource {
         return inflowTimeSeries.getFlowPerLane(time) * roadSegment.laneCount();
     }
 
-    final class GapCandidate implements Comparable<GapCandidate> {
-
-        final int laneIndex;
-        final double gapToLeader;
-        final double enterPosition;
-        final double enterSpeed;
-
-        public GapCandidate(double gapToLeader, int laneIndex, double enterPosition, double enterSpeed) {
-            this.gapToLeader = gapToLeader;
-            this.laneIndex = laneIndex;
-            this.enterPosition = enterPosition;
-            this.enterSpeed = enterSpeed;
-        }
-
-        @Override
-        public int compareTo(GapCandidate o) {
-            // BEFORE = -1, EQUAL = 0, AFTER = 1
-
-            // same instance
-            if (this == o) {
-                return 0;
-            }
-
-            // compare gaps
-            if (this.gapToLeader > o.gapToLeader) {
-                return -1;
-            } else if (this.gapToLeader < o.gapToLeader) {
-                return 1;
-            }
-
-            // gaps identical, compare lanes, prefer small laneIndex index (i.e. laneIndex to the right)
-            if (this.laneIndex < o.laneIndex) {
-                return -1;
-            } else if (this.laneIndex > o.laneIndex) {
-                return 1;
-            }
-
-            return 0;
-        }
-
-        @Override
-        public String toString() {
-            return "GapCandidate [laneIndex=" + laneIndex + ", gapToLeader=" + gapToLeader + ", enterPosition="
-                    + enterPosition + ", enterSpeed=" + enterSpeed + "]";
-        }
-
-    }
-
-}
\ No newline at end of file
+}
@@ -29,6 +29,7 @@ package org.movsim.simulator.roadnetwork.boundaries;
 import org.movsim.simulator.SimulationTimeStep;
 import org.movsim.simulator.roadnetwork.RoadSegment;
 import org.movsim.simulator.vehicles.Vehicle;
+import org.movsim.simulator.vehicles.VehiclePool;
 import org.movsim.utilities.Units;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -59,6 +60,8 @@ public class TrafficSink implements SimulationTimeStep {
     RecordDataCallback recordDataCallback;
     private double simulationTime;
 
+    private VehiclePool vehiclePool;
+
     public interface RecordDataCallback {
         /**
          * Callback to allow the application to process or record the traffic sink data.
@@ -91,6 +94,15 @@ public class TrafficSink implements SimulationTimeStep {
         this.recordDataCallback = Preconditions.checkNotNull(recordDataCallback);
     }
 
+    /**
+     * Sets the pool which takes the removed vehicles for reuse.
+     * 
+     * @param vehiclePool
+     */
+    public void setVehiclePool(VehiclePool vehiclePool) {
+        this.vehiclePool = Preconditions.checkNotNull(vehiclePool);
+    }
+
     /**
      * Returns the outflow, averaged over the measuring interval.
      * 
@@ -150,6 +162,9 @@ public class TrafficSink implements SimulationTimeStep {
         if (recordDataCallback != null) {
             recordDataCallback.recordData(simulationTime, totalVehiclesRemoved, vehicle);
         }
+        if (vehiclePool != null) {
+            vehiclePool.release(vehicle);
+        }
     }
 
     /**
@@ -65,25 +65,28 @@ public class TrafficSourceMacro extends AbstractTrafficSource {
 
         calcApproximateInflow(dt);
 
-        if (nWait >= 1.0) {
+        // insert as many vehicles as demand and gaps allow, iterate periodically over n lanes
+        final int laneCount = roadSegment.laneCount();
+        int iLane = laneEnterLast;
+        int lanesWithoutEntering = 0;
+        while (nWait >= 1.0 && lanesWithoutEntering < laneCount) {
             if (testVehicle == null) {
                 testVehicle = vehGenerator.getTestVehicle();
             }
-            // try to insert new vehicle at inflow, iterate periodically over n lanes
-            int iLane = laneEnterLast;
-            for (int i = 0, N = roadSegment.laneCount(); i < N; i++) {
-                iLane = getNewCyclicLaneForEntering(iLane);
-                final LaneSegment laneSegment = roadSegment.laneSegment(iLane);
-                // laneIndex index is identical to vehicle's lanenumber
-                // type of new vehicle
-                final boolean isEntered = tryEnteringNewVehicle(testVehicle, laneSegment, simulationTime, totalInflow);
-                if (isEntered) {
-                    testVehicle = null;
-                    nWait--;
-                    incrementInflowCount(1);
-                    recordData(simulationTime, totalInflow);
-                    return; // only one insert per simulation update
-                }
+            iLane = getNewCyclicLaneForEntering(iLane);
+            final LaneSegment laneSegment = roadSegment.laneSegment(iLane);
+            // laneIndex index is identical to vehicle's lanenumber
+            // type of new vehicle
+            final boolean isEntered = tryEnteringNewVehicle(testVehicle, laneSegment, simulationTime, totalInflow);
+            if (isEntered) {
+                testVehicle = null;
+                nWait--;
+                incrementInflowCount(1);
+                recordData(simulationTime, totalInflow);
+                // the lane just entered may take a further vehicle behind the new one
+                lanesWithoutEntering = 0;
+            } else {
+                ++lanesWithoutEntering;
             }
         }
     }
@@ -130,7 +133,7 @@ public class TrafficSourceMacro extends AbstractTrafficSource {
             minRequiredGap = leader.getSpeed();
         }
         if (netGapToLeader > minRequiredGap) {
-            enterVehicle(laneSegment, time, minRequiredGap, testVehicle, leader);
+            enterVehicle(laneSegment, time, minRequiredGap, testVehicle, leader, qBC);
             return true;
         }
         // no entering possible
@@ -161,9 +164,10 @@ public class TrafficSourceMacro extends AbstractTrafficSource {
      * @param sFreeMin
      * @param vehPrototype
      * @param leader
+     * @param totalInflow
      */
     private void enterVehicle(LaneSegment laneSegment, double time, double sFreeMin, TestVehicle testVehicle,
-            Vehicle leader) {
+            Vehicle leader, double totalInflow) {
 
         final double speedDefault = inflowTimeSeries.getSpeed(time);
 
@@ -176,8 +180,10 @@ public class TrafficSourceMacro extends AbstractTrafficSource {
         final double lengthLast = leader.getLength();
 
         final double qBC = inflowTimeSeries.getFlowPerLane(time);
-        final double xEnter = Math.max(0,
-                Math.min(vEnterTest * nWait / Math.max(qBC, 0.001), xLast - sFreeMin - lengthLast));
+        // time since the waiting vehicle was due according to the total demand, plus at most one vehicle-vehicle
+        // distance on the lane
+        final double timeSinceDue = (nWait - 1) / Math.max(totalInflow, 0.001) + 1. / Math.max(qBC, 0.001);
+        final double xEnter = Math.max(0, Math.min(vEnterTest * timeSinceDue, xLast - sFreeMin - lengthLast));
         final double rhoEnter = 1. / (xLast - xEnter);
         final double vMaxEq = testVehicle.getEquilibriumSpeed(0.5 * rhoEnter);
         final double bMax = 4; // max. kinematic deceleration at boundary
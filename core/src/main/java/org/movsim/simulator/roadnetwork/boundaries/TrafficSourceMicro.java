@@ -26,8 +26,7 @@
 
 package org.movsim.simulator.roadnetwork.boundaries;
 
-import java.util.SortedMap;
-import java.util.TreeMap;
+import java.util.ArrayDeque;
 
 import org.movsim.simulator.roadnetwork.LaneSegment;
 import org.movsim.simulator.roadnetwork.RoadSegment;
@@ -38,47 +37,95 @@ import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Preconditions;
 
+/**
+ * Traffic source replaying a schedule of microscopic boundary conditions.
+ *
+ * <p>
+ * The entry records are consumed in the order of their entry times by a forward cursor. A vehicle is created when its
+ * entry time has been reached and waits in the queue of its entry lane until the gap to the rear vehicle on that lane
+ * is large enough. Records without a lane are entered cyclically into any lane. Several vehicles can enter within one
+ * time step.
+ * </p>
+ */
 public class TrafficSourceMicro extends AbstractTrafficSource {
 
     private static final Logger LOG = LoggerFactory.getLogger(TrafficSourceMicro.class);
 
-    private final SortedMap<Long, Vehicle> vehicleQueue = new TreeMap<>();
+    private final MicroscopicBoundaryInputData inputData;
 
-    public TrafficSourceMicro(TrafficCompositionGenerator vehGenerator, RoadSegment roadSegment) {
-        super(vehGenerator, roadSegment);
-    }
+    /** waiting vehicles per lane, index is lane - 1 */
+    private final ArrayDeque<Vehicle>[] laneQueues;
 
-    public void addVehicleToQueue(long time, Vehicle vehicle) {
-        Preconditions.checkArgument(vehicleQueue.put(time, vehicle) == null,
-                "cannot add vehicle to queue with same time=" + time);
-        LOG.debug("added vehicle with (re)entering-time={}, queueSize={}", time, vehicleQueue.size());
-        // vehicle.setSpeed(0);
-        showQueue();
-    }
+    /** waiting vehicles without a specified entry lane */
+    private final ArrayDeque<Vehicle> anyLaneQueue = new ArrayDeque<>();
 
-    private void showQueue() {
-        for (Long entryTime : vehicleQueue.keySet()) {
-            LOG.debug("entryTime={}", entryTime);
+    @SuppressWarnings("unchecked")
+    public TrafficSourceMicro(TrafficCompositionGenerator vehGenerator, RoadSegment roadSegment,
+            MicroscopicBoundaryInputData inputData) {
+        super(vehGenerator, roadSegment);
+        this.inputData = Preconditions.checkNotNull(inputData);
+        laneQueues = new ArrayDeque[roadSegment.laneCount()];
+        for (int i = 0; i < laneQueues.length; i++) {
+            laneQueues[i] = new ArrayDeque<>();
         }
     }
 
     @Override
     public void timeStep(double dt, double simulationTime, long iterationCount) {
         calcApproximateInflow(dt);
-        if (vehicleQueue.isEmpty()) {
+        dequeueDueEntries(simulationTime);
+        if (nWait == 0) {
             return;
         }
-        Long entryTime = vehicleQueue.firstKey();
-        if (simulationTime >= entryTime.longValue()) {
-            Vehicle vehicle = vehicleQueue.get(entryTime);
-            int testLane = (vehicle.lane() != Vehicle.LANE_NOT_SET) ? vehicle.lane()
-                    : getNewCyclicLaneForEntering(laneEnterLast);
-            LaneSegment laneSegment = roadSegment.laneSegment(testLane);
-            final boolean isEntered = tryEnteringNewVehicle(vehicle, laneSegment);
-            if (isEntered) {
-                vehicleQueue.remove(entryTime);
-                incrementInflowCount(1);
-                recordData(simulationTime, 0);
+        for (int i = 0; i < laneQueues.length; i++) {
+            final ArrayDeque<Vehicle> queue = laneQueues[i];
+            final LaneSegment laneSegment = roadSegment.laneSegment(i + 1);
+            while (!queue.isEmpty() && tryEnteringNewVehicle(queue.peekFirst(), laneSegment)) {
+                queue.removeFirst();
+                vehicleEntered(simulationTime);
+            }
+        }
+        enterAnyLane(simulationTime);
+    }
+
+    private void vehicleEntered(double simulationTime) {
+        --nWait;
+        incrementInflowCount(1);
+        recordData(simulationTime, 0);
+    }
+
+    /**
+     * Creates the vehicles of all entry records that are due and appends them to the waiting queues.
+     */
+    private void dequeueDueEntries(double simulationTime) {
+        while (simulationTime >= inputData.nextEntryTime()) {
+            final double entryTime = inputData.nextEntryTime();
+            final int lane = inputData.nextEntryLane(roadSegment);
+            final Vehicle vehicle = inputData.createNextVehicle(this);
+            if (lane == Vehicle.LANE_NOT_SET) {
+                anyLaneQueue.addLast(vehicle);
+            } else {
+                laneQueues[lane - 1].addLast(vehicle);
+            }
+            ++nWait;
+            LOG.debug("vehicle due with entering-time={}, queueSize={}", entryTime, nWait);
+        }
+    }
+
+    /**
+     * Enters the vehicles without specified lane cyclically until all lanes reject the next vehicle.
+     */
+    private void enterAnyLane(double simulationTime) {
+        int lanesWithoutEntering = 0;
+        int testLane = laneEnterLast;
+        while (!anyLaneQueue.isEmpty() && lanesWithoutEntering < roadSegment.laneCount()) {
+            testLane = getNewCyclicLaneForEntering(testLane);
+            if (tryEnteringNewVehicle(anyLaneQueue.peekFirst(), roadSegment.laneSegment(testLane))) {
+                anyLaneQueue.removeFirst();
+                vehicleEntered(simulationTime);
+                lanesWithoutEntering = 0;
+            } else {
+                ++lanesWithoutEntering;
             }
         }
     }
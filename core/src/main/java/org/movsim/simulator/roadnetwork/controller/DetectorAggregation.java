@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.simulator.roadnetwork.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Detector quantities aggregated over one sample interval, per lane and over all lanes.
+ * 
+ * <p>
+ * The values are derived by the {@link LoopDetector} from its base bins at the end of each sample interval. Registered
+ * {@link AggregationCallback}s are notified afterwards, so that file output and in-process consumers like regulators
+ * read the same values without scanning vehicles themselves.
+ * </p>
+ */
+public final class DetectorAggregation {
+
+    /**
+     * Callback notified when a sample interval has been aggregated.
+     */
+    public interface AggregationCallback {
+        void aggregated(DetectorAggregation aggregation, double simulationTime);
+    }
+
+    private final double sampleInterval;
+
+    /** number of base bins per sample interval */
+    private final int binCount;
+
+    private final int laneCount;
+
+    private final int[] vehCount;
+
+    private final long[] vehCumulatedCount;
+
+    private final double[] meanSpeed;
+
+    private final double[] occupancy;
+
+    private final double[] meanSpeedHarmonic;
+
+    private final double[] meanTimegapHarmonic;
+
+    private int vehCountAllLanes;
+
+    private long vehCumulatedCountAllLanes;
+
+    private double meanSpeedAllLanes;
+
+    private double occupancyAllLanes;
+
+    private double meanSpeedHarmonicAllLanes;
+
+    private double meanTimegapHarmonicAllLanes;
+
+    private final List<AggregationCallback> aggregationCallbacks = new ArrayList<>();
+
+    DetectorAggregation(double sampleInterval, int binCount, int laneCount) {
+        Preconditions.checkArgument(binCount > 0, "binCount=" + binCount);
+        this.sampleInterval = sampleInterval;
+        this.binCount = binCount;
+        this.laneCount = laneCount;
+        vehCount = new int[laneCount];
+        vehCumulatedCount = new long[laneCount];
+        meanSpeed = new double[laneCount];
+        occupancy = new double[laneCount];
+        meanSpeedHarmonic = new double[laneCount];
+        meanTimegapHarmonic = new double[laneCount];
+    }
+
+    int binCount() {
+        return binCount;
+    }
+
+    /**
+     * Sets the quantities of one lane from the sums over the base bins of the sample interval.
+     */
+    void setLaneSums(int laneIndex, int count, double speedSum, double occupancyTime, double invSpeedSum,
+            double invTimegapSum) {
+        vehCount[laneIndex] = count;
+        vehCumulatedCount[laneIndex] += count;
+        meanSpeed[laneIndex] = (count == 0) ? 0 : speedSum / count;
+        occupancy[laneIndex] = occupancyTime / sampleInterval;
+        meanSpeedHarmonic[laneIndex] = (count == 0) ? 0 : 1. / (invSpeedSum / count);
+        meanTimegapHarmonic[laneIndex] = (count == 0) ? 0 : invTimegapSum / count;
+    }
+
+    /**
+     * Calculates the averages over all lanes and notifies the callbacks.
+     */
+    void completeAggregation(double simulationTime) {
+        vehCountAllLanes = 0;
+        meanSpeedAllLanes = 0;
+        occupancyAllLanes = 0;
+        meanSpeedHarmonicAllLanes = 0;
+        meanTimegapHarmonicAllLanes = 0;
+        for (int i = 0; i < laneCount; i++) {
+            // vehicle count is extensive quantity
+            vehCountAllLanes += vehCount[i];
+            // intensive quantities as averages weighted by vehicle counts
+            meanSpeedAllLanes += vehCount[i] * meanSpeed[i];
+            occupancyAllLanes += occupancy[i];
+            meanSpeedHarmonicAllLanes += vehCount[i] * meanSpeedHarmonic[i];
+            meanTimegapHarmonicAllLanes += vehCount[i] * meanTimegapHarmonic[i];
+        }
+        vehCumulatedCountAllLanes += vehCountAllLanes;
+        if (vehCountAllLanes > 0) {
+            meanSpeedAllLanes /= vehCountAllLanes;
+            meanSpeedHarmonicAllLanes /= vehCountAllLanes;
+            meanTimegapHarmonicAllLanes /= vehCountAllLanes;
+        }
+        occupancyAllLanes /= laneCount;
+
+        for (AggregationCallback aggregationCallback : aggregationCallbacks) {
+            aggregationCallback.aggregated(this, simulationTime);
+        }
+    }
+
+    public void addAggregationCallback(AggregationCallback aggregationCallback) {
+        aggregationCallbacks.add(Preconditions.checkNotNull(aggregationCallback));
+    }
+
+    public double getSampleInterval() {
+        return sampleInterval;
+    }
+
+    public int laneCount() {
+        return laneCount;
+    }
+
+    public double getDensityArithmetic(int i) {
+        return meanSpeed[i] == 0 ? 0 : getFlow(i) / meanSpeed[i];
+    }
+
+    public double getDensityArithmeticAllLanes() {
+        return (Double.compare(meanSpeedAllLanes, 0) == 0) ? 0 : getFlowAllLanes() / meanSpeedAllLanes;
+    }
+
+    public double getFlow(int i) {
+        return vehCount[i] / sampleInterval;
+    }
+
+    public double getMeanSpeed(int i) {
+        return meanSpeed[i];
+    }
+
+    public double getOccupancy(int i) {
+        return occupancy[i];
+    }
+
+    public int getVehCountOutput(int i) {
+        return vehCount[i];
+    }
+
+    public double getMeanSpeedHarmonic(int i) {
+        return meanSpeedHarmonic[i];
+    }
+
+    public double getMeanTimegapHarmonic(int i) {
+        return meanTimegapHarmonic[i];
+    }
+
+    public long getVehCumulatedCountOutput(int i) {
+        return vehCumulatedCount[i];
+    }
+
+    public double getFlowAllLanes() {
+        return vehCountAllLanes / (sampleInterval * laneCount);
+    }
+
+    public double getMeanSpeedAllLanes() {
+        return meanSpeedAllLanes;
+    }
+
+    public int getVehCountOutputAllLanes() {
+        return vehCountAllLanes;
+    }
+
+    public double getOccupancyAllLanes() {
+        return occupancyAllLanes;
+    }
+
+    public double getMeanSpeedHarmonicAllLanes() {
+        return meanSpeedHarmonicAllLanes;
+    }
+
+    public double getMeanTimegapHarmonicAllLanes() {
+        return meanTimegapHarmonicAllLanes;
+    }
+
+    public long getVehCumulatedCountOutputAllLanes() {
+        return vehCumulatedCountAllLanes;
+    }
+
+}
@@ -25,6 +25,11 @@
  */
 package org.movsim.simulator.roadnetwork.controller;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import org.movsim.output.FileDetector;
 import org.movsim.simulator.MovsimConstants;
 import org.movsim.simulator.roadnetwork.Lanes;
@@ -32,33 +37,53 @@ import org.movsim.simulator.roadnetwork.RoadSegment;
 import org.movsim.simulator.roadnetwork.SignalPoint;
 import org.movsim.simulator.vehicles.Vehicle;
 
+import com.google.common.base.Preconditions;
+
 /**
  * The Class LoopDetector.
+ * 
+ * <p>
+ * Passing vehicles are accumulated per lane into base bins of fixed duration which are kept in ring buffers. At the
+ * end of a sample interval the {@link DetectorAggregation} of that interval sums up its last base bins, so several
+ * sample intervals (e.g. 20s, 1min, 5min) are provided without additional vehicle scans. The brut time gap is taken
+ * from the passage times of consecutive vehicles on the same lane.
+ * </p>
  */
-// TODO refactoring needed, add unittests
 public class LoopDetector extends RoadObjectController {
 
-    private final double dtSample;
+    /** duration of the base bins (s) if all sample intervals are multiples of it */
+    static final double BASE_BIN_DURATION = 1;
+
+    private final double binDuration;
+
+    private final int laneCount;
+
+    /** number of base bins kept per lane */
+    private final int binCapacity;
+
+    // ring buffers with index laneIndex * binCapacity + slot
+
+    private final int[] binVehCount;
+
+    private final double[] binSpeedSum;
 
-    private double timeOffset;
+    private final double[] binOccupancyTime;
 
-    private double meanSpeedAllLanes;
+    private final double[] binInvSpeedSum;
 
-    /** vehicle count per update aggregation cycle. */
-    private int vehCountOutputAllLanes;
+    private final double[] binInvTimegapSum;
 
-    /** Cumulated vehicle count. */
-    private long vehCumulatedCountOutputAllLanes;
+    private int currentSlot;
 
-    private double occupancyAllLanes;
+    private long closedBins;
 
-    private double meanSpeedHarmonicAllLanes;
+    private double binEndTime;
 
-    private double meanTimegapHarmonicAllLanes;
+    private final double[] lastPassageTime;
 
-    private final LaneQuantity[] laneQuantities;
+    private final DetectorAggregation aggregation;
 
-    private final FileDetector fileDetector;
+    private final List<DetectorAggregation> aggregations;
 
     private final SignalPoint crossSectionSignalPoint;
 
@@ -73,28 +98,84 @@ public class LoopDetector extends RoadObjectController {
      */
     public LoopDetector(RoadSegment roadSegment, double detPosition, double dtSample, boolean logging,
             boolean loggingLanes) {
-        super(RoadObjectType.LOOPDETECTOR, detPosition, roadSegment);
-        this.dtSample = dtSample;
-
-        final int laneCount = roadSegment.laneCount();
+        this(roadSegment, detPosition, dtSample, Collections.<Double> emptyList(), logging, loggingLanes);
+    }
 
-        laneQuantities = new LaneQuantity[laneCount];
-        for (int i = 0; i < laneCount; i++) {
-            laneQuantities[i] = new LaneQuantity();
+    /**
+     * Constructor
+     * 
+     * @param roadSegment
+     * @param detPosition
+     * @param dtSample
+     *            the (main) sample interval
+     * @param additionalSampleIntervals
+     *            further sample intervals aggregated from the same base bins
+     * @param logging
+     * @param loggingLanes
+     */
+    public LoopDetector(RoadSegment roadSegment, double detPosition, double dtSample,
+            List<Double> additionalSampleIntervals, boolean logging, boolean loggingLanes) {
+        super(RoadObjectType.LOOPDETECTOR, detPosition, roadSegment);
+        Preconditions.checkArgument(dtSample > 0, "dtSample=" + dtSample);
+
+        laneCount = roadSegment.laneCount();
+        binDuration = isMultipleOfAll(BASE_BIN_DURATION, dtSample, additionalSampleIntervals) ? BASE_BIN_DURATION
+                : dtSample;
+        Preconditions.checkArgument(isMultipleOfAll(binDuration, dtSample, additionalSampleIntervals),
+                "additional sample intervals " + additionalSampleIntervals + " must be multiples of " + dtSample);
+
+        List<DetectorAggregation> list = new ArrayList<>();
+        aggregation = createAggregation(dtSample);
+        list.add(aggregation);
+        for (Double sampleInterval : additionalSampleIntervals) {
+            list.add(createAggregation(sampleInterval));
         }
+        aggregations = Collections.unmodifiableList(list);
 
-        vehCumulatedCountOutputAllLanes = 0;
+        int maxBinCount = 0;
+        for (DetectorAggregation detectorAggregation : aggregations) {
+            maxBinCount = Math.max(maxBinCount, detectorAggregation.binCount());
+        }
+        binCapacity = maxBinCount;
+        binVehCount = new int[laneCount * binCapacity];
+        binSpeedSum = new double[laneCount * binCapacity];
+        binOccupancyTime = new double[laneCount * binCapacity];
+        binInvSpeedSum = new double[laneCount * binCapacity];
+        binInvTimegapSum = new double[laneCount * binCapacity];
+        lastPassageTime = new double[laneCount];
+        Arrays.fill(lastPassageTime, Double.NaN);
+        binEndTime = binDuration;
+
+        if (logging) {
+            for (DetectorAggregation detectorAggregation : aggregations) {
+                FileDetector fileDetector = new FileDetector(this, detectorAggregation, roadSegment.userId(),
+                        detectorAggregation != aggregation, loggingLanes);
+                fileDetector.writeAggregatedData(0);
+                detectorAggregation.addAggregationCallback(fileDetector);
+            }
+        }
+        crossSectionSignalPoint = new SignalPoint(position, roadSegment);
+    }
 
-        timeOffset = 0;
+    private static boolean isMultipleOfAll(double binDuration, double dtSample, List<Double> sampleIntervals) {
+        if (!isMultiple(dtSample, binDuration)) {
+            return false;
+        }
+        for (Double sampleInterval : sampleIntervals) {
+            if (!isMultiple(sampleInterval, binDuration)) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-        resetLaneAverages();
+    private static boolean isMultiple(double sampleInterval, double binDuration) {
+        final double bins = sampleInterval / binDuration;
+        return bins >= 1 - MovsimConstants.SMALL_VALUE && Math.abs(bins - Math.rint(bins)) < MovsimConstants.SMALL_VALUE;
+    }
 
-        fileDetector = (logging) ? new FileDetector(this, roadSegment.userId(), roadSegment.laneCount(), loggingLanes)
-                : null;
-        if (fileDetector != null) {
-            fileDetector.writeAggregatedData(0);
-        }
-        crossSectionSignalPoint = new SignalPoint(position, roadSegment);
+    private DetectorAggregation createAggregation(double sampleInterval) {
+        return new DetectorAggregation(sampleInterval, (int) Math.rint(sampleInterval / binDuration), laneCount);
     }
 
     @Override
@@ -102,177 +183,173 @@ public class LoopDetector extends RoadObjectController {
         roadSegment.signalPoints().add(crossSectionSignalPoint);
     }
 
-    private void resetLaneAverages() {
-        meanSpeedAllLanes = 0;
-        vehCountOutputAllLanes = 0;
-        occupancyAllLanes = 0;
-        meanSpeedHarmonicAllLanes = 0;
-        meanTimegapHarmonicAllLanes = 0;
-    }
-
     @Override
     public void timeStep(double dt, double simulationTime, long iterationCount) {
-
         for (Vehicle vehicle : crossSectionSignalPoint.passedVehicles()) {
-            countVehiclesAndDataForLane(vehicle);
+            addToCurrentBin(vehicle, dt, simulationTime);
         }
+        while (simulationTime + MovsimConstants.SMALL_VALUE >= binEndTime) {
+            closeCurrentBin(simulationTime);
+        }
+    }
 
-        if ((simulationTime - timeOffset + MovsimConstants.SMALL_VALUE) >= dtSample) {
-            for (LaneQuantity laneQuantity : laneQuantities) {
-                laneQuantity.calculateAverageForLane(dtSample);
-            }
-            calculateAveragesOverAllLanes();
-            if (fileDetector != null) {
-                fileDetector.writeAggregatedData(simulationTime);
-            }
-            timeOffset = simulationTime;
+    private void addToCurrentBin(Vehicle vehicle, double dt, double simulationTime) {
+        final int laneIndex = vehicle.lane() - Lanes.MOST_INNER_LANE;
+        final int index = laneIndex * binCapacity + currentSlot;
+        final double speed = vehicle.getSpeed();
+        binVehCount[index]++;
+        binSpeedSum[index] += speed;
+        binOccupancyTime[index] += (speed > 0) ? vehicle.getLength() / speed : 0;
+        binInvSpeedSum[index] += (speed > 0) ? 1. / speed : 0;
+        // brut timegap from the passage of the preceding vehicle on the same lane, "microscopic flow"
+        final double passageTime = passageTime(vehicle, dt, simulationTime);
+        final double brutTimegap = passageTime - lastPassageTime[laneIndex];
+        if (brutTimegap > 0) {
+            binInvTimegapSum[index] += 1. / brutTimegap;
+        }
+        if (!(passageTime <= lastPassageTime[laneIndex])) {
+            lastPassageTime[laneIndex] = passageTime;
         }
     }
 
     /**
-     * @param laneSegment
-     * @param laneIndex
-     *            (lane-1)
-     * @param veh
+     * Interpolates the time the vehicle's rear passed the detector within the last update interval that ended at
+     * simulationTime.
      */
-    private void countVehiclesAndDataForLane(Vehicle veh) {
-        int laneIndex = veh.lane() - Lanes.MOST_INNER_LANE;
-        LaneQuantity laneQuantity = laneQuantities[laneIndex];
-        laneQuantity.vehCount++;
-        laneQuantity.vehCumulatedCountOutput++;
-        double speedVeh = veh.getSpeed();
-        laneQuantity.vSum += speedVeh;
-        laneQuantity.occTime += (speedVeh > 0) ? veh.getLength() / speedVeh : 0;
-        laneQuantity.sumInvV += (speedVeh > 0) ? 1. / speedVeh : 0;
-        // brut timegap not calculate from local detector data:
-        Vehicle vehFront = roadSegment.frontVehicleOnLane(veh);
-        double brutTimegap = (vehFront == null) ? 0 : veh.getBrutDistance(vehFront) / vehFront.getSpeed();
-        // "microscopic flow"
-        laneQuantity.sumInvQ += (brutTimegap > 0) ? 1. / brutTimegap : 0;
+    private double passageTime(Vehicle vehicle, double dt, double simulationTime) {
+        final double travelled = vehicle.getRearPosition() - vehicle.getRearPositionOld();
+        if (vehicle.roadSegmentId() != roadSegment.id() || travelled <= 0) {
+            return simulationTime;
+        }
+        final double fraction = (vehicle.getRearPosition() - position) / travelled;
+        return simulationTime - dt * Math.max(0, Math.min(1, fraction));
+    }
+
+    private void closeCurrentBin(double simulationTime) {
+        ++closedBins;
+        for (DetectorAggregation detectorAggregation : aggregations) {
+            if (closedBins % detectorAggregation.binCount() == 0) {
+                aggregate(detectorAggregation, simulationTime);
+            }
+        }
+        currentSlot = (currentSlot + 1) % binCapacity;
+        for (int laneIndex = 0; laneIndex < laneCount; laneIndex++) {
+            final int index = laneIndex * binCapacity + currentSlot;
+            binVehCount[index] = 0;
+            binSpeedSum[index] = 0;
+            binOccupancyTime[index] = 0;
+            binInvSpeedSum[index] = 0;
+            binInvTimegapSum[index] = 0;
+        }
+        binEndTime = (closedBins + 1) * binDuration;
     }
 
-    private void calculateAveragesOverAllLanes() {
-        resetLaneAverages();
-        for (int i = 0; i < roadSegment().laneCount(); i++) {
-            // vehicle count is extensive quantity
-            vehCountOutputAllLanes += getVehCountOutput(i);
-            // intensive quantities as averages weighted by vehicle counts
-            meanSpeedAllLanes += getVehCountOutput(i) * getMeanSpeed(i);
-            occupancyAllLanes += getOccupancy(i);
-            meanSpeedHarmonicAllLanes += getVehCountOutput(i) * getMeanSpeedHarmonic(i);
-            meanTimegapHarmonicAllLanes += getVehCountOutput(i) * getMeanTimegapHarmonic(i);
+    private void aggregate(DetectorAggregation detectorAggregation, double simulationTime) {
+        for (int laneIndex = 0; laneIndex < laneCount; laneIndex++) {
+            int count = 0;
+            double speedSum = 0;
+            double occupancyTime = 0;
+            double invSpeedSum = 0;
+            double invTimegapSum = 0;
+            int slot = currentSlot;
+            for (int i = 0; i < detectorAggregation.binCount(); i++) {
+                final int index = laneIndex * binCapacity + slot;
+                count += binVehCount[index];
+                speedSum += binSpeedSum[index];
+                occupancyTime += binOccupancyTime[index];
+                invSpeedSum += binInvSpeedSum[index];
+                invTimegapSum += binInvTimegapSum[index];
+                slot = (slot == 0) ? binCapacity - 1 : slot - 1;
+            }
+            detectorAggregation.setLaneSums(laneIndex, count, speedSum, occupancyTime, invSpeedSum, invTimegapSum);
         }
+        detectorAggregation.completeAggregation(simulationTime);
+    }
+
+    /**
+     * Returns the aggregation of the main sample interval.
+     * 
+     * @return the main aggregation
+     */
+    public DetectorAggregation getAggregation() {
+        return aggregation;
+    }
 
-        vehCumulatedCountOutputAllLanes += vehCountOutputAllLanes;
-        meanSpeedAllLanes = vehCountOutputAllLanes == 0 ? 0 : meanSpeedAllLanes / vehCountOutputAllLanes;
-        meanSpeedHarmonicAllLanes = vehCountOutputAllLanes == 0 ? 0 : meanSpeedHarmonicAllLanes
-                / vehCountOutputAllLanes;
-        meanTimegapHarmonicAllLanes = vehCountOutputAllLanes == 0 ? 0 : meanTimegapHarmonicAllLanes
-                / vehCountOutputAllLanes;
-        occupancyAllLanes /= roadSegment().laneCount();
+    /**
+     * Returns the aggregations of all sample intervals, starting with the main sample interval.
+     * 
+     * @return unmodifiable list of aggregations
+     */
+    public List<DetectorAggregation> getAggregations() {
+        return aggregations;
     }
 
     public double getDensityArithmetic(int i) {
-        return laneQuantities[i].meanSpeed == 0 ? 0 : getFlow(i) / laneQuantities[i].meanSpeed;
+        return aggregation.getDensityArithmetic(i);
     }
 
     public double getDensityArithmeticAllLanes() {
-        return (Double.compare(meanSpeedAllLanes, 0) == 0) ? 0 : getFlowAllLanes() / meanSpeedAllLanes;
+        return aggregation.getDensityArithmeticAllLanes();
     }
 
     public double getDtSample() {
-        return dtSample;
+        return aggregation.getSampleInterval();
     }
 
     public double getFlow(int i) {
-        return laneQuantities[i].vehCountOutput / dtSample;
+        return aggregation.getFlow(i);
     }
 
     public double getMeanSpeed(int i) {
-        return laneQuantities[i].meanSpeed;
+        return aggregation.getMeanSpeed(i);
     }
 
     public double getOccupancy(int i) {
-        return laneQuantities[i].occupancy;
+        return aggregation.getOccupancy(i);
     }
 
     public int getVehCountOutput(int i) {
-        return laneQuantities[i].vehCountOutput;
+        return aggregation.getVehCountOutput(i);
     }
 
     public double getMeanSpeedHarmonic(int i) {
-        return laneQuantities[i].meanSpeedHarmonic;
+        return aggregation.getMeanSpeedHarmonic(i);
     }
 
     public double getMeanTimegapHarmonic(int i) {
-        return laneQuantities[i].meanTimegapHarmonic;
+        return aggregation.getMeanTimegapHarmonic(i);
     }
 
     public long getVehCumulatedCountOutput(int i) {
-        return laneQuantities[i].vehCumulatedCountOutput;
+        return aggregation.getVehCumulatedCountOutput(i);
     }
 
     public double getFlowAllLanes() {
-        return vehCountOutputAllLanes / (dtSample * roadSegment().laneCount());
+        return aggregation.getFlowAllLanes();
     }
 
     public double getMeanSpeedAllLanes() {
-        return meanSpeedAllLanes;
+        return aggregation.getMeanSpeedAllLanes();
     }
 
     public int getVehCountOutputAllLanes() {
-        return vehCountOutputAllLanes;
+        return aggregation.getVehCountOutputAllLanes();
     }
 
     public double getOccupancyAllLanes() {
-        return occupancyAllLanes;
+        return aggregation.getOccupancyAllLanes();
     }
 
     public double getMeanSpeedHarmonicAllLanes() {
-        return meanSpeedHarmonicAllLanes;
+        return aggregation.getMeanSpeedHarmonicAllLanes();
     }
 
     public double getMeanTimegapHarmonicAllLanes() {
-        return meanTimegapHarmonicAllLanes;
+        return aggregation.getMeanTimegapHarmonicAllLanes();
     }
 
     public long getVehCumulatedCountOutputAllLanes() {
-        return vehCumulatedCountOutputAllLanes;
+        return aggregation.getVehCumulatedCountOutputAllLanes();
     }
 
-    private static final class LaneQuantity {
-        int vehCount;
-        double vSum;
-        double occTime;
-        double sumInvV;
-        double sumInvQ;
-        double meanSpeed;
-        double occupancy;
-        int vehCountOutput;
-        long vehCumulatedCountOutput;
-        double meanSpeedHarmonic;
-        double meanTimegapHarmonic;
-
-        public LaneQuantity() {
-        }
-
-        void reset() {
-            vehCount = 0;
-            vSum = 0;
-            occTime = 0;
-            sumInvQ = 0;
-            sumInvV = 0;
-        }
-
-        void calculateAverageForLane(double dtSample) {
-            meanSpeed = (vehCount == 0) ? 0 : vSum / vehCount;
-            occupancy = occTime / dtSample;
-            vehCountOutput = vehCount;
-            vehCumulatedCountOutput += vehCount;
-            meanSpeedHarmonic = (vehCount == 0) ? 0 : 1. / (sumInvV / vehCount);
-            meanTimegapHarmonic = (vehCount == 0) ? 0 : sumInvQ / vehCount;
-            reset();
-        }
-
-    }
 }
@@ -47,8 +47,8 @@ import com.google.common.base.Preconditions;
  */
 public class SpeedLimit extends RoadObjectController {
 
-    private final double speedLimitValue;
-    
+    private double speedLimitValue;
+
     private final SignalPoint signalPoint;
 
     public SpeedLimit(double position, double speedLimitValue, RoadSegment roadSegment) {
@@ -74,6 +74,17 @@ public class SpeedLimit extends RoadObjectController {
         return speedLimitValue;
     }
 
+    /**
+     * Changes the speed limit for the vehicles passing from now on, e.g. for variable speed limits.
+     * 
+     * @param speedLimitValue
+     *            the new speed limit (m/s)
+     */
+    public void setSpeedLimit(double speedLimitValue) {
+        Preconditions.checkArgument(speedLimitValue > 0, "speed limit must be positive");
+        this.speedLimitValue = speedLimitValue;
+    }
+
     @Override
     public void timeStep(double dt, double simulationTime, long iterationCount) {
         for (Vehicle vehicle : signalPoint.passedVehicles()) {
@@ -20,6 +20,21 @@ public abstract class TrafficLightController implements SimulationTimeStep, Trig
     /** The Constant LOG. */
     protected static final Logger LOG = LoggerFactory.getLogger(TrafficLightController.class);
 
+    /**
+     * Callback to the scheduler of the controllers for requesting an update in the next time step, e.g. triggered by an
+     * approaching vehicle.
+     */
+    interface UpdateRequestCallback {
+        void requestUpdate(TrafficLightController controller);
+    }
+
+    static final long NOT_SCHEDULED = Long.MAX_VALUE;
+
+    /** iteration of the next scheduled update, maintained by the scheduler */
+    long scheduledIteration = NOT_SCHEDULED;
+
+    private UpdateRequestCallback updateRequestCallback;
+
     /** mapping from the 'physical' controller.control.type to the 'logical' trafficlight */
     final Map<String, TrafficLight> trafficLights;
 
@@ -108,11 +123,44 @@ public abstract class TrafficLightController implements SimulationTimeStep, Trig
         setNextPhaseIndex();
     }
 
+    /**
+     * Updates the phase of the controller and returns the iteration at which the controller needs to be updated next.
+     * The controller is not updated in the time steps between unless an update is requested via the
+     * {@link UpdateRequestCallback}.
+     * 
+     * @param dt
+     * @param simulationTime
+     * @param iterationCount
+     * @return the iteration of the next update
+     */
+    abstract long update(double dt, double simulationTime, long iterationCount);
+
+    /**
+     * Places the signal points by which approaching vehicles request an update of the controller, called once all
+     * traffic lights have been added.
+     */
+    void createRequestSignalPoints() {
+        // no requests by default
+    }
+
+    void setUpdateRequestCallback(UpdateRequestCallback updateRequestCallback) {
+        this.updateRequestCallback = Preconditions.checkNotNull(updateRequestCallback);
+    }
+
+    void requestUpdate() {
+        if (updateRequestCallback != null) {
+            updateRequestCallback.requestUpdate(this);
+        }
+    }
+
     @Override
     public final Iterator<TrafficLight> iterator() {
         return trafficLights.values().iterator();
     }
 
+    /**
+     * Records the traffic light states, the phases are updated by {@link #update(double, double, long)}.
+     */
     @Override
     public void timeStep(double dt, double simulationTime, long iterationCount) {
         if (recordDataCallback != null) {
@@ -124,4 +172,8 @@ public abstract class TrafficLightController implements SimulationTimeStep, Trig
         this.recordDataCallback = Preconditions.checkNotNull(recordDataCallback);
     }
 
+    final boolean hasRecorder() {
+        return recordDataCallback != null;
+    }
+
 }
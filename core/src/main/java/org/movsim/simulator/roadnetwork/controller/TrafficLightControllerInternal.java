@@ -5,12 +5,27 @@ import org.movsim.autogen.Phase;
 import org.movsim.autogen.TrafficLightCondition;
 import org.movsim.autogen.TrafficLightState;
 import org.movsim.simulator.roadnetwork.LaneSegment;
+import org.movsim.simulator.roadnetwork.SignalPoint;
+import org.movsim.simulator.roadnetwork.SignalPoint.PassedVehiclesCallback;
 import org.movsim.simulator.vehicles.Vehicle;
 
 class TrafficLightControllerInternal extends TrafficLightController {
 
+    /** detection of vehicles approaching a request range starts this distance upstream, covers the vehicle length */
+    private static final double REQUEST_DETECTION_MARGIN = 100;
+
+    /** maximum number of iterations the controller sleeps before it is updated again */
+    private static final int MAX_SLEEP_ITERATIONS = 100000;
+
     private double currentPhaseDuration;
 
+    /** iteration up to which the time step has been added to the phase duration */
+    private long phaseDurationIteration;
+
+    private boolean started;
+
+    private boolean externalPhaseChange;
+
     private final double conditionRange;
 
     TrafficLightControllerInternal(ControllerGroup controllerGroup) {
@@ -18,29 +33,101 @@ class TrafficLightControllerInternal extends TrafficLightController {
         this.conditionRange = controllerGroup.getRange();
     }
 
+    /**
+     * Places a signal point upstream of each traffic light with a request condition so that a vehicle approaching the
+     * light requests an update of this controller.
+     */
     @Override
-    public void timeStep(double dt, double simulationTime, long iterationCount) {
-        currentPhaseDuration += dt;
-        determinePhase();
-        updateTrafficLights();
-        super.timeStep(dt, simulationTime, iterationCount);
+    void createRequestSignalPoints() {
+        for (TrafficLight trafficLight : trafficLights.values()) {
+            if (hasRequestCondition(trafficLight.signalType())) {
+                double position = Math.max(0, trafficLight.position() - conditionRange - REQUEST_DETECTION_MARGIN);
+                SignalPoint signalPoint = new SignalPoint(position, trafficLight.roadSegment());
+                signalPoint.setPassedVehiclesCallback(new PassedVehiclesCallback() {
+                    @Override
+                    public void vehiclesPassed(SignalPoint passedSignalPoint) {
+                        requestUpdate();
+                    }
+                });
+                trafficLight.roadSegment().signalPoints().add(signalPoint);
+            }
+        }
+    }
+
+    private boolean hasRequestCondition(String signalType) {
+        for (Phase phase : phases) {
+            for (TrafficLightState state : phase.getTrafficLightState()) {
+                if (state.getCondition() == TrafficLightCondition.REQUEST && state.getType().equals(signalType)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    long update(double dt, double simulationTime, long iterationCount) {
+        boolean phaseChanged = !started || externalPhaseChange;
+        if (phaseChanged) {
+            // phase duration accumulates from this time step on
+            phaseDurationIteration = iterationCount - 1;
+            started = true;
+            externalPhaseChange = false;
+        }
+        // add the time steps skipped while sleeping
+        while (phaseDurationIteration < iterationCount) {
+            currentPhaseDuration += dt;
+            ++phaseDurationIteration;
+        }
+        if (determinePhase(iterationCount)) {
+            phaseChanged = true;
+        }
+        if (phaseChanged) {
+            updateTrafficLights();
+        }
+        return nextUpdateIteration(dt, iterationCount);
+    }
+
+    private long nextUpdateIteration(double dt, long iterationCount) {
+        Phase phase = phases.get(currentPhaseIndex);
+        if (currentPhaseDuration > phase.getDuration()) {
+            // waiting for the clear conditions
+            return iterationCount + 1;
+        }
+        if (isVehicleApproachingRequest(phase)) {
+            return iterationCount + 1;
+        }
+        // sleep until the phase duration is exceeded
+        double duration = currentPhaseDuration;
+        long iteration = iterationCount;
+        while (duration <= phase.getDuration() && iteration - iterationCount < MAX_SLEEP_ITERATIONS) {
+            duration += dt;
+            ++iteration;
+        }
+        return iteration;
     }
 
     @Override
     public void nextPhase() {
         super.nextPhase();
         currentPhaseDuration = 0; // reset
+        externalPhaseChange = true;
+        requestUpdate();
     }
 
-    private void determinePhase() {
+    private boolean determinePhase(long iterationCount) {
         Phase phase = phases.get(currentPhaseIndex);
         // first check if all "clear" conditions are fullfilled.
         // then check fixed-time schedule for next phase
         // and last check trigger condition for overriding fixed-time scheduler
         if (isClearConditionsFullfilled(phase)
                 && (currentPhaseDuration > phase.getDuration() || isTriggerConditionFullfilled(phase))) {
-            nextPhase();
+            setNextPhaseIndex();
+            currentPhaseDuration = 0; // reset
+            phaseDurationIteration = iterationCount;
+            return true;
         }
+        return false;
     }
 
     private boolean isClearConditionsFullfilled(Phase phase) {
@@ -65,10 +152,26 @@ class TrafficLightControllerInternal extends TrafficLightController {
         return false;
     }
 
+    private boolean isVehicleApproachingRequest(Phase phase) {
+        for (TrafficLightState state : phase.getTrafficLightState()) {
+            if (state.getCondition() == TrafficLightCondition.REQUEST) {
+                if (vehicleIsInFrontOfLight(trafficLights.get(state.getType()), conditionRange
+                        + REQUEST_DETECTION_MARGIN)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     private boolean vehicleIsInFrontOfLight(TrafficLight trafficLight) {
+        return vehicleIsInFrontOfLight(trafficLight, conditionRange);
+    }
+
+    private static boolean vehicleIsInFrontOfLight(TrafficLight trafficLight, double range) {
         for (LaneSegment laneSegment : trafficLight.roadSegment().laneSegments()) {
             Vehicle vehicle = laneSegment.rearVehicle(trafficLight.position());
-            if (vehicle != null && (trafficLight.position() - vehicle.getFrontPosition() < conditionRange)) {
+            if (vehicle != null && (trafficLight.position() - vehicle.getFrontPosition() < range)) {
                 LOG.debug("condition check: vehicle is in front of trafficlight: vehPos={}, trafficlightPos={}",
                         vehicle.getFrontPosition(), trafficLight.position());
                 return true;
@@ -29,6 +29,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 
 import javax.annotation.Nullable;
 
@@ -51,6 +52,11 @@ import com.google.common.collect.Iterables;
  * Sets the trafficlights for each road segment by connecting the 'logical' trafficlights (and the controllers) with the 'physical' traffic
  * signals on a roadSegment locations. The specific 'physical' representation is parsed from the infrastructure input.
  * 
+ * <p>
+ * The controllers are updated event-driven: a priority queue holds the iteration of the next update of each controller,
+ * i.e. the end of the current phase, and approaching vehicles request earlier updates via signal points. Between these
+ * events a controller costs nothing.
+ * </p>
  */
 public class TrafficLights implements SimulationTimeStep {
 
@@ -59,6 +65,40 @@ public class TrafficLights implements SimulationTimeStep {
 
     private final List<TrafficLightController> trafficLightControllers;
 
+    /** controllers with recorder, recording takes place in every time step */
+    private final List<TrafficLightController> recordedControllers = new ArrayList<>();
+
+    private final PriorityQueue<ScheduledUpdate> scheduledUpdates = new PriorityQueue<>();
+
+    private long sequence;
+
+    private long lastIterationCount = -1;
+
+    private boolean initialized;
+
+    /**
+     * Update of a controller at the given iteration, outdated if the controller has been rescheduled meanwhile.
+     */
+    private static final class ScheduledUpdate implements Comparable<ScheduledUpdate> {
+        final TrafficLightController controller;
+        final long iteration;
+        final long sequence;
+
+        ScheduledUpdate(TrafficLightController controller, long iteration, long sequence) {
+            this.controller = controller;
+            this.iteration = iteration;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(ScheduledUpdate other) {
+            if (iteration != other.iteration) {
+                return iteration < other.iteration ? -1 : 1;
+            }
+            return sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+        }
+    }
+
     public TrafficLights(@Nullable org.movsim.autogen.TrafficLights trafficLightsInput, RoadNetwork roadNetwork) {
         this.trafficLightControllers = new ArrayList<>();
         if (trafficLightsInput == null) {
@@ -71,6 +111,7 @@ public class TrafficLights implements SimulationTimeStep {
         } else {
             setUp(trafficLightsInput, roadNetwork);
             checkIfAllTrafficlightsAreReferenced();
+            setUpScheduling();
             if (trafficLightsInput.isLogging()) {
                 setUpLogging(trafficLightsInput.getNTimestep());
             }
@@ -98,8 +139,47 @@ public class TrafficLights implements SimulationTimeStep {
      */
     @Override
     public void timeStep(double dt, double simulationTime, long iterationCount) {
-        for (TrafficLightController group : trafficLightControllers) {
-            group.timeStep(dt, simulationTime, iterationCount);
+        if (!initialized) {
+            initialized = true;
+            for (TrafficLightController controller : trafficLightControllers) {
+                schedule(controller, iterationCount);
+            }
+        }
+        lastIterationCount = iterationCount;
+        while (!scheduledUpdates.isEmpty() && scheduledUpdates.peek().iteration <= iterationCount) {
+            ScheduledUpdate scheduledUpdate = scheduledUpdates.poll();
+            TrafficLightController controller = scheduledUpdate.controller;
+            if (controller.scheduledIteration != scheduledUpdate.iteration) {
+                continue; // outdated
+            }
+            controller.scheduledIteration = TrafficLightController.NOT_SCHEDULED;
+            schedule(controller, controller.update(dt, simulationTime, iterationCount));
+        }
+        for (TrafficLightController controller : recordedControllers) {
+            controller.timeStep(dt, simulationTime, iterationCount);
+        }
+    }
+
+    private void schedule(TrafficLightController controller, long iteration) {
+        if (controller.scheduledIteration <= iteration) {
+            return; // update already scheduled earlier
+        }
+        controller.scheduledIteration = iteration;
+        scheduledUpdates.add(new ScheduledUpdate(controller, iteration, sequence++));
+    }
+
+    private void setUpScheduling() {
+        TrafficLightController.UpdateRequestCallback updateRequestCallback = new TrafficLightController.UpdateRequestCallback() {
+            @Override
+            public void requestUpdate(TrafficLightController controller) {
+                if (initialized) {
+                    schedule(controller, lastIterationCount + 1);
+                }
+            }
+        };
+        for (TrafficLightController controller : trafficLightControllers) {
+            controller.setUpdateRequestCallback(updateRequestCallback);
+            controller.createRequestSignalPoints();
         }
     }
 
@@ -158,6 +238,7 @@ public class TrafficLights implements SimulationTimeStep {
     private void setUpLogging(int nTimestep) {
         for (TrafficLightController controller : trafficLightControllers) {
             controller.setRecorder(new FileTrafficLightControllerRecorder(controller, nTimestep));
+            recordedControllers.add(controller);
         }
     }
 
@@ -26,13 +26,173 @@
 
 package org.movsim.simulator.roadnetwork.regulator;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.movsim.autogen.AdaptiveSpeedLimitType;
 import org.movsim.autogen.RegulatorType;
+import org.movsim.autogen.RoadPositionType;
+import org.movsim.simulator.MovsimConstants;
 import org.movsim.simulator.roadnetwork.RoadNetwork;
+import org.movsim.simulator.roadnetwork.RoadSegment;
+import org.movsim.simulator.roadnetwork.controller.DetectorAggregation;
+import org.movsim.simulator.roadnetwork.controller.DetectorAggregation.AggregationCallback;
+import org.movsim.simulator.roadnetwork.controller.LoopDetector;
+import org.movsim.simulator.roadnetwork.controller.RoadObject.RoadObjectType;
+import org.movsim.simulator.roadnetwork.controller.SpeedLimit;
+import org.movsim.utilities.Units;
 
+/**
+ * Variable speed limit upstream of a bottleneck that keeps the bottleneck at its capacity (mainstream traffic flow
+ * control).
+ * 
+ * <p>
+ * The occupancy at the bottleneck is measured by the regulator's own loop detectors and aggregated over the control
+ * interval. The control step runs when all detectors have completed their aggregation. The speed limit b relative to the maximum speed limit follows a PI controller in velocity form:
+ * b(k) = b(k-1) + K_P (o(k-1) - o(k)) + K_I (o_target - o(k)), bounded by the minimum and maximum speed limit. The
+ * speed limit is rounded to the speed limit step and shown on the most downstream sign, the upstream signs step down
+ * towards it with a limited difference between neighbouring signs. Vehicles adopt the speed limit when passing a sign.
+ * </p>
+ */
 public class AdaptiveSpeedLimit extends Regulator {
 
+    private final AdaptiveSpeedLimitType configuration;
+
+    private final List<LoopDetector> detectors = new ArrayList<>();
+
+    /** ordered from upstream to downstream */
+    private final List<SpeedLimit> speedLimitSigns = new ArrayList<>();
+
+    private final double minRelativeSpeedLimit;
+
+    private double relativeSpeedLimit = 1;
+
+    private double lastOccupancy = Double.NaN;
+
+    private int aggregatedDetectors;
+
     protected AdaptiveSpeedLimit(RegulatorType regulatorType, RoadNetwork roadNetwork) {
         super(regulatorType, roadNetwork);
+        if (!regulatorType.isSetAdaptiveSpeedLimit()) {
+            throw new IllegalArgumentException("regulator id=" + getId() + " of type=" + regulatorType.getType()
+                    + " needs an AdaptiveSpeedLimit configuration.");
+        }
+        this.configuration = regulatorType.getAdaptiveSpeedLimit();
+        if (configuration.getMinSpeedLimitKmh() > configuration.getMaxSpeedLimitKmh()) {
+            throw new IllegalArgumentException("minimum speed limit exceeds maximum speed limit in regulator id="
+                    + getId());
+        }
+        this.minRelativeSpeedLimit = configuration.getMinSpeedLimitKmh() / configuration.getMaxSpeedLimitKmh();
+
+        for (RoadPositionType detectorPosition : configuration.getDetector()) {
+            RoadSegment roadSegment = findRoadSegment(roadNetwork, detectorPosition);
+            // detectors are updated by this regulator and not registered as road objects
+            LoopDetector detector = new LoopDetector(roadSegment, detectorPosition.getPosition(),
+                    configuration.getControlInterval(), false, false);
+            detector.createSignalPositions();
+            detector.getAggregation().addAggregationCallback(new AggregationCallback() {
+                @Override
+                public void aggregated(DetectorAggregation aggregation, double simulationTime) {
+                    ++aggregatedDetectors;
+                }
+            });
+            detectors.add(detector);
+        }
+        for (RoadPositionType signPosition : configuration.getSpeedLimitSign()) {
+            speedLimitSigns.add(findOrCreateSpeedLimit(roadNetwork, signPosition, configuration.getMaxSpeedLimitKmh()
+                    * Units.KMH_TO_MS));
+        }
+        for (RoadPositionType endPosition : configuration.getSpeedLimitEnd()) {
+            findOrCreateSpeedLimit(roadNetwork, endPosition, MovsimConstants.MAX_VEHICLE_SPEED);
+        }
+        LOG.info("adaptive speed limit with {} detectors and {} speed limit signs", detectors.size(),
+                speedLimitSigns.size());
+        if (fileLogging != null) {
+            fileLogging.writeln("# time[s], occupancy[1], relativeSpeedLimit[1], speedLimit[km/h]");
+        }
+    }
+
+    private static RoadSegment findRoadSegment(RoadNetwork roadNetwork, RoadPositionType roadPosition) {
+        RoadSegment roadSegment = roadNetwork.findByUserId(roadPosition.getRoadId());
+        if (roadSegment == null) {
+            throw new IllegalArgumentException("cannot find road with userId=" + roadPosition.getRoadId());
+        }
+        return roadSegment;
+    }
+
+    private static SpeedLimit findOrCreateSpeedLimit(RoadNetwork roadNetwork, RoadPositionType roadPosition,
+            double speedLimitValue) {
+        RoadSegment roadSegment = findRoadSegment(roadNetwork, roadPosition);
+        for (SpeedLimit speedLimit : roadSegment.roadObjects().<SpeedLimit> values(RoadObjectType.SPEEDLIMIT)) {
+            if (speedLimit.position() == roadPosition.getPosition()) {
+                speedLimit.setSpeedLimit(speedLimitValue);
+                return speedLimit;
+            }
+        }
+        SpeedLimit speedLimit = new SpeedLimit(roadPosition.getPosition(), speedLimitValue, roadSegment);
+        roadSegment.roadObjects().add(speedLimit);
+        return speedLimit;
+    }
+
+    @Override
+    public void timeStep(double dt, double simulationTime, long iterationCount) {
+        aggregatedDetectors = 0;
+        for (LoopDetector detector : detectors) {
+            detector.timeStep(dt, simulationTime, iterationCount);
+        }
+        if (aggregatedDetectors == detectors.size()) {
+            control(simulationTime);
+        }
+    }
+
+    private void control(double simulationTime) {
+        double occupancy = 0;
+        for (LoopDetector detector : detectors) {
+            occupancy += detector.getOccupancyAllLanes();
+        }
+        occupancy /= detectors.size();
+
+        double change = configuration.getGainIntegral() * (configuration.getTargetOccupancy() - occupancy);
+        if (!Double.isNaN(lastOccupancy)) {
+            change += configuration.getGainProportional() * (lastOccupancy - occupancy);
+        }
+        lastOccupancy = occupancy;
+        relativeSpeedLimit = Math.max(minRelativeSpeedLimit, Math.min(1, relativeSpeedLimit + change));
+
+        double speedLimitKmh = calcDisplayedSpeedLimitKmh(relativeSpeedLimit * configuration.getMaxSpeedLimitKmh());
+        updateSpeedLimitSigns(speedLimitKmh);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(String.format("time=%.1f: occupancy=%.4f, speed limit=%.0fkm/h", simulationTime, occupancy,
+                    speedLimitKmh));
+        }
+        if (fileLogging != null) {
+            fileLogging.write("%.1f, %.5f, %.4f, %.0f%n", simulationTime, occupancy, relativeSpeedLimit,
+                    speedLimitKmh);
+        }
+    }
+
+    private double calcDisplayedSpeedLimitKmh(double speedKmh) {
+        double step = configuration.getSpeedLimitStepKmh();
+        double rounded = step * Math.round(speedKmh / step);
+        return Math.max(configuration.getMinSpeedLimitKmh(), Math.min(configuration.getMaxSpeedLimitKmh(), rounded));
+    }
+
+    private void updateSpeedLimitSigns(double speedLimitKmh) {
+        final int lastIndex = speedLimitSigns.size() - 1;
+        for (int i = lastIndex; i >= 0; i--) {
+            double signSpeedLimitKmh = Math.min(configuration.getMaxSpeedLimitKmh(), speedLimitKmh + (lastIndex - i)
+                    * configuration.getMaxSpeedLimitDifferenceKmh());
+            speedLimitSigns.get(i).setSpeedLimit(signSpeedLimitKmh * Units.KMH_TO_MS);
+        }
+    }
+
+    /**
+     * Returns the current speed limit relative to the maximum speed limit.
+     * 
+     * @return the relative speed limit
+     */
+    public double getRelativeSpeedLimit() {
+        return relativeSpeedLimit;
     }
 
 }
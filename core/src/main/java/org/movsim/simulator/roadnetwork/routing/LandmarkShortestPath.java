@@ -0,0 +1,267 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.simulator.roadnetwork.routing;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.jgrapht.DirectedGraph;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.EdgeReversedGraph;
+import org.jgrapht.traverse.ClosestFirstIterator;
+import org.movsim.simulator.roadnetwork.RoadSegment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+
+/**
+ * A* search with landmarks (ALT) on the {@link NetworkGraph}.
+ * 
+ * <p>
+ * The preprocessing selects a small number of landmark nodes by farthest selection and stores the shortest-path
+ * distances from and to every landmark. By the triangle inequality these distances give admissible lower bounds of the
+ * remaining distance to the destination that guide the A* search. The bounds stay admissible if edge weights increase;
+ * after a decrease the preprocessing has to be repeated, see {@link #invalidate()}, which is done lazily with the next
+ * query. The mode is therefore intended for large networks with static or slowly changing weights.
+ * </p>
+ */
+final class LandmarkShortestPath {
+
+    /** The Constant LOG. */
+    private static final Logger LOG = LoggerFactory.getLogger(LandmarkShortestPath.class);
+
+    private static final double INFINITY = Double.POSITIVE_INFINITY;
+
+    private static final class QueueEntry implements Comparable<QueueEntry> {
+        final int node;
+        final double estimate;
+
+        QueueEntry(int node, double estimate) {
+            this.node = node;
+            this.estimate = estimate;
+        }
+
+        @Override
+        public int compareTo(QueueEntry other) {
+            return Double.compare(estimate, other.estimate);
+        }
+    }
+
+    private final DirectedGraph<Long, RoadSegment> graph;
+
+    private final int landmarkCount;
+
+    private final Long[] nodes;
+
+    private final Map<Long, Integer> indices;
+
+    /** distances [landmark][node] from the landmark to the node */
+    private double[][] fromLandmark;
+
+    /** distances [landmark][node] from the node to the landmark */
+    private double[][] toLandmark;
+
+    private boolean stale = true;
+
+    // search state, valid for entries with visited[i] == query
+    private final double[] costs;
+    private final RoadSegment[] predecessors;
+    private final boolean[] settled;
+    private final int[] visited;
+    private int query;
+
+    private final PriorityQueue<QueueEntry> queue = new PriorityQueue<>();
+
+    LandmarkShortestPath(DirectedGraph<Long, RoadSegment> graph, int landmarkCount) {
+        Preconditions.checkArgument(landmarkCount > 0, "at least one landmark needed");
+        this.graph = graph;
+        this.landmarkCount = Math.min(landmarkCount, graph.vertexSet().size());
+        final int size = graph.vertexSet().size();
+        nodes = graph.vertexSet().toArray(new Long[size]);
+        indices = Maps.newHashMapWithExpectedSize(size);
+        for (int i = 0; i < size; i++) {
+            indices.put(nodes[i], i);
+        }
+        costs = new double[size];
+        predecessors = new RoadSegment[size];
+        settled = new boolean[size];
+        visited = new int[size];
+    }
+
+    /**
+     * Marks the landmark distances as outdated, e.g. after an edge weight has been decreased.
+     */
+    void invalidate() {
+        stale = true;
+    }
+
+    private void preprocess() {
+        final int size = nodes.length;
+        stale = false;
+        if (size == 0) {
+            return;
+        }
+        fromLandmark = new double[landmarkCount][];
+        toLandmark = new double[landmarkCount][];
+        final EdgeReversedGraph<Long, RoadSegment> reversedGraph = new EdgeReversedGraph<>(graph);
+        // farthest selection: each new landmark maximizes the separation from the landmarks already chosen
+        final double[] separation = new double[size];
+        Arrays.fill(separation, INFINITY);
+        int landmark = farthest(distances(graph, nodes[0]));
+        for (int l = 0; l < landmarkCount; l++) {
+            fromLandmark[l] = distances(graph, nodes[landmark]);
+            toLandmark[l] = distances(reversedGraph, nodes[landmark]);
+            for (int i = 0; i < size; i++) {
+                separation[i] = Math.min(separation[i], separation(fromLandmark[l][i], toLandmark[l][i]));
+            }
+            separation[landmark] = -1;
+            landmark = farthest(separation);
+        }
+        LOG.info("preprocessed {} landmarks for {} nodes", landmarkCount, size);
+    }
+
+    private static double separation(double from, double to) {
+        if (from == INFINITY) {
+            return to;
+        }
+        return to == INFINITY ? from : Math.min(from, to);
+    }
+
+    private static int farthest(double[] values) {
+        int farthest = 0;
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] > values[farthest]) {
+                farthest = i;
+            }
+        }
+        return farthest;
+    }
+
+    private double[] distances(Graph<Long, RoadSegment> g, Long origin) {
+        final double[] distances = new double[nodes.length];
+        Arrays.fill(distances, INFINITY);
+        ClosestFirstIterator<Long, RoadSegment> iterator = new ClosestFirstIterator<>(g, origin);
+        while (iterator.hasNext()) {
+            Long node = iterator.next();
+            distances[indices.get(node)] = iterator.getShortestPathLength(node);
+        }
+        return distances;
+    }
+
+    /**
+     * Returns a lower bound of the distance from node to target or infinity if the landmarks prove that target is not
+     * reachable.
+     */
+    private double lowerBound(int node, int target) {
+        double bound = 0;
+        for (int l = 0; l < landmarkCount; l++) {
+            final double fromNode = fromLandmark[l][node];
+            final double fromTarget = fromLandmark[l][target];
+            final double toNode = toLandmark[l][node];
+            final double toTarget = toLandmark[l][target];
+            if ((fromNode != INFINITY && fromTarget == INFINITY) || (toTarget != INFINITY && toNode == INFINITY)) {
+                return INFINITY;
+            }
+            if (fromTarget != INFINITY && fromNode != INFINITY) {
+                bound = Math.max(bound, fromTarget - fromNode);
+            }
+            if (toNode != INFINITY && toTarget != INFINITY) {
+                bound = Math.max(bound, toNode - toTarget);
+            }
+        }
+        return bound;
+    }
+
+    /**
+     * Returns the road segments of the shortest path from source to target node, an empty list if both nodes are equal
+     * and null if the target is not reachable.
+     */
+    List<RoadSegment> findPath(Long source, Long target) {
+        if (stale) {
+            preprocess();
+        }
+        final int s = indices.get(source);
+        final int t = indices.get(target);
+        if (++query == 0) {
+            Arrays.fill(visited, 0);
+            query = 1;
+        }
+        queue.clear();
+        visit(s, 0, null);
+        queue.add(new QueueEntry(s, lowerBound(s, t)));
+        while (!queue.isEmpty()) {
+            final int node = queue.poll().node;
+            if (settled[node]) {
+                continue;
+            }
+            if (node == t) {
+                return path(s, t);
+            }
+            settled[node] = true;
+            for (RoadSegment edge : graph.outgoingEdgesOf(nodes[node])) {
+                final int next = indices.get(graph.getEdgeTarget(edge));
+                final double cost = costs[node] + graph.getEdgeWeight(edge);
+                if (visited[next] != query) {
+                    final double bound = lowerBound(next, t);
+                    if (bound == INFINITY) {
+                        continue;
+                    }
+                    visit(next, cost, edge);
+                    queue.add(new QueueEntry(next, cost + bound));
+                } else if (!settled[next] && cost < costs[next]) {
+                    costs[next] = cost;
+                    predecessors[next] = edge;
+                    queue.add(new QueueEntry(next, cost + lowerBound(next, t)));
+                }
+            }
+        }
+        return null;
+    }
+
+    private void visit(int node, double cost, RoadSegment predecessor) {
+        visited[node] = query;
+        costs[node] = cost;
+        predecessors[node] = predecessor;
+        settled[node] = false;
+    }
+
+    private List<RoadSegment> path(int source, int target) {
+        LinkedList<RoadSegment> path = new LinkedList<>();
+        int node = target;
+        while (node != source) {
+            RoadSegment edge = predecessors[node];
+            path.addFirst(edge);
+            node = indices.get(graph.getEdgeSource(edge));
+        }
+        return path;
+    }
+
+}
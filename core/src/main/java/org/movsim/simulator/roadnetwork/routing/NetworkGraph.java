@@ -28,7 +28,6 @@ package org.movsim.simulator.roadnetwork.routing;
 import java.util.HashMap;
 import java.util.Map;
 
-import org.jgrapht.WeightedGraph;
 import org.jgrapht.graph.DefaultDirectedWeightedGraph;
 import org.movsim.input.ProjectMetaData;
 import org.movsim.simulator.roadnetwork.LaneSegment;
@@ -52,7 +51,7 @@ final class NetworkGraph {
         // private constructor
     }
 
-    public static WeightedGraph<Long, RoadSegment> create(RoadNetwork roadNetwork) {
+    public static DefaultDirectedWeightedGraph<Long, RoadSegment> create(RoadNetwork roadNetwork) {
         DefaultDirectedWeightedGraph<Long, RoadSegment> graph = new DefaultDirectedWeightedGraph<>(RoadSegment.class);
         HashMap<RoadSegment, Node> connections = Maps.newLinkedHashMap();
         for (final RoadSegment roadSegment : roadNetwork) {
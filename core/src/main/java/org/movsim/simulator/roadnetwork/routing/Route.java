@@ -42,6 +42,9 @@ public class Route implements Iterable<RoadSegment> {
     private String name;
     private double length;
 
+    /** compiled lazily, invalidated when the route changes */
+    private RoutingPlan plan;
+
     /**
      * Constructor.
      */
@@ -69,6 +72,7 @@ public class Route implements Iterable<RoadSegment> {
 
         roadSegments.add(roadSegment);
         length += roadSegment.roadLength();
+        plan = null;
         return roadSegment;
     }
 
@@ -106,6 +110,18 @@ public class Route implements Iterable<RoadSegment> {
         return roadSegments.get(index);
     }
 
+    /**
+     * Returns the compiled plan of this route. The plan is compiled on first use when the road network is complete.
+     * 
+     * @return the routing plan
+     */
+    public RoutingPlan plan() {
+        if (plan == null) {
+            plan = new RoutingPlan(this);
+        }
+        return plan;
+    }
+
     /**
      * Returns the first {@code RoadSegment} of the {@code Route}.
      * 
@@ -25,21 +25,46 @@
  */
 package org.movsim.simulator.roadnetwork.routing;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
-import org.jgrapht.WeightedGraph;
-import org.jgrapht.alg.DijkstraShortestPath;
+import org.jgrapht.graph.DefaultDirectedWeightedGraph;
 import org.movsim.autogen.Routes;
+import org.movsim.autogen.ShortestPathAlgorithmEnum;
+import org.movsim.autogen.TravelTimeRouting;
+import org.movsim.simulator.PerformanceMetrics;
+import org.movsim.simulator.SimulationTimeStep;
+import org.movsim.simulator.roadnetwork.LaneSegment;
 import org.movsim.simulator.roadnetwork.RoadNetwork;
 import org.movsim.simulator.roadnetwork.RoadSegment;
+import org.movsim.simulator.vehicles.Vehicle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Maps;
 
-public class Routing {
+/**
+ * Predefined routes and shortest-path routing through the road network.
+ * 
+ * <p>
+ * Shortest paths are computed with the travel costs of the road segments as edge weights, initially the road lengths.
+ * With the default {@link ShortestPathAlgorithmEnum#DIJKSTRA} mode a shortest-path tree is cached per origin node so
+ * that repeated queries from the same origin are answered by walking the tree. With
+ * {@link ShortestPathAlgorithmEnum#ALT} each query is an A* search guided by precomputed landmark distances, which
+ * scales to large networks with many origins. The computed routes are memoized in both modes. Changes of the travel
+ * costs, see {@link #updateTravelCost(RoadSegment, double)}, invalidate only the affected cached results and only if
+ * the relative change exceeds the configured threshold.
+ * </p>
+ * 
+ * <p>
+ * If {@link TravelTimeRouting} is configured, the travel costs are the travel times measured in the simulation. They
+ * are recorded in time-sliced {@link TravelTimeProfiles} and used by a time-dependent Dijkstra search to periodically
+ * re-route the vehicles to the destinations of their routes.
+ * </p>
+ */
+public class Routing implements SimulationTimeStep {
 
     /** The Constant LOG. */
     private static final Logger LOG = LoggerFactory.getLogger(Routing.class);
@@ -49,15 +74,63 @@ public class Routing {
     private final RoadNetwork roadNetwork;
 
     // see http://jgrapht.org/ for library documentation
-    private WeightedGraph<Long, RoadSegment> graph;
+    private DefaultDirectedWeightedGraph<Long, RoadSegment> graph;
+
+    private final ShortestPathAlgorithmEnum algorithm;
+
+    private final double weightChangeThreshold;
+
+    private final int landmarkCount;
+
+    /** cached shortest-path trees by origin node (dijkstra mode) */
+    private final Map<Long, ShortestPathTree> shortestPathTrees = Maps.newHashMap();
+
+    /** landmark search and memoized routes (alt mode) */
+    private LandmarkShortestPath landmarkShortestPath;
+    private final Map<String, Route> landmarkRoutes = Maps.newHashMap();
+
+    /** time-dependent routing with measured travel times, null if not configured */
+    private TravelTimeProfiles travelTimeProfiles;
+    private TimeDependentShortestPath timeDependentShortestPath;
+    private double sampleInterval;
+    private double rerouteInterval;
+    private double nextSampleTime;
+
+    private PerformanceMetrics performanceMetrics = PerformanceMetrics.disabled();
 
     public Routing(Routes routesInput, RoadNetwork roadNetwork) {
         this.roadNetwork = Preconditions.checkNotNull(roadNetwork);
         predefinedRoutes = Maps.newHashMap();
         if (routesInput != null) {
             createPredefinedRoutes(routesInput);
+            algorithm = routesInput.getShortestPath();
+            weightChangeThreshold = routesInput.getWeightChangeThreshold();
+            landmarkCount = routesInput.getLandmarks();
+        } else {
+            algorithm = ShortestPathAlgorithmEnum.DIJKSTRA;
+            weightChangeThreshold = 0.05;
+            landmarkCount = 4;
         }
         graph = NetworkGraph.create(roadNetwork); // lazy init. vs. early failure!!
+        if (routesInput != null && routesInput.isSetTravelTimeRouting()) {
+            initTravelTimeRouting(routesInput.getTravelTimeRouting());
+        }
+    }
+
+    private void initTravelTimeRouting(TravelTimeRouting config) {
+        RoadSegment[] roadSegments = graph.edgeSet().toArray(new RoadSegment[graph.edgeSet().size()]);
+        travelTimeProfiles = new TravelTimeProfiles(roadSegments, config.getSliceDuration(), config.getSlices());
+        for (int edge = 0; edge < roadSegments.length; edge++) {
+            graph.setEdgeWeight(roadSegments[edge], travelTimeProfiles.latestTravelTime(edge));
+        }
+        timeDependentShortestPath = new TimeDependentShortestPath(graph, travelTimeProfiles);
+        sampleInterval = config.getSampleInterval();
+        rerouteInterval = config.getRerouteInterval();
+        LOG.info("time-dependent routing with {} time slices of {}s", config.getSlices(), config.getSliceDuration());
+    }
+
+    public void setPerformanceMetrics(PerformanceMetrics performanceMetrics) {
+        this.performanceMetrics = Preconditions.checkNotNull(performanceMetrics);
     }
 
     private void createPredefinedRoutes(Routes routesInput) {
@@ -118,24 +191,59 @@ public class Routing {
             throw new IllegalArgumentException("cannot find roadSegment=" + destinationRoadId);
         }
 
-        Route route = new Route(createRouteName(startRoadId, destinationRoadId));
-        route.add(startRoadSegment);
+        final long start = performanceMetrics.tic();
+        Route route = (algorithm == ShortestPathAlgorithmEnum.ALT) ? findRouteWithLandmarks(startRoadSegment,
+                endRoadSegment) : findRouteInTree(startRoadSegment, endRoadSegment);
+        performanceMetrics.addRoutingQuery(start);
+        return route;
+    }
 
+    private Route findRouteInTree(RoadSegment startRoadSegment, RoadSegment endRoadSegment) {
+        Long origin = startRoadSegment.getDestinationNode().getId();
+        ShortestPathTree tree = shortestPathTrees.get(origin);
+        if (tree == null) {
+            LOG.debug("compute shortest-path tree from node={}", origin);
+            tree = new ShortestPathTree(graph, origin);
+            shortestPathTrees.put(origin, tree);
+        }
+        Route route = tree.getRoute(endRoadSegment);
+        if (route == null) {
+            route = createRoute(startRoadSegment, endRoadSegment,
+                    tree.pathTo(endRoadSegment.getDestinationNode().getId()));
+            tree.putRoute(endRoadSegment, route);
+        }
+        return route;
+    }
+
+    private Route findRouteWithLandmarks(RoadSegment startRoadSegment, RoadSegment endRoadSegment) {
+        String name = createRouteName(startRoadSegment.userId(), endRoadSegment.userId());
+        Route route = landmarkRoutes.get(name);
+        if (route == null) {
+            if (landmarkShortestPath == null) {
+                landmarkShortestPath = new LandmarkShortestPath(graph, landmarkCount);
+            }
+            route = createRoute(startRoadSegment, endRoadSegment, landmarkShortestPath.findPath(startRoadSegment
+                    .getDestinationNode().getId(), endRoadSegment.getDestinationNode().getId()));
+            landmarkRoutes.put(name, route);
+        }
+        return route;
+    }
+
+    private static Route createRoute(RoadSegment startRoadSegment, RoadSegment endRoadSegment, List<RoadSegment> path) {
+        String startRoadId = startRoadSegment.userId();
+        String destinationRoadId = endRoadSegment.userId();
         LOG.debug("Shortest path from roadSegment={} to={}", startRoadId, destinationRoadId);
         LOG.debug("From node={} to node={}", startRoadSegment.getDestinationNode().getId(), endRoadSegment
                 .getDestinationNode().getId());
-
-        List<RoadSegment> path = DijkstraShortestPath.findPathBetween(graph, startRoadSegment.getDestinationNode()
-                .getId(), endRoadSegment.getDestinationNode().getId());
-
         if (path == null) {
             LOG.error("cannot find route from startRoadId=" + startRoadId + " to destinationRoadId="
                     + destinationRoadId);
-            // return null;
             throw new IllegalStateException("cannot find route from startRoadId=" + startRoadId
                     + " to destinationRoadId=" + destinationRoadId);
         }
 
+        Route route = new Route(createRouteName(startRoadId, destinationRoadId));
+        route.add(startRoadSegment);
         for (RoadSegment roadSegment : path) {
             route.add(roadSegment);
             LOG.debug("add roadSegment={} to route={}", roadSegment, route.getName());
@@ -143,6 +251,144 @@ public class Routing {
         return route;
     }
 
+    /**
+     * Returns the fastest route for the given departure time based on the measured travel-time profiles. Falls back to
+     * {@link #findRoute(RoadSegment, RoadSegment)} if time-dependent routing is not configured.
+     * 
+     * @param start
+     * @param destination
+     * @param departureTime
+     *            the time (s) when leaving the start road segment
+     * @return the route
+     * @throws IllegalStateException
+     *             if the destination is not reachable
+     */
+    public Route findRoute(RoadSegment start, RoadSegment destination, double departureTime)
+            throws IllegalStateException {
+        if (timeDependentShortestPath == null) {
+            return findRoute(start, destination);
+        }
+        final long startTime = performanceMetrics.tic();
+        List<RoadSegment> path = timeDependentShortestPath.findPath(start.getDestinationNode().getId(), destination
+                .getDestinationNode().getId(), departureTime);
+        performanceMetrics.addRoutingQuery(startTime);
+        return createRoute(start, destination, path);
+    }
+
+    /**
+     * Samples the travel times and re-routes the vehicles if time-dependent routing is configured. Each vehicle with a
+     * route is re-routed once per re-route interval at an individual phase to spread the queries over the update steps.
+     */
+    @Override
+    public void timeStep(double dt, double simulationTime, long iterationCount) {
+        if (travelTimeProfiles == null) {
+            return;
+        }
+        if (simulationTime >= nextSampleTime) {
+            nextSampleTime += sampleInterval;
+            if (travelTimeProfiles.sample(simulationTime)) {
+                for (int edge = 0; edge < travelTimeProfiles.size(); edge++) {
+                    updateTravelCost(travelTimeProfiles.roadSegment(edge), travelTimeProfiles.latestTravelTime(edge));
+                }
+            }
+        }
+        for (RoadSegment roadSegment : roadNetwork) {
+            for (LaneSegment laneSegment : roadSegment.laneSegments()) {
+                for (Vehicle vehicle : laneSegment) {
+                    if (vehicle.getRoute() != null && isRerouteDue(vehicle, dt, simulationTime)) {
+                        reroute(vehicle, roadSegment, simulationTime);
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean isRerouteDue(Vehicle vehicle, double dt, double simulationTime) {
+        final double phase = ((vehicle.getId() * 0.6180339887) % 1) * rerouteInterval;
+        return Math.floor((simulationTime + phase) / rerouteInterval) > Math.floor((simulationTime - dt + phase)
+                / rerouteInterval);
+    }
+
+    private void reroute(Vehicle vehicle, RoadSegment roadSegment, double simulationTime) {
+        final Route route = vehicle.getRoute();
+        final RoadSegment destination = route.get(route.size() - 1);
+        if (destination == roadSegment) {
+            return;
+        }
+        final double remainingTime = (roadSegment.roadLength() - vehicle.getFrontPosition())
+                / Math.max(1, vehicle.getSpeed());
+        final long start = performanceMetrics.tic();
+        List<RoadSegment> path = timeDependentShortestPath.findPath(roadSegment.getDestinationNode().getId(),
+                destination.getDestinationNode().getId(), simulationTime + Math.max(0, remainingTime));
+        performanceMetrics.addRoutingQuery(start);
+        if (path != null && !follows(route, roadSegment, path)) {
+            LOG.debug("re-route vehicle={} at time={}", vehicle.getId(), simulationTime);
+            vehicle.reroute(createRoute(roadSegment, destination, path));
+        }
+    }
+
+    /**
+     * Returns true if the route continues with the path after the given road segment.
+     */
+    private static boolean follows(Route route, RoadSegment roadSegment, List<RoadSegment> path) {
+        Iterator<RoadSegment> iterator = route.iterator();
+        while (iterator.hasNext() && iterator.next() != roadSegment) {
+            // skip the part of the route already passed
+        }
+        for (RoadSegment next : path) {
+            if (!iterator.hasNext() || iterator.next() != next) {
+                return false;
+            }
+        }
+        return !iterator.hasNext();
+    }
+
+    /**
+     * Returns the current travel cost of the road segment used as edge weight for the shortest paths.
+     * 
+     * @param roadSegment
+     * @return the travel cost
+     */
+    public double getTravelCost(RoadSegment roadSegment) {
+        return graph.getEdgeWeight(roadSegment);
+    }
+
+    /**
+     * Sets the travel cost of the road segment used as edge weight for the shortest paths, e.g. a measured travel time.
+     * Changes relative to the current cost up to the weight change threshold are ignored so that the cached shortest
+     * paths can be kept. Otherwise only the cached results that may be affected are discarded: after an increase the
+     * shortest-path trees using the road segment, after a decrease the trees in which the road segment provides a
+     * shorter path.
+     * 
+     * @param roadSegment
+     * @param travelCost
+     *            the new travel cost, must be non-negative
+     * @return true if the travel cost has been updated
+     */
+    public boolean updateTravelCost(RoadSegment roadSegment, double travelCost) {
+        Preconditions.checkArgument(travelCost >= 0, "negative travel cost=" + travelCost);
+        final double oldTravelCost = graph.getEdgeWeight(roadSegment);
+        if (Math.abs(travelCost - oldTravelCost) <= weightChangeThreshold * oldTravelCost) {
+            return false;
+        }
+        graph.setEdgeWeight(roadSegment, travelCost);
+        final Long from = roadSegment.getOriginNode().getId();
+        final Long to = roadSegment.getDestinationNode().getId();
+        Iterator<ShortestPathTree> iterator = shortestPathTrees.values().iterator();
+        while (iterator.hasNext()) {
+            ShortestPathTree tree = iterator.next();
+            if (travelCost > oldTravelCost ? tree.containsEdge(roadSegment) : (tree.reaches(from) && tree
+                    .distance(from) + travelCost < tree.distance(to))) {
+                iterator.remove();
+            }
+        }
+        landmarkRoutes.clear();
+        if (landmarkShortestPath != null && travelCost < oldTravelCost) {
+            landmarkShortestPath.invalidate();
+        }
+        return true;
+    }
+
     private static String createRouteName(String startRoadId, String destinationRoadId) {
         StringBuilder sb = new StringBuilder();
         sb.append("from_").append(startRoadId).append("_").append(destinationRoadId);
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.simulator.roadnetwork.routing;
+
+import java.util.Arrays;
+
+import org.movsim.simulator.roadnetwork.Lanes;
+import org.movsim.simulator.roadnetwork.RoadSegment;
+
+/**
+ * Compiled form of a {@link Route} as followed by the vehicles. The road segment ids of the route are stored in an int
+ * array together with the exit that has to be taken when entering the road segment at a given route index, so that
+ * the per-vehicle route bookkeeping reduces to array lookups. A plan is compiled once per route and shared by all
+ * vehicles following the route.
+ * 
+ * <p>
+ * The exit of a route index refers to the road segment with the exit lane that has to be taken, either the road
+ * segment at the index itself or the next road segment on the route (routing horizon of one road segment ahead).
+ * </p>
+ */
+public final class RoutingPlan {
+
+    /** indicates that no exit has to be taken at a route index */
+    public static final int NO_EXIT = -1;
+
+    private final Route route;
+
+    private final int[] roadSegmentIds;
+
+    private final int[] exitRoadSegmentIds;
+
+    private final RoadSegment[] exitRoadSegments;
+
+    /** lane number of the exit lane on the exit road segment */
+    private final int[] exitLanes;
+
+    RoutingPlan(Route route) {
+        this.route = route;
+        final RoadSegment[] roadSegments = new RoadSegment[route.size()];
+        int index = 0;
+        for (final RoadSegment roadSegment : route) {
+            roadSegments[index++] = roadSegment;
+        }
+        final int size = roadSegments.length;
+        roadSegmentIds = new int[size];
+        exitRoadSegmentIds = new int[size];
+        exitRoadSegments = new RoadSegment[size];
+        exitLanes = new int[size];
+        Arrays.fill(exitRoadSegmentIds, NO_EXIT);
+        for (int i = 0; i < size; i++) {
+            roadSegmentIds[i] = roadSegments[i].id();
+            RoadSegment exitRoadSegment = null;
+            if (i + 1 < size && roadSegments[i].exitsOnto(roadSegments[i + 1].id())) {
+                // the vehicle needs to exit on this road segment
+                exitRoadSegment = roadSegments[i];
+            } else if (i + 2 < size && roadSegments[i + 1].exitsOnto(roadSegments[i + 2].id())) {
+                // the vehicle needs to exit on the next road segment
+                exitRoadSegment = roadSegments[i + 1];
+            }
+            if (exitRoadSegment != null) {
+                exitRoadSegmentIds[i] = exitRoadSegment.id();
+                exitRoadSegments[i] = exitRoadSegment;
+                exitLanes[i] = exitRoadSegment.trafficLaneMax() + Lanes.TO_RIGHT;
+            }
+        }
+    }
+
+    public Route getRoute() {
+        return route;
+    }
+
+    /**
+     * Returns the number of road segments in the plan.
+     * 
+     * @return the number of road segments
+     */
+    public int size() {
+        return roadSegmentIds.length;
+    }
+
+    public int roadSegmentId(int index) {
+        return roadSegmentIds[index];
+    }
+
+    /**
+     * Returns the route index of the given road segment or -1 if the road segment is not part of the route.
+     * 
+     * @param roadSegmentId
+     * @return the route index of the road segment
+     */
+    public int indexOf(int roadSegmentId) {
+        for (int i = 0; i < roadSegmentIds.length; i++) {
+            if (roadSegmentIds[i] == roadSegmentId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the id of the road segment with the exit to be taken when the vehicle is on the road segment with the
+     * given route index, or {@link #NO_EXIT}.
+     * 
+     * @param index
+     * @return the exit road segment id
+     */
+    public int exitRoadSegmentId(int index) {
+        return exitRoadSegmentIds[index];
+    }
+
+    /**
+     * Returns the road segment with the exit to be taken at the given route index or null.
+     * 
+     * @param index
+     * @return the exit road segment
+     */
+    public RoadSegment exitRoadSegment(int index) {
+        return exitRoadSegments[index];
+    }
+
+    /**
+     * Returns the exit lane on the exit road segment for the given route index, only valid if there is an exit at this
+     * index.
+     * 
+     * @param index
+     * @return the target lane of the exit
+     */
+    public int exitLane(int index) {
+        return exitLanes[index];
+    }
+
+    @Override
+    public String toString() {
+        return "RoutingPlan [route=" + route.getName() + ", roadSegmentIds=" + Arrays.toString(roadSegmentIds)
+                + ", exitRoadSegmentIds=" + Arrays.toString(exitRoadSegmentIds) + "]";
+    }
+}
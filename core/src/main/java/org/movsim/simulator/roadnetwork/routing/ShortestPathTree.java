@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.simulator.roadnetwork.routing;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.jgrapht.Graph;
+import org.jgrapht.traverse.ClosestFirstIterator;
+import org.movsim.simulator.roadnetwork.RoadSegment;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Shortest-path tree rooted at an origin node of the {@link NetworkGraph}. The tree is computed once by a complete
+ * Dijkstra search and then answers the shortest path to every reachable node by following the predecessor edges. The
+ * routes already built from the tree are memoized per destination road segment.
+ */
+final class ShortestPathTree {
+
+    private final Long origin;
+
+    /** tree edge leading to the node, the origin itself has no entry */
+    private final Map<Long, RoadSegment> predecessors = Maps.newHashMap();
+
+    private final Map<Long, Double> distances = Maps.newHashMap();
+
+    private final Map<RoadSegment, Route> routes = Maps.newHashMap();
+
+    ShortestPathTree(Graph<Long, RoadSegment> graph, Long origin) {
+        this.origin = origin;
+        ClosestFirstIterator<Long, RoadSegment> iterator = new ClosestFirstIterator<>(graph, origin);
+        while (iterator.hasNext()) {
+            Long node = iterator.next();
+            distances.put(node, iterator.getShortestPathLength(node));
+            RoadSegment edge = iterator.getSpanningTreeEdge(node);
+            if (edge != null) {
+                predecessors.put(node, edge);
+            }
+        }
+    }
+
+    Long origin() {
+        return origin;
+    }
+
+    boolean reaches(Long node) {
+        return distances.containsKey(node);
+    }
+
+    /**
+     * Returns the length of the shortest path to the given node or {@link Double#POSITIVE_INFINITY} if the node is not
+     * reachable.
+     */
+    double distance(Long node) {
+        Double distance = distances.get(node);
+        return distance == null ? Double.POSITIVE_INFINITY : distance.doubleValue();
+    }
+
+    boolean containsEdge(RoadSegment roadSegment) {
+        return predecessors.get(roadSegment.getDestinationNode().getId()) == roadSegment;
+    }
+
+    /**
+     * Returns the road segments from the origin to the given node, an empty list for the origin itself and null if the
+     * node is not reachable.
+     */
+    List<RoadSegment> pathTo(Long node) {
+        if (!reaches(node)) {
+            return null;
+        }
+        LinkedList<RoadSegment> path = new LinkedList<>();
+        Long current = node;
+        while (!current.equals(origin)) {
+            RoadSegment edge = predecessors.get(current);
+            path.addFirst(edge);
+            current = edge.getOriginNode().getId();
+        }
+        return path;
+    }
+
+    Route getRoute(RoadSegment destination) {
+        return routes.get(destination);
+    }
+
+    void putRoute(RoadSegment destination, Route route) {
+        routes.put(destination, route);
+    }
+
+}
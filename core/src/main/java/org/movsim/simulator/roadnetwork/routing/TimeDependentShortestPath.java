@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.simulator.roadnetwork.routing;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.jgrapht.DirectedGraph;
+import org.movsim.simulator.roadnetwork.RoadSegment;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Time-dependent Dijkstra search on the {@link NetworkGraph} with the {@link TravelTimeProfiles} as edge weights.
+ * 
+ * <p>
+ * The graph is compiled into flat adjacency arrays and the search state is reused between queries, so that a query
+ * does not allocate apart from the resulting path. The labels are arrival times at the nodes, the search stops when
+ * the target node is settled.
+ * </p>
+ */
+final class TimeDependentShortestPath {
+
+    private final TravelTimeProfiles profiles;
+
+    private final Map<Long, Integer> indices;
+
+    /** outgoing edges of node i are edges[firstEdge[i]] ... edges[firstEdge[i + 1] - 1] */
+    private final int[] firstEdge;
+    private final int[] edges;
+
+    private final int[] edgeSources;
+    private final int[] edgeTargets;
+
+    // search state, valid for entries with visited[i] == query
+    private final double[] arrivals;
+    private final int[] predecessors;
+    private final int[] visited;
+    private int query;
+
+    // binary min-heap of nodes keyed by arrival time, heapPositions[node] is -1 if the node is not in the heap
+    private final int[] heap;
+    private final int[] heapPositions;
+    private int heapSize;
+
+    TimeDependentShortestPath(DirectedGraph<Long, RoadSegment> graph, TravelTimeProfiles profiles) {
+        this.profiles = profiles;
+        final int nodeCount = graph.vertexSet().size();
+        final int edgeCount = profiles.size();
+        indices = Maps.newHashMapWithExpectedSize(nodeCount);
+        for (Long node : graph.vertexSet()) {
+            indices.put(node, indices.size());
+        }
+        edgeSources = new int[edgeCount];
+        edgeTargets = new int[edgeCount];
+        firstEdge = new int[nodeCount + 1];
+        for (int edge = 0; edge < edgeCount; edge++) {
+            final RoadSegment roadSegment = profiles.roadSegment(edge);
+            edgeSources[edge] = indices.get(graph.getEdgeSource(roadSegment));
+            edgeTargets[edge] = indices.get(graph.getEdgeTarget(roadSegment));
+            ++firstEdge[edgeSources[edge] + 1];
+        }
+        for (int i = 0; i < nodeCount; i++) {
+            firstEdge[i + 1] += firstEdge[i];
+        }
+        edges = new int[edgeCount];
+        final int[] fill = Arrays.copyOf(firstEdge, nodeCount);
+        for (int edge = 0; edge < edgeCount; edge++) {
+            edges[fill[edgeSources[edge]]++] = edge;
+        }
+        arrivals = new double[nodeCount];
+        predecessors = new int[nodeCount];
+        visited = new int[nodeCount];
+        heap = new int[nodeCount];
+        heapPositions = new int[nodeCount];
+    }
+
+    /**
+     * Returns the road segments of the fastest path from source to target node when departing at the given time, an
+     * empty list if both nodes are equal and null if the target is not reachable.
+     */
+    List<RoadSegment> findPath(Long source, Long target, double departureTime) {
+        final Integer s = indices.get(source);
+        final Integer t = indices.get(target);
+        if (s == null || t == null) {
+            return null;
+        }
+        if (++query == 0) {
+            Arrays.fill(visited, 0);
+            query = 1;
+        }
+        heapSize = 0;
+        visit(s, departureTime, -1);
+        while (heapSize > 0) {
+            final int node = poll();
+            if (node == t) {
+                return path(s, t);
+            }
+            for (int i = firstEdge[node], end = firstEdge[node + 1]; i < end; i++) {
+                final int edge = edges[i];
+                final int next = edgeTargets[edge];
+                final double arrival = profiles.arrivalTime(edge, arrivals[node]);
+                if (visited[next] != query) {
+                    visit(next, arrival, edge);
+                } else if (heapPositions[next] >= 0 && arrival < arrivals[next]) {
+                    arrivals[next] = arrival;
+                    predecessors[next] = edge;
+                    siftUp(heapPositions[next]);
+                }
+            }
+        }
+        return null;
+    }
+
+    private void visit(int node, double arrival, int predecessor) {
+        visited[node] = query;
+        arrivals[node] = arrival;
+        predecessors[node] = predecessor;
+        heap[heapSize] = node;
+        heapPositions[node] = heapSize;
+        siftUp(heapSize++);
+    }
+
+    private List<RoadSegment> path(int source, int target) {
+        LinkedList<RoadSegment> path = new LinkedList<>();
+        int node = target;
+        while (node != source) {
+            final int edge = predecessors[node];
+            path.addFirst(profiles.roadSegment(edge));
+            node = edgeSources[edge];
+        }
+        return path;
+    }
+
+    private int poll() {
+        final int first = heap[0];
+        heapPositions[first] = -1;
+        if (--heapSize > 0) {
+            heap[0] = heap[heapSize];
+            heapPositions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return first;
+    }
+
+    private void siftUp(int position) {
+        final int node = heap[position];
+        int i = position;
+        while (i > 0) {
+            final int parent = (i - 1) >>> 1;
+            if (arrivals[heap[parent]] <= arrivals[node]) {
+                break;
+            }
+            move(heap[parent], i);
+            i = parent;
+        }
+        move(node, i);
+    }
+
+    private void siftDown(int position) {
+        final int node = heap[position];
+        int i = position;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && arrivals[heap[child + 1]] < arrivals[heap[child]]) {
+                ++child;
+            }
+            if (arrivals[node] <= arrivals[heap[child]]) {
+                break;
+            }
+            move(heap[child], i);
+            i = child;
+        }
+        move(node, i);
+    }
+
+    private void move(int node, int position) {
+        heap[position] = node;
+        heapPositions[node] = position;
+    }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.simulator.roadnetwork.routing;
+
+import org.movsim.simulator.roadnetwork.RoadSegment;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Time-sliced travel-time profiles of the road segments measured in the simulation.
+ * 
+ * <p>
+ * The instantaneous travel times derived from the mean speeds of the vehicles, see
+ * {@link RoadSegment#instantaneousTravelTimeFromMeanSpeed()}, are sampled and averaged over each time slice. The
+ * profiles are cyclic: the slice of the previous cycle serves as prediction for a future time as long as it has not
+ * been overwritten by the current cycle, otherwise the latest measured slice is used. Initially all slices hold the
+ * free-flow travel times.
+ * </p>
+ */
+final class TravelTimeProfiles {
+
+    private final RoadSegment[] roadSegments;
+
+    private final double sliceDuration;
+
+    private final int sliceCount;
+
+    /** travel times with index edge * sliceCount + slice % sliceCount */
+    private final double[] profiles;
+
+    private final double[] sums;
+
+    private int sampleCount;
+
+    /** absolute index of the slice currently measured */
+    private long slice;
+
+    /** absolute index of the last completed slice, -1 if none */
+    private long lastCompletedSlice = -1;
+
+    TravelTimeProfiles(RoadSegment[] roadSegments, double sliceDuration, int sliceCount) {
+        Preconditions.checkArgument(sliceDuration > 0 && sliceCount > 0, "invalid time slices");
+        this.roadSegments = roadSegments;
+        this.sliceDuration = sliceDuration;
+        this.sliceCount = sliceCount;
+        profiles = new double[roadSegments.length * sliceCount];
+        sums = new double[roadSegments.length];
+        for (int edge = 0; edge < roadSegments.length; edge++) {
+            final double freeFlowTravelTime = roadSegments[edge].roadLength() / roadSegments[edge].getFreeFlowSpeed();
+            for (int i = 0; i < sliceCount; i++) {
+                profiles[edge * sliceCount + i] = freeFlowTravelTime;
+            }
+        }
+    }
+
+    int size() {
+        return roadSegments.length;
+    }
+
+    RoadSegment roadSegment(int edge) {
+        return roadSegments[edge];
+    }
+
+    /**
+     * Samples the current travel times of all road segments.
+     * 
+     * @param simulationTime
+     * @return true if a time slice has been completed before sampling
+     */
+    boolean sample(double simulationTime) {
+        final long current = (long) Math.floor(simulationTime / sliceDuration);
+        boolean completed = false;
+        if (current > slice) {
+            completed = completeSlice();
+            slice = current;
+        }
+        for (int edge = 0; edge < roadSegments.length; edge++) {
+            sums[edge] += roadSegments[edge].instantaneousTravelTimeFromMeanSpeed();
+        }
+        ++sampleCount;
+        return completed;
+    }
+
+    private boolean completeSlice() {
+        if (sampleCount == 0) {
+            return false;
+        }
+        final int offset = (int) (slice % sliceCount);
+        for (int edge = 0; edge < roadSegments.length; edge++) {
+            profiles[edge * sliceCount + offset] = sums[edge] / sampleCount;
+            sums[edge] = 0;
+        }
+        sampleCount = 0;
+        lastCompletedSlice = slice;
+        return true;
+    }
+
+    /**
+     * Returns the travel time of the last completed slice or the free-flow travel time if no slice has been completed.
+     */
+    double latestTravelTime(int edge) {
+        final int offset = lastCompletedSlice < 0 ? 0 : (int) (lastCompletedSlice % sliceCount);
+        return profiles[edge * sliceCount + offset];
+    }
+
+    /**
+     * Returns the expected travel time when entering the road segment at the given time.
+     */
+    double travelTime(int edge, double time) {
+        final long s = (long) Math.floor(time / sliceDuration);
+        if (lastCompletedSlice < 0 || s <= lastCompletedSlice - sliceCount) {
+            return latestTravelTime(edge);
+        }
+        if (s > lastCompletedSlice && (s < sliceCount || s >= lastCompletedSlice + sliceCount)) {
+            // no measurement from the previous cycle
+            return latestTravelTime(edge);
+        }
+        return profiles[edge * sliceCount + (int) (s % sliceCount)];
+    }
+
+    /**
+     * Returns the arrival time at the end of the road segment when entering at the given departure time. Since the
+     * travel times are piecewise constant, waiting for the next time slice is considered to keep the arrival times
+     * non-decreasing in the departure time (FIFO property) as required by the time-dependent Dijkstra search.
+     */
+    double arrivalTime(int edge, double departureTime) {
+        final double arrival = departureTime + travelTime(edge, departureTime);
+        final double nextSlice = (Math.floor(departureTime / sliceDuration) + 1) * sliceDuration;
+        return arrival > nextSlice ? Math.min(arrival, nextSlice + travelTime(edge, nextSlice)) : arrival;
+    }
+
+}
@@ -22,6 +22,10 @@ public class EnergyModel {
         }
     }
 
+    void reset() {
+        totalFuelUsedLiters = 0;
+    }
+
     public void setModel(EnergyFlowModel fuelModel) {
         this.fuelModel = fuelModel;
     }
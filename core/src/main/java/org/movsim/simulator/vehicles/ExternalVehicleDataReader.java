@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.simulator.vehicles;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Sequential source of externally controlled vehicle data in increasing time order.
+ * 
+ * <p>
+ * Each vehicle is described by an {@link Type#ENTER} record, followed by any number of {@link Type#SPEED} records and
+ * a final {@link Type#EXIT} record. Every record carries a speed data point of the vehicle. Records of different
+ * vehicles are interleaved by time, so that readers only need to hold the records not consumed yet.
+ * </p>
+ */
+public interface ExternalVehicleDataReader extends Closeable {
+
+    /**
+     * Mutable data record filled by the reader.
+     */
+    final class Record {
+
+        public enum Type {
+            /** vehicle enters the road network */
+            ENTER,
+            /** speed data point */
+            SPEED,
+            /** last speed data point, vehicle is removed from the road network */
+            EXIT;
+        }
+
+        Type type;
+
+        /** time (s) */
+        double time;
+
+        /** external vehicle id */
+        String id;
+
+        /** speed (m/s) */
+        double speed;
+
+        // entering data, only set for type ENTER
+
+        String roadId;
+
+        double position;
+
+        int lane;
+
+        double length;
+
+        double width;
+
+        Map<String, String> userData;
+
+        @Override
+        public String toString() {
+            return "Record [type=" + type + ", time=" + time + ", id=" + id + ", speed=" + speed + "]";
+        }
+    }
+
+    /**
+     * Reads the next record.
+     * 
+     * @param record
+     *            the record to be filled
+     * @return false if the end of the data has been reached
+     * @throws IOException
+     */
+    boolean next(Record record) throws IOException;
+
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.simulator.vehicles;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.movsim.scenario.vehicle.autogen.ExternalVehicleType;
+import org.movsim.scenario.vehicle.autogen.MovsimExternalVehicleControl;
+import org.movsim.scenario.vehicle.autogen.SpeedDataType;
+import org.movsim.scenario.vehicle.autogen.VehicleUserDataType;
+import org.movsim.simulator.vehicles.ExternalVehicleDataReader.Record;
+import org.movsim.simulator.vehicles.ExternalVehicleDataReader.Record.Type;
+import org.movsim.utilities.TimeUtilities;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Factory for {@link ExternalVehicleDataReader}s.
+ * 
+ * <p>
+ * Trajectory files are read in buffered chunks while the simulation proceeds, the records must be sorted by time. A
+ * text file contains one record per line with the values separated by comma, semicolon or whitespace:
+ * 
+ * <pre>
+ * time, enter, id, speed, roadId, position[, lane[, length[, width]]]
+ * time, speed, id, speed
+ * time, exit, id, speed
+ * </pre>
+ * 
+ * Times are given in seconds, speeds in m/s. Empty lines and lines starting with {@value #COMMENT_CHAR} are ignored.
+ * A file with the extension {@value #BINARY_EXTENSION} contains the same records in big-endian binary form: time
+ * (double), type ordinal (byte), id (UTF), speed (double) and for entering vehicles roadId (UTF), position (double),
+ * lane (int), length (double) and width (double).
+ * </p>
+ */
+public final class ExternalVehicleDataReaders {
+
+    public static final String BINARY_EXTENSION = ".bin";
+
+    static final String COMMENT_CHAR = "#";
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // defaults as in the xml input
+    static final int DEFAULT_LANE = 1;
+    static final double DEFAULT_LENGTH = 5;
+    static final double DEFAULT_WIDTH = 4.4;
+
+    private ExternalVehicleDataReaders() {
+        throw new IllegalStateException("do not instanciate");
+    }
+
+    /**
+     * Returns a reader over the externally controlled vehicles of the xml input.
+     */
+    public static ExternalVehicleDataReader of(MovsimExternalVehicleControl input) {
+        return new ExternalVehicleXmlReader(input);
+    }
+
+    /**
+     * Returns a reader streaming the externally controlled vehicle records from the given file.
+     * 
+     * @throws IOException
+     */
+    public static ExternalVehicleDataReader open(File file) throws IOException {
+        Preconditions.checkArgument(file.exists(), "external vehicle file " + file + " not found");
+        return file.getName().endsWith(BINARY_EXTENSION) ? new ExternalVehicleBinaryReader(file)
+                : new ExternalVehicleCsvReader(file);
+    }
+
+    /**
+     * Merges the speed data of the xml vehicles into a single time-sorted record sequence.
+     */
+    private static final class ExternalVehicleXmlReader implements ExternalVehicleDataReader {
+
+        /** position in the speed data of a vehicle */
+        private static final class Cursor implements Comparable<Cursor> {
+            final int vehicleIndex;
+            final double[] times;
+            int recordIndex;
+
+            Cursor(int vehicleIndex, double[] times) {
+                this.vehicleIndex = vehicleIndex;
+                this.times = times;
+            }
+
+            /** the speed data of a single entry is used for entering and exit */
+            int recordCount() {
+                return Math.max(2, times.length);
+            }
+
+            int dataIndex() {
+                return Math.min(recordIndex, times.length - 1);
+            }
+
+            @Override
+            public int compareTo(Cursor o) {
+                final int result = Double.compare(times[dataIndex()], o.times[o.dataIndex()]);
+                return result != 0 ? result : Integer.compare(vehicleIndex, o.vehicleIndex);
+            }
+        }
+
+        private final List<ExternalVehicleType> vehicles;
+
+        private final PriorityQueue<Cursor> cursors;
+
+        ExternalVehicleXmlReader(MovsimExternalVehicleControl input) {
+            Preconditions.checkNotNull(input);
+            vehicles = input.getExternalVehicle();
+            cursors = new PriorityQueue<>(Math.max(1, vehicles.size()));
+            for (int i = 0, n = vehicles.size(); i < n; i++) {
+                final List<SpeedDataType> speedData = vehicles.get(i).getSpeedData();
+                Preconditions.checkArgument(!speedData.isEmpty(),
+                        "external vehicle needs at least one (time, speed) data entry");
+                final double[] times = new double[speedData.size()];
+                for (int j = 0; j < times.length; j++) {
+                    times[j] = TimeUtilities.convertToSeconds(speedData.get(j).getTime(), input.getTimeFormat());
+                    Preconditions.checkArgument(j == 0 || times[j] >= times[j - 1],
+                            "(time, speed) data of external vehicle not sorted in time: " + speedData.get(j).getTime());
+                }
+                cursors.add(new Cursor(i, times));
+            }
+        }
+
+        @Override
+        public boolean next(Record record) {
+            final Cursor cursor = cursors.poll();
+            if (cursor == null) {
+                return false;
+            }
+            final ExternalVehicleType vehicle = vehicles.get(cursor.vehicleIndex);
+            record.time = cursor.times[cursor.dataIndex()];
+            record.speed = vehicle.getSpeedData().get(cursor.dataIndex()).getSpeed();
+            record.id = Integer.toString(cursor.vehicleIndex);
+            if (cursor.recordIndex == 0) {
+                record.type = Type.ENTER;
+                record.roadId = vehicle.getRoadId();
+                record.position = vehicle.getPosition();
+                record.lane = vehicle.getLane();
+                record.length = vehicle.getLength();
+                record.width = vehicle.getWidth();
+                record.userData = null;
+                if (!vehicle.getVehicleUserData().isEmpty()) {
+                    record.userData = new HashMap<>();
+                    for (VehicleUserDataType userData : vehicle.getVehicleUserData()) {
+                        record.userData.put(userData.getKey(), userData.getValue());
+                    }
+                }
+            } else {
+                record.type = (cursor.recordIndex == cursor.recordCount() - 1) ? Type.EXIT : Type.SPEED;
+            }
+            ++cursor.recordIndex;
+            if (cursor.recordIndex < cursor.recordCount()) {
+                cursors.add(cursor);
+            }
+            return true;
+        }
+
+        @Override
+        public void close() {
+            cursors.clear();
+        }
+    }
+
+    private static final class ExternalVehicleCsvReader implements ExternalVehicleDataReader {
+
+        private static final int MIN_SIZE = 4;
+
+        private static final int MIN_SIZE_ENTER = 6;
+
+        private final File file;
+
+        private BufferedReader reader;
+
+        private int lineNumber;
+
+        ExternalVehicleCsvReader(File file) throws IOException {
+            this.file = file;
+            reader = new BufferedReader(new FileReader(file), BUFFER_SIZE);
+        }
+
+        @Override
+        public boolean next(Record record) throws IOException {
+            if (reader == null) {
+                return false;
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                ++lineNumber;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith(COMMENT_CHAR)) {
+                    continue;
+                }
+                final String[] values = line.split("[,;\\s]+");
+                if (values.length < MIN_SIZE) {
+                    throw new IOException("expected time, type, id and speed in line " + lineNumber + " of " + file);
+                }
+                try {
+                    record.time = Double.parseDouble(values[0]);
+                    record.type = Type.valueOf(values[1].toUpperCase());
+                    record.id = values[2];
+                    record.speed = Double.parseDouble(values[3]);
+                    if (record.type == Type.ENTER) {
+                        if (values.length < MIN_SIZE_ENTER) {
+                            throw new IOException("expected roadId and position for entering vehicle in line "
+                                    + lineNumber + " of " + file);
+                        }
+                        record.roadId = values[4];
+                        record.position = Double.parseDouble(values[5]);
+                        record.lane = values.length > 6 ? Integer.parseInt(values[6]) : DEFAULT_LANE;
+                        record.length = values.length > 7 ? Double.parseDouble(values[7]) : DEFAULT_LENGTH;
+                        record.width = values.length > 8 ? Double.parseDouble(values[8]) : DEFAULT_WIDTH;
+                        record.userData = null;
+                    }
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("cannot parse line " + lineNumber + " of " + file, e);
+                }
+                return true;
+            }
+            close();
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (reader != null) {
+                reader.close();
+                reader = null;
+            }
+        }
+    }
+
+    private static final class ExternalVehicleBinaryReader implements ExternalVehicleDataReader {
+
+        private static final Type[] TYPES = Type.values();
+
+        private DataInputStream input;
+
+        ExternalVehicleBinaryReader(File file) throws IOException {
+            input = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+        }
+
+        @Override
+        public boolean next(Record record) throws IOException {
+            if (input == null) {
+                return false;
+            }
+            try {
+                record.time = input.readDouble();
+            } catch (EOFException e) {
+                close();
+                return false;
+            }
+            final int type = input.readByte();
+            if (type < 0 || type >= TYPES.length) {
+                throw new IOException("unknown record type=" + type + " at time=" + record.time);
+            }
+            record.type = TYPES[type];
+            record.id = input.readUTF();
+            record.speed = input.readDouble();
+            if (record.type == Type.ENTER) {
+                record.roadId = input.readUTF();
+                record.position = input.readDouble();
+                record.lane = input.readInt();
+                record.length = input.readDouble();
+                record.width = input.readDouble();
+                record.userData = null;
+            }
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (input != null) {
+                input.close();
+                input = null;
+            }
+        }
+    }
+
+}
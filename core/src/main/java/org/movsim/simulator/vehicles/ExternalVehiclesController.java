@@ -1,55 +1,97 @@
 package org.movsim.simulator.vehicles;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.SortedMap;
-import java.util.TreeMap;
 
-import org.movsim.scenario.vehicle.autogen.ExternalVehicleType;
 import org.movsim.scenario.vehicle.autogen.MovsimExternalVehicleControl;
-import org.movsim.scenario.vehicle.autogen.SpeedDataType;
-import org.movsim.scenario.vehicle.autogen.VehicleUserDataType;
+import org.movsim.shutdown.ShutdownHooks;
+import org.movsim.shutdown.SimulationShutDown;
 import org.movsim.simulator.roadnetwork.LaneSegment;
+import org.movsim.simulator.roadnetwork.Lanes;
 import org.movsim.simulator.roadnetwork.RoadNetwork;
 import org.movsim.simulator.roadnetwork.RoadSegment;
-import org.movsim.utilities.LinearInterpolatedFunction;
-import org.movsim.utilities.TimeUtilities;
+import org.movsim.simulator.vehicles.ExternalVehicleDataReader.Record;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Preconditions;
 
-public class ExternalVehiclesController {
+/**
+ * Adds, removes and sets the speeds of externally controlled vehicles.
+ * 
+ * <p>
+ * The vehicle data is consumed sequentially from an {@link ExternalVehicleDataReader}. Only the records up to the
+ * current simulation time and the next speed data point of each vehicle on the road are read, so that only the
+ * vehicles currently controlled need to be held in memory.
+ * </p>
+ */
+public class ExternalVehiclesController implements SimulationShutDown {
 
     private static final Logger LOG = LoggerFactory.getLogger(ExternalVehiclesController.class);
 
-    /** time-sorted map of external vehicle input data */
-    private final SortedMap<Double, List<ExternalVehicleType>> externalVehicleInputsToAdd = new TreeMap<>();
+    private ExternalVehicleDataReader reader;
 
-    /** time-sorted map of vehicles to remove */
-    private final SortedMap<Double, List<Vehicle>> externalVehiclesToRemove = new TreeMap<>();
+    private final Record record = new Record();
 
-    private final Map<Vehicle, LinearInterpolatedFunction> controlledVehicles = new HashMap<>();
+    private boolean endOfData = true;
 
-    private String timeFormat;
+    /** time of the last record read */
+    private double lastRecordTime = Double.NEGATIVE_INFINITY;
+
+    /** vehicles by external id whose exit record has not been read yet */
+    private final Map<String, ControlledVehicle> vehiclesById = new HashMap<>();
+
+    /** time-sorted queue of vehicles to add */
+    private final ArrayDeque<ControlledVehicle> vehiclesToAdd = new ArrayDeque<>();
+
+    /** time-sorted queue of vehicles to remove */
+    private final ArrayDeque<ControlledVehicle> vehiclesToRemove = new ArrayDeque<>();
+
+    /** vehicles on the road network */
+    private final List<ControlledVehicle> controlledVehicles = new ArrayList<>();
 
     public void setInput(MovsimExternalVehicleControl input) {
         Preconditions.checkNotNull(input);
-        this.timeFormat = input.getTimeFormat();
-        createExternalVehicleData(input);
+        setInput(ExternalVehicleDataReaders.of(input));
+    }
+
+    /**
+     * Streams the vehicle data from the given file, see {@link ExternalVehicleDataReaders}.
+     * 
+     * @param file
+     */
+    public void setInput(File file) {
+        try {
+            setInput(ExternalVehicleDataReaders.open(file));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("cannot read external vehicle file " + file, e);
+        }
+        ShutdownHooks.INSTANCE.addCallback(this);
+        LOG.info("stream external vehicle data from file={}", file);
+    }
+
+    public void setInput(ExternalVehicleDataReader reader) {
+        this.reader = Preconditions.checkNotNull(reader);
+        endOfData = false;
     }
 
     /**
      * sets the speeds of externally controlled vehicles in whole road network
      */
     public void setSpeeds(double simulationTime) {
-        for (Entry<Vehicle, LinearInterpolatedFunction> entry : controlledVehicles.entrySet()) {
-            double currentSpeed = entry.getValue().value(simulationTime);
-            Vehicle vehicle = entry.getKey();
-            vehicle.setSpeed(currentSpeed);
+        for (int i = 0, n = controlledVehicles.size(); i < n; i++) {
+            final ControlledVehicle controlledVehicle = controlledVehicles.get(i);
+            while (!controlledVehicle.hasSpeedDataAfter(simulationTime) && readRecord()) {
+                // read ahead until the next speed data point of the vehicle is known
+            }
+            controlledVehicle.vehicle.setSpeed(controlledVehicle.speed(simulationTime));
         }
     }
 
@@ -60,110 +102,202 @@ public class ExternalVehiclesController {
      * @param roadNetwork
      */
     public void addAndRemoveVehicles(double simulationTime, RoadNetwork roadNetwork) {
+        while (lastRecordTime <= simulationTime && readRecord()) {
+            // read all records up to the current time
+        }
         addVehiclesToRoadNetwork(simulationTime, roadNetwork);
         removeVehiclesFromRoadNetwork(simulationTime, roadNetwork);
     }
 
-    private void createExternalVehicleData(MovsimExternalVehicleControl input) {
-        for (ExternalVehicleType externalVehicleData : input.getExternalVehicle()) {
-            Preconditions.checkArgument(!externalVehicleData.getSpeedData().isEmpty(),
-                    "external vehicle needs at least one (time, speed) data entry");
-            // no check if (time, speed) input data is sorted in time
-            String entryTime = externalVehicleData.getSpeedData().get(0).getTime();
-            double entryTimestamp = TimeUtilities.convertToSeconds(entryTime, timeFormat);
-            addVehicleInput(entryTimestamp, externalVehicleData);
+    private boolean readRecord() {
+        if (endOfData) {
+            return false;
+        }
+        try {
+            if (!reader.next(record)) {
+                endOfData = true;
+                return false;
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("cannot read external vehicle data", e);
+        }
+        if (record.time < lastRecordTime) {
+            throw new IllegalStateException("external vehicle data not sorted in time: " + record);
+        }
+        lastRecordTime = record.time;
+
+        ControlledVehicle controlledVehicle;
+        switch (record.type) {
+        case ENTER:
+            Preconditions.checkState(!vehiclesById.containsKey(record.id), "external vehicle id already in use: "
+                    + record);
+            controlledVehicle = new ControlledVehicle(createVehicle(record), record.roadId, record.time);
+            vehiclesById.put(record.id, controlledVehicle);
+            vehiclesToAdd.addLast(controlledVehicle);
+            break;
+        case SPEED:
+            controlledVehicle = Preconditions.checkNotNull(vehiclesById.get(record.id),
+                    "speed data for unknown external vehicle: " + record);
+            break;
+        case EXIT:
+            controlledVehicle = Preconditions.checkNotNull(vehiclesById.remove(record.id),
+                    "exit of unknown external vehicle: " + record);
+            controlledVehicle.exitTime = record.time;
+            vehiclesToRemove.addLast(controlledVehicle);
+            break;
+        default:
+            throw new IllegalStateException("unknown record type " + record.type);
         }
+        controlledVehicle.addSpeedData(record.time, record.speed);
+        return true;
     }
 
     private void addVehiclesToRoadNetwork(double simulationTime, RoadNetwork roadNetwork) {
-        while (!externalVehicleInputsToAdd.isEmpty() && externalVehicleInputsToAdd.firstKey() <= simulationTime) {
-            Double firstKey = externalVehicleInputsToAdd.firstKey();
-            List<ExternalVehicleType> externalVehicles = externalVehicleInputsToAdd.remove(firstKey);
-            addVehiclesToRoadSegments(externalVehicles, roadNetwork);
-            LOG.debug("added {} external vehicles to roadNetwork, removed entries for time={}", externalVehicles.size(),
-                    firstKey);
+        while (!vehiclesToAdd.isEmpty() && vehiclesToAdd.peekFirst().entryTime <= simulationTime) {
+            final ControlledVehicle controlledVehicle = vehiclesToAdd.removeFirst();
+            final RoadSegment roadSegment = roadNetwork.findByUserId(controlledVehicle.roadId);
+            Preconditions.checkNotNull(roadSegment, "cannot find roadSegment with id=" + controlledVehicle.roadId
+                    + " for external vehicle");
+            roadSegment.addVehicle(controlledVehicle.vehicle);
+            controlledVehicle.roadSegment = roadSegment;
+            controlledVehicle.index = controlledVehicles.size();
+            controlledVehicles.add(controlledVehicle);
+            LOG.debug("added externally controlled vehicle={} to roadSegment={}", controlledVehicle.vehicle,
+                    roadSegment);
         }
     }
 
     private void removeVehiclesFromRoadNetwork(double simulationTime, RoadNetwork roadNetwork) {
-        while (!externalVehiclesToRemove.isEmpty() && simulationTime >= externalVehiclesToRemove.firstKey()) {
-            Double firstKey = externalVehiclesToRemove.firstKey();
-            List<Vehicle> externalVehicles = externalVehiclesToRemove.remove(firstKey);
-            removeVehiclesFromRoadSegments(externalVehicles, roadNetwork);
+        while (!vehiclesToRemove.isEmpty() && simulationTime >= vehiclesToRemove.peekFirst().exitTime) {
+            final ControlledVehicle controlledVehicle = vehiclesToRemove.removeFirst();
+            final LaneSegment laneSegment = laneSegment(controlledVehicle, roadNetwork);
+            laneSegment.removeVehicle(controlledVehicle.vehicle);
+            // swap with last vehicle for constant time removal
+            final ControlledVehicle last = controlledVehicles.remove(controlledVehicles.size() - 1);
+            if (last != controlledVehicle) {
+                last.index = controlledVehicle.index;
+                controlledVehicles.set(last.index, last);
+            }
+            LOG.debug("removed externally controlled vehicle={} from roadSegment={}", controlledVehicle.vehicle,
+                    laneSegment.roadSegment());
         }
     }
 
-    private void removeVehiclesFromRoadSegments(List<Vehicle> externalVehicles, RoadNetwork roadNetwork) {
-        for (Vehicle vehicle : externalVehicles) {
-            int roadSegmentId = vehicle.roadSegmentId();
-            RoadSegment roadSegment = roadNetwork.findById(roadSegmentId);
-            LaneSegment laneSegment = roadSegment.laneSegment(vehicle.lane());
-            laneSegment.removeVehicle(vehicle);
-            LOG.info("removed externally controlled vehicle={} from roadSegment={}", vehicle, roadSegment);
+    /**
+     * Returns the lane segment of the vehicle, the road segment the vehicle has been added to is used as long as the
+     * vehicle has not moved to another road segment.
+     */
+    private static LaneSegment laneSegment(ControlledVehicle controlledVehicle, RoadNetwork roadNetwork) {
+        final Vehicle vehicle = controlledVehicle.vehicle;
+        if (vehicle.roadSegmentId() != controlledVehicle.roadSegment.id()) {
+            controlledVehicle.roadSegment = Preconditions.checkNotNull(
+                    roadNetwork.findById(vehicle.roadSegmentId()), "vehicle not on a road segment: " + vehicle);
         }
+        if (vehicle.lane() == Lanes.OVERTAKING) {
+            return roadNetwork.findLaneSegment(vehicle);
+        }
+        return controlledVehicle.roadSegment.laneSegment(vehicle.lane());
     }
 
-    private boolean addVehicleInput(double timestamp, ExternalVehicleType externalVehicleInput) {
-        List<ExternalVehicleType> externalVehicles = externalVehicleInputsToAdd.get(timestamp);
-        if (externalVehicles == null) {
-            externalVehicles = new ArrayList<ExternalVehicleType>();
-            externalVehicleInputsToAdd.put(timestamp, externalVehicles);
+    private static Vehicle createVehicle(Record data) {
+        Vehicle vehicle = new Vehicle(data.position, data.speed, data.lane, data.length, data.width);
+        vehicle.setType(Vehicle.Type.EXTERNAL_CONTROL);
+        if (data.userData != null) {
+            for (Entry<String, String> userData : data.userData.entrySet()) {
+                vehicle.getUserData().put(userData.getKey(), userData.getValue());
+            }
         }
-        return externalVehicles.add(externalVehicleInput);
+        return vehicle;
     }
 
-    private boolean addVehicleToRemoveMap(double timestamp, Vehicle vehicle) {
-        List<Vehicle> vehiclesToRemove = externalVehiclesToRemove.get(timestamp);
-        if (vehiclesToRemove == null) {
-            vehiclesToRemove = new ArrayList<Vehicle>();
-            externalVehiclesToRemove.put(timestamp, vehiclesToRemove);
+    @Override
+    public void onShutDown() {
+        if (reader == null) {
+            return;
+        }
+        try {
+            reader.close();
+        } catch (IOException e) {
+            LOG.warn("cannot close external vehicle data reader", e);
         }
-        return vehiclesToRemove.add(vehicle);
     }
 
-    private void addVehiclesToRoadSegments(List<ExternalVehicleType> vehicleInputs, RoadNetwork roadNetwork) {
-        for (ExternalVehicleType vehicleInput : vehicleInputs) {
-            Vehicle vehicle = createVehicle(vehicleInput);
-            String roadId = vehicleInput.getRoadId();
-            RoadSegment roadSegment = roadNetwork.findByUserId(roadId);
-            Preconditions.checkNotNull(roadSegment,
-                    "cannot find roadSegment with id=" + roadId + " for external vehicle");
-            roadSegment.addVehicle(vehicle);
-            LinearInterpolatedFunction speedProfile = createSpeedProfile(vehicleInput.getSpeedData());
-            controlledVehicles.put(vehicle, speedProfile);
-            LOG.info("added externally controlled vehicle={} to roadSegment={}", vehicle, roadSegment);
-
-            // and add vehicle to removal container
-            int size = vehicleInput.getSpeedData().size();
-            String exitTime = vehicleInput.getSpeedData().get(size - 1).getTime();
-            double exitTimestamp = TimeUtilities.convertToSeconds(exitTime, timeFormat);
-            addVehicleToRemoveMap(exitTimestamp, vehicle);
-            LOG.info("external vehicle={} will be removed at timestamp={}", vehicle, exitTimestamp);
+    /**
+     * Externally controlled vehicle with the speed data points read so far.
+     */
+    private static final class ControlledVehicle {
+
+        private static final int INITIAL_CAPACITY = 8;
+
+        final Vehicle vehicle;
+
+        final String roadId;
+
+        final double entryTime;
+
+        double exitTime = Double.NaN;
+
+        /** road segment the vehicle has been found on last */
+        RoadSegment roadSegment;
+
+        /** index in the list of controlled vehicles */
+        int index;
+
+        private double[] times = new double[INITIAL_CAPACITY];
+
+        private double[] speeds = new double[INITIAL_CAPACITY];
+
+        /** cursor to the last data point not after the current time */
+        private int cursor;
+
+        private int end;
+
+        ControlledVehicle(Vehicle vehicle, String roadId, double entryTime) {
+            this.vehicle = vehicle;
+            this.roadId = roadId;
+            this.entryTime = entryTime;
         }
-    }
 
-    private LinearInterpolatedFunction createSpeedProfile(List<SpeedDataType> speedData) {
-        int size = speedData.size();
-        double[] times = new double[size];
-        double[] speeds = new double[size];
-        for (int i = 0; i < size; i++) {
-            SpeedDataType dataPoint = speedData.get(i);
-            times[i] = TimeUtilities.convertToSeconds(dataPoint.getTime(), timeFormat);
-            speeds[i] = dataPoint.getSpeed();
+        void addSpeedData(double time, double speed) {
+            if (end == times.length) {
+                if (cursor > 0) {
+                    // discard data points before the cursor
+                    end -= cursor;
+                    System.arraycopy(times, cursor, times, 0, end);
+                    System.arraycopy(speeds, cursor, speeds, 0, end);
+                    cursor = 0;
+                } else {
+                    times = Arrays.copyOf(times, 2 * end);
+                    speeds = Arrays.copyOf(speeds, 2 * end);
+                }
+            }
+            times[end] = time;
+            speeds[end] = speed;
+            ++end;
         }
 
-        return new LinearInterpolatedFunction(times, speeds);
-    }
+        /**
+         * Returns true if the speed is known beyond the given time, either by a later data point or because the last
+         * data point has been read.
+         */
+        boolean hasSpeedDataAfter(double time) {
+            return !Double.isNaN(exitTime) || times[end - 1] > time;
+        }
 
-    private Vehicle createVehicle(ExternalVehicleType data) {
-        double initialSpeed = data.getSpeedData().get(0).getSpeed();
-        Vehicle vehicle = new Vehicle(data.getPosition(), initialSpeed, data.getLane(), data.getLength(),
-                data.getWidth());
-        vehicle.setType(Vehicle.Type.EXTERNAL_CONTROL);
-        for (VehicleUserDataType userData : data.getVehicleUserData()) {
-            vehicle.getUserData().put(userData.getKey(), userData.getValue());
+        /**
+         * Returns the linearly interpolated speed, the speed is constant before the first and after the last data
+         * point.
+         */
+        double speed(double time) {
+            while (cursor + 1 < end && times[cursor + 1] <= time) {
+                ++cursor;
+            }
+            if (cursor + 1 == end || time <= times[cursor]) {
+                return speeds[cursor];
+            }
+            final double dt = time - times[cursor];
+            return speeds[cursor] + (speeds[cursor + 1] - speeds[cursor]) / (times[cursor + 1] - times[cursor]) * dt;
         }
-        return vehicle;
     }
 
 }
@@ -9,6 +9,11 @@ public class InhomogeneityAdaption {
         reset();
     }
 
+    InhomogeneityAdaption(InhomogeneityAdaption source) {
+        alphaT = source.alphaT;
+        alphaV0 = source.alphaV0;
+    }
+
     public void reset() {
         alphaT = 1;
         alphaV0 = 1;
@@ -1,7 +1,6 @@
 package org.movsim.simulator.vehicles;
 
-import java.util.List;
-
+import org.movsim.simulator.observer.DecisionPoint;
 import org.movsim.simulator.observer.RouteAlternative;
 import org.movsim.simulator.observer.ServiceProvider;
 import org.movsim.simulator.roadnetwork.Lanes;
@@ -25,7 +24,7 @@ public class RoutingDecisions {
     private ServiceProvider serviceProvider;
     private double uncertainty;
     private double reroutingThreshold;
-    private final double randomAlternative = MyRandom.nextDouble();
+    private double randomAlternative = MyRandom.nextDouble();
 
     private final Vehicle vehicle;
 
@@ -53,73 +52,49 @@ public class RoutingDecisions {
                     (int) lastUpdateTime);
             lastUpdateTime = simulationTime;
 
-            // quick hack for finite vehicle update interval: look-ahead one road segment to assign routing decision in advance
-            RoadSegment decisionPointSegment = roadSegment;
-            if (roadSegment.userId().equals("1")) {
-                decisionPointSegment = roadSegment.sinkRoadSegment(Lanes.MOST_INNER_LANE);
+            // finite vehicle update interval: look-ahead one road segment to assign routing decision in advance
+            final RoadSegment roadSegmentAhead = roadSegment.sinkRoadSegment(Lanes.MOST_INNER_LANE);
+            DecisionPoint decisionPoint = serviceProvider.getDecisionPoint(roadSegment);
+            if (decisionPoint == null && roadSegmentAhead != null) {
+                decisionPoint = serviceProvider.getDecisionPoint(roadSegmentAhead);
             }
-
-            List<RouteAlternative> alternatives = serviceProvider.getAlternativesForDecisionPoint(decisionPointSegment);
-            if (alternatives != null) {
-                serviceProvider.updateRouteAlternatives(alternatives, uncertainty);
-                RouteAlternative newRouteAlternative = serviceProvider.selectMostProbableAlternative(alternatives,
-                        randomAlternative);
-
-                // quick-hack: assign exit lane to vehicle since routing capabilities not yet available in movsim
-                boolean doRerouting = (uncertainty > 0) ? true : checkForRerouting(newRouteAlternative, alternatives);
+            if (decisionPoint != null) {
+                RouteAlternative newRouteAlternative = decisionPoint.selectAlternative(uncertainty, randomAlternative);
+                boolean doRerouting = (uncertainty > 0) ? true : checkForRerouting(newRouteAlternative, decisionPoint);
                 if (doRerouting) {
-                    routeAlternative = newRouteAlternative;
-                    assignRoute(decisionPointSegment, routeAlternative.getRoute());
+                    assignRoute(newRouteAlternative, roadSegmentAhead);
                 }
             }
         }
     }
 
-    private boolean checkForRerouting(RouteAlternative newRouteAlternative, List<RouteAlternative> alternatives) {
-        if (routeAlternative == null) {
+    private boolean checkForRerouting(RouteAlternative newRouteAlternative, DecisionPoint decisionPoint) {
+        if (routeAlternative == null || !decisionPoint.contains(routeAlternative)) {
             return true;
         }
 
-        if (newRouteAlternative.getRoute().equals(routeAlternative.getRoute())) {
+        if (newRouteAlternative == routeAlternative) {
             return false; // no new route
         }
 
-        RouteAlternative alternativeFromLastRouting = getAlternativeFromLastUpdate(alternatives);
-
-        boolean doRerouting = newRouteAlternative.getDisutility() + reroutingThreshold < alternativeFromLastRouting
+        // the alternatives are shared with the decision point and carry the current disutilities
+        boolean doRerouting = newRouteAlternative.getDisutility() + reroutingThreshold < routeAlternative
                 .getDisutility();
         if (doRerouting) {
             ++countReroutings;
             LOG.info("vehicle is re-routed: diff disutility={}, counterReroutings={}",
-                    newRouteAlternative.getDisutility() - alternativeFromLastRouting.getDisutility(), countReroutings);
+                    newRouteAlternative.getDisutility() - routeAlternative.getDisutility(), countReroutings);
         }
         return doRerouting;
     }
 
-    private RouteAlternative getAlternativeFromLastUpdate(List<RouteAlternative> alternatives) {
-        for (RouteAlternative alternative : alternatives) {
-            if (alternative.getRoute().equals(routeAlternative.getRoute())) {
-                return alternative;
-            }
-        }
-        throw new IllegalStateException("shouldn't come here - alternative not found");
-    }
-
-    private void assignRoute(RoadSegment roadSegment, Route route) {
-        if (!route.getName().equals("A1") && !route.getName().equals("A2")) {
-            throw new IllegalArgumentException("cannot handle other alternatives=" + route + "  then A1 and A2 yet!!!");
-        }
-
-        if ("A2".equals(route.getName())) {
-            // activate decision to diverge at exit
-            vehicle.setExitRoadSegmentId(roadSegment.id());
-            if (roadSegment.laneType(roadSegment.laneCount()) != Lanes.Type.EXIT) {
-                throw new IllegalArgumentException("cannot do diverge on roadSegment " + roadSegment.userId()
-                        + " without exit lane!");
-            }
-        } else if ("A1".equals(route.getName())) {
-            // reset if A2 has been chosen in previous update
-            vehicle.setExitRoadSegmentId(Vehicle.ROAD_SEGMENT_ID_NOT_SET);
+    private void assignRoute(RouteAlternative newRouteAlternative, RoadSegment roadSegmentAhead) {
+        final Route route = newRouteAlternative.getRoute();
+        if (vehicle.assignRoute(route, roadSegmentAhead)) {
+            routeAlternative = newRouteAlternative;
+        } else {
+            LOG.debug("route alternative={} neither contains current nor next roadSegment of vehicle={}",
+                    route.getName(), vehicle.getId());
         }
     }
 
@@ -127,6 +102,18 @@ public class RoutingDecisions {
         return simulationTime - lastUpdateTime >= vehicleUpdateInterval;
     }
 
+    /**
+     * Resets to the state of a newly constructed vehicle, see {@link Vehicle#recycle}.
+     */
+    void reset() {
+        randomAlternative = MyRandom.nextDouble();
+        serviceProvider = null;
+        uncertainty = 0;
+        reroutingThreshold = 0;
+        lastUpdateTime = NOT_INIT;
+        routeAlternative = null;
+    }
+
     public ServiceProvider getServiceProvider() {
         return serviceProvider;
     }
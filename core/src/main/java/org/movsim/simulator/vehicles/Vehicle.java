@@ -21,6 +21,7 @@ import org.movsim.simulator.roadnetwork.LaneSegment;
 import org.movsim.simulator.roadnetwork.Lanes;
 import org.movsim.simulator.roadnetwork.RoadSegment;
 import org.movsim.simulator.roadnetwork.routing.Route;
+import org.movsim.simulator.roadnetwork.routing.RoutingPlan;
 import org.movsim.simulator.vehicles.lanechange.LaneChangeModel;
 import org.movsim.simulator.vehicles.lanechange.LaneChangeModel.LaneChangeDecision;
 import org.movsim.simulator.vehicles.longitudinalmodel.Memory;
@@ -39,7 +40,8 @@ import com.google.common.base.Preconditions;
  * Model for a vehicle in a traffic simulation.
  * </p>
  * <p>
- * Each vehicle has its own unique immutable id which is assigned when the vehicle is created.
+ * Each vehicle has its own unique id which is assigned when the vehicle is created. A vehicle recycled by the
+ * {@link VehiclePool} is assigned a new id.
  * </p>
  * <p>
  * A vehicle has a size, given by its length and width.
@@ -55,7 +57,11 @@ import com.google.common.base.Preconditions;
  * <li>a LaneChangeModel which determines when it changes lanes.</li>
  * </ul>
  * <p>
- * Vehicles are quite frequently created and destroyed, so by design they have few allocated properties.
+ * Vehicles are quite frequently created and destroyed, so by design they have few allocated properties. The kinematic
+ * state and the models are kept in fields of this class. The trip state (travel statistics, origin, exit, route and
+ * color) and rarely used state (user data, traffic light approaching, inhomogeneity adaption and the physical
+ * quantities for cellular automata) are held in side objects that are allocated on first access. The shallow size of a vehicle is budgeted to {@value #SHALLOW_SIZE_BUDGET} bytes
+ * (compressed object pointers), see VehicleFootprintTest.
  * </p>
  */
 public class Vehicle {
@@ -63,6 +69,9 @@ public class Vehicle {
     /** The Constant LOG. */
     private static final Logger LOG = LoggerFactory.getLogger(Vehicle.class);
 
+    /** upper bound for the shallow size of a vehicle object in bytes, assuming compressed object pointers */
+    static final int SHALLOW_SIZE_BUDGET = 200;
+
     protected static final int INITIAL_ID = 1;
 
     protected static final int INITIAL_TEMPLATE_ID = -1;
@@ -105,11 +114,6 @@ public class Vehicle {
     /** The old front position of the vehicle. */
     private double frontPositionOld;
 
-    /** The total distance traveled */
-    private double totalTravelDistance;
-
-    private double totalTravelTime = 0;
-
     private double speed;
 
     /** The acceleration as calculated by the longitudinal driver model. */
@@ -129,10 +133,10 @@ public class Vehicle {
     private double externalAcceleration = Double.NaN;
 
     /** The unique id of the vehicle. */
-    final long id;
+    long id;
 
     /** constant random number between 0 and 1 used for random output selections */
-    final double randomFix;
+    double randomFix;
 
     /** The vehicle number. */
     private int vehNumber = VEHICLE_NUMBER_NOT_SET;
@@ -153,11 +157,6 @@ public class Vehicle {
     private double speedlimit = MovsimConstants.MAX_VEHICLE_SPEED;;
     private double slope;
 
-    private int color;
-
-    /** color object cache */
-    private Object colorObject;
-
     private LongitudinalModelBase longitudinalModel;
 
     /** can be null */
@@ -169,22 +168,24 @@ public class Vehicle {
     /** Acceleration noise model. Can be null */
     private Noise noise = null;
 
-    private final TrafficLightApproaching trafficLightApproaching;
+    /** allocated when a traffic light is approached, see {@link #getTrafficLightApproaching()} */
+    private TrafficLightApproaching trafficLightApproaching;
 
-    private final InhomogeneityAdaption inhomogeneity;
+    /** allocated on first access, see {@link #inhomogeneityAdaptation()} */
+    private InhomogeneityAdaption inhomogeneity;
 
     private final EnergyModel energyModel = new EnergyModel(this);
 
-    /** can be null */
-    private Route route;
-
-    private int routeIndex;
+    /** travel statistics, origin, exit, route and color, allocated on first write, see {@link #trip()} */
+    private VehicleTrip trip;
 
     private boolean brakeLightOn;
 
+    /** allocated on first access, see {@link #physicalQuantities()} */
     private PhysicalQuantities physQuantities;
 
-    private final VehicleUserData userData;
+    /** allocated on first access, see {@link #getUserData()} */
+    private VehicleUserData userData;
 
     private final RoutingDecisions routingDecisions = new RoutingDecisions(this);
 
@@ -193,10 +194,6 @@ public class Vehicle {
 
     private RoadSegment roadSegment;
 
-    private int exitRoadSegmentId = ROAD_SEGMENT_ID_NOT_SET;
-
-    private int originRoadSegmentId = ROAD_SEGMENT_ID_NOT_SET;
-
     /**
      * Resets the next id.
      */
@@ -236,7 +233,6 @@ public class Vehicle {
 
         initialize();
         this.longitudinalModel = longitudinalModel;
-        physQuantities = new PhysicalQuantities(this);
 
         this.laneChangeModel = lcModel;
         if (laneChangeModel != null) {
@@ -247,11 +243,7 @@ public class Vehicle {
         // step
         assert FINITE_LANE_CHANGE_TIME_S > 0;
 
-        this.color = Colors.randomColor();
-
-        trafficLightApproaching = new TrafficLightApproaching();
-        inhomogeneity = new InhomogeneityAdaption();
-        userData = new VehicleUserData();
+        trip().color = Colors.randomColor();
     }
 
     /**
@@ -267,21 +259,16 @@ public class Vehicle {
         this.speed = speed;
         this.lane = lane;
         this.laneOld = lane;
-        this.color = 0;
         maxDeceleration = 10.0;
         laneChangeModel = null;
         longitudinalModel = null;
         label = "";
-        physQuantities = new PhysicalQuantities(this);
         slope = 0;
-        route = null;
-        trafficLightApproaching = new TrafficLightApproaching();
-        inhomogeneity = new InhomogeneityAdaption();
-        userData = new VehicleUserData();
     }
 
     /**
-     * Copy constructor.
+     * Copy constructor. The side objects are copied or, like the approached traffic lights, allocated by the copy on
+     * first access, so that the copy does not change the state of the source vehicle.
      * 
      * @param source
      */
@@ -294,17 +281,20 @@ public class Vehicle {
         lane = source.lane;
         laneOld = source.laneOld;
         dimensions = new VehicleDimensions(source.getDimensions());
-        color = source.color;
-        trafficLightApproaching = source.trafficLightApproaching;
-        inhomogeneity = source.inhomogeneity;
+        if (source.trip != null) {
+            trip = new VehicleTrip(source.trip);
+        }
+        if (source.inhomogeneity != null) {
+            inhomogeneity = new InhomogeneityAdaption(source.inhomogeneity);
+        }
         maxDeceleration = source.maxDeceleration;
         laneChangeModel = source.laneChangeModel;
         longitudinalModel = source.longitudinalModel;
         label = source.label;
         slope = source.slope;
-        route = source.route;
-        routeIndex = source.routeIndex;
-        userData = source.userData;
+        if (source.userData != null) {
+            userData = new VehicleUserData(source.userData);
+        }
         if (source.routingDecisions.hasServiceProvider()) {
             routingDecisions.setServiceProvider(source.routingDecisions().getServiceProvider());
             routingDecisions.setUncertainty(source.routingDecisions().getUncertainty());
@@ -312,6 +302,53 @@ public class Vehicle {
         }
     }
 
+    /**
+     * Resets this vehicle to the state of a vehicle newly constructed from the given prototype configuration and
+     * assigns a new id. The longitudinal model is not reset here since its v0 randomization is drawn before the
+     * vehicle is constructed, see {@link VehicleFactory}. Random numbers are drawn in the same order as by the
+     * constructor, so that a simulation with recycled vehicles reproduces a simulation without.
+     * 
+     * @param vehInput
+     *            the configuration of the vehicle's prototype
+     */
+    void recycle(VehiclePrototypeConfiguration vehInput) {
+        Preconditions.checkState(type == Type.VEHICLE, "only vehicles of type VEHICLE can be recycled");
+        routingDecisions.reset();
+        id = nextId++;
+        randomFix = MyRandom.nextDouble();
+        initialize();
+        dimensions.setLength(vehInput.getLength());
+        accModel = 0;
+        accOld = 0;
+        externalAcceleration = Double.NaN;
+        vehNumber = VEHICLE_NUMBER_NOT_SET;
+        lane = LANE_NOT_SET;
+        laneOld = 0;
+        targetLane = 0;
+        tLaneChangeDelay = 0;
+        trip().reset(Colors.randomColor());
+        roadSegment = null;
+        if (laneChangeModel != null) {
+            laneChangeModel.reset();
+        }
+        if (memory != null) {
+            memory.reset();
+        }
+        if (noise != null) {
+            noise.reset();
+        }
+        if (trafficLightApproaching != null) {
+            trafficLightApproaching.clear();
+        }
+        if (inhomogeneity != null) {
+            inhomogeneity.reset();
+        }
+        energyModel.reset();
+        if (userData != null) {
+            userData.clear();
+        }
+    }
+
     private void initialize() {
         frontPositionOld = 0;
         frontPosition = 0;
@@ -320,10 +357,14 @@ public class Vehicle {
         brakeLightOn = false;
         slope = 0;
         unsetSpeedlimit();
-        routeIndex = 0;
         roadSegmentId = ROAD_SEGMENT_ID_NOT_SET;
-        exitRoadSegmentId = ROAD_SEGMENT_ID_NOT_SET;
-        originRoadSegmentId = ROAD_SEGMENT_ID_NOT_SET;
+    }
+
+    private VehicleTrip trip() {
+        if (trip == null) {
+            trip = new VehicleTrip();
+        }
+        return trip;
     }
 
     public String getLabel() {
@@ -337,7 +378,7 @@ public class Vehicle {
      *            RGB integer color value
      */
     public final void setColor(int color) {
-        this.color = color;
+        trip().color = color;
     }
 
     /**
@@ -346,7 +387,7 @@ public class Vehicle {
      * @return vehicle's color, as an RGB integer
      */
     public final int color() {
-        return color;
+        return trip == null ? 0 : trip.color;
     }
 
     /**
@@ -356,7 +397,7 @@ public class Vehicle {
      * @param colorObject
      */
     public final void setColorObject(Object colorObject) {
-        this.colorObject = colorObject;
+        trip().colorObject = colorObject;
     }
 
     /**
@@ -365,7 +406,7 @@ public class Vehicle {
      * @return vehicle's previously cached color object
      */
     public final Object colorObject() {
-        return colorObject;
+        return trip == null ? null : trip.colorObject;
     }
 
     /**
@@ -513,7 +554,9 @@ public class Vehicle {
     }
 
     public double getDistanceToTrafficlight() {
-        return trafficLightApproaching.getDistanceToTrafficlight();
+        // no traffic light approached so far
+        return trafficLightApproaching == null ? MovsimConstants.GAP_INFINITY : trafficLightApproaching
+                .getDistanceToTrafficlight();
     }
 
     /**
@@ -596,8 +639,8 @@ public class Vehicle {
             }
         }
 
-        double alphaTLocal = inhomogeneity.alphaT();
-        double alphaV0Local = inhomogeneity.alphaV0();
+        double alphaTLocal = inhomogeneity == null ? 1 : inhomogeneity.alphaT();
+        double alphaV0Local = inhomogeneity == null ? 1 : inhomogeneity.alphaV0();
         double alphaALocal = 1;
 
         // TODO check concept here: combination with alphaV0 (consideration of
@@ -639,9 +682,11 @@ public class Vehicle {
             return moderatedAcc; // quick hack, better structure needed here
         }
 
-        double accTrafficLight = trafficLightApproaching.accelerationConsideringTrafficLight(this, roadSegment);
-        if (!Double.isNaN(accTrafficLight)) {
-            moderatedAcc = Math.min(moderatedAcc, accTrafficLight);
+        if (trafficLightApproaching != null) {
+            double accTrafficLight = trafficLightApproaching.accelerationConsideringTrafficLight(this, roadSegment);
+            if (!Double.isNaN(accTrafficLight)) {
+                moderatedAcc = Math.min(moderatedAcc, accTrafficLight);
+            }
         }
 
         double accExit = accelerationConsideringExit(roadSegment);
@@ -665,14 +710,20 @@ public class Vehicle {
         double accToVehicleInExitLane = Double.NaN;
         // valid exit road segment id indicates that exit has to be reached
         // ASSUMPTION: routing horizon looks one roadSegment ahead
+        final int exitRoadSegmentId = exitRoadSegmentId();
         if (exitRoadSegmentId == EXIT_POSITION_NOT_SET) {
             return accToVehicleInExitLane;
         }
         LOG.debug("exitRoadSectionId={}, current roadSegment={}", exitRoadSegmentId, roadSegment.id());
         // unfortunately we have to distinguish the following two cases:
+        final RoutingPlan routingPlan = trip.routingPlan;
+        final int planIndex = trip.routeIndex - 1;
+        final boolean exitFromPlan = routingPlan != null && planIndex >= 0 && planIndex < routingPlan.size()
+                && routingPlan.exitRoadSegmentId(planIndex) == exitRoadSegmentId;
         // (1) vehicle is on roadsegment with exit lane
         if (roadSegment.id() == exitRoadSegmentId) {
-            LaneSegment firstExitLaneSegment = roadSegment.laneSegment(roadSegment.trafficLaneMax() + Lanes.TO_RIGHT);
+            LaneSegment firstExitLaneSegment = roadSegment.laneSegment(exitFromPlan ? routingPlan
+                    .exitLane(planIndex) : roadSegment.trafficLaneMax() + Lanes.TO_RIGHT);
             assert firstExitLaneSegment != null
                     && firstExitLaneSegment.type() == Lanes.Type.EXIT : "no exitLaneSegment=" + firstExitLaneSegment;
             Vehicle frontVehicle = firstExitLaneSegment.frontVehicle(this);
@@ -688,10 +739,12 @@ public class Vehicle {
         }
 
         // (2) exit lane is one roadSegment ahead but cannot be reached via sink connection
-        RoadSegment sinkRoadSegmentWithExit = roadSegment.sinkRoadSegmentPerId(exitRoadSegmentId);
+        // exit set by the route is looked up in the plan, an exit set externally requires a search of the sinks
+        RoadSegment sinkRoadSegmentWithExit = exitFromPlan ? routingPlan.exitRoadSegment(planIndex) : roadSegment
+                .sinkRoadSegmentPerId(exitRoadSegmentId);
         if (sinkRoadSegmentWithExit != null) {
-            LaneSegment exitLaneSegment = sinkRoadSegmentWithExit
-                    .laneSegment(sinkRoadSegmentWithExit.trafficLaneMax() + Lanes.TO_RIGHT);
+            LaneSegment exitLaneSegment = sinkRoadSegmentWithExit.laneSegment(exitFromPlan ? routingPlan
+                    .exitLane(planIndex) : sinkRoadSegmentWithExit.trafficLaneMax() + Lanes.TO_RIGHT);
             assert exitLaneSegment != null && exitLaneSegment.type() == Lanes.Type.EXIT : "no exitLaneSegment="
                     + exitLaneSegment;
             Vehicle frontVehicle = exitLaneSegment.rearVehicle();
@@ -719,6 +772,21 @@ public class Vehicle {
         return calcAccModel(laneSegment, leftLaneSegment, 1.0, 1.0, 1.0);
     }
 
+    /**
+     * Calculates the acceleration of this vehicle for the given (hypothetical) front vehicle, without looking up the
+     * front vehicle in a lane segment. Used for the evaluation of lane changes, the lane segments are not modified.
+     * 
+     * @param frontVehicle
+     *            the front vehicle, may be null
+     * @return the acceleration
+     */
+    public double calcAccModel(Vehicle frontVehicle) {
+        if (longitudinalModel == null) {
+            return 0.0;
+        }
+        return longitudinalModel.calcAcc(this, frontVehicle);
+    }
+
     private double calcAccModel(LaneSegment laneSegment, LaneSegment leftLaneSegment, double alphaTLocal,
             double alphaV0Local, double alphaALocal) {
         if (longitudinalModel == null) {
@@ -744,12 +812,13 @@ public class Vehicle {
      *            delta-t, simulation time interval, seconds
      */
     public void updatePositionAndSpeed(double dt) {
-        totalTravelTime += dt;
+        final VehicleTrip trip = trip();
+        trip.totalTravelTime += dt;
         frontPositionOld = frontPosition;
         if (longitudinalModel != null && longitudinalModel.isCA()) {
             speed = (int) (speed + dt * acc + 0.5);
             final int advance = (int) (frontPosition + dt * speed + 0.5);
-            totalTravelDistance += (advance - frontPosition);
+            trip.totalTravelDistance += (advance - frontPosition);
             frontPosition = advance;
         } else if (longitudinalModel != null && (longitudinalModel.isIteratedMap())) {
             // Newell, Gipps and Krauss model: modified first-order positional update (simple Euler scheme)
@@ -760,7 +829,7 @@ public class Vehicle {
             final double advance = speed * dt + acc * dt * dt;
             speed += dt * acc;
             frontPosition += advance;
-            totalTravelDistance += advance;
+            trip.totalTravelDistance += advance;
             if (speed < 0) {
                 speed = 0;
                 acc = 0;
@@ -772,7 +841,7 @@ public class Vehicle {
             }
             final double advance = speed * dt;
             frontPosition += advance;
-            totalTravelDistance += advance;
+            trip.totalTravelDistance += advance;
         } else {
             // continuous microscopic models and iterated maps
             if (speed < 0) {
@@ -780,7 +849,7 @@ public class Vehicle {
             }
             final double advance = (acc * dt >= -speed) ? speed * dt + 0.5 * acc * dt * dt : -0.5 * speed * speed / acc;
             frontPosition += advance;
-            totalTravelDistance += advance;
+            trip.totalTravelDistance += advance;
             speed += dt * acc;
             if (speed < 0) {
                 speed = 0;
@@ -883,6 +952,15 @@ public class Vehicle {
         return false;
     }
 
+    /**
+     * Cancels a lane change that has been decided by {@link #considerLaneChange(double, RoadSegment)} but has not been
+     * performed yet.
+     */
+    public void cancelLaneChange() {
+        targetLane = Lanes.NONE;
+        tLaneChangeDelay = 0;
+    }
+
     public int getTargetLane() {
         return targetLane;
     }
@@ -958,6 +1036,9 @@ public class Vehicle {
     // ---------------------------------------------------------------------------------
 
     public PhysicalQuantities physicalQuantities() {
+        if (physQuantities == null) {
+            physQuantities = new PhysicalQuantities(this);
+        }
         return physQuantities;
     }
 
@@ -1041,8 +1122,8 @@ public class Vehicle {
      */
     public final void setRoadSegment(RoadSegment roadSegment) {
         this.roadSegment = Preconditions.checkNotNull(roadSegment);
-        if (originRoadSegmentId == ROAD_SEGMENT_ID_NOT_SET) {
-            originRoadSegmentId = roadSegment.id();
+        if (trip().originRoadSegmentId == ROAD_SEGMENT_ID_NOT_SET) {
+            trip.originRoadSegmentId = roadSegment.id();
         }
         this.roadSegmentId = roadSegment.id();
 
@@ -1050,39 +1131,25 @@ public class Vehicle {
     }
 
     private void updateRoute() {
-        if (roadSegmentId != exitRoadSegmentId) {
-            exitRoadSegmentId = ROAD_SEGMENT_ID_NOT_SET; // reset
+        final VehicleTrip trip = trip();
+        if (roadSegmentId != trip.exitRoadSegmentId) {
+            trip.exitRoadSegmentId = ROAD_SEGMENT_ID_NOT_SET; // reset
         }
 
-        if (route != null && routeIndex < route.size()) {
-            RoadSegment routeRoadSegment = route.get(routeIndex);
-            ++routeIndex;
-            if (routeRoadSegment.id() != roadSegmentId) {
-                LOG.warn("vehicle={} has left its route={}.", this, route.getName());
-                routeIndex = Integer.MAX_VALUE; // skip further warning logs
-                exitRoadSegmentId = ROAD_SEGMENT_ID_NOT_SET;
+        final RoutingPlan routingPlan = trip.routingPlan;
+        if (routingPlan != null && trip.routeIndex < routingPlan.size()) {
+            if (routingPlan.roadSegmentId(trip.routeIndex) != roadSegmentId) {
+                LOG.warn("vehicle={} has left its route={}.", this, trip.route.getName());
+                trip.routeIndex = Integer.MAX_VALUE; // skip further warning logs
+                trip.exitRoadSegmentId = ROAD_SEGMENT_ID_NOT_SET;
                 return;
             }
-            // vehicle is still on track following its route
-            if (routeIndex < route.size()) {
-                // there is another roadSegment on the route, so check if the
-                // next roadSegment is joined to an exit lane
-                RoadSegment nextRouteRoadSegment = route.get(routeIndex);
-                if (routeRoadSegment.exitsOnto(nextRouteRoadSegment.id())) {
-                    // this vehicle needs to exit on this roadSegment
-                    exitRoadSegmentId = roadSegmentId;
-                } else if (routeIndex + 1 < route.size()) {
-                    // there is another roadSegment on the route
-                    // so check if the next roadSegment is joined to an exit
-                    // lane
-                    // of the current roadSegment
-                    final RoadSegment nextNextRouteRoadSegment = route.get(routeIndex + 1);
-                    if (nextRouteRoadSegment.exitsOnto(nextNextRouteRoadSegment.id())) {
-                        // this vehicle needs to exit on this roadSegment
-                        exitRoadSegmentId = nextRouteRoadSegment.id(); // roadSegmentId;
-                    }
-                }
+            // vehicle is still on track following its route, the exit on this or the next roadSegment is precompiled
+            final int routeExitRoadSegmentId = routingPlan.exitRoadSegmentId(trip.routeIndex);
+            if (routeExitRoadSegmentId != RoutingPlan.NO_EXIT) {
+                trip.exitRoadSegmentId = routeExitRoadSegmentId;
             }
+            ++trip.routeIndex;
         }
     }
 
@@ -1092,7 +1159,7 @@ public class Vehicle {
      * @return id of the first road segment occupied by this vehicle
      */
     public final int originRoadSegmentId() {
-        return originRoadSegmentId;
+        return trip == null ? ROAD_SEGMENT_ID_NOT_SET : trip.originRoadSegmentId;
     }
 
     /**
@@ -1110,14 +1177,14 @@ public class Vehicle {
      * @return id of exit road segment
      */
     public final int exitRoadSegmentId() {
-        return exitRoadSegmentId;
+        return trip == null ? ROAD_SEGMENT_ID_NOT_SET : trip.exitRoadSegmentId;
     }
 
     /**
      * Sets the id of the road segment in which this vehicle wishes to exit.
      */
     public final void setExitRoadSegmentId(int exitRoadSegmentId) {
-        this.exitRoadSegmentId = exitRoadSegmentId;
+        trip().exitRoadSegmentId = exitRoadSegmentId;
     }
 
     /**
@@ -1126,7 +1193,7 @@ public class Vehicle {
      * @return total travel distance
      */
     public final double totalTravelDistance() {
-        return totalTravelDistance;
+        return trip == null ? 0 : trip.totalTravelDistance;
     }
 
     /**
@@ -1136,7 +1203,7 @@ public class Vehicle {
      * @return
      */
     public final double totalTravelTime() {
-        return totalTravelTime;
+        return trip == null ? 0 : trip.totalTravelTime;
     }
 
     public double getMaxDeceleration() {
@@ -1175,21 +1242,91 @@ public class Vehicle {
 
     public void setRoute(Route newRoute) {
         LOG.debug("set route={} to vehicle {}", getRouteName(), id);
-        if (this.route != null && newRoute != null && !newRoute.getName().equals(route.getName())) {
-            LOG.info("vehicle changed route from={} to new route={}", this.route, newRoute);
+        final Route route = getRoute();
+        if (route != null && newRoute != null && !newRoute.getName().equals(route.getName())) {
+            LOG.info("vehicle changed route from={} to new route={}", route, newRoute);
         }
-        this.route = newRoute;
+        if (newRoute == null && trip == null) {
+            return;
+        }
+        trip().route = newRoute;
+        trip.routingPlan = newRoute != null ? newRoute.plan() : null;
+    }
+
+    public Route getRoute() {
+        return trip == null ? null : trip.route;
+    }
+
+    RoutingPlan routingPlan() {
+        return trip == null ? null : trip.routingPlan;
+    }
+
+    /** route index of the next road segment on the route */
+    int routeIndex() {
+        return trip == null ? 0 : trip.routeIndex;
+    }
+
+    /**
+     * Replaces the route by a new route that starts with the road segment currently occupied by this vehicle, e.g. a
+     * route to the same destination found by dynamic re-routing.
+     * 
+     * @param newRoute
+     */
+    public void reroute(Route newRoute) {
+        Preconditions.checkArgument(newRoute.getOrigin().id() == roadSegmentId, "route=" + newRoute.getName()
+                + " does not start on current roadSegment=" + roadSegmentId);
+        LOG.debug("vehicle={} re-routed to route={}", id, newRoute.getName());
+        setRoute(newRoute);
+        trip.routeIndex = 0;
+        updateRoute();
+    }
+
+    /**
+     * Assigns a new route, e.g. a route alternative chosen at a decision point. The route must contain the road segment
+     * currently occupied by this vehicle or the given road segment ahead, in the latter case the exit is assigned in
+     * advance so that the vehicle can change to the exit lane before entering the road segment ahead.
+     * 
+     * @param newRoute
+     * @param roadSegmentAhead
+     *            the next road segment, can be null
+     * @return true if the route has been assigned, false if the route contains neither road segment
+     */
+    public boolean assignRoute(Route newRoute, RoadSegment roadSegmentAhead) {
+        final RoutingPlan newPlan = newRoute.plan();
+        int index = newPlan.indexOf(roadSegmentId);
+        if (index >= 0) {
+            setRoute(newRoute);
+            trip.routeIndex = index;
+            trip.exitRoadSegmentId = ROAD_SEGMENT_ID_NOT_SET; // replaces previous decision
+            updateRoute();
+            return true;
+        }
+        index = roadSegmentAhead != null ? newPlan.indexOf(roadSegmentAhead.id()) : -1;
+        if (index >= 0) {
+            setRoute(newRoute);
+            trip.routeIndex = index;
+            trip.exitRoadSegmentId = newPlan.exitRoadSegmentId(index);
+            return true;
+        }
+        return false;
     }
 
     public String getRouteName() {
+        final Route route = getRoute();
         return route != null ? route.getName() : "noRoute";
     }
 
     public InhomogeneityAdaption inhomogeneityAdaptation() {
+        if (inhomogeneity == null) {
+            inhomogeneity = new InhomogeneityAdaption();
+        }
         return inhomogeneity;
     }
 
     public VehicleUserData getUserData() {
+        if (userData == null) {
+            userData = new VehicleUserData();
+        }
         return userData;
     }
 
@@ -1218,6 +1355,9 @@ public class Vehicle {
     }
 
     public TrafficLightApproaching getTrafficLightApproaching() {
+        if (trafficLightApproaching == null) {
+            trafficLightApproaching = new TrafficLightApproaching();
+        }
         return trafficLightApproaching;
     }
 
@@ -5,6 +5,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 
 import org.movsim.autogen.Consumption;
@@ -35,6 +36,8 @@ public final class VehicleFactory {
 
     private final ServiceProviders serviceProviders;
 
+    private final VehiclePool vehiclePool;
+
     public VehicleFactory(double simulationTimestep, VehiclePrototypes vehPrototypes, @Nullable Consumption consumption,
             Routing routing, @Nullable ServiceProviders serviceProviders) {
         Preconditions.checkNotNull(vehPrototypes);
@@ -46,6 +49,7 @@ public final class VehicleFactory {
         }
 
         initialize(simulationTimestep, vehPrototypes.getVehiclePrototypeConfiguration(), consumption);
+        vehiclePool = vehPrototypes.isRecycleVehicles() ? new VehiclePool(vehiclePrototypes) : null;
         if (vehPrototypes.isSetWriteFundDiagrams() && vehPrototypes.isWriteFundDiagrams()) {
             writeFundamentalDiagrams(simulationTimestep);
         }
@@ -57,19 +61,27 @@ public final class VehicleFactory {
     // set route explicitly, e.g. in microscopic initial or boundary conditions
     public Vehicle create(VehicleType vehicleType, @Nullable Route route) {
         VehiclePrototype prototype = getPrototype(vehicleType.getVehiclePrototypeLabel());
-        LongitudinalModelBase accelerationModel = prototype.createAccelerationModel();
-        accelerationModel.setRelativeRandomizationV0(vehicleType.getRelativeV0Randomization(),
-                vehicleType.getV0DistributionType());
-        LaneChangeModel laneChangeModel = prototype.createLaneChangeModel();
-
-        Vehicle vehicle = new Vehicle(prototype.getLabel(), accelerationModel, prototype.getConfiguration(),
-                laneChangeModel);
+        Vehicle vehicle = vehiclePool == null ? null : vehiclePool.acquire(prototype);
+        if (vehicle != null) {
+            // same order of random draws as for a new vehicle
+            vehicle.getLongitudinalModel().reset();
+            vehicle.getLongitudinalModel().setRelativeRandomizationV0(vehicleType.getRelativeV0Randomization(),
+                    vehicleType.getV0DistributionType());
+            vehicle.recycle(prototype.getConfiguration());
+        } else {
+            LongitudinalModelBase accelerationModel = prototype.createAccelerationModel();
+            accelerationModel.setRelativeRandomizationV0(vehicleType.getRelativeV0Randomization(),
+                    vehicleType.getV0DistributionType());
+            LaneChangeModel laneChangeModel = prototype.createLaneChangeModel();
+
+            vehicle = new Vehicle(prototype.getLabel(), accelerationModel, prototype.getConfiguration(),
+                    laneChangeModel);
+            vehicle.setMemory(prototype.createMemoryModel());
+            vehicle.setNoise(prototype.createAccNoiseModel());
+            vehicle.getEnergyModel().setModel(prototype.getEnergyFlowModel());
+        }
 
         vehicle.setRoute(route);
-        vehicle.setMemory(prototype.createMemoryModel());
-        vehicle.setNoise(prototype.createAccNoiseModel());
-        vehicle.getEnergyModel().setModel(prototype.getEnergyFlowModel());
-
         if (prototype.getConfiguration().isSetPersonalNavigationDevice()) {
             // TODO potential conflicts between prescribed route and dynamic routing decisions...
             setServiceProvider(prototype, vehicle);
@@ -77,6 +89,16 @@ public final class VehicleFactory {
         return vehicle;
     }
 
+    /**
+     * Returns the pool of vehicles for reuse, see {@link VehiclePool}.
+     * 
+     * @return the vehicle pool or null if vehicles are not recycled
+     */
+    @CheckForNull
+    public VehiclePool getVehiclePool() {
+        return vehiclePool;
+    }
+
     private void setServiceProvider(VehiclePrototype prototype, Vehicle vehicle) {
         PersonalNavigationDeviceType personalNavigationDevice = prototype.getConfiguration()
                 .getPersonalNavigationDevice();
@@ -0,0 +1,135 @@
+package org.movsim.simulator.vehicles;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.CheckForNull;
+
+import org.movsim.simulator.SimulationTimeStep;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Pool of vehicles that have left the road network, kept per {@link VehiclePrototype} for reuse by the
+ * {@link VehicleFactory}.
+ * 
+ * <p>
+ * A vehicle released by a traffic sink is still referenced by the signal points of the current time step, which are
+ * evaluated by the road objects at the beginning of the next time step. Therefore a released vehicle becomes available
+ * for reuse only with the next call of {@link #timeStep(double, double, long)}. A reused vehicle is reset by
+ * {@link Vehicle#recycle} and gets a new id.
+ * </p>
+ * <p>
+ * Components keeping references to vehicles beyond their removal from the road network would see the recycled
+ * vehicle, so the pool is only enabled on request.
+ * </p>
+ */
+public final class VehiclePool implements SimulationTimeStep {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VehiclePool.class);
+
+    private final Map<String, VehiclePrototype> prototypes;
+
+    private final Map<VehiclePrototype, ArrayDeque<Vehicle>> availableVehicles = new HashMap<>();
+
+    /** vehicles released in the current time step */
+    private final List<Vehicle> releasedVehicles = new ArrayList<>();
+
+    private long reusedCount;
+
+    VehiclePool(Map<String, VehiclePrototype> prototypes) {
+        this.prototypes = Preconditions.checkNotNull(prototypes);
+    }
+
+    /**
+     * Releases a vehicle that has been removed from the road network for later reuse. Vehicles not created from a
+     * vehicle prototype, like obstacles or externally controlled vehicles, are not pooled.
+     * 
+     * @param vehicle
+     * @return true if the vehicle has been pooled
+     */
+    public boolean release(Vehicle vehicle) {
+        if (vehicle.type() != Vehicle.Type.VEHICLE || !prototypes.containsKey(vehicle.getLabel())) {
+            return false;
+        }
+        assert !releasedVehicles.contains(vehicle) : "vehicle released twice: " + vehicle;
+        releasedVehicles.add(vehicle);
+        return true;
+    }
+
+    /**
+     * Makes the vehicles released in the previous time step available for reuse.
+     */
+    @Override
+    public void timeStep(double dt, double simulationTime, long iterationCount) {
+        if (releasedVehicles.isEmpty()) {
+            return;
+        }
+        for (int i = 0, n = releasedVehicles.size(); i < n; i++) {
+            final Vehicle vehicle = releasedVehicles.get(i);
+            final VehiclePrototype prototype = prototypes.get(vehicle.getLabel());
+            ArrayDeque<Vehicle> vehicles = availableVehicles.get(prototype);
+            if (vehicles == null) {
+                vehicles = new ArrayDeque<>();
+                availableVehicles.put(prototype, vehicles);
+            }
+            vehicles.addLast(vehicle);
+        }
+        releasedVehicles.clear();
+    }
+
+    /**
+     * Takes an available vehicle of the given prototype from the pool. The vehicle still has to be reset by the
+     * caller.
+     * 
+     * @param prototype
+     * @return the vehicle or null if no vehicle of this prototype is available
+     */
+    @CheckForNull
+    Vehicle acquire(VehiclePrototype prototype) {
+        final ArrayDeque<Vehicle> vehicles = availableVehicles.get(prototype);
+        if (vehicles == null || vehicles.isEmpty()) {
+            return null;
+        }
+        ++reusedCount;
+        return vehicles.pollFirst();
+    }
+
+    /**
+     * Returns the number of vehicles available for reuse.
+     * 
+     * @return number of available vehicles
+     */
+    public int availableCount() {
+        int count = 0;
+        for (ArrayDeque<Vehicle> vehicles : availableVehicles.values()) {
+            count += vehicles.size();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of vehicles reused so far.
+     * 
+     * @return number of reused vehicles
+     */
+    public long reusedCount() {
+        return reusedCount;
+    }
+
+    /**
+     * Clears the pool.
+     */
+    public void clear() {
+        LOG.debug("clear vehicle pool after {} reused vehicles", reusedCount);
+        availableVehicles.clear();
+        releasedVehicles.clear();
+        reusedCount = 0;
+    }
+
+}
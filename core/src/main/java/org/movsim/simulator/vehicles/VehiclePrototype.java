@@ -3,17 +3,25 @@ package org.movsim.simulator.vehicles;
 import org.movsim.autogen.VehiclePrototypeConfiguration;
 import org.movsim.consumption.model.EnergyFlowModel;
 import org.movsim.simulator.vehicles.lanechange.LaneChangeModel;
+import org.movsim.simulator.vehicles.lanechange.MOBIL;
 import org.movsim.simulator.vehicles.longitudinalmodel.Memory;
 import org.movsim.simulator.vehicles.longitudinalmodel.Noise;
+import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.AccelerationTable;
 import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.EquilibriumProperties;
 import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.EquilibriumPropertiesImpl;
+import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.ImmutableModelParameters;
 import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.LongitudinalModelBase;
 import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.LongitudinalModelFactory;
+import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.parameter.IModelParameter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Preconditions;
 
 class VehiclePrototype {
 
+    private static final Logger LOG = LoggerFactory.getLogger(VehiclePrototype.class);
+
     private final VehiclePrototypeConfiguration configuration;
 
     private EnergyFlowModel energyFlowModel = null;
@@ -22,11 +30,29 @@ class VehiclePrototype {
 
     private final double simulationTimestep;
 
+    private final AccelerationTable accelerationTable;
+
+    /** immutable model parameters shared by all vehicles of this prototype */
+    private final IModelParameter accelerationModelParameter;
+
+    private final MOBIL.Parameter laneChangeModelParameter;
+
     VehiclePrototype(double simulationTimestep, VehiclePrototypeConfiguration configuration) {
         Preconditions.checkNotNull(configuration);
         this.configuration = configuration;
         this.simulationTimestep = simulationTimestep;
+        accelerationModelParameter = ImmutableModelParameters.of(configuration.getAccelerationModelType());
+        laneChangeModelParameter = configuration.isSetLaneChangeModelType()
+                && configuration.getLaneChangeModelType().isSetModelParameterMOBIL() ? new MOBIL.Parameter(
+                configuration.getLaneChangeModelType().getModelParameterMOBIL()) : null;
         LongitudinalModelBase longModel = createAccelerationModel();
+        // table is built once per prototype and shared by all vehicles with unrandomized parameters
+        accelerationTable = configuration.isSetAccelerationTable() ? longModel.createAccelerationTable(configuration
+                .getAccelerationTable()) : null;
+        if (configuration.isSetAccelerationTable() && accelerationTable == null) {
+            LOG.warn("acceleration table not supported by model={} of vehicle type={}, evaluate model directly",
+                    longModel.modelName(), configuration.getLabel());
+        }
         equiProperties = new EquilibriumPropertiesImpl(getLength(), longModel);
     }
 
@@ -51,14 +77,15 @@ class VehiclePrototype {
     }
 
     LongitudinalModelBase createAccelerationModel() {
-        return LongitudinalModelFactory.create(getLength(), configuration.getAccelerationModelType(),
+        LongitudinalModelBase longModel = LongitudinalModelFactory.create(getLength(), accelerationModelParameter,
                 simulationTimestep);
+        longModel.setAccelerationTable(accelerationTable);
+        return longModel;
     }
 
     LaneChangeModel createLaneChangeModel() {
-        return configuration.isSetLaneChangeModelType()
-                && configuration.getLaneChangeModelType().isSetModelParameterMOBIL() ? new LaneChangeModel(
-                configuration.getLaneChangeModelType()) : null;
+        return laneChangeModelParameter != null ? new LaneChangeModel(configuration.getLaneChangeModelType(),
+                laneChangeModelParameter) : null;
     }
 
     Noise createAccNoiseModel() {
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.simulator.vehicles;
+
+import org.movsim.simulator.roadnetwork.routing.Route;
+import org.movsim.simulator.roadnetwork.routing.RoutingPlan;
+
+/**
+ * State of a vehicle that is not needed for the longitudinal and lateral decisions of a time step: travel statistics,
+ * origin and exit, route and color. Allocated by the {@link Vehicle} on first write.
+ */
+final class VehicleTrip {
+
+    /** The total distance traveled */
+    double totalTravelDistance;
+
+    double totalTravelTime;
+
+    int originRoadSegmentId = Vehicle.ROAD_SEGMENT_ID_NOT_SET;
+
+    int exitRoadSegmentId = Vehicle.ROAD_SEGMENT_ID_NOT_SET;
+
+    /** can be null */
+    Route route;
+
+    /** compiled plan of the route, null if the vehicle has no route */
+    RoutingPlan routingPlan;
+
+    /** route index of the next road segment on the route */
+    int routeIndex;
+
+    int color;
+
+    /** color object cache */
+    Object colorObject;
+
+    VehicleTrip() {
+    }
+
+    /**
+     * Copies the route and color of the given trip, the travel statistics, origin and exit are not copied.
+     * 
+     * @param source
+     */
+    VehicleTrip(VehicleTrip source) {
+        route = source.route;
+        routingPlan = source.routingPlan;
+        routeIndex = source.routeIndex;
+        color = source.color;
+    }
+
+    /**
+     * Resets to the state of a newly allocated trip with the given color, used for recycling vehicles.
+     * 
+     * @param newColor
+     */
+    void reset(int newColor) {
+        totalTravelDistance = 0;
+        totalTravelTime = 0;
+        originRoadSegmentId = Vehicle.ROAD_SEGMENT_ID_NOT_SET;
+        exitRoadSegmentId = Vehicle.ROAD_SEGMENT_ID_NOT_SET;
+        route = null;
+        routingPlan = null;
+        routeIndex = 0;
+        color = newColor;
+        colorObject = null;
+    }
+
+}
@@ -16,6 +16,10 @@ public final class VehicleUserData implements Iterable<Map.Entry<String, String>
         this.codeValuePairs = Maps.newHashMap();
     }
 
+    VehicleUserData(VehicleUserData source) {
+        this.codeValuePairs = Maps.newHashMap(source.codeValuePairs);
+    }
+
     public boolean put(String code, String value) {
         Preconditions.checkArgument(code != null && !code.isEmpty(), "invalid key for userData map.");
         Preconditions.checkArgument(value != null && !value.isEmpty(), "invalid value for userData map.");
@@ -30,6 +34,10 @@ public final class VehicleUserData implements Iterable<Map.Entry<String, String>
         return codeValuePairs.get(code);
     }
 
+    void clear() {
+        codeValuePairs.clear();
+    }
+
     public Map<String, String> getCodeValuePairs() {
         return Collections.unmodifiableMap(codeValuePairs);
     }
@@ -96,6 +96,8 @@ public class LaneChangeModel {
 
     private final org.movsim.autogen.LaneChangeModelType parameter;
 
+    private final MOBIL.Parameter parameterMOBIL;
+
     // Exit Handling
     // distance at which driver should think about changing lanes for exit
     private static double distanceBeforeExitWantsToChangeLanes = 500.0;
@@ -109,7 +111,22 @@ public class LaneChangeModel {
      *            the lc input data
      */
     public LaneChangeModel(org.movsim.autogen.LaneChangeModelType laneChangeModelParameter) {
+        this(laneChangeModelParameter, laneChangeModelParameter.isSetModelParameterMOBIL() ? new MOBIL.Parameter(
+                laneChangeModelParameter.getModelParameterMOBIL()) : null);
+    }
+
+    /**
+     * Instantiates a new lane changing model with MOBIL parameters shared by the vehicles of a prototype.
+     * 
+     * @param laneChangeModelParameter
+     *            the lc input data
+     * @param parameterMOBIL
+     *            the immutable MOBIL parameters
+     */
+    public LaneChangeModel(org.movsim.autogen.LaneChangeModelType laneChangeModelParameter,
+            MOBIL.Parameter parameterMOBIL) {
         this.parameter = laneChangeModelParameter;
+        this.parameterMOBIL = parameterMOBIL;
         // this.withEuropeanRules = laneChangeModelParameter.isWithEuropeanRules();
         // this.vCritEur = laneChangeModelParameter.getCritSpeedEuroRules();
         // TODO valid lane-change model only if configured by xml
@@ -120,6 +137,7 @@ public class LaneChangeModel {
     public LaneChangeModel(Vehicle vehicle, org.movsim.autogen.LaneChangeModelType laneChangeModelParameter) {
         Preconditions.checkNotNull(laneChangeModelParameter);
         this.parameter = laneChangeModelParameter;
+        this.parameterMOBIL = new MOBIL.Parameter(laneChangeModelParameter.getModelParameterMOBIL());
         initialize(vehicle);
     }
 
@@ -132,7 +150,7 @@ public class LaneChangeModel {
     public void initialize(Vehicle vehicle) {
         Preconditions.checkNotNull(vehicle);
         this.me = vehicle;
-        lcModelMOBIL = new MOBIL(me, parameter.getModelParameterMOBIL());
+        lcModelMOBIL = new MOBIL(me, parameterMOBIL);
         if (parameter.isSetOvertakingViaPeer()) {
             overtakingViaPeerModel = new OvertakingViaPeer(this, parameter.getOvertakingViaPeer());
         }
@@ -473,12 +491,8 @@ public class LaneChangeModel {
                         return LaneChangeDecision.NONE;
                     }
                 }
-                me.setLane(newLane);
-                final int index = newLaneSegment.addVehicleTemp(me);
-                final double newBackNewAcc = newBack == null ? 0 : newBack.calcAccModel(newLaneSegment, null);
-                final double meNewAcc = me.calcAccModel(newLaneSegment, null);
-                newLaneSegment.removeVehicle(index);
-                me.setLane(currentLane);
+                final double newBackNewAcc = newBack == null ? 0 : newBack.calcAccModel(me);
+                final double meNewAcc = me.calcAccModel(newFront);
 
                 if (lcModelMOBIL.safetyCheckAcceleration(newBackNewAcc)
                         || lcModelMOBIL.safetyCheckAcceleration(meNewAcc)) {
@@ -507,6 +521,16 @@ public class LaneChangeModel {
         return LaneChangeDecision.NONE;
     }
 
+    /**
+     * Resets the lane-changing state set during the simulation, used for recycling vehicles.
+     */
+    public void reset() {
+        considerLaneChanges = true;
+        considerDiscretionaryLaneChanges = true;
+        mandatoryChangeToRestrictedLane = Integer.MIN_VALUE;
+        mandatoryChangeToLane = Integer.MIN_VALUE;
+    }
+
     public boolean isConsiderLaneChanges() {
         return considerLaneChanges;
     }
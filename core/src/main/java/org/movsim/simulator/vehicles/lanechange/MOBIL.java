@@ -54,7 +54,48 @@ public class MOBIL {
     /** The Constant LOG. */
     private static final Logger LOG = LoggerFactory.getLogger(MOBIL.class);
 
-    private ModelParameterMOBIL param;
+    /**
+     * Immutable copy of the MOBIL parameters, shared by the lane-changing models of all vehicles of a prototype.
+     */
+    public static final class Parameter {
+
+        private final double safeDeceleration;
+        private final double minimumGap;
+        private final double thresholdAcceleration;
+        private final double rightBiasAcceleration;
+        private final double politeness;
+
+        public Parameter(ModelParameterMOBIL modelParameterMOBIL) {
+            Preconditions.checkNotNull(modelParameterMOBIL);
+            safeDeceleration = modelParameterMOBIL.getSafeDeceleration();
+            minimumGap = modelParameterMOBIL.getMinimumGap();
+            thresholdAcceleration = modelParameterMOBIL.getThresholdAcceleration();
+            rightBiasAcceleration = modelParameterMOBIL.getRightBiasAcceleration();
+            politeness = modelParameterMOBIL.getPoliteness();
+        }
+
+        public double getSafeDeceleration() {
+            return safeDeceleration;
+        }
+
+        public double getMinimumGap() {
+            return minimumGap;
+        }
+
+        public double getThresholdAcceleration() {
+            return thresholdAcceleration;
+        }
+
+        public double getRightBiasAcceleration() {
+            return rightBiasAcceleration;
+        }
+
+        public double getPoliteness() {
+            return politeness;
+        }
+    }
+
+    private final Parameter param;
 
     /**
      * Instantiates a new MOBIL.
@@ -65,16 +106,27 @@ public class MOBIL {
      *            the lane change MOBIL data
      */
     public MOBIL(Vehicle vehicle, ModelParameterMOBIL modelParameterMOBIL) {
-        Preconditions.checkNotNull(modelParameterMOBIL);
-        this.param = modelParameterMOBIL;
+        this(vehicle, new Parameter(modelParameterMOBIL));
+    }
+
+    /**
+     * Instantiates a new MOBIL with shared parameters.
+     * 
+     * @param vehicle
+     *            the vehicle
+     * @param parameter
+     *            the immutable MOBIL parameters
+     */
+    public MOBIL(Vehicle vehicle, Parameter parameter) {
+        this.param = Preconditions.checkNotNull(parameter);
 
-        if (vehicle != null && modelParameterMOBIL.getSafeDeceleration() > vehicle.getMaxDeceleration()) {
+        if (vehicle != null && parameter.getSafeDeceleration() > vehicle.getMaxDeceleration()) {
             // MOBIL bSafe parameter should be typically chosen well below the physical maximum deceleration
             LOG.error("not consistent modeling input data: MOBIL's bSafe must be <= vehicle's maximum deceleration."
                     + " Otherwise crashes could occur! Restrict bSafe to maximum deceleration={}",
                     vehicle.getMaxDeceleration());
             throw new IllegalStateException("Inconsistent input configuration: MOBIL max. deceleration="
-                    + modelParameterMOBIL.getSafeDeceleration() + " is larger than vehicle's max. deceleration="
+                    + parameter.getSafeDeceleration() + " is larger than vehicle's max. deceleration="
                     + vehicle.getMaxDeceleration());
         }
     }
@@ -127,13 +179,9 @@ public class MOBIL {
         // new situation: newBack with me as leader and following left lane cases
         // TO_LEFT --> just the actual situation
         // TO_RIGHT --> consideration of left-lane (with me's leader) has no effect
-        // temporarily add the current vehicle to the new lane to calculate the new accelerations
-        me.setLane(newLane);
-        final int index = newLaneSegment.addVehicleTemp(me);
-        final double newBackNewAcc = newBack == null ? 0 : newBack.calcAccModel(newLaneSegment, null);
-        final double meNewAcc = me.calcAccModel(newLaneSegment, null);
-        newLaneSegment.removeVehicle(index);
-        me.setLane(currentLane);
+        // the new accelerations follow directly from the new neighbours, the new lane is not modified
+        final double newBackNewAcc = newBack == null ? 0 : newBack.calcAccModel(me);
+        final double meNewAcc = me.calcAccModel(newFront);
 
         if (safetyCheckAcceleration(newBackNewAcc)) {
             return prospectiveBalance;
@@ -267,8 +315,7 @@ public class MOBIL {
         return prospectiveBalance;
     }
 
-    public ModelParameterMOBIL getParameter() {
-        // remark: returned object is not immutable
+    public Parameter getParameter() {
         return param;
     }
 
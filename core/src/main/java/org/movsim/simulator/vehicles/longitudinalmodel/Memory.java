@@ -85,11 +85,16 @@ public class Memory {
         resignationMinAlphaV0 = parameters.getAlphaV0();
         resignationMinAlphaA = parameters.getAlphaA();
 
-        // initialize dynamic state variables
+        reset();
+    }
+
+    /**
+     * Resets the dynamic state variables.
+     */
+    public void reset() {
         alphaA = 1;
         alphaV0 = 1;
         alphaT = 1;
-
     }
 
     /**
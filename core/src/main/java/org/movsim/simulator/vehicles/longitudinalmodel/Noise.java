@@ -77,6 +77,13 @@ public class Noise {
         LOG.debug("tauRelaxAcc = {}, isWienerProcess = {}", tauRelaxAcc, isWienerProcess);
     }
 
+    /**
+     * Resets the dynamic state variable.
+     */
+    public void reset() {
+        xiAcc = 0;
+    }
+
     /**
      * Update. Calculates the acceleration noise {code xiAcc} modelled by a Wiener process or as delta-correlated random
      * process.
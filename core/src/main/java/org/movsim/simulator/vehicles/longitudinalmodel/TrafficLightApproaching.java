@@ -25,9 +25,9 @@
  */
 package org.movsim.simulator.vehicles.longitudinalmodel;
 
+import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.Iterator;
-import java.util.LinkedList;
 
 import org.movsim.autogen.TrafficLightStatus;
 import org.movsim.simulator.MovsimConstants;
@@ -42,14 +42,42 @@ import com.google.common.base.Preconditions;
 /**
  * The class TrafficLightApproaching.
  * 
+ * <p>
+ * Traffic lights are attached to the vehicle when it passes the upstream signal point of the light, i.e. when the light
+ * comes within the look-ahead distance. The distance to an attached traffic light is resolved through the road network
+ * only when the vehicle enters a new road segment, within a road segment it follows from the vehicle's position.
+ * </p>
  */
 public class TrafficLightApproaching {
 
     /** The Constant LOG. */
     private static final Logger LOG = LoggerFactory.getLogger(TrafficLightApproaching.class);
 
+    /**
+     * Traffic light with the distance from the start of the vehicle's road segment to the light, valid as long as the
+     * vehicle stays on this road segment.
+     */
+    private static final class ApproachedTrafficLight {
+        final TrafficLight trafficLight;
+        RoadSegment roadSegment;
+        double offset;
+
+        ApproachedTrafficLight(TrafficLight trafficLight) {
+            this.trafficLight = trafficLight;
+        }
+
+        double distance(Vehicle vehicle, RoadSegment vehicleRoadSegment) {
+            if (roadSegment != vehicleRoadSegment) {
+                roadSegment = vehicleRoadSegment;
+                offset = trafficLight.distanceTo(vehicle, vehicleRoadSegment, TrafficLight.MAX_LOOK_AHEAD_DISTANCE)
+                        + vehicle.getFrontPosition();
+            }
+            return offset - vehicle.getFrontPosition();
+        }
+    }
+
     // order of trafficlights given by signal points
-    private Deque<TrafficLight> trafficLights = new LinkedList<>();
+    private final Deque<ApproachedTrafficLight> trafficLights = new ArrayDeque<>();
 
     private boolean considerTrafficLight;
 
@@ -65,16 +93,26 @@ public class TrafficLightApproaching {
         distanceToTrafficlight = MovsimConstants.INVALID_GAP;
     }
 
+    /**
+     * Clears the approached traffic lights and resets to the initial state, used for recycling vehicles.
+     */
+    public void clear() {
+        trafficLights.clear();
+        considerTrafficLight = false;
+        accTrafficLight = 0;
+        distanceToTrafficlight = MovsimConstants.INVALID_GAP;
+    }
+
     public void addTrafficLight(TrafficLight trafficLight) {
         Preconditions.checkNotNull(trafficLight);
         assert !alreadyAdded(trafficLight); // check not necessarily needed
-        trafficLights.add(trafficLight);
+        trafficLights.add(new ApproachedTrafficLight(trafficLight));
         LOG.debug("vehicle: trafficLightSize={}, added trafficlight={}", trafficLights.size(), trafficLight);
     }
 
     private boolean alreadyAdded(TrafficLight trafficLightToAdd) {
-        for (TrafficLight trafficLight : trafficLights) {
-            if (trafficLightToAdd == trafficLight) {
+        for (ApproachedTrafficLight approached : trafficLights) {
+            if (trafficLightToAdd == approached.trafficLight) {
                 return true;
             }
         }
@@ -88,13 +126,17 @@ public class TrafficLightApproaching {
      */
     public void update(Vehicle vehicle, RoadSegment roadSegment) {
         reset();
+        if (trafficLights.isEmpty()) {
+            return;
+        }
         removePassedTrafficLights(vehicle, roadSegment);
 
-        TrafficLight trafficLight = findNonGreenTrafficLight(vehicle, roadSegment);
-        if (trafficLight == null) {
+        ApproachedTrafficLight approached = findNonGreenTrafficLight();
+        if (approached == null) {
             return;
         }
-        distanceToTrafficlight = trafficLight.distanceTo(vehicle, roadSegment, TrafficLight.MAX_LOOK_AHEAD_DISTANCE);
+        final TrafficLight trafficLight = approached.trafficLight;
+        distanceToTrafficlight = approached.distance(vehicle, roadSegment);
         LOG.debug("approaching non-green trafficlight: distanceToTrafficlight={}, trafficLight={}",
                 distanceToTrafficlight, toString());
         Preconditions.checkArgument(distanceToTrafficlight >= 0,
@@ -132,26 +174,23 @@ public class TrafficLightApproaching {
         }
     }
 
-    private TrafficLight findNonGreenTrafficLight(Vehicle vehicle, RoadSegment roadSegment) {
-        TrafficLight trafficLight = null;
-        Iterator<TrafficLight> iterator = trafficLights.iterator();
-        while (iterator.hasNext()) {
-            trafficLight = iterator.next();
-            LOG.debug("trafficlight={}", trafficLight);
-            if (trafficLight.status() != TrafficLightStatus.GREEN
-                    && trafficLight.status() != TrafficLightStatus.RED_GREEN) {
-                return trafficLight;
+    private ApproachedTrafficLight findNonGreenTrafficLight() {
+        for (ApproachedTrafficLight approached : trafficLights) {
+            final TrafficLightStatus status = approached.trafficLight.status();
+            if (status != TrafficLightStatus.GREEN && status != TrafficLightStatus.RED_GREEN) {
+                return approached;
             }
         }
         return null;
     }
 
     private void removePassedTrafficLights(Vehicle vehicle, RoadSegment roadSegment) {
-        for (Iterator<TrafficLight> iterator = trafficLights.iterator(); iterator.hasNext();) {
-            TrafficLight trafficLight = iterator.next();
-            double distance = trafficLight.distanceTo(vehicle, roadSegment, TrafficLight.MAX_LOOK_AHEAD_DISTANCE);
+        for (Iterator<ApproachedTrafficLight> iterator = trafficLights.iterator(); iterator.hasNext();) {
+            ApproachedTrafficLight approached = iterator.next();
+            double distance = approached.distance(vehicle, roadSegment);
             if (!Double.isNaN(distance) && distance < 0) {
-                LOG.debug("vehicle at pos={}, remove trafficLight={}", vehicle.getFrontPosition(), trafficLight);
+                LOG.debug("vehicle at pos={}, remove trafficLight={}", vehicle.getFrontPosition(),
+                        approached.trafficLight);
                 iterator.remove();
             } else {
                 return; // skip loop since trafficlights are ordered
@@ -25,8 +25,11 @@
  */
 package org.movsim.simulator.vehicles.longitudinalmodel.acceleration;
 
+import org.movsim.autogen.AccelerationTableType;
 import org.movsim.simulator.vehicles.Vehicle;
 import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.parameter.IModelParameterACC;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 // TODO: Auto-generated Javadoc
 
@@ -46,6 +49,9 @@ import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.parameter.IM
  */
 class ACC extends LongitudinalModelBase {
 
+    /** The Constant LOG. */
+    private static final Logger LOG = LoggerFactory.getLogger(ACC.class);
+
     private final IModelParameterACC param;
 
     public ACC(IModelParameterACC modelParameter) {
@@ -113,17 +119,13 @@ class ACC extends LongitudinalModelBase {
             return 0;
         }
 
-        final double sstar = getMinimumGap()
-                + Math.max(
-                        TLocal * v + param.getS1() * Math.sqrt((v + 0.00001) / v0Local) + 0.5 * v * dv
-                                / Math.sqrt(aLocal * param.getB()), 0.);
-        final double z = sstar / Math.max(s, 0.01);
-        final double accEmpty = (v <= v0Local) ? aLocal * (1 - Math.pow((v / v0Local), param.getDelta())) : -param
-                .getB() * (1 - Math.pow((v0Local / v), aLocal * param.getDelta() / param.getB()));
-        final double accPos = accEmpty * (1. - Math.pow(z, Math.min(2 * aLocal / accEmpty, 100.)));
-        final double accInt = aLocal * (1 - z * z);
-
-        final double accIIDM = (v < v0Local) ? (z < 1) ? accPos : accInt : (z < 1) ? accEmpty : accInt + accEmpty;
+        final double accIIDM;
+        if (accelerationTable != null && accelerationTable.isApplicable(TLocal, v0Local, aLocal)
+                && accelerationTable.covers(s, v, dv)) {
+            accIIDM = accelerationTable.interpolate(s, v, dv);
+        } else {
+            accIIDM = accIIDM(s, v, dv, TLocal, v0Local, aLocal);
+        }
 
         // constant-acceleration heuristic (CAH)
 
@@ -142,4 +144,37 @@ class ACC extends LongitudinalModelBase {
 
         return accACC_IIDM;
     }
+
+    /**
+     * Acceleration of the improved IDM (IIDM) without the constant-acceleration heuristic. Depends only on the
+     * dynamical variables (s, v, dv) for given local parameters and can therefore be tabulated.
+     */
+    private double accIIDM(double s, double v, double dv, double TLocal, double v0Local, double aLocal) {
+        final double sstar = getMinimumGap()
+                + Math.max(
+                        TLocal * v + param.getS1() * Math.sqrt((v + 0.00001) / v0Local) + 0.5 * v * dv
+                                / Math.sqrt(aLocal * param.getB()), 0.);
+        final double z = sstar / Math.max(s, 0.01);
+        final double accEmpty = (v <= v0Local) ? aLocal * (1 - Math.pow((v / v0Local), param.getDelta())) : -param
+                .getB() * (1 - Math.pow((v0Local / v), aLocal * param.getDelta() / param.getB()));
+        final double accPos = accEmpty * (1. - Math.pow(z, Math.min(2 * aLocal / accEmpty, 100.)));
+        final double accInt = aLocal * (1 - z * z);
+
+        return (v < v0Local) ? (z < 1) ? accPos : accInt : (z < 1) ? accEmpty : accInt + accEmpty;
+    }
+
+    @Override
+    public AccelerationTable createAccelerationTable(AccelerationTableType config) {
+        final double T = param.getT();
+        final double v0 = getDesiredSpeed();
+        final double a = param.getA();
+        AccelerationTable table = new AccelerationTable(config, new AccelerationTable.AccelerationFunction() {
+            @Override
+            public double acc(double s, double v, double dv) {
+                return accIIDM(s, v, dv, T, v0, a);
+            }
+        }, T, v0, a);
+        LOG.info("created {}", table);
+        return table;
+    }
 }
@@ -0,0 +1,243 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ *
+ * This file is part of
+ *
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ *
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ *
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.simulator.vehicles.longitudinalmodel.acceleration;
+
+import org.movsim.autogen.AccelerationTableType;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Tabulated acceleration function a(s, v, dv) on a regular three-dimensional grid.
+ *
+ * <p>
+ * The table is built once for a fixed set of model parameters and evaluated by trilinear interpolation. The grid is
+ * regular in the inverse gap 1/s, which resolves the interaction term (sstar/s)^2 of IDM-like models with a bounded
+ * error also for small gaps, and regular in v and dv. Queries outside
+ * the grid bounds are not covered by the table, the caller has to fall back to the analytic model in that case. The
+ * maximum absolute interpolation error is estimated at build time by comparing the interpolated values with the
+ * analytic function at all cell centers.
+ * </p>
+ */
+public final class AccelerationTable {
+
+    /**
+     * Analytic acceleration function to be tabulated.
+     */
+    public interface AccelerationFunction {
+        double acc(double s, double v, double dv);
+    }
+
+    private final double sMin;
+    private final double uMin;
+    private final double vMin = 0;
+    private final double dvMin;
+
+    private final double uStep;
+    private final double vStep;
+    private final double dvStep;
+
+    private final double sMax;
+    private final double vMax;
+    private final double dvMax;
+
+    private final int nS;
+    private final int nV;
+    private final int nDv;
+
+    /** flat array with index (iS * nV + iV) * nDv + iDv */
+    private final double[] values;
+
+    private final double maxError;
+
+    /** model parameters the table was built for */
+    private final double T;
+    private final double v0;
+    private final double a;
+
+    public AccelerationTable(AccelerationTableType config, AccelerationFunction function, double T, double v0,
+            double a) {
+        this(config.getMinGap(), config.getMaxGap(), config.getMaxSpeed(), config.getMaxSpeedDifference(), config
+                .getNumberGapPoints(), config.getNumberSpeedPoints(), config.getNumberSpeedDifferencePoints(),
+                function, T, v0, a);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param sMin
+     *            minimum gap (m)
+     * @param sMax
+     *            maximum gap (m)
+     * @param vMax
+     *            maximum speed (m/s)
+     * @param dvMax
+     *            maximum absolute speed difference (m/s), the table covers [-dvMax, dvMax]
+     * @param nS
+     *            number of grid points in (inverse) gap direction
+     * @param nV
+     *            number of grid points in speed direction
+     * @param nDv
+     *            number of grid points in speed difference direction
+     * @param function
+     *            the analytic acceleration function
+     * @param T
+     *            time gap the function is parameterized with
+     * @param v0
+     *            desired speed the function is parameterized with
+     * @param a
+     *            maximum acceleration the function is parameterized with
+     */
+    public AccelerationTable(double sMin, double sMax, double vMax, double dvMax, int nS, int nV, int nDv,
+            AccelerationFunction function, double T, double v0, double a) {
+        Preconditions.checkArgument(sMin > 0 && sMax > sMin, "gaps must be positive and maximum gap larger than minimum gap");
+        Preconditions.checkArgument(vMax > vMin && dvMax > 0, "speed ranges must be positive");
+        Preconditions.checkArgument(nS >= 2 && nV >= 2 && nDv >= 2, "at least two grid points per dimension needed");
+        this.sMin = sMin;
+        this.sMax = sMax;
+        this.vMax = vMax;
+        this.dvMin = -dvMax;
+        this.dvMax = dvMax;
+        this.nS = nS;
+        this.nV = nV;
+        this.nDv = nDv;
+        this.uMin = 1 / sMax;
+        this.uStep = (1 / sMin - uMin) / (nS - 1);
+        this.vStep = (vMax - vMin) / (nV - 1);
+        this.dvStep = (dvMax - dvMin) / (nDv - 1);
+        this.T = T;
+        this.v0 = v0;
+        this.a = a;
+
+        values = new double[nS * nV * nDv];
+        for (int iS = 0; iS < nS; iS++) {
+            final double s = 1 / (uMin + iS * uStep);
+            for (int iV = 0; iV < nV; iV++) {
+                final double v = vMin + iV * vStep;
+                for (int iDv = 0; iDv < nDv; iDv++) {
+                    values[index(iS, iV, iDv)] = function.acc(s, v, dvMin + iDv * dvStep);
+                }
+            }
+        }
+        maxError = calcMaxError(function);
+    }
+
+    private double calcMaxError(AccelerationFunction function) {
+        double max = 0;
+        for (int iS = 0; iS < nS - 1; iS++) {
+            final double s = 1 / (uMin + (iS + 0.5) * uStep);
+            for (int iV = 0; iV < nV - 1; iV++) {
+                final double v = vMin + (iV + 0.5) * vStep;
+                for (int iDv = 0; iDv < nDv - 1; iDv++) {
+                    final double dv = dvMin + (iDv + 0.5) * dvStep;
+                    max = Math.max(max, Math.abs(interpolate(s, v, dv) - function.acc(s, v, dv)));
+                }
+            }
+        }
+        return max;
+    }
+
+    private int index(int iS, int iV, int iDv) {
+        return (iS * nV + iV) * nDv + iDv;
+    }
+
+    /**
+     * Returns true if the table has been built for the given local model parameters.
+     *
+     * @param TLocal
+     * @param v0Local
+     * @param aLocal
+     * @return true if the table is applicable
+     */
+    public boolean isApplicable(double TLocal, double v0Local, double aLocal) {
+        return TLocal == T && v0Local == v0 && aLocal == a;
+    }
+
+    /**
+     * Returns true if the given dynamical state lies within the table bounds.
+     *
+     * @param s
+     * @param v
+     * @param dv
+     * @return true if the point is covered by the grid
+     */
+    public boolean covers(double s, double v, double dv) {
+        return s >= sMin && s <= sMax && v >= vMin && v <= vMax && dv >= dvMin && dv <= dvMax;
+    }
+
+    /**
+     * Evaluates the acceleration by trilinear interpolation. The point must be within the table bounds, see
+     * {@link #covers(double, double, double)}.
+     *
+     * @param s
+     * @param v
+     * @param dv
+     * @return the interpolated acceleration
+     */
+    public double interpolate(double s, double v, double dv) {
+        final double xs = (1 / s - uMin) / uStep;
+        final double xv = (v - vMin) / vStep;
+        final double xdv = (dv - dvMin) / dvStep;
+        final int iS = Math.min((int) xs, nS - 2);
+        final int iV = Math.min((int) xv, nV - 2);
+        final int iDv = Math.min((int) xdv, nDv - 2);
+        final double fs = xs - iS;
+        final double fv = xv - iV;
+        final double fdv = xdv - iDv;
+
+        final int i000 = index(iS, iV, iDv);
+        final int i010 = i000 + nDv;
+        final int i100 = i000 + nV * nDv;
+        final int i110 = i100 + nDv;
+
+        final double c00 = values[i000] + fdv * (values[i000 + 1] - values[i000]);
+        final double c01 = values[i010] + fdv * (values[i010 + 1] - values[i010]);
+        final double c10 = values[i100] + fdv * (values[i100 + 1] - values[i100]);
+        final double c11 = values[i110] + fdv * (values[i110 + 1] - values[i110]);
+        final double c0 = c00 + fv * (c01 - c00);
+        final double c1 = c10 + fv * (c11 - c10);
+        return c0 + fs * (c1 - c0);
+    }
+
+    /**
+     * Returns the maximum absolute interpolation error (m/s^2) estimated at build time.
+     *
+     * @return the maximum absolute error
+     */
+    public double getMaxError() {
+        return maxError;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public String toString() {
+        return "AccelerationTable [s=[" + sMin + "," + sMax + "], v=[" + vMin + "," + vMax + "], dv=[" + dvMin + ","
+                + dvMax + "], grid=" + nS + "x" + nV + "x" + nDv + ", maxError=" + maxError + "]";
+    }
+
+}
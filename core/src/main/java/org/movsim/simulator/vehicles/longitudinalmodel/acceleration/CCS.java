@@ -53,6 +53,11 @@ public class CCS extends LongitudinalModelBase {
         this.length = vehLength;
     }
 
+    @Override
+    public void reset() {
+        counter = 0;
+    }
+
     /**
      * make (mis)use of randomization factor intended for desired speed.
      */
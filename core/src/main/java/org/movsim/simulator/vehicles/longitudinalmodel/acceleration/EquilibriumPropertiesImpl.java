@@ -25,8 +25,8 @@
  */
 package org.movsim.simulator.vehicles.longitudinalmodel.acceleration;
 
-import org.movsim.autogen.ModelParameterOVMFVDM;
 import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.LongitudinalModelBase.ModelName;
+import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.parameter.IModelParameterOVMFVDM;
 import org.movsim.utilities.LinearInterpolatedFunction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -134,7 +134,7 @@ public class EquilibriumPropertiesImpl implements EquilibriumProperties {
         double dtMin = 0.01; // dtmin (rho=rhomax) to dtmax (rho=0)
 
         if (model.modelName == ModelName.OVM_FVDM) {
-            ModelParameterOVMFVDM parameter = (ModelParameterOVMFVDM) model.getParameter();
+            IModelParameterOVMFVDM parameter = (IModelParameterOVMFVDM) model.getParameter();
             dtMax = 0.3 * parameter.getTau();
             dtMin = 0.1 * parameter.getTau();
         }
@@ -25,6 +25,7 @@
  */
 package org.movsim.simulator.vehicles.longitudinalmodel.acceleration;
 
+import org.movsim.autogen.AccelerationTableType;
 import org.movsim.autogen.ModelParameterIDM;
 import org.movsim.simulator.vehicles.Vehicle;
 import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.parameter.IModelParameterIDM;
@@ -163,6 +164,15 @@ public class IDM extends LongitudinalModelBase {
             return 0.0;
         }
 
+        if (accelerationTable != null && accelerationTable.isApplicable(TLocal, v0Local, aLocal)
+                && accelerationTable.covers(s, v, dv)) {
+            return accelerationTable.interpolate(s, v, dv);
+        }
+
+        return accAnalytic(s, v, dv, TLocal, v0Local, aLocal);
+    }
+
+    private double accAnalytic(double s, double v, double dv, double TLocal, double v0Local, double aLocal) {
         final double s0 = getMinimumGap();
         double sstar = s0 + TLocal * v + param.getS1() * Math.sqrt((v + 0.0001) / v0Local) + (0.5 * v * dv)
                 / Math.sqrt(aLocal * param.getB());
@@ -177,6 +187,21 @@ public class IDM extends LongitudinalModelBase {
         return aWanted; // limit to -bMax in Vehicle
     }
 
+    @Override
+    public AccelerationTable createAccelerationTable(AccelerationTableType config) {
+        final double T = param.getT();
+        final double v0 = getDesiredSpeed();
+        final double a = param.getA();
+        AccelerationTable table = new AccelerationTable(config, new AccelerationTable.AccelerationFunction() {
+            @Override
+            public double acc(double s, double v, double dv) {
+                return accAnalytic(s, v, dv, T, v0, a);
+            }
+        }, T, v0, a);
+        LOG.info("created {}", table);
+        return table;
+    }
+
     @Override
     protected IModelParameterIDM getParameter() {
         return param;
@@ -0,0 +1,638 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.simulator.vehicles.longitudinalmodel.acceleration;
+
+import org.movsim.autogen.AccelerationModelType;
+import org.movsim.autogen.OptimalVelocityFunctionEnum;
+import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.parameter.IModelParameter;
+import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.parameter.IModelParameterACC;
+import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.parameter.IModelParameterCCS;
+import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.parameter.IModelParameterGipps;
+import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.parameter.IModelParameterIDM;
+import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.parameter.IModelParameterKKW;
+import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.parameter.IModelParameterKrauss;
+import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.parameter.IModelParameterNSM;
+import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.parameter.IModelParameterNewell;
+import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.parameter.IModelParameterOVMFVDM;
+import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.parameter.IModelParameterPTM;
+
+/**
+ * Immutable copies of the longitudinal model parameters.
+ * 
+ * <p>
+ * The parameter objects read from the xml input are mutable and return the defaults of optional attributes from boxed
+ * fields. The immutable copies are created once per vehicle prototype and shared by the acceleration models of all its
+ * vehicles. Per-vehicle state like the randomized desired speed is kept in the models.
+ * </p>
+ */
+public final class ImmutableModelParameters {
+
+    private ImmutableModelParameters() {
+        throw new IllegalStateException("do not instanciate");
+    }
+
+    /**
+     * Creates an immutable copy of the model parameters configured in the given acceleration model type.
+     * 
+     * @param modelType
+     * @return the immutable model parameters
+     */
+    public static IModelParameter of(AccelerationModelType modelType) {
+        if (modelType.isSetModelParameterIDM()) {
+            return new IDMParameter(modelType.getModelParameterIDM());
+        } else if (modelType.isSetModelParameterACC()) {
+            return new ACCParameter(modelType.getModelParameterACC());
+        } else if (modelType.isSetModelParameterOVMFVDM()) {
+            return new OVMFVDMParameter(modelType.getModelParameterOVMFVDM());
+        } else if (modelType.isSetModelParameterGipps()) {
+            return new GippsParameter(modelType.getModelParameterGipps());
+        } else if (modelType.isSetModelParameterKrauss()) {
+            return new KraussParameter(modelType.getModelParameterKrauss());
+        } else if (modelType.isSetModelParameterNewell()) {
+            return new NewellParameter(modelType.getModelParameterNewell());
+        } else if (modelType.isSetModelParameterNSM()) {
+            return new NSMParameter(modelType.getModelParameterNSM());
+        } else if (modelType.isSetModelParameterKKW()) {
+            return new KKWParameter(modelType.getModelParameterKKW());
+        } else if (modelType.isSetModelParameterCCS()) {
+            return new CCSParameter(modelType.getModelParameterCCS());
+        } else if (modelType.isSetModelParameterPTM()) {
+            return new PTMParameter(modelType.getModelParameterPTM());
+        }
+        throw new IllegalArgumentException("unknown acceleration model=" + modelType.toString());
+    }
+
+    static final class IDMParameter implements IModelParameterIDM {
+        private final double v0;
+        private final double s0;
+        private final double T;
+        private final double a;
+        private final double b;
+        private final double delta;
+        private final double s1;
+
+        IDMParameter(IModelParameterIDM parameter) {
+            v0 = parameter.getV0();
+            s0 = parameter.getS0();
+            T = parameter.getT();
+            a = parameter.getA();
+            b = parameter.getB();
+            delta = parameter.getDelta();
+            s1 = parameter.getS1();
+        }
+
+        @Override
+        public double getV0() {
+            return v0;
+        }
+
+        @Override
+        public double getS0() {
+            return s0;
+        }
+
+        @Override
+        public double getT() {
+            return T;
+        }
+
+        @Override
+        public double getA() {
+            return a;
+        }
+
+        @Override
+        public double getB() {
+            return b;
+        }
+
+        @Override
+        public double getDelta() {
+            return delta;
+        }
+
+        @Override
+        public double getS1() {
+            return s1;
+        }
+    }
+
+    static final class ACCParameter implements IModelParameterACC {
+        private final double v0;
+        private final double s0;
+        private final double T;
+        private final double a;
+        private final double b;
+        private final double coolness;
+        private final double delta;
+        private final double s1;
+
+        ACCParameter(IModelParameterACC parameter) {
+            v0 = parameter.getV0();
+            s0 = parameter.getS0();
+            T = parameter.getT();
+            a = parameter.getA();
+            b = parameter.getB();
+            coolness = parameter.getCoolness();
+            delta = parameter.getDelta();
+            s1 = parameter.getS1();
+        }
+
+        @Override
+        public double getV0() {
+            return v0;
+        }
+
+        @Override
+        public double getS0() {
+            return s0;
+        }
+
+        @Override
+        public double getT() {
+            return T;
+        }
+
+        @Override
+        public double getA() {
+            return a;
+        }
+
+        @Override
+        public double getB() {
+            return b;
+        }
+
+        @Override
+        public double getCoolness() {
+            return coolness;
+        }
+
+        @Override
+        public double getDelta() {
+            return delta;
+        }
+
+        @Override
+        public double getS1() {
+            return s1;
+        }
+    }
+
+    static final class OVMFVDMParameter implements IModelParameterOVMFVDM {
+        private final double v0;
+        private final double s0;
+        private final double transitionWidth;
+        private final OptimalVelocityFunctionEnum optimalSpeedFunction;
+        private final double beta;
+        private final double tau;
+        private final double gamma;
+
+        OVMFVDMParameter(IModelParameterOVMFVDM parameter) {
+            v0 = parameter.getV0();
+            s0 = parameter.getS0();
+            transitionWidth = parameter.getTransitionWidth();
+            optimalSpeedFunction = parameter.getOptimalSpeedFunction();
+            beta = parameter.getBeta();
+            tau = parameter.getTau();
+            gamma = parameter.getGamma();
+        }
+
+        @Override
+        public double getV0() {
+            return v0;
+        }
+
+        @Override
+        public double getS0() {
+            return s0;
+        }
+
+        @Override
+        public double getTransitionWidth() {
+            return transitionWidth;
+        }
+
+        @Override
+        public OptimalVelocityFunctionEnum getOptimalSpeedFunction() {
+            return optimalSpeedFunction;
+        }
+
+        @Override
+        public double getBeta() {
+            return beta;
+        }
+
+        @Override
+        public double getTau() {
+            return tau;
+        }
+
+        @Override
+        public double getGamma() {
+            return gamma;
+        }
+    }
+
+    static final class GippsParameter implements IModelParameterGipps {
+        private final double v0;
+        private final double s0;
+        private final double a;
+        private final double b;
+
+        GippsParameter(IModelParameterGipps parameter) {
+            v0 = parameter.getV0();
+            s0 = parameter.getS0();
+            a = parameter.getA();
+            b = parameter.getB();
+        }
+
+        @Override
+        public double getV0() {
+            return v0;
+        }
+
+        @Override
+        public double getS0() {
+            return s0;
+        }
+
+        @Override
+        public double getA() {
+            return a;
+        }
+
+        @Override
+        public double getB() {
+            return b;
+        }
+    }
+
+    static final class KraussParameter implements IModelParameterKrauss {
+        private final double v0;
+        private final double s0;
+        private final double b;
+        private final double a;
+        private final double epsilon;
+
+        KraussParameter(IModelParameterKrauss parameter) {
+            v0 = parameter.getV0();
+            s0 = parameter.getS0();
+            b = parameter.getB();
+            a = parameter.getA();
+            epsilon = parameter.getEpsilon();
+        }
+
+        @Override
+        public double getV0() {
+            return v0;
+        }
+
+        @Override
+        public double getS0() {
+            return s0;
+        }
+
+        @Override
+        public double getB() {
+            return b;
+        }
+
+        @Override
+        public double getA() {
+            return a;
+        }
+
+        @Override
+        public double getEpsilon() {
+            return epsilon;
+        }
+    }
+
+    static final class NewellParameter implements IModelParameterNewell {
+        private final double v0;
+        private final double s0;
+
+        NewellParameter(IModelParameterNewell parameter) {
+            v0 = parameter.getV0();
+            s0 = parameter.getS0();
+        }
+
+        @Override
+        public double getV0() {
+            return v0;
+        }
+
+        @Override
+        public double getS0() {
+            return s0;
+        }
+    }
+
+    static final class NSMParameter implements IModelParameterNSM {
+        private final double v0;
+        private final double s0;
+        private final double pSlowStart;
+        private final double pSlowdown;
+
+        NSMParameter(IModelParameterNSM parameter) {
+            v0 = parameter.getV0();
+            s0 = parameter.getS0();
+            pSlowStart = parameter.getPSlowStart();
+            pSlowdown = parameter.getPSlowdown();
+        }
+
+        @Override
+        public double getV0() {
+            return v0;
+        }
+
+        @Override
+        public double getS0() {
+            return s0;
+        }
+
+        @Override
+        public double getPSlowStart() {
+            return pSlowStart;
+        }
+
+        @Override
+        public double getPSlowdown() {
+            return pSlowdown;
+        }
+    }
+
+    static final class KKWParameter implements IModelParameterKKW {
+        private final double v0;
+        private final double s0;
+        private final double k;
+        private final double pa2;
+        private final double pb0;
+        private final double pb1;
+        private final double pa1;
+        private final double vp;
+
+        KKWParameter(IModelParameterKKW parameter) {
+            v0 = parameter.getV0();
+            s0 = parameter.getS0();
+            k = parameter.getK();
+            pa2 = parameter.getPa2();
+            pb0 = parameter.getPb0();
+            pb1 = parameter.getPb1();
+            pa1 = parameter.getPa1();
+            vp = parameter.getVp();
+        }
+
+        @Override
+        public double getV0() {
+            return v0;
+        }
+
+        @Override
+        public double getS0() {
+            return s0;
+        }
+
+        @Override
+        public double getK() {
+            return k;
+        }
+
+        @Override
+        public double getPa2() {
+            return pa2;
+        }
+
+        @Override
+        public double getPb0() {
+            return pb0;
+        }
+
+        @Override
+        public double getPb1() {
+            return pb1;
+        }
+
+        @Override
+        public double getPa1() {
+            return pa1;
+        }
+
+        @Override
+        public double getVp() {
+            return vp;
+        }
+    }
+
+    static final class CCSParameter implements IModelParameterCCS {
+        private final double v0;
+        private final double s0;
+        private final double p0;
+        private final double vC;
+        private final double vCHerringbone;
+        private final double pHerringbone;
+        private final double mass;
+        private final double friction;
+        private final double a;
+        private final double T;
+        private final double bMaximum;
+        private final double b;
+        private final double cw;
+
+        CCSParameter(IModelParameterCCS parameter) {
+            v0 = parameter.getV0();
+            s0 = parameter.getS0();
+            p0 = parameter.getP0();
+            vC = parameter.getVC();
+            vCHerringbone = parameter.getVCHerringbone();
+            pHerringbone = parameter.getPHerringbone();
+            mass = parameter.getMass();
+            friction = parameter.getFriction();
+            a = parameter.getA();
+            T = parameter.getT();
+            bMaximum = parameter.getBMaximum();
+            b = parameter.getB();
+            cw = parameter.getCw();
+        }
+
+        @Override
+        public double getV0() {
+            return v0;
+        }
+
+        @Override
+        public double getS0() {
+            return s0;
+        }
+
+        @Override
+        public double getP0() {
+            return p0;
+        }
+
+        @Override
+        public double getVC() {
+            return vC;
+        }
+
+        @Override
+        public double getVCHerringbone() {
+            return vCHerringbone;
+        }
+
+        @Override
+        public double getPHerringbone() {
+            return pHerringbone;
+        }
+
+        @Override
+        public double getMass() {
+            return mass;
+        }
+
+        @Override
+        public double getFriction() {
+            return friction;
+        }
+
+        @Override
+        public double getA() {
+            return a;
+        }
+
+        @Override
+        public double getT() {
+            return T;
+        }
+
+        @Override
+        public double getBMaximum() {
+            return bMaximum;
+        }
+
+        @Override
+        public double getB() {
+            return b;
+        }
+
+        @Override
+        public double getCw() {
+            return cw;
+        }
+    }
+
+    static final class PTMParameter implements IModelParameterPTM {
+        private final double v0;
+        private final double s0;
+        private final double tau;
+        private final double weightMinus;
+        private final double a0;
+        private final double gamma;
+        private final double weightCrash;
+        private final double tauMax;
+        private final double alpha;
+        private final double betaLogit;
+        private final double tauCorrelation;
+        private final double bMax;
+
+        PTMParameter(IModelParameterPTM parameter) {
+            v0 = parameter.getV0();
+            s0 = parameter.getS0();
+            tau = parameter.getTau();
+            weightMinus = parameter.getWeightMinus();
+            a0 = parameter.getA0();
+            gamma = parameter.getGamma();
+            weightCrash = parameter.getWeightCrash();
+            tauMax = parameter.getTauMax();
+            alpha = parameter.getAlpha();
+            betaLogit = parameter.getBetaLogit();
+            tauCorrelation = parameter.getTauCorrelation();
+            bMax = parameter.getBMax();
+        }
+
+        @Override
+        public double getV0() {
+            return v0;
+        }
+
+        @Override
+        public double getS0() {
+            return s0;
+        }
+
+        @Override
+        public double getTau() {
+            return tau;
+        }
+
+        @Override
+        public double getWeightMinus() {
+            return weightMinus;
+        }
+
+        @Override
+        public double getA0() {
+            return a0;
+        }
+
+        @Override
+        public double getGamma() {
+            return gamma;
+        }
+
+        @Override
+        public double getWeightCrash() {
+            return weightCrash;
+        }
+
+        @Override
+        public double getTauMax() {
+            return tauMax;
+        }
+
+        @Override
+        public double getAlpha() {
+            return alpha;
+        }
+
+        @Override
+        public double getBetaLogit() {
+            return betaLogit;
+        }
+
+        @Override
+        public double getTauCorrelation() {
+            return tauCorrelation;
+        }
+
+        @Override
+        public double getBMax() {
+            return bMax;
+        }
+    }
+
+}
@@ -25,6 +25,9 @@
  */
 package org.movsim.simulator.vehicles.longitudinalmodel.acceleration;
 
+import javax.annotation.CheckForNull;
+
+import org.movsim.autogen.AccelerationTableType;
 import org.movsim.autogen.DistributionTypeEnum;
 import org.movsim.simulator.roadnetwork.LaneSegment;
 import org.movsim.simulator.vehicles.Vehicle;
@@ -103,6 +106,7 @@ public abstract class LongitudinalModelBase {
     protected final ModelName modelName;
     private final double scalingLength;
     protected double v0RandomizationFactor = 1;
+    protected AccelerationTable accelerationTable = null;
 
     protected LongitudinalModelBase(ModelName modelName) {
         this.modelName = modelName;
@@ -199,6 +203,13 @@ public abstract class LongitudinalModelBase {
 
     protected abstract IModelParameter getParameter();
 
+    /**
+     * Resets the dynamic state of the model for reuse by a recycled vehicle. Models with a dynamic state have to
+     * overwrite this method.
+     */
+    public void reset() {
+    }
+
     /**
      * Sets the relative randomization v0.
      * 
@@ -219,6 +230,37 @@ public abstract class LongitudinalModelBase {
                 v0RandomizationFactor);
     }
 
+    /**
+     * Creates a table of the acceleration function for the current model parameters.
+     * 
+     * <br>
+     * Needs to be overwritten if the model supports tabulation.
+     * 
+     * @param config
+     *            the table range and resolution
+     * @return the acceleration table or null if the model does not support tabulation, the model is then evaluated
+     *         directly
+     */
+    @CheckForNull
+    public AccelerationTable createAccelerationTable(AccelerationTableType config) {
+        return null;
+    }
+
+    /**
+     * Sets the acceleration table used instead of the analytic acceleration function within the table bounds. The table
+     * can be shared by all models with the same parameters.
+     * 
+     * @param accelerationTable
+     *            the table or null to use the analytic function only
+     */
+    public void setAccelerationTable(AccelerationTable accelerationTable) {
+        this.accelerationTable = accelerationTable;
+    }
+
+    public AccelerationTable getAccelerationTable() {
+        return accelerationTable;
+    }
+
     final static double calcSmoothFraction(double speedMe, double speedFront) {
         final double widthDeltaSpeed = 1; // parameter
         double x = 0; // limiting case: consider only acceleration in vehicle's lane
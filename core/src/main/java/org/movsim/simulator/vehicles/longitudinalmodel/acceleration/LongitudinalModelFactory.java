@@ -27,6 +27,17 @@
 package org.movsim.simulator.vehicles.longitudinalmodel.acceleration;
 
 import org.movsim.autogen.AccelerationModelType;
+import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.parameter.IModelParameter;
+import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.parameter.IModelParameterACC;
+import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.parameter.IModelParameterCCS;
+import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.parameter.IModelParameterGipps;
+import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.parameter.IModelParameterIDM;
+import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.parameter.IModelParameterKKW;
+import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.parameter.IModelParameterKrauss;
+import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.parameter.IModelParameterNSM;
+import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.parameter.IModelParameterNewell;
+import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.parameter.IModelParameterOVMFVDM;
+import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.parameter.IModelParameterPTM;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,29 +55,41 @@ public class LongitudinalModelFactory {
      */
     public static LongitudinalModelBase create(double vehLength, AccelerationModelType longitudinalModelType,
             double simulationTimestep) {
+        return create(vehLength, ImmutableModelParameters.of(longitudinalModelType), simulationTimestep);
+    }
+
+    /**
+     * Creates the model for the given parameters. The parameters are referenced by the model and can be shared by many
+     * models, see {@link ImmutableModelParameters}.
+     * 
+     * @param vehLength
+     * @param parameter
+     * @param simulationTimestep
+     */
+    public static LongitudinalModelBase create(double vehLength, IModelParameter parameter, double simulationTimestep) {
         LongitudinalModelBase longModel = null;
-        if (longitudinalModelType.isSetModelParameterIDM()) {
-            longModel = new IDM(longitudinalModelType.getModelParameterIDM());
-        } else if (longitudinalModelType.isSetModelParameterACC()) {
-            longModel = new ACC(longitudinalModelType.getModelParameterACC());
-        } else if (longitudinalModelType.isSetModelParameterOVMFVDM()) {
-            longModel = new OVM_FVDM(longitudinalModelType.getModelParameterOVMFVDM());
-        } else if (longitudinalModelType.isSetModelParameterGipps()) {
-            longModel = new Gipps(simulationTimestep, longitudinalModelType.getModelParameterGipps());
-        } else if (longitudinalModelType.isSetModelParameterKrauss()) {
-            longModel = new Krauss(simulationTimestep, longitudinalModelType.getModelParameterKrauss());
-        } else if (longitudinalModelType.isSetModelParameterNewell()) {
-            return new Newell(simulationTimestep, longitudinalModelType.getModelParameterNewell());
-        } else if (longitudinalModelType.isSetModelParameterNSM()) {
-            longModel = new NSM(longitudinalModelType.getModelParameterNSM());
-        } else if (longitudinalModelType.isSetModelParameterKKW()) {
-            longModel = new KKW(longitudinalModelType.getModelParameterKKW(), vehLength);
-        } else if (longitudinalModelType.isSetModelParameterCCS()) {
-            longModel = new CCS(longitudinalModelType.getModelParameterCCS(), vehLength);
-        } else if (longitudinalModelType.isSetModelParameterPTM()) {
-            longModel = new PTM(simulationTimestep, longitudinalModelType.getModelParameterPTM());
+        if (parameter instanceof IModelParameterIDM) {
+            longModel = new IDM((IModelParameterIDM) parameter);
+        } else if (parameter instanceof IModelParameterACC) {
+            longModel = new ACC((IModelParameterACC) parameter);
+        } else if (parameter instanceof IModelParameterOVMFVDM) {
+            longModel = new OVM_FVDM((IModelParameterOVMFVDM) parameter);
+        } else if (parameter instanceof IModelParameterGipps) {
+            longModel = new Gipps(simulationTimestep, (IModelParameterGipps) parameter);
+        } else if (parameter instanceof IModelParameterKrauss) {
+            longModel = new Krauss(simulationTimestep, (IModelParameterKrauss) parameter);
+        } else if (parameter instanceof IModelParameterNewell) {
+            return new Newell(simulationTimestep, (IModelParameterNewell) parameter);
+        } else if (parameter instanceof IModelParameterNSM) {
+            longModel = new NSM((IModelParameterNSM) parameter);
+        } else if (parameter instanceof IModelParameterKKW) {
+            longModel = new KKW((IModelParameterKKW) parameter, vehLength);
+        } else if (parameter instanceof IModelParameterCCS) {
+            longModel = new CCS((IModelParameterCCS) parameter, vehLength);
+        } else if (parameter instanceof IModelParameterPTM) {
+            longModel = new PTM(simulationTimestep, (IModelParameterPTM) parameter);
         } else {
-            throw new IllegalArgumentException("unknown acceleration model=" + longitudinalModelType.toString());
+            throw new IllegalArgumentException("unknown acceleration model parameter=" + parameter);
         }
         return longModel;
     }
@@ -53,6 +53,11 @@ class PTM extends LongitudinalModelBase {
         initTables();
     }
 
+    @Override
+    public void reset() {
+        wienerProcess.reset();
+    }
+
     private void initNoise() {
         NoiseParameter noiseParameter = new NoiseParameter();
         noiseParameter.setFluctStrength(1); // standard wiener process
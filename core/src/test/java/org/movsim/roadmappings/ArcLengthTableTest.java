@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.roadmappings;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.movsim.roadmappings.LaneGeometries.LaneGeometry;
+
+public class ArcLengthTableTest {
+
+    private static final double delta = 1e-6;
+
+    private LaneGeometries laneGeometries;
+
+    @Before
+    public void setUp() {
+        laneGeometries = new LaneGeometries();
+        laneGeometries.setRight(new LaneGeometry(2));
+    }
+
+    private static double distance(PosTheta p0, PosTheta p1) {
+        final double dx = p1.x - p0.x;
+        final double dy = p1.y - p0.y;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    @Test
+    public final void testTableWithinMaxError() {
+        final RoadMappingArc arc = new RoadMappingArc(laneGeometries, 0, 10, 20, 0.3, 150, 0.05);
+        final ArcLengthTable table = new ArcLengthTable(arc.roadLength(), new ArcLengthTable.Curve() {
+            @Override
+            public PosTheta map(double roadPos, PosTheta posTheta) {
+                return arc.map(roadPos, 0, posTheta);
+            }
+        });
+        assertTrue(table.getMaxError() <= ArcLengthTable.MAX_ERROR);
+        assertTrue(table.size() > 2);
+        final PosTheta expected = new PosTheta();
+        final PosTheta actual = new PosTheta();
+        for (double roadPos = 0; roadPos <= arc.roadLength(); roadPos += 0.37) {
+            arc.map(roadPos, 0, expected);
+            table.map(roadPos, actual);
+            assertTrue(distance(expected, actual) <= ArcLengthTable.MAX_ERROR);
+        }
+    }
+
+    @Test
+    public final void testSpiralWithConstantCurvatureIsArc() {
+        final double curvature = -0.02;
+        final RoadMappingArc arc = new RoadMappingArc(laneGeometries, 0, 10, 20, 1.2, 100, curvature);
+        final RoadMappingSpiral spiral = new RoadMappingSpiral(laneGeometries, 0, 10, 20, 1.2, 100, curvature,
+                curvature);
+        final PosTheta expected = new PosTheta();
+        final PosTheta actual = new PosTheta();
+        for (double roadPos = 0; roadPos <= arc.roadLength(); roadPos += 2.5) {
+            for (final double lateralOffset : new double[] { -3.5, 0, 3.5 }) {
+                arc.map(roadPos, lateralOffset, expected);
+                spiral.map(roadPos, lateralOffset, actual);
+                assertTrue(distance(expected, actual) <= ArcLengthTable.MAX_ERROR);
+                assertEquals(expected.getTheta(), actual.getTheta(), 1e-4);
+            }
+        }
+    }
+
+    @Test
+    public final void testSpiralDirection() {
+        final double length = 80;
+        final RoadMappingSpiral spiral = new RoadMappingSpiral(laneGeometries, 0, 0, 0, 0, length, 0, 0.02);
+        assertEquals(0, spiral.startPos().getTheta(), delta);
+        assertEquals(0.5 * 0.02 * length, spiral.endPos().getTheta(), delta);
+    }
+
+    @Test
+    public final void testLongSpiral() {
+        // the table of a long spiral with strongly increasing curvature needs many entries
+        final double length = 3000;
+        final double theta0 = 0.4;
+        final double startCurvature = 0.001;
+        final double curvatureChange = (0.05 - startCurvature) / length;
+        final RoadMappingSpiral spiral = new RoadMappingSpiral(laneGeometries, 0, 10, 20, theta0, length,
+                startCurvature, 0.05);
+        final PosTheta actual = new PosTheta();
+        for (double roadPos = 0; roadPos <= length; roadPos += 375) {
+            // reference by Simpson's rule from the start of the spiral with a fine step
+            final int n = 2 * (int) Math.ceil(roadPos / 0.02);
+            final double h = n > 0 ? roadPos / n : 0;
+            double sumX = 0;
+            double sumY = 0;
+            for (int i = 0; i <= n; ++i) {
+                final double s = i * h;
+                final double theta = theta0 + s * (startCurvature + 0.5 * curvatureChange * s);
+                final double weight = (i == 0 || i == n) ? 1 : (i % 2 == 0) ? 2 : 4;
+                sumX += weight * Math.cos(theta);
+                sumY += weight * Math.sin(theta);
+            }
+            spiral.map(roadPos, 0, actual);
+            assertEquals(10 + sumX * h / 3, actual.x, ArcLengthTable.MAX_ERROR);
+            assertEquals(20 + sumY * h / 3, actual.y, ArcLengthTable.MAX_ERROR);
+        }
+    }
+
+    @Test
+    public final void testBezierArcLengthParameterization() {
+        final RoadMappingBezier bezier = new RoadMappingBezier(laneGeometries, 0, 0, 100, 50, 70, -10);
+        final double step = 0.5;
+        final PosTheta p0 = bezier.map(0, 0, new PosTheta());
+        final PosTheta p1 = new PosTheta();
+        for (double roadPos = step; roadPos <= bezier.roadLength(); roadPos += step) {
+            bezier.map(roadPos, 0, p1);
+            // equally long road sections map onto (almost) equally long chords
+            assertEquals(step, distance(p0, p1), 0.01 * step);
+            p0.x = p1.x;
+            p0.y = p1.y;
+        }
+        assertEquals(0, distance(bezier.map(bezier.roadLength(), 0, p1), bezier.endPos()), ArcLengthTable.MAX_ERROR);
+    }
+}
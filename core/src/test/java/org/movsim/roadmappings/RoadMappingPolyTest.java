@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.roadmappings;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.movsim.roadmappings.LaneGeometries.LaneGeometry;
+
+public class RoadMappingPolyTest {
+
+    private static final double delta = 1e-9;
+    private static final double LATERAL_OFFSET = -3.5;
+
+    private RoadMappingPoly roadMapping;
+
+    @Before
+    public void setUp() {
+        final LaneGeometries laneGeometries = new LaneGeometries();
+        laneGeometries.setRight(new LaneGeometry(2));
+        roadMapping = new RoadMappingPoly(laneGeometries, 0, 0, 50, 0);
+        for (int i = 0; i < 100; i++) {
+            roadMapping.addArc(0, 50 + i, i, 0.01 * i, 10 + i % 7, i % 2 == 0 ? 0.02 : -0.02);
+            roadMapping.addLinePointRelative(5 + i % 3, 3);
+        }
+    }
+
+    private static void assertPosTheta(PosTheta expected, PosTheta actual) {
+        assertEquals(expected.x, actual.x, delta);
+        assertEquals(expected.y, actual.y, delta);
+        assertEquals(expected.cosTheta, actual.cosTheta, delta);
+        assertEquals(expected.sinTheta, actual.sinTheta, delta);
+    }
+
+    @Test
+    public final void testMapFindsContainingRoadMapping() {
+        final PosTheta expected = new PosTheta();
+        final PosTheta actual = new PosTheta();
+        double start = 0;
+        for (final RoadMapping part : roadMapping) {
+            for (final double fraction : new double[] { 0.3, 0.7, 1.0 }) {
+                final double pos = fraction * part.roadLength();
+                part.map(pos, LATERAL_OFFSET, expected);
+                assertSame(actual, roadMapping.map(start + pos, LATERAL_OFFSET, actual));
+                assertPosTheta(expected, actual);
+            }
+            start += part.roadLength();
+        }
+        assertEquals(roadMapping.roadLength(), start, 1e-6);
+    }
+
+    @Test
+    public final void testMapBeyondEndUsesLastRoadMapping() {
+        RoadMapping last = null;
+        for (final RoadMapping part : roadMapping) {
+            last = part;
+        }
+        final PosTheta expected = last.map(last.roadLength() + 2.0, LATERAL_OFFSET, new PosTheta());
+        assertPosTheta(expected, roadMapping.map(roadMapping.roadLength() + 2.0, LATERAL_OFFSET, new PosTheta()));
+    }
+
+    @Test
+    public final void testMapWithSuppliedPosThetaLeavesSharedPosThetaUntouched() {
+        final PosTheta shared = roadMapping.map(0, 0);
+        final double x = shared.x;
+        final double y = shared.y;
+        final PosTheta posTheta = roadMapping.map(0.5 * roadMapping.roadLength(), LATERAL_OFFSET, new PosTheta());
+        assertEquals(x, shared.x, 0);
+        assertEquals(y, shared.y, 0);
+        assertPosTheta(roadMapping.map(0.5 * roadMapping.roadLength(), LATERAL_OFFSET), posTheta);
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.simulator.observer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+
+import org.junit.Test;
+import org.movsim.autogen.DecisionPointType;
+import org.movsim.autogen.DecisionPointsType;
+import org.movsim.autogen.Road;
+import org.movsim.autogen.RouteAlternativeType;
+import org.movsim.autogen.Routes;
+import org.movsim.autogen.ServiceProviderType;
+import org.movsim.simulator.roadnetwork.Lanes;
+import org.movsim.simulator.roadnetwork.Link;
+import org.movsim.simulator.roadnetwork.RoadNetwork;
+import org.movsim.simulator.roadnetwork.RoadNetworkUtils;
+import org.movsim.simulator.roadnetwork.RoadSegment;
+import org.movsim.simulator.roadnetwork.routing.Routing;
+import org.movsim.simulator.vehicles.Vehicle;
+import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.IDM;
+
+/**
+ * Test module for the incremental travel time estimation of the ServiceProvider class.
+ */
+@SuppressWarnings("static-method")
+public class ServiceProviderTest {
+
+    private static final double DELTA = 1e-9;
+
+    private static RoadSegment newRoadSegment(RoadNetwork roadNetwork, String userId, double roadLength) {
+        final RoadSegment roadSegment = new RoadSegment(roadLength, 1);
+        roadSegment.setUserId(userId);
+        roadNetwork.add(roadSegment);
+        return roadSegment;
+    }
+
+    private static org.movsim.autogen.Route newRoute(String label, String... roadIds) {
+        final org.movsim.autogen.Route route = new org.movsim.autogen.Route();
+        route.setLabel(label);
+        for (String roadId : roadIds) {
+            final Road road = new Road();
+            road.setId(roadId);
+            route.getRoad().add(road);
+        }
+        return route;
+    }
+
+    private static Vehicle newVehicle(double rearPosition, double speed) {
+        final Vehicle vehicle = new Vehicle(rearPosition, speed, Lanes.LANE1, 5.0, 2.5);
+        vehicle.setLongitudinalModel(new IDM(33.0, 0.5, 3.0, 1.5, 2.0, 5.0));
+        return vehicle;
+    }
+
+    @Test
+    public final void testIncrementalRouteTravelTimes() {
+        final RoadNetwork roadNetwork = new RoadNetwork();
+        final RoadSegment a = newRoadSegment(roadNetwork, "a", 500.0);
+        final RoadSegment b = newRoadSegment(roadNetwork, "b", 1000.0);
+        final RoadSegment c = newRoadSegment(roadNetwork, "c", 1500.0);
+        Link.addJoin(a, b);
+        Link.addJoin(b, c);
+
+        final Routes routes = new Routes();
+        routes.getRoute().add(newRoute("A1", "a", "b"));
+        routes.getRoute().add(newRoute("A2", "b", "c"));
+        final Routing routing = new Routing(routes, roadNetwork);
+
+        final DecisionPointType decisionPointType = new DecisionPointType();
+        decisionPointType.setRoadId("a");
+        for (String label : new String[] { "A1", "A2" }) {
+            final RouteAlternativeType alternativeType = new RouteAlternativeType();
+            alternativeType.setRoute(label);
+            decisionPointType.getRouteAlternative().add(alternativeType);
+        }
+        final DecisionPointsType decisionPointsType = new DecisionPointsType();
+        decisionPointsType.getDecisionPoint().add(decisionPointType);
+        final ServiceProviderType configuration = new ServiceProviderType();
+        configuration.setLabel("provider");
+        configuration.setDecisionPoints(decisionPointsType);
+        final ServiceProvider serviceProvider = new ServiceProvider(configuration, routing, roadNetwork);
+
+        final DecisionPoint decisionPoint = serviceProvider.getDecisionPoints().get("a");
+        checkTravelTimes(decisionPoint);
+
+        // congestion on the road segment shared by both routes
+        b.addVehicle(newVehicle(300.0, 2.0));
+        b.addVehicle(newVehicle(600.0, 0.0));
+        c.addVehicle(newVehicle(100.0, 10.0));
+        for (RoadSegment roadSegment : roadNetwork) {
+            roadSegment.updateTravelTimeEstimate();
+        }
+        checkTravelTimes(decisionPoint);
+
+        serviceProvider.timeStep(0.1, 0.0, 0);
+        for (RouteAlternative alternative : decisionPoint) {
+            assertEquals(alternative.getTravelTime(), alternative.getDisutility(), DELTA);
+        }
+        final Iterator<RouteAlternative> alternatives = decisionPoint.iterator();
+        final RouteAlternative a1 = alternatives.next();
+        final RouteAlternative a2 = alternatives.next();
+        assertEquals("A1", a1.getRoute().getName());
+        // deterministic choice of the faster route
+        assertEquals(1.0, a1.getProbability(), DELTA);
+        assertEquals(0.0, a2.getProbability(), DELTA);
+        assertSame(a1, decisionPoint.selectAlternative(0, 0.999));
+
+        // logit choice with the cumulative probabilities of the uncertainty bucket
+        final double uncertainty = 20;
+        final double p1 = 1 / (1 + Math.exp((a1.getDisutility() - a2.getDisutility()) / uncertainty));
+        assertSame(a1, decisionPoint.selectAlternative(uncertainty, p1 - 1e-6));
+        assertSame(a2, decisionPoint.selectAlternative(uncertainty, p1 + 1e-6));
+        assertSame(a1, decisionPoint.selectAlternative(0, p1 + 1e-6));
+
+        // accumulated rounding errors are removed by recomputing the travel times from scratch
+        a2.addTravelTime(1e-3);
+        decisionPoint.setChanged(false);
+        decisionPoint.recalcTravelTimes();
+        assertTrue(decisionPoint.hasChanged());
+        checkTravelTimes(decisionPoint);
+    }
+
+    private static void checkTravelTimes(DecisionPoint decisionPoint) {
+        for (RouteAlternative alternative : decisionPoint) {
+            assertEquals(RoadNetworkUtils.instantaneousTravelTimeOnGrid(alternative.getRoute(),
+                    RoadSegment.GRID_LENGTH_TRAVELTIME_ESTIMATION), alternative.getTravelTime(), DELTA);
+        }
+    }
+
+}
@@ -27,7 +27,14 @@ package org.movsim.simulator.roadnetwork;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -35,6 +42,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.movsim.autogen.Inflow;
+import org.movsim.simulator.roadnetwork.boundaries.InflowDataReaders;
 import org.movsim.simulator.roadnetwork.boundaries.InflowTimeSeries;
 
 public class InflowTimeSeriesTest {
@@ -86,4 +94,77 @@ public class InflowTimeSeriesTest {
         assertEquals(12.0, inflowTimeSeries.getSpeed(900.0), delta);
     }
 
+    @Test
+    public final void testBackwardTime() {
+        assertEquals(1500.0 / 3600.0, inflowTimeSeries.getFlowPerLane(750.0), delta);
+        assertEquals(600.0 / 3600.0, inflowTimeSeries.getFlowPerLane(300.0), delta);
+        assertEquals(1800.0 / 3600.0, inflowTimeSeries.getFlowPerLane(1000.0), delta);
+    }
+
+    @Test
+    public final void testCsvFile() throws IOException {
+        final File file = File.createTempFile("inflow", ".csv");
+        file.deleteOnExit();
+        try (PrintWriter writer = new PrintWriter(file)) {
+            writer.println("# t[s], q[1/h], v[m/s]");
+            writer.println("0, 0, 24");
+            writer.println("600; 1200; 24");
+            writer.println("");
+            writer.println("900 1800 12");
+        }
+        final InflowTimeSeries streamed = new InflowTimeSeries(file);
+        for (double time = 0; time <= 1000; time += 0.5) {
+            assertEquals(inflowTimeSeries.getFlowPerLane(time), streamed.getFlowPerLane(time), delta);
+            assertEquals(inflowTimeSeries.getSpeed(time), streamed.getSpeed(time), delta);
+        }
+        streamed.onShutDown();
+    }
+
+    @Test
+    public final void testBinaryFile() throws IOException {
+        final File file = File.createTempFile("inflow", InflowDataReaders.BINARY_EXTENSION);
+        file.deleteOnExit();
+        try (DataOutputStream output = new DataOutputStream(new FileOutputStream(file))) {
+            final double[] values = { 0, 0, 24, 600, 1200, 24, 900, 1800, 12 };
+            for (double value : values) {
+                output.writeDouble(value);
+            }
+        }
+        final InflowTimeSeries streamed = new InflowTimeSeries(file);
+        assertEquals(1500.0 / 3600.0, streamed.getFlowPerLane(750.0), delta);
+        assertEquals(18.0, streamed.getSpeed(750.0), delta);
+        assertEquals(12.0, streamed.getSpeed(2000.0), delta);
+        streamed.onShutDown();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public final void testDecreasingTimeInList() {
+        final List<Inflow> inflowDataPoints = new ArrayList<>();
+        inflowDataPoints.add(createInflowDataPoint(0.0, 0.0, 24.0));
+        inflowDataPoints.add(createInflowDataPoint(600.0, 1200.0, 24.0));
+        inflowDataPoints.add(createInflowDataPoint(300.0, 1800.0, 12.0));
+        new InflowTimeSeries(inflowDataPoints);
+    }
+
+    @Test
+    public final void testDecreasingTimeInCsvFile() throws IOException {
+        final File file = File.createTempFile("inflow", ".csv");
+        file.deleteOnExit();
+        try (PrintWriter writer = new PrintWriter(file)) {
+            writer.println("# t[s], q[1/h], v[m/s]");
+            writer.println("0, 0, 24");
+            writer.println("600, 1200, 24");
+            writer.println("300, 1800, 12");
+        }
+        final InflowTimeSeries streamed = new InflowTimeSeries(file);
+        assertEquals(600.0 / 3600.0, streamed.getFlowPerLane(300.0), delta);
+        try {
+            streamed.getFlowPerLane(700.0);
+            fail("decreasing time not rejected");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getCause().getMessage(), e.getCause().getMessage().contains("line 4"));
+        }
+        streamed.onShutDown();
+    }
+
 }
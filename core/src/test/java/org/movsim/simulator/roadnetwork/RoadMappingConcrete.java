@@ -29,7 +29,7 @@ class RoadMappingConcrete extends RoadMapping {
     }
 
     @Override
-    public PosTheta map(double roadPos, double delta) {
+    public PosTheta map(double roadPos, double delta, PosTheta posTheta) {
         return posTheta;
     }
 }
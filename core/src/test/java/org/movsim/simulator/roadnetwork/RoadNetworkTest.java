@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.simulator.roadnetwork;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+import org.movsim.simulator.vehicles.Vehicle;
+import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.IDM;
+
+/**
+ * Test module for the indexes of the RoadNetwork class.
+ */
+@SuppressWarnings("static-method")
+public class RoadNetworkTest {
+
+    private static Vehicle newVehicle(double rearPosition, double speed, int lane) {
+        final Vehicle vehicle = new Vehicle(rearPosition, speed, lane, 5.0, 2.5);
+        vehicle.setLongitudinalModel(new IDM(33.0, 0.5, 3.0, 1.5, 2.0, 5.0));
+        return vehicle;
+    }
+
+    @Test
+    public final void testFindById() {
+        RoadSegment.resetNextId();
+        final RoadNetwork roadNetwork = new RoadNetwork();
+        final RoadSegment r0 = new RoadSegment(1000.0, 1);
+        r0.setUserId("r0");
+        final RoadSegment r1 = new RoadSegment(500.0, 2);
+        r1.setUserId("r1");
+        roadNetwork.add(r0);
+        roadNetwork.add(r1);
+
+        assertSame(r0, roadNetwork.findById(r0.id()));
+        assertSame(r1, roadNetwork.findById(r1.id()));
+        assertNull(roadNetwork.findById(r1.id() + 1));
+        assertSame(r0, roadNetwork.findByUserId("r0"));
+        assertSame(r1, roadNetwork.findByUserId("r1"));
+        assertNull(roadNetwork.findByUserId("r2"));
+
+        roadNetwork.clear();
+        assertNull(roadNetwork.findByUserId("r0"));
+    }
+
+    @Test
+    public final void testFindVehicleById() {
+        RoadSegment.resetNextId();
+        Vehicle.resetNextId();
+        final RoadNetwork roadNetwork = new RoadNetwork();
+        final RoadSegment r0 = new RoadSegment(1000.0, 1);
+        final RoadSegment r1 = new RoadSegment(500.0, 1);
+        Link.addJoin(r0, r1);
+        // vehicle added before the road segment is added to the network
+        final Vehicle v0 = newVehicle(100.0, 10.0, Lanes.LANE1);
+        r0.addVehicle(v0);
+        roadNetwork.add(r0);
+        roadNetwork.add(r1);
+        final Vehicle v1 = newVehicle(998.0, 10.0, Lanes.LANE1);
+        r0.addVehicle(v1);
+
+        assertSame(v0, roadNetwork.findVehicleById(v0.getId()));
+        assertSame(v1, roadNetwork.findVehicleById(v1.getId()));
+        assertSame(r0.laneSegment(Lanes.LANE1), roadNetwork.findLaneSegment(v1));
+
+        // outflow onto the next road segment keeps the vehicle in the index
+        v1.setRearPosition(1001.0);
+        r0.outFlow(0.1, 0.0, 0);
+        assertSame(v1, roadNetwork.findVehicleById(v1.getId()));
+        assertSame(r1.laneSegment(Lanes.LANE1), roadNetwork.findLaneSegment(v1));
+
+        // removal from the road network removes the vehicle from the index
+        r1.removeFrontVehicleOnLane(Lanes.LANE1);
+        assertNull(roadNetwork.findVehicleById(v1.getId()));
+
+        r0.laneSegment(Lanes.LANE1).removeVehicle(v0);
+        assertNull(roadNetwork.findVehicleById(v0.getId()));
+        assertEquals(0, r0.getVehicleCount());
+
+        // appending a vehicle at the start of a road segment adds it to the index
+        final Vehicle v2 = newVehicle(0.0, 10.0, Lanes.LANE1);
+        r0.appendVehicle(v2);
+        assertSame(v2, roadNetwork.findVehicleById(v2.getId()));
+        assertSame(r0.laneSegment(Lanes.LANE1), roadNetwork.findLaneSegment(v2));
+    }
+}
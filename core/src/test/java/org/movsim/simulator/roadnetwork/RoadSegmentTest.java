@@ -710,6 +710,42 @@ public class RoadSegmentTest {
         assertEquals(1, r0.laneSegment(Lanes.LANE2).vehicleCount());
     }
 
+    /**
+     * Test method for {@link org.movsim.simulator.roadnetwork.RoadSegment#makeLaneChanges(double, double, long)}, two
+     * vehicles changing into the same gap.
+     */
+    @Test
+    public final void testMakeLaneChangesIntoSameGap() {
+        RoadSegment.resetNextId();
+        Vehicle.resetNextId();
+
+        final int laneCount = 3;
+        final RoadSegment r0 = new RoadSegment(1000.0, laneCount);
+
+        // obstacles in the outer lanes, so the vehicles behind them both want to change into the middle lane
+        r0.addVehicle(newObstacle(600.0, Lanes.LANE1));
+        r0.addVehicle(newObstacle(600.0, Lanes.LANE3));
+        final Vehicle v1 = newVehicle(593.0, 5.0, Lanes.LANE1);
+        v1.setLaneChangeModel(newLaneChangeModel(v1));
+        r0.addVehicle(v1);
+        final Vehicle v3 = newVehicle(592.0, 5.0, Lanes.LANE3);
+        v3.setLaneChangeModel(newLaneChangeModel(v3));
+        r0.addVehicle(v3);
+        final Vehicle v2 = newVehicle(200.0, 5.0, Lanes.LANE2);
+        r0.addVehicle(v2);
+
+        r0.makeLaneChanges(0.25, 0.0, 0);
+        // the lane change from the lower lane has priority, the other one is cancelled
+        assertEquals(Lanes.LANE2, v1.lane());
+        assertEquals(Lanes.LANE3, v3.lane());
+        assertEquals(false, v3.inProcessOfLaneChange());
+        assertEquals(1, r0.laneSegment(Lanes.LANE1).vehicleCount());
+        assertEquals(2, r0.laneSegment(Lanes.LANE2).vehicleCount());
+        assertEquals(v1, r0.laneSegment(Lanes.LANE2).getVehicle(0));
+        assertEquals(v2, r0.laneSegment(Lanes.LANE2).getVehicle(1));
+        assertEquals(2, r0.laneSegment(Lanes.LANE3).vehicleCount());
+    }
+
     /**
      * Test method for {@link org.movsim.simulator.roadnetwork.RoadSegment#updateVehiclePositionsAndSpeeds(double, double, long)}
      */
@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.simulator.roadnetwork.boundaries;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import org.junit.Test;
+import org.movsim.simulator.roadnetwork.boundaries.MicroBoundaryDataReader.Record;
+import org.movsim.simulator.vehicles.Vehicle;
+
+public class MicroBoundaryDataReadersTest {
+    private static final double delta = 0.00001;
+
+    static File createTempFile(String suffix, String... lines) throws IOException {
+        final File file = File.createTempFile("microbc", suffix);
+        file.deleteOnExit();
+        try (PrintWriter writer = new PrintWriter(file)) {
+            for (String line : lines) {
+                writer.println(line);
+            }
+        }
+        return file;
+    }
+
+    @Test
+    public final void testXmlFileFiltersRoad() throws IOException {
+        final File file = createTempFile(".xml", "<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+                "<MovsimMicroscopicBoundaryConditions time_format=\"HH:mm:ss\">",
+                "  <RoadMicroscopicBoundaryConditions id=\"2\"><BoundaryConditions>",
+                "    <BoundaryCondition time=\"00:00:05\" label=\"other\" />",
+                "  </BoundaryConditions></RoadMicroscopicBoundaryConditions>",
+                "  <RoadMicroscopicBoundaryConditions id=\"1\"><BoundaryConditions>",
+                "    <BoundaryCondition time=\"00:00:20\" label=\"ACC1\" lane=\"2\" speed=\"30\" length=\"10\">",
+                "      <VehicleUserData key=\"comment\" value=\"car 1\" />",
+                "      <VehicleUserData key=\"weight\" value=\"1000\" />",
+                "    </BoundaryCondition>",
+                "    <BoundaryCondition time=\"00:01:00\" label=\"ACC2\" destination=\"4\" />",
+                "  </BoundaryConditions></RoadMicroscopicBoundaryConditions>",
+                "</MovsimMicroscopicBoundaryConditions>");
+        final MicroscopicBoundaryConditions boundaryConditions = new MicroscopicBoundaryConditions(file);
+        assertEquals("HH:mm:ss", boundaryConditions.getTimeFormat());
+        final MicroBoundaryDataReader reader = boundaryConditions.openReader("1", 10000);
+        final Record record = new Record();
+
+        assertTrue(reader.next(record));
+        assertEquals(10, record.time, delta);
+        assertEquals("ACC1", record.label);
+        assertEquals(2, record.lane);
+        assertEquals(30, record.speed, delta);
+        assertEquals(10, record.length, delta);
+        assertEquals("car 1", record.userData.get("comment"));
+        assertEquals("1000", record.userData.get("weight"));
+        assertTrue(reader.next(record));
+        assertEquals(50, record.time, delta);
+        assertEquals("ACC2", record.label);
+        assertEquals("4", record.destination);
+        assertNull(record.route);
+        assertEquals(Vehicle.LANE_NOT_SET, record.lane);
+        assertTrue(Double.isNaN(record.speed));
+        assertNull(record.userData);
+        assertFalse(reader.next(record));
+        reader.close();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public final void testXmlFileWithDuplicateRoad() throws IOException {
+        final File file = createTempFile(".xml", "<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+                "<MovsimMicroscopicBoundaryConditions>",
+                "  <RoadMicroscopicBoundaryConditions id=\"1\"><BoundaryConditions/></RoadMicroscopicBoundaryConditions>",
+                "  <RoadMicroscopicBoundaryConditions id=\"1\"><BoundaryConditions/></RoadMicroscopicBoundaryConditions>",
+                "</MovsimMicroscopicBoundaryConditions>");
+        new MicroscopicBoundaryConditions(file);
+    }
+
+    @Test
+    public final void testCsvFileFiltersRoad() throws IOException {
+        final File file = createTempFile(".csv", "# roadId, time, label, lane, speed, length, route, destination",
+                "1, 10.5, ACC1", "2; 11; ACC2; 1", "", "1; 12; ACC2; ; 15; ; ; 4; comment=car 2; weight=1000");
+        final MicroBoundaryDataReader reader = MicroBoundaryDataReaders.open(file, "1", "", 0);
+        final Record record = new Record();
+
+        assertTrue(reader.next(record));
+        assertEquals(10.5, record.time, delta);
+        assertEquals("ACC1", record.label);
+        assertEquals(Vehicle.LANE_NOT_SET, record.lane);
+        assertTrue(reader.next(record));
+        assertEquals(12, record.time, delta);
+        assertEquals(Vehicle.LANE_NOT_SET, record.lane);
+        assertEquals(15, record.speed, delta);
+        assertTrue(Double.isNaN(record.length));
+        assertNull(record.route);
+        assertEquals("4", record.destination);
+        assertEquals("car 2", record.userData.get("comment"));
+        assertEquals("1000", record.userData.get("weight"));
+        assertFalse(reader.next(record));
+        reader.close();
+    }
+
+    @Test
+    public final void testBinaryFile() throws IOException {
+        final File file = File.createTempFile("microbc", MicroBoundaryDataReaders.BINARY_EXTENSION);
+        file.deleteOnExit();
+        try (DataOutputStream output = new DataOutputStream(new FileOutputStream(file))) {
+            for (String roadId : new String[] { "2", "1" }) {
+                output.writeUTF(roadId);
+                output.writeDouble(30);
+                output.writeUTF("ACC1");
+                output.writeInt(1);
+                output.writeDouble(20);
+                output.writeDouble(Double.NaN);
+                output.writeUTF("exit");
+                output.writeUTF("");
+                output.writeInt(1);
+                output.writeUTF("weight");
+                output.writeUTF("2000");
+            }
+        }
+        final MicroBoundaryDataReader reader = MicroBoundaryDataReaders.open(file, "1", "", 0);
+        final Record record = new Record();
+
+        assertTrue(reader.next(record));
+        assertEquals(30, record.time, delta);
+        assertEquals(1, record.lane);
+        assertEquals(20, record.speed, delta);
+        assertTrue(Double.isNaN(record.length));
+        assertEquals("exit", record.route);
+        assertNull(record.destination);
+        assertEquals("2000", record.userData.get("weight"));
+        assertFalse(reader.next(record));
+        reader.close();
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.simulator.roadnetwork.boundaries;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+import org.movsim.simulator.roadnetwork.RoadNetwork;
+import org.movsim.simulator.roadnetwork.boundaries.MicroBoundaryDataReader.Record;
+import org.movsim.simulator.roadnetwork.routing.Routing;
+
+public class MicroscopicBoundaryInputDataTest {
+    private static final double delta = 0.00001;
+
+    private static MicroscopicBoundaryInputData createInputData(File file, String roadId, int lookAhead) {
+        final MicroscopicBoundaryConditions boundaryConditions = new MicroscopicBoundaryConditions(file);
+        return new MicroscopicBoundaryInputData(boundaryConditions.openReader(roadId, 0), new Routing(null,
+                new RoadNetwork()), lookAhead);
+    }
+
+    @Test
+    public final void testSortedWithinLookAhead() throws IOException {
+        final File file = MicroBoundaryDataReadersTest.createTempFile(".xml",
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+                "<MovsimMicroscopicBoundaryConditions time_format=\"HH:mm:ss\">",
+                "  <RoadMicroscopicBoundaryConditions id=\"1\"><BoundaryConditions>",
+                "    <BoundaryCondition time=\"00:00:20\" label=\"ACC1\" />",
+                "    <BoundaryCondition time=\"00:01:00\" label=\"ACC1\" route=\"exit\" />",
+                "    <BoundaryCondition time=\"00:00:40\" label=\"ACC2\" />",
+                "    <BoundaryCondition time=\"00:01:00\" label=\"ACC2\" />",
+                "  </BoundaryConditions></RoadMicroscopicBoundaryConditions>",
+                "</MovsimMicroscopicBoundaryConditions>");
+        final MicroscopicBoundaryInputData inputData = createInputData(file, "1", 2);
+
+        assertEquals(20, inputData.nextEntryTime(), delta);
+        assertEquals(20, inputData.pollRecord().time, delta);
+        assertEquals(40, inputData.pollRecord().time, delta);
+        // equal entry times keep the input order
+        Record record = inputData.pollRecord();
+        assertEquals(60, record.time, delta);
+        assertEquals("exit", record.route);
+        record = inputData.pollRecord();
+        assertEquals(60, record.time, delta);
+        assertEquals("ACC2", record.label);
+        assertTrue(inputData.isEmpty());
+        assertEquals(Double.POSITIVE_INFINITY, inputData.nextEntryTime(), delta);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public final void testUnsortedBeyondLookAhead() throws IOException {
+        final File file = MicroBoundaryDataReadersTest.createTempFile(".csv", "1, 10, ACC1", "1, 20, ACC1",
+                "1, 30, ACC1", "1, 15, ACC1");
+        final MicroscopicBoundaryInputData inputData = createInputData(file, "1", 2);
+        assertEquals(10, inputData.pollRecord().time, delta);
+        assertEquals(20, inputData.pollRecord().time, delta);
+    }
+
+}
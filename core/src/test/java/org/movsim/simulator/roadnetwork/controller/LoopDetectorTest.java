@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.simulator.roadnetwork.controller;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.movsim.simulator.roadnetwork.Lanes;
+import org.movsim.simulator.roadnetwork.RoadSegment;
+import org.movsim.simulator.roadnetwork.controller.DetectorAggregation.AggregationCallback;
+import org.movsim.simulator.vehicles.Vehicle;
+
+public class LoopDetectorTest {
+    private static final double delta = 0.00001;
+
+    private static final double DT = 0.2;
+
+    private static final double DETECTOR_POSITION = 2500;
+
+    /** aggregated values of all sample intervals of a detector aggregation */
+    private static final class Recorder implements AggregationCallback {
+        final List<Double> times = new ArrayList<>();
+        final List<int[]> vehCounts = new ArrayList<>();
+        final List<Double> flowsAllLanes = new ArrayList<>();
+        final List<Double> meanSpeedsAllLanes = new ArrayList<>();
+        final List<double[]> meanSpeeds = new ArrayList<>();
+        final List<double[]> meanTimegapsHarmonic = new ArrayList<>();
+
+        @Override
+        public void aggregated(DetectorAggregation aggregation, double simulationTime) {
+            times.add(simulationTime);
+            vehCounts.add(new int[] { aggregation.getVehCountOutput(0), aggregation.getVehCountOutput(1) });
+            flowsAllLanes.add(aggregation.getFlowAllLanes());
+            meanSpeedsAllLanes.add(aggregation.getMeanSpeedAllLanes());
+            meanSpeeds.add(new double[] { aggregation.getMeanSpeed(0), aggregation.getMeanSpeed(1) });
+            meanTimegapsHarmonic.add(new double[] { aggregation.getMeanTimegapHarmonic(0),
+                    aggregation.getMeanTimegapHarmonic(1) });
+        }
+    }
+
+    /**
+     * Adds vehicles at constant speed that cross the detector at the given times.
+     */
+    private static void addVehicles(RoadSegment roadSegment, int lane, double speed, double firstCrossingTime,
+            double headway, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            final double crossingTime = firstCrossingTime + i * headway;
+            final Vehicle vehicle = new Vehicle(DETECTOR_POSITION - speed * crossingTime, speed, lane, 5.0, 2.5);
+            roadSegment.addVehicle(vehicle);
+        }
+    }
+
+    @Test
+    public final void testAggregationOfTwoSampleIntervals() {
+        RoadSegment.resetNextId();
+        Vehicle.resetNextId();
+        final RoadSegment roadSegment = new RoadSegment(3000.0, 2);
+        final LoopDetector detector = new LoopDetector(roadSegment, DETECTOR_POSITION, 10,
+                Arrays.asList(30.0), false, false);
+        detector.createSignalPositions();
+        final Recorder recorder10s = new Recorder();
+        final Recorder recorder30s = new Recorder();
+        assertEquals(2, detector.getAggregations().size());
+        detector.getAggregations().get(0).addAggregationCallback(recorder10s);
+        detector.getAggregations().get(1).addAggregationCallback(recorder30s);
+
+        // lane 1: every 2s at 20m/s, lane 2: every 5s at 10m/s, crossings between the update steps
+        addVehicles(roadSegment, Lanes.LANE1, 20, 0.5, 2, 50);
+        addVehicles(roadSegment, Lanes.LANE2, 10, 1.3, 5, 20);
+
+        // 100s with base bins of 1s, the ring buffer of 30 base bins wraps around three times
+        for (int iteration = 0; iteration <= 500; iteration++) {
+            final double time = iteration * DT;
+            detector.timeStep(DT, time, iteration);
+            roadSegment.updateVehiclePositionsAndSpeeds(DT, time, iteration);
+            roadSegment.outFlow(DT, time, iteration);
+            roadSegment.updateSignalPointsAfterOutflowAndInflow(time);
+        }
+
+        assertEquals(10, recorder10s.times.size());
+        for (int i = 0; i < recorder10s.times.size(); i++) {
+            assertEquals(10 * (i + 1), recorder10s.times.get(i), delta);
+            assertEquals(5, recorder10s.vehCounts.get(i)[0]);
+            assertEquals(2, recorder10s.vehCounts.get(i)[1]);
+            assertEquals(7 / (10. * 2), recorder10s.flowsAllLanes.get(i), delta);
+            assertEquals(20, recorder10s.meanSpeeds.get(i)[0], delta);
+            assertEquals(10, recorder10s.meanSpeeds.get(i)[1], delta);
+            assertEquals((5 * 20 + 2 * 10) / 7., recorder10s.meanSpeedsAllLanes.get(i), delta);
+        }
+        // the first vehicle of each lane has no brut time gap
+        assertEquals(4 * 0.5 / 5, recorder10s.meanTimegapsHarmonic.get(0)[0], delta);
+        assertEquals(0.5, recorder10s.meanTimegapsHarmonic.get(9)[0], delta);
+        assertEquals(0.2, recorder10s.meanTimegapsHarmonic.get(9)[1], delta);
+
+        assertEquals(3, recorder30s.times.size());
+        for (int i = 0; i < recorder30s.times.size(); i++) {
+            assertEquals(30 * (i + 1), recorder30s.times.get(i), delta);
+            assertEquals(15, recorder30s.vehCounts.get(i)[0]);
+            assertEquals(6, recorder30s.vehCounts.get(i)[1]);
+            assertEquals(21 / (30. * 2), recorder30s.flowsAllLanes.get(i), delta);
+            assertEquals((15 * 20 + 6 * 10) / 21., recorder30s.meanSpeedsAllLanes.get(i), delta);
+        }
+        assertEquals(0.5, recorder30s.meanTimegapsHarmonic.get(2)[0], delta);
+
+        // the main aggregation is exposed by the detector
+        assertEquals(5 / 10., detector.getFlow(0), delta);
+        assertEquals(50, detector.getVehCumulatedCountOutput(0));
+        assertEquals(20, detector.getVehCumulatedCountOutput(1));
+    }
+
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.simulator.roadnetwork.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.movsim.autogen.ControllerGroup;
+import org.movsim.autogen.Phase;
+import org.movsim.autogen.TrafficLightCondition;
+import org.movsim.autogen.TrafficLightState;
+import org.movsim.autogen.TrafficLightStatus;
+import org.movsim.network.autogen.opendrive.OpenDRIVE;
+import org.movsim.network.autogen.opendrive.OpenDRIVE.Road.Signals.Signal;
+import org.movsim.simulator.roadnetwork.LaneSegment;
+import org.movsim.simulator.roadnetwork.Lanes;
+import org.movsim.simulator.roadnetwork.RoadNetwork;
+import org.movsim.simulator.roadnetwork.RoadSegment;
+import org.movsim.simulator.vehicles.Vehicle;
+import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.IDM;
+
+/**
+ * Compares the event-driven updates of the traffic light controllers by {@link TrafficLights} with updates of the
+ * controllers in every time step.
+ */
+public class TrafficLightsTest {
+
+    private static final double DT = 0.2;
+
+    private static final int ITERATIONS = 3000;
+
+    private static final double ROAD_LENGTH = 2000;
+
+    private static final double LIGHT_POSITION = 1200;
+
+    /** entry times (s) of the vehicles approaching the light with the request condition */
+    private static final double[] ENTRY_TIMES = { 0, 30, 35, 200, 400 };
+
+    /**
+     * A fixed-time controller and a controller switching to green on request, each controlling the light on its own
+     * road segment, with vehicles approaching the light with the request condition.
+     */
+    private static final class Setup {
+        final RoadNetwork roadNetwork = new RoadNetwork();
+        final RoadSegment fixedTimeRoad = new RoadSegment(ROAD_LENGTH, 1);
+        final RoadSegment requestRoad = new RoadSegment(ROAD_LENGTH, 1);
+        final TrafficLight fixedTimeLight = createTrafficLight("1", "fixed", fixedTimeRoad);
+        final TrafficLight requestLight = createTrafficLight("2", "request", requestRoad);
+        final List<TrafficLightStatus> fixedTimeStates = new ArrayList<>();
+        final List<TrafficLightStatus> requestStates = new ArrayList<>();
+        final TrafficLights trafficLights;
+        final List<TrafficLightController> perStepControllers = new ArrayList<>();
+
+        Setup(boolean scheduled) {
+            roadNetwork.add(fixedTimeRoad);
+            roadNetwork.add(requestRoad);
+            final org.movsim.autogen.TrafficLights input = new org.movsim.autogen.TrafficLights();
+            input.getControllerGroup().add(createFixedTimeControllerGroup());
+            input.getControllerGroup().add(createRequestControllerGroup());
+            if (scheduled) {
+                trafficLights = new TrafficLights(input, roadNetwork);
+            } else {
+                trafficLights = null;
+                for (ControllerGroup controllerGroup : input.getControllerGroup()) {
+                    final TrafficLightController controller = TrafficLightControllerFactory.create(controllerGroup);
+                    controller.add(controllerGroup.getId().equals("fixed") ? fixedTimeLight : requestLight);
+                    perStepControllers.add(controller);
+                }
+            }
+            fixedTimeLight.createSignalPositions();
+            requestLight.createSignalPositions();
+        }
+
+        void run() {
+            int nextEntry = 0;
+            for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+                final double time = iteration * DT;
+                if (nextEntry < ENTRY_TIMES.length && time >= ENTRY_TIMES[nextEntry]) {
+                    requestRoad.addVehicle(newVehicle());
+                    ++nextEntry;
+                }
+                if (trafficLights != null) {
+                    trafficLights.timeStep(DT, time, iteration);
+                } else {
+                    for (TrafficLightController controller : perStepControllers) {
+                        controller.update(DT, time, iteration);
+                    }
+                }
+                for (RoadSegment roadSegment : roadNetwork) {
+                    roadSegment.updateRoadConditions(DT, time, iteration);
+                    roadSegment.updateVehicleAccelerations(DT, time, iteration);
+                    roadSegment.updateVehiclePositionsAndSpeeds(DT, time, iteration);
+                    roadSegment.outFlow(DT, time, iteration);
+                    roadSegment.inFlow(DT, time, iteration);
+                    roadSegment.updateSignalPointsAfterOutflowAndInflow(time);
+                    final LaneSegment laneSegment = roadSegment.laneSegment(Lanes.LANE1);
+                    if (laneSegment.vehicleCount() > 0 && laneSegment.getVehicle(0).getRearPosition() > ROAD_LENGTH) {
+                        laneSegment.removeFrontVehicleOnLane();
+                    }
+                }
+                fixedTimeStates.add(fixedTimeLight.status());
+                requestStates.add(requestLight.status());
+            }
+        }
+    }
+
+    private static Vehicle newVehicle() {
+        final Vehicle vehicle = new Vehicle(0, 15.0, Lanes.LANE1, 5.0, 2.5);
+        vehicle.setLongitudinalModel(new IDM(15.0, 1.5, 2.0, 0.0, 1.0, 1.5));
+        vehicle.setSpeedlimit(50.0 / 3.6);
+        return vehicle;
+    }
+
+    private static TrafficLight createTrafficLight(String signalId, String controllerId, RoadSegment roadSegment) {
+        final Signal signal = new Signal();
+        signal.setId(signalId);
+        signal.setS(LIGHT_POSITION);
+        final OpenDRIVE.Controller.Control control = new OpenDRIVE.Controller.Control();
+        control.setSignalId(signalId);
+        control.setType("main");
+        final OpenDRIVE.Controller controller = new OpenDRIVE.Controller();
+        controller.setId(controllerId);
+        controller.getControl().add(control);
+        final TrafficLight trafficLight = new TrafficLight(signal, controller, roadSegment);
+        roadSegment.roadObjects().add(trafficLight);
+        return trafficLight;
+    }
+
+    private static ControllerGroup createFixedTimeControllerGroup() {
+        final ControllerGroup controllerGroup = new ControllerGroup();
+        controllerGroup.setId("fixed");
+        controllerGroup.getPhase().add(createPhase(30, TrafficLightStatus.GREEN, TrafficLightCondition.NONE));
+        controllerGroup.getPhase().add(createPhase(3, TrafficLightStatus.GREEN_RED, TrafficLightCondition.NONE));
+        controllerGroup.getPhase().add(createPhase(20, TrafficLightStatus.RED, TrafficLightCondition.NONE));
+        controllerGroup.getPhase().add(createPhase(2, TrafficLightStatus.RED_GREEN, TrafficLightCondition.NONE));
+        return controllerGroup;
+    }
+
+    /**
+     * Red for a long time unless a vehicle requests green.
+     */
+    private static ControllerGroup createRequestControllerGroup() {
+        final ControllerGroup controllerGroup = new ControllerGroup();
+        controllerGroup.setId("request");
+        controllerGroup.getPhase().add(createPhase(1000, TrafficLightStatus.RED, TrafficLightCondition.REQUEST));
+        controllerGroup.getPhase().add(createPhase(2, TrafficLightStatus.RED_GREEN, TrafficLightCondition.NONE));
+        controllerGroup.getPhase().add(createPhase(15, TrafficLightStatus.GREEN, TrafficLightCondition.NONE));
+        controllerGroup.getPhase().add(createPhase(3, TrafficLightStatus.GREEN_RED, TrafficLightCondition.NONE));
+        return controllerGroup;
+    }
+
+    private static Phase createPhase(double duration, TrafficLightStatus status, TrafficLightCondition condition) {
+        final TrafficLightState state = new TrafficLightState();
+        state.setType("main");
+        state.setStatus(status);
+        state.setCondition(condition);
+        final Phase phase = new Phase();
+        phase.setDuration(duration);
+        phase.getTrafficLightState().add(state);
+        return phase;
+    }
+
+    private static List<Integer> phaseChanges(List<TrafficLightStatus> states) {
+        final List<Integer> changes = new ArrayList<>();
+        for (int i = 1; i < states.size(); i++) {
+            if (states.get(i) != states.get(i - 1)) {
+                changes.add(i);
+            }
+        }
+        return changes;
+    }
+
+    @Test
+    public final void testScheduledUpdatesEqualUpdatesInEveryStep() {
+        final Setup perStep = new Setup(false);
+        perStep.run();
+        final Setup scheduled = new Setup(true);
+        scheduled.run();
+
+        assertEquals(perStep.fixedTimeStates, scheduled.fixedTimeStates);
+        assertEquals(perStep.requestStates, scheduled.requestStates);
+
+        // the fixed-time controller switches after the phase duration of 30s and then cycles with a constant period
+        final List<Integer> changes = phaseChanges(scheduled.fixedTimeStates);
+        assertEquals(150, changes.get(0).intValue());
+        final int period = changes.get(4) - changes.get(0);
+        for (int i = 4; i < changes.size(); i++) {
+            assertEquals(period, changes.get(i) - changes.get(i - 4));
+        }
+    }
+
+    @Test
+    public final void testRequestWakesSleepingController() {
+        final Setup scheduled = new Setup(true);
+        scheduled.run();
+
+        // without request the red phase lasts 1000s, so each switch to green is caused by an approaching vehicle
+        final List<Integer> changes = phaseChanges(scheduled.requestStates);
+        assertEquals(TrafficLightStatus.RED, scheduled.requestStates.get(0));
+        assertEquals(16, changes.size());
+        for (int cycle = 0; cycle < 4; cycle++) {
+            assertEquals(TrafficLightStatus.RED_GREEN, scheduled.requestStates.get(changes.get(4 * cycle)));
+        }
+        // the vehicles entering at 0s, 30s and 35s are served in the first two cycles
+        assertTrue(changes.get(7) * DT < ENTRY_TIMES[3]);
+        // the controller sleeps in the red phase until the vehicle entering at 200s requests green
+        assertTrue(changes.get(8) * DT > ENTRY_TIMES[3] && changes.get(8) * DT < ENTRY_TIMES[4]);
+        assertTrue(changes.get(12) * DT > ENTRY_TIMES[4]);
+    }
+
+}
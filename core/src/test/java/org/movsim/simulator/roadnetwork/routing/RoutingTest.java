@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.simulator.roadnetwork.routing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.movsim.autogen.Routes;
+import org.movsim.autogen.ShortestPathAlgorithmEnum;
+import org.movsim.autogen.TravelTimeRouting;
+import org.movsim.simulator.roadnetwork.Lanes;
+import org.movsim.simulator.roadnetwork.Link;
+import org.movsim.simulator.roadnetwork.RoadNetwork;
+import org.movsim.simulator.roadnetwork.RoadSegment;
+import org.movsim.simulator.vehicles.Vehicle;
+import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.IDM;
+
+/**
+ * Test module for the shortest-path routing.
+ */
+@SuppressWarnings("static-method")
+public class RoutingTest {
+
+    /**
+     * Road a forks into the short road b and the longer roads c1, c2 which merge again into road d.
+     */
+    private static RoadNetwork createNetwork() {
+        final RoadNetwork roadNetwork = new RoadNetwork();
+        final RoadSegment a = newRoadSegment(roadNetwork, "a", 500.0, 2);
+        final RoadSegment b = newRoadSegment(roadNetwork, "b", 1000.0, 1);
+        final RoadSegment c1 = newRoadSegment(roadNetwork, "c1", 600.0, 1);
+        final RoadSegment c2 = newRoadSegment(roadNetwork, "c2", 600.0, 1);
+        final RoadSegment d = newRoadSegment(roadNetwork, "d", 500.0, 2);
+        Link.addLanePair(Lanes.LANE1, a, Lanes.LANE1, b);
+        Link.addLanePair(Lanes.LANE2, a, Lanes.LANE1, c1);
+        Link.addLanePair(Lanes.LANE1, c1, Lanes.LANE1, c2);
+        Link.addLanePair(Lanes.LANE1, b, Lanes.LANE1, d);
+        Link.addLanePair(Lanes.LANE1, c2, Lanes.LANE2, d);
+        return roadNetwork;
+    }
+
+    private static RoadSegment newRoadSegment(RoadNetwork roadNetwork, String userId, double roadLength,
+            int laneCount) {
+        final RoadSegment roadSegment = new RoadSegment(roadLength, laneCount);
+        roadSegment.setUserId(userId);
+        roadNetwork.add(roadSegment);
+        return roadSegment;
+    }
+
+    private static String roadIds(Route route) {
+        final StringBuilder sb = new StringBuilder();
+        for (RoadSegment roadSegment : route) {
+            sb.append(roadSegment.userId()).append(' ');
+        }
+        return sb.toString().trim();
+    }
+
+    private static void checkRerouting(Routing routing, RoadNetwork roadNetwork) {
+        final Route route = routing.findRoute("a", "d");
+        assertEquals("a b d", roadIds(route));
+        assertSame(route, routing.findRoute("a", "d"));
+        assertEquals("b c1", roadIds(routing.findRoute("b", "b")) + " " + roadIds(routing.findRoute("c1", "c1")));
+
+        final RoadSegment b = roadNetwork.findByUserId("b");
+        // change within threshold keeps the cached route
+        assertFalse(routing.updateTravelCost(b, 1020.0));
+        assertSame(route, routing.findRoute("a", "d"));
+
+        assertTrue(routing.updateTravelCost(b, 2000.0));
+        assertEquals("a c1 c2 d", roadIds(routing.findRoute("a", "d")));
+
+        assertTrue(routing.updateTravelCost(b, 100.0));
+        final Route rerouted = routing.findRoute("a", "d");
+        assertEquals("a b d", roadIds(rerouted));
+        assertNotSame(route, rerouted);
+    }
+
+    @Test
+    public final void testShortestPathTree() {
+        final RoadNetwork roadNetwork = createNetwork();
+        checkRerouting(new Routing(null, roadNetwork), roadNetwork);
+    }
+
+    @Test
+    public final void testLandmarks() {
+        final RoadNetwork roadNetwork = createNetwork();
+        final Routes routes = new Routes();
+        routes.setShortestPath(ShortestPathAlgorithmEnum.ALT);
+        routes.setLandmarks(2);
+        checkRerouting(new Routing(routes, roadNetwork), roadNetwork);
+    }
+
+    @Test
+    public final void testTimeDependentRerouting() {
+        final RoadNetwork roadNetwork = createNetwork();
+        final Routes routes = new Routes();
+        final TravelTimeRouting travelTimeRouting = new TravelTimeRouting();
+        travelTimeRouting.setSliceDuration(60.0);
+        travelTimeRouting.setSlices(2);
+        travelTimeRouting.setSampleInterval(10.0);
+        travelTimeRouting.setRerouteInterval(1.0);
+        routes.setTravelTimeRouting(travelTimeRouting);
+        final Routing routing = new Routing(routes, roadNetwork);
+
+        final RoadSegment a = roadNetwork.findByUserId("a");
+        final RoadSegment b = roadNetwork.findByUserId("b");
+        final RoadSegment d = roadNetwork.findByUserId("d");
+        assertEquals("a b d", roadIds(routing.findRoute(a, d, 0.0)));
+
+        final Vehicle vehicle = new Vehicle(10.0, 20.0, Lanes.LANE1, 5.0, 2.5);
+        vehicle.setLongitudinalModel(new IDM(33.0, 0.5, 3.0, 1.5, 2.0, 5.0));
+        vehicle.setRoute(routing.findRoute(a, d, 0.0));
+        a.addVehicle(vehicle);
+        // a queue on road b
+        final Vehicle queued = new Vehicle(500.0, 0.0, Lanes.LANE1, 5.0, 2.5);
+        queued.setLongitudinalModel(new IDM(33.0, 0.5, 3.0, 1.5, 2.0, 5.0));
+        b.addVehicle(queued);
+
+        final double dt = 0.5;
+        for (double time = 0; time <= 61.0; time += dt) {
+            routing.timeStep(dt, time, 0);
+        }
+        // the travel time measured on road b is above the free-flow travel time on the detour
+        assertEquals(1000.0, routing.getTravelCost(b), 1e-6);
+        assertEquals("a c1 c2 d", roadIds(routing.findRoute(a, d, 60.0)));
+        assertEquals("a c1 c2 d", roadIds(routing.findRoute(a, d)));
+        assertEquals("a c1 c2 d", roadIds(vehicle.getRoute()));
+    }
+
+    @Test
+    public final void testRoutingPlan() {
+        final RoadNetwork roadNetwork = new RoadNetwork();
+        final RoadSegment x = newRoadSegment(roadNetwork, "x", 300.0, 1);
+        final RoadSegment a = newRoadSegment(roadNetwork, "a", 500.0, 2);
+        final RoadSegment b = newRoadSegment(roadNetwork, "b", 1000.0, 1);
+        final RoadSegment c = newRoadSegment(roadNetwork, "c", 600.0, 1);
+        a.setLaneType(Lanes.LANE2, Lanes.Type.EXIT);
+        Link.addLanePair(Lanes.LANE1, x, Lanes.LANE1, a);
+        Link.addLanePair(Lanes.LANE1, a, Lanes.LANE1, b);
+        Link.addLanePair(Lanes.LANE2, a, Lanes.LANE1, c);
+
+        final Route exitRoute = new Route("exit");
+        exitRoute.add(x);
+        exitRoute.add(a);
+        exitRoute.add(c);
+        final RoutingPlan plan = exitRoute.plan();
+        assertSame(plan, exitRoute.plan());
+        assertEquals(3, plan.size());
+        assertEquals(1, plan.indexOf(a.id()));
+        assertEquals(-1, plan.indexOf(b.id()));
+        assertEquals(a.id(), plan.exitRoadSegmentId(0));
+        assertEquals(a.id(), plan.exitRoadSegmentId(1));
+        assertEquals(RoutingPlan.NO_EXIT, plan.exitRoadSegmentId(2));
+        assertSame(a, plan.exitRoadSegment(0));
+        assertEquals(Lanes.LANE2, plan.exitLane(0));
+
+        final Vehicle vehicle = new Vehicle(10.0, 20.0, Lanes.LANE1, 5.0, 2.5);
+        vehicle.setRoute(exitRoute);
+        x.addVehicle(vehicle);
+        assertEquals(a.id(), vehicle.exitRoadSegmentId());
+
+        // decisions taken in advance for the road segment ahead
+        final Route mainRoute = new Route("main");
+        mainRoute.add(a);
+        mainRoute.add(b);
+        assertTrue(vehicle.assignRoute(mainRoute, a));
+        assertEquals(Vehicle.ROAD_SEGMENT_ID_NOT_SET, vehicle.exitRoadSegmentId());
+        final Route divergingRoute = new Route("diverging");
+        divergingRoute.add(a);
+        divergingRoute.add(c);
+        assertTrue(vehicle.assignRoute(divergingRoute, a));
+        assertEquals(a.id(), vehicle.exitRoadSegmentId());
+        final Route otherRoute = new Route("other");
+        otherRoute.add(b);
+        assertFalse(vehicle.assignRoute(otherRoute, a));
+        assertSame(divergingRoute, vehicle.getRoute());
+    }
+
+}
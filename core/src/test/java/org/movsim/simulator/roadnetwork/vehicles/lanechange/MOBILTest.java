@@ -88,19 +88,20 @@ public class MOBILTest {
         final double thresholdAcceleration = 0.2;
         final double rightBiasAcceleration = 0.3;
 
+        final ModelParameterMOBIL parameterMOBIL = createModelParameterMOBIL(minimumGap, safeDeceleration,
+                politeness, thresholdAcceleration, rightBiasAcceleration);
+
         // set up a vehicle in most inner lane (left lane)
         final Vehicle v1 = newVehicle(900.0, 0.0, Lanes.LANE1, lengthCar);
-        final MOBIL m1 = new MOBIL(v1, createModelParameterMOBIL(minimumGap, safeDeceleration, politeness,
-                thresholdAcceleration, rightBiasAcceleration));
-        final LaneChangeModel lcm1 = new LaneChangeModel(v1, createLaneChangeModelType(m1.getParameter()));
+        final MOBIL m1 = new MOBIL(v1, parameterMOBIL);
+        final LaneChangeModel lcm1 = new LaneChangeModel(v1, createLaneChangeModelType(parameterMOBIL));
         v1.setLaneChangeModel(lcm1);
         roadSegment.addVehicle(v1);
 
         // set up a vehicle in right lane
         final Vehicle v2 = newVehicle(900.0 - lengthCar - tooSmallGap, 0.0, Lanes.LANE2, lengthCar);
-        final MOBIL m2 = new MOBIL(v2, createModelParameterMOBIL(minimumGap, safeDeceleration, politeness,
-                thresholdAcceleration, rightBiasAcceleration));
-        final LaneChangeModel lcm2 = new LaneChangeModel(v2, createLaneChangeModelType(m2.getParameter()));
+        final MOBIL m2 = new MOBIL(v2, parameterMOBIL);
+        final LaneChangeModel lcm2 = new LaneChangeModel(v2, createLaneChangeModelType(parameterMOBIL));
         v2.setLaneChangeModel(lcm2);
         roadSegment.addVehicle(v2);
 
@@ -179,6 +180,89 @@ public class MOBILTest {
         assertTrue(balance < 0.0);
     }
 
+    @Test
+    public final void testCalcAccelerationBalanceWithoutSideEffects() {
+        RoadSegment.resetNextId();
+        Vehicle.resetNextId();
+        final double lengthCar = 6.0;
+        final RoadSegment roadSegment = new RoadSegment(1000.0, 2);
+        final Vehicle v1 = newVehicle(500.0, 25.0, Lanes.LANE1, lengthCar);
+        roadSegment.addVehicle(v1);
+        final Vehicle v2 = newVehicle(300.0, 25.0, Lanes.LANE2, lengthCar);
+        final MOBIL m2 = new MOBIL(v2, createModelParameterMOBIL(2.0, 4.0, 0.1, 0.2, 0.3));
+        roadSegment.addVehicle(v2);
+        // slow vehicle in front of v2, so v2 has an incentive to change to the left lane
+        final Vehicle v3 = newVehicle(330.0, 5.0, Lanes.LANE2, lengthCar);
+        roadSegment.addVehicle(v3);
+
+        final double balance = m2.calcAccelerationBalance(v2, Lanes.TO_LEFT, roadSegment);
+        assertTrue(balance > 0.0);
+        assertEquals(Lanes.LANE2, v2.lane());
+        assertEquals(1, roadSegment.laneSegment(Lanes.LANE1).vehicleCount());
+        assertEquals(2, roadSegment.laneSegment(Lanes.LANE2).vehicleCount());
+        assertEquals(v1, roadSegment.laneSegment(Lanes.LANE1).getVehicle(0));
+    }
+
+    private Vehicle newLaneChangingVehicle(double rearPosition, double speed, int lane, double length) {
+        final Vehicle vehicle = newVehicle(rearPosition, speed, lane, length);
+        final ModelParameterMOBIL parameterMOBIL = createModelParameterMOBIL(2.0, 4.0, 0.1, 0.2, 0.3);
+        vehicle.setLaneChangeModel(new LaneChangeModel(vehicle, createLaneChangeModelType(parameterMOBIL)));
+        return vehicle;
+    }
+
+    @Test
+    public final void testLaneChangeDecisionsUseLanesOfBeginningOfTimeStep() {
+        RoadSegment.resetNextId();
+        Vehicle.resetNextId();
+        final double lengthCar = 6.0;
+        final RoadSegment roadSegment = new RoadSegment(1000.0, 3);
+        // v1 is blocked in the middle lane and changes to the empty left lane
+        final Vehicle v1 = newLaneChangingVehicle(300.0, 25.0, Lanes.LANE2, lengthCar);
+        roadSegment.addVehicle(v1);
+        roadSegment.addVehicle(newVehicle(360.0, 5.0, Lanes.LANE2, lengthCar));
+        // v2 is blocked in the right lane and would gain by changing into the middle lane without v1
+        final Vehicle v2 = newLaneChangingVehicle(300.0, 25.0, Lanes.LANE3, lengthCar);
+        roadSegment.addVehicle(v2);
+        roadSegment.addVehicle(newVehicle(330.0, 5.0, Lanes.LANE3, lengthCar));
+
+        roadSegment.makeLaneChanges(0.2, 0.0, 0);
+
+        // the decision of v2 is based on the middle lane before the lane change of v1
+        assertEquals(Lanes.LANE1, v1.lane());
+        assertEquals(Lanes.LANE3, v2.lane());
+        assertEquals(1, roadSegment.laneSegment(Lanes.LANE1).vehicleCount());
+        assertEquals(1, roadSegment.laneSegment(Lanes.LANE2).vehicleCount());
+        assertEquals(2, roadSegment.laneSegment(Lanes.LANE3).vehicleCount());
+
+        // in the next time step the middle lane is free at the position of v2
+        roadSegment.makeLaneChanges(0.2, 0.2, 1);
+        assertEquals(Lanes.LANE2, v2.lane());
+    }
+
+    @Test
+    public final void testLaneChangesIntoSameGap() {
+        RoadSegment.resetNextId();
+        Vehicle.resetNextId();
+        final double lengthCar = 6.0;
+        final RoadSegment roadSegment = new RoadSegment(1000.0, 3);
+        // v1 and v2 are blocked in the outer lanes and both decide to change into the empty middle lane
+        final Vehicle v1 = newLaneChangingVehicle(300.0, 25.0, Lanes.LANE1, lengthCar);
+        roadSegment.addVehicle(v1);
+        roadSegment.addVehicle(newVehicle(330.0, 5.0, Lanes.LANE1, lengthCar));
+        final Vehicle v2 = newLaneChangingVehicle(300.0, 25.0, Lanes.LANE3, lengthCar);
+        roadSegment.addVehicle(v2);
+        roadSegment.addVehicle(newVehicle(330.0, 5.0, Lanes.LANE3, lengthCar));
+
+        roadSegment.makeLaneChanges(0.2, 0.0, 0);
+
+        // the lane change decided first (from the lower lane) takes the gap, the other one is cancelled
+        assertEquals(Lanes.LANE2, v1.lane());
+        assertEquals(Lanes.LANE3, v2.lane());
+        assertEquals(Lanes.NONE, v2.getTargetLane());
+        assertEquals(1, roadSegment.laneSegment(Lanes.LANE2).vehicleCount());
+        assertEquals(2, roadSegment.laneSegment(Lanes.LANE3).vehicleCount());
+    }
+
     @Test
     public final void testGetMinimumGap() {
         final double minimumGap = 2.1;
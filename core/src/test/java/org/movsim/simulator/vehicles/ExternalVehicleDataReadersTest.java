@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.simulator.vehicles;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import org.junit.Test;
+import org.movsim.scenario.vehicle.autogen.ExternalVehicleType;
+import org.movsim.scenario.vehicle.autogen.MovsimExternalVehicleControl;
+import org.movsim.scenario.vehicle.autogen.SpeedDataType;
+import org.movsim.simulator.vehicles.ExternalVehicleDataReader.Record;
+import org.movsim.simulator.vehicles.ExternalVehicleDataReader.Record.Type;
+
+public class ExternalVehicleDataReadersTest {
+    private static final double delta = 0.00001;
+
+    private static ExternalVehicleType createVehicle(String roadId, double... timesAndSpeeds) {
+        final ExternalVehicleType vehicle = new ExternalVehicleType();
+        vehicle.setRoadId(roadId);
+        vehicle.setPosition(100);
+        for (int i = 0; i < timesAndSpeeds.length; i += 2) {
+            final SpeedDataType speedData = new SpeedDataType();
+            speedData.setTime(Double.toString(timesAndSpeeds[i]));
+            speedData.setSpeed(timesAndSpeeds[i + 1]);
+            vehicle.getSpeedData().add(speedData);
+        }
+        return vehicle;
+    }
+
+    private static void assertRecord(Record record, Type type, double time, double speed) {
+        assertEquals(type, record.type);
+        assertEquals(time, record.time, delta);
+        assertEquals(speed, record.speed, delta);
+    }
+
+    @Test
+    public final void testXmlInputMergedInTime() throws IOException {
+        final MovsimExternalVehicleControl input = new MovsimExternalVehicleControl();
+        input.getExternalVehicle().add(createVehicle("1", 10, 5, 20, 10, 40, 0));
+        input.getExternalVehicle().add(createVehicle("2", 15, 8));
+        final ExternalVehicleDataReader reader = ExternalVehicleDataReaders.of(input);
+        final Record record = new Record();
+
+        assertTrue(reader.next(record));
+        assertRecord(record, Type.ENTER, 10, 5);
+        assertEquals("1", record.roadId);
+        assertEquals(ExternalVehicleDataReaders.DEFAULT_LANE, record.lane);
+        final String firstId = record.id;
+        // single speed data point is used for entering and exit
+        assertTrue(reader.next(record));
+        assertRecord(record, Type.ENTER, 15, 8);
+        assertTrue(reader.next(record));
+        assertRecord(record, Type.EXIT, 15, 8);
+        assertTrue(reader.next(record));
+        assertRecord(record, Type.SPEED, 20, 10);
+        assertEquals(firstId, record.id);
+        assertTrue(reader.next(record));
+        assertRecord(record, Type.EXIT, 40, 0);
+        assertFalse(reader.next(record));
+        reader.close();
+    }
+
+    @Test
+    public final void testCsvFile() throws IOException {
+        final File file = File.createTempFile("external", ".csv");
+        file.deleteOnExit();
+        try (PrintWriter writer = new PrintWriter(file)) {
+            writer.println("# time, type, id, speed, roadId, position, lane, length, width");
+            writer.println("10.5, enter, car1, 5, road1, 100");
+            writer.println("11; enter; car2; 6; road2; 50; 2; 12; 3");
+            writer.println("");
+            writer.println("12 speed car1 7");
+            writer.println("13, exit, car2, 0");
+        }
+        final ExternalVehicleDataReader reader = ExternalVehicleDataReaders.open(file);
+        final Record record = new Record();
+
+        assertTrue(reader.next(record));
+        assertRecord(record, Type.ENTER, 10.5, 5);
+        assertEquals("car1", record.id);
+        assertEquals("road1", record.roadId);
+        assertEquals(100, record.position, delta);
+        assertEquals(ExternalVehicleDataReaders.DEFAULT_LANE, record.lane);
+        assertEquals(ExternalVehicleDataReaders.DEFAULT_LENGTH, record.length, delta);
+        assertTrue(reader.next(record));
+        assertRecord(record, Type.ENTER, 11, 6);
+        assertEquals(2, record.lane);
+        assertEquals(12, record.length, delta);
+        assertEquals(3, record.width, delta);
+        assertTrue(reader.next(record));
+        assertRecord(record, Type.SPEED, 12, 7);
+        assertEquals("car1", record.id);
+        assertTrue(reader.next(record));
+        assertRecord(record, Type.EXIT, 13, 0);
+        assertEquals("car2", record.id);
+        assertFalse(reader.next(record));
+        reader.close();
+    }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.simulator.vehicles;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import org.junit.Test;
+
+/**
+ * Checks the memory footprint of a vehicle in the way of the Java Object Layout tool: the shallow size is estimated
+ * from the instance fields for a 64-bit JVM with compressed object pointers (12 bytes object header, 4 bytes per
+ * reference, 8 bytes alignment).
+ */
+public class VehicleFootprintTest {
+
+    private static final int OBJECT_HEADER = 12;
+    private static final int REFERENCE_SIZE = 4;
+    private static final int ALIGNMENT = 8;
+
+    private static int fieldSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        } else if (type == int.class || type == float.class) {
+            return 4;
+        } else if (type == short.class || type == char.class) {
+            return 2;
+        } else if (type == byte.class || type == boolean.class) {
+            return 1;
+        }
+        return REFERENCE_SIZE;
+    }
+
+    static int shallowSize(Class<?> clazz) {
+        int size = OBJECT_HEADER;
+        for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    size += fieldSize(field.getType());
+                }
+            }
+        }
+        return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    private static Object fieldValue(Object object, String name) throws Exception {
+        final Field field = object.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(object);
+    }
+
+    @Test
+    public final void testShallowSizeWithinBudget() {
+        final int size = shallowSize(Vehicle.class);
+        assertTrue("shallow size=" + size + " exceeds budget=" + Vehicle.SHALLOW_SIZE_BUDGET,
+                size <= Vehicle.SHALLOW_SIZE_BUDGET);
+    }
+
+    @Test
+    public final void testSideObjectsAllocatedLazily() throws Exception {
+        final Vehicle vehicle = new Vehicle(0, 10, 1, 5, 2.5);
+        assertNull(fieldValue(vehicle, "userData"));
+        assertNull(fieldValue(vehicle, "trafficLightApproaching"));
+        assertNull(fieldValue(vehicle, "inhomogeneity"));
+        assertNull(fieldValue(vehicle, "physQuantities"));
+        assertNull(fieldValue(vehicle, "trip"));
+        assertEquals(Vehicle.ROAD_SEGMENT_ID_NOT_SET, vehicle.exitRoadSegmentId());
+        assertNull(vehicle.getRoute());
+        vehicle.setRoute(null);
+        assertNull(fieldValue(vehicle, "trip"));
+
+        vehicle.getUserData().put("key", "value");
+        assertTrue(fieldValue(vehicle, "userData") instanceof VehicleUserData);
+        assertTrue(vehicle.getDistanceToTrafficlight() > 0);
+        assertNull(fieldValue(vehicle, "trafficLightApproaching"));
+
+        vehicle.updatePositionAndSpeed(0.2);
+        assertTrue(fieldValue(vehicle, "trip") instanceof VehicleTrip);
+        assertEquals(0.2, vehicle.totalTravelTime(), 0);
+    }
+
+    @Test
+    public final void testCopyDoesNotShareSideObjects() throws Exception {
+        final Vehicle source = new Vehicle(0, 10, 1, 5, 2.5);
+        source.getUserData().put("key", "value");
+        source.inhomogeneityAdaptation().setAlphaT(1.2);
+        source.getTrafficLightApproaching();
+        source.setColor(42);
+        source.setExitRoadSegmentId(7);
+
+        final Vehicle copy = new Vehicle(source);
+        assertNotSame(fieldValue(source, "trip"), fieldValue(copy, "trip"));
+        assertNotSame(source.getUserData(), copy.getUserData());
+        assertNotSame(source.inhomogeneityAdaptation(), copy.inhomogeneityAdaptation());
+        assertNull(fieldValue(copy, "trafficLightApproaching"));
+        assertEquals("value", copy.getUserData().get("key"));
+        assertEquals(1.2, copy.inhomogeneityAdaptation().alphaT(), 0);
+        assertEquals(42, copy.color());
+        assertSame(source.getRoute(), copy.getRoute());
+
+        copy.getUserData().put("copy", "value");
+        copy.inhomogeneityAdaptation().setAlphaT(0.8);
+        copy.setExitRoadSegmentId(8);
+        copy.updatePositionAndSpeed(0.2);
+        assertNull(source.getUserData().get("copy"));
+        assertEquals(1.2, source.inhomogeneityAdaptation().alphaT(), 0);
+        assertEquals(7, source.exitRoadSegmentId());
+        assertEquals(0, source.totalTravelTime(), 0);
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ *
+ * This file is part of
+ *
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ *
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ *
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.simulator.vehicles;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.movsim.autogen.AccelerationModelType;
+import org.movsim.autogen.DecisionPointsType;
+import org.movsim.autogen.LaneChangeModelType;
+import org.movsim.autogen.MemoryParameter;
+import org.movsim.autogen.ModelParameterIDM;
+import org.movsim.autogen.ModelParameterMOBIL;
+import org.movsim.autogen.NoiseParameter;
+import org.movsim.autogen.ServiceProviderType;
+import org.movsim.autogen.TrafficLightStatus;
+import org.movsim.autogen.VehiclePrototypeConfiguration;
+import org.movsim.autogen.VehiclePrototypes;
+import org.movsim.network.autogen.opendrive.OpenDRIVE;
+import org.movsim.network.autogen.opendrive.OpenDRIVE.Road.Signals.Signal;
+import org.movsim.simulator.observer.ServiceProvider;
+import org.movsim.simulator.roadnetwork.Lanes;
+import org.movsim.simulator.roadnetwork.RoadNetwork;
+import org.movsim.simulator.roadnetwork.RoadSegment;
+import org.movsim.simulator.roadnetwork.controller.TrafficLight;
+import org.movsim.simulator.roadnetwork.routing.Route;
+import org.movsim.simulator.roadnetwork.routing.Routing;
+import org.movsim.simulator.vehicles.lanechange.LaneChangeModel;
+import org.movsim.simulator.vehicles.longitudinalmodel.Memory;
+import org.movsim.simulator.vehicles.longitudinalmodel.Noise;
+import org.movsim.simulator.vehicles.longitudinalmodel.TrafficLightApproaching;
+
+public class VehiclePoolTest {
+
+    private VehicleFactory vehicleFactory;
+    private VehiclePool pool;
+
+    private static VehiclePrototypeConfiguration createConfiguration(String label, double length) {
+        final ModelParameterIDM idm = new ModelParameterIDM();
+        idm.setV0(30);
+        idm.setS0(2);
+        idm.setT(1.5);
+        idm.setA(1);
+        idm.setB(1.5);
+        final AccelerationModelType accelerationModel = new AccelerationModelType();
+        accelerationModel.setModelParameterIDM(idm);
+        final VehiclePrototypeConfiguration configuration = new VehiclePrototypeConfiguration();
+        configuration.setLabel(label);
+        configuration.setLength(length);
+        configuration.setAccelerationModelType(accelerationModel);
+        final ModelParameterMOBIL mobil = new ModelParameterMOBIL();
+        mobil.setMinimumGap(2);
+        mobil.setSafeDeceleration(4);
+        mobil.setPoliteness(0.1);
+        mobil.setThresholdAcceleration(0.2);
+        mobil.setRightBiasAcceleration(0.3);
+        final LaneChangeModelType laneChangeModel = new LaneChangeModelType();
+        laneChangeModel.setModelParameterMOBIL(mobil);
+        configuration.setLaneChangeModelType(laneChangeModel);
+        return configuration;
+    }
+
+    private static Memory createMemory() {
+        final MemoryParameter parameter = new MemoryParameter();
+        parameter.setTau(60);
+        parameter.setAlphaT(1.7);
+        parameter.setAlphaV0(0.8);
+        parameter.setAlphaA(1);
+        return new Memory(parameter);
+    }
+
+    private static Noise createNoise() {
+        final NoiseParameter parameter = new NoiseParameter();
+        parameter.setTau(5);
+        parameter.setFluctStrength(0.1);
+        return new Noise(parameter);
+    }
+
+    private static TrafficLight createRedTrafficLight(RoadSegment roadSegment, double position) {
+        final Signal signal = new Signal();
+        signal.setId("1");
+        signal.setS(position);
+        final OpenDRIVE.Controller.Control control = new OpenDRIVE.Controller.Control();
+        control.setSignalId("1");
+        control.setType("main");
+        final OpenDRIVE.Controller controller = new OpenDRIVE.Controller();
+        controller.setId("1");
+        controller.getControl().add(control);
+        final TrafficLight trafficLight = new TrafficLight(signal, controller, roadSegment);
+        trafficLight.setState(TrafficLightStatus.RED);
+        return trafficLight;
+    }
+
+    private static void assertTrafficLightApproaching(TrafficLightApproaching expected,
+            TrafficLightApproaching actual) {
+        assertEquals(expected.considerTrafficLight(), actual.considerTrafficLight());
+        assertEquals(expected.accApproaching(), actual.accApproaching(), 0);
+        assertEquals(expected.getDistanceToTrafficlight(), actual.getDistanceToTrafficlight(), 0);
+    }
+
+    private VehicleType createVehicleType(String label) {
+        final org.movsim.autogen.VehicleType configuration = new org.movsim.autogen.VehicleType();
+        configuration.setLabel(label);
+        return new VehicleType(configuration, vehicleFactory.getPrototype(label));
+    }
+
+    @Before
+    public void setUp() {
+        final VehiclePrototypes prototypes = new VehiclePrototypes();
+        prototypes.setRecycleVehicles(true);
+        prototypes.getVehiclePrototypeConfiguration().add(createConfiguration("Car", 5));
+        prototypes.getVehiclePrototypeConfiguration().add(createConfiguration("Truck", 12));
+        vehicleFactory = new VehicleFactory(0.2, prototypes, null, new Routing(null, new RoadNetwork()), null);
+        pool = vehicleFactory.getVehiclePool();
+        assertNotNull(pool);
+    }
+
+    @Test
+    public final void testRecycledVehicleIsReset() {
+        final VehicleType car = createVehicleType("Car");
+        final Vehicle vehicle = vehicleFactory.create(car);
+        final long id = vehicle.getId();
+        vehicle.setFrontPosition(100);
+        vehicle.setSpeed(20);
+        vehicle.setLane(2);
+        vehicle.updatePositionAndSpeed(0.2);
+        vehicle.getUserData().put("key", "value");
+
+        assertTrue(pool.release(vehicle));
+        pool.timeStep(0.2, 0.2, 1);
+        final Vehicle recycled = vehicleFactory.create(car);
+        assertSame(vehicle, recycled);
+        assertTrue(recycled.getId() > id);
+        assertEquals(0, recycled.getFrontPosition(), 0);
+        assertEquals(0, recycled.getSpeed(), 0);
+        assertEquals(Vehicle.LANE_NOT_SET, recycled.lane());
+        assertEquals(0, recycled.totalTravelDistance(), 0);
+        assertEquals(0, recycled.getAcc(), 0);
+        assertEquals(0, recycled.totalTravelTime(), 0);
+        assertNull(recycled.getUserData().get("key"));
+        assertEquals(5, recycled.getLength(), 0);
+        assertEquals(1, pool.reusedCount());
+    }
+
+    @Test
+    public final void testRecycledVehicleEqualsNewVehicle() {
+        final VehicleType car = createVehicleType("Car");
+        final RoadSegment roadSegment = new RoadSegment(1000, 2);
+        final TrafficLight trafficLight = createRedTrafficLight(roadSegment, 130);
+        final Route route = new Route("route");
+        route.add(roadSegment);
+        final ServiceProviderType serviceProviderType = new ServiceProviderType();
+        serviceProviderType.setLabel("provider");
+        serviceProviderType.setDecisionPoints(new DecisionPointsType());
+        final ServiceProvider serviceProvider = new ServiceProvider(serviceProviderType, new Routing(null,
+                new RoadNetwork()), new RoadNetwork());
+
+        final Vehicle fresh = vehicleFactory.create(car);
+        final Memory freshMemory = createMemory();
+        final Noise freshNoise = createNoise();
+        fresh.setMemory(freshMemory);
+        fresh.setNoise(freshNoise);
+
+        // drive the state of a vehicle away from the state of a new vehicle
+        final Vehicle vehicle = vehicleFactory.create(car);
+        final Memory memory = createMemory();
+        final Noise noise = createNoise();
+        vehicle.setMemory(memory);
+        vehicle.setNoise(noise);
+        memory.update(0.2, 5, 30);
+        noise.update(0.2);
+        assertTrue(memory.alphaT() != 1);
+        assertTrue(noise.getAccError() != 0);
+        final LaneChangeModel laneChangeModel = vehicle.getLaneChangeModel();
+        assertNotNull(laneChangeModel);
+        laneChangeModel.setConsiderLaneChanges(false);
+        laneChangeModel.setConsiderDiscretionaryLaneChanges(false);
+        laneChangeModel.setMandatoryChangeToRestrictedLane(Lanes.LANE2);
+        laneChangeModel.setMandatoryChangeToLane(Lanes.LANE1);
+        vehicle.routingDecisions().setServiceProvider(serviceProvider);
+        vehicle.routingDecisions().setUncertainty(0.5);
+        vehicle.routingDecisions().setReroutingThreshold(60);
+        vehicle.setSpeedlimit(10);
+        vehicle.setRoute(route);
+        vehicle.setFrontPosition(100);
+        vehicle.setSpeed(10);
+        vehicle.setLane(Lanes.LANE1);
+        vehicle.setRoadSegment(roadSegment);
+        assertEquals(1, vehicle.routeIndex());
+        vehicle.setExitRoadSegmentId(roadSegment.id());
+        vehicle.getTrafficLightApproaching().addTrafficLight(trafficLight);
+        vehicle.getTrafficLightApproaching().update(vehicle, roadSegment);
+        assertTrue(vehicle.getTrafficLightApproaching().considerTrafficLight());
+
+        pool.release(vehicle);
+        pool.timeStep(0.2, 0.2, 1);
+        final Vehicle recycled = vehicleFactory.create(car);
+        assertSame(vehicle, recycled);
+
+        // lane-changing state
+        assertSame(laneChangeModel, recycled.getLaneChangeModel());
+        final LaneChangeModel freshLaneChangeModel = fresh.getLaneChangeModel();
+        assertEquals(freshLaneChangeModel.isConsiderLaneChanges(), laneChangeModel.isConsiderLaneChanges());
+        assertEquals(freshLaneChangeModel.isConsiderDiscretionaryLaneChanges(),
+                laneChangeModel.isConsiderDiscretionaryLaneChanges());
+        assertEquals(freshLaneChangeModel.hasMandatoryChangeToRestrictedLane(),
+                laneChangeModel.hasMandatoryChangeToRestrictedLane());
+        assertEquals(freshLaneChangeModel.hasMandatoryChangeToLane(), laneChangeModel.hasMandatoryChangeToLane());
+
+        // memory and noise state
+        assertEquals(freshMemory.alphaA(), memory.alphaA(), 0);
+        assertEquals(freshMemory.alphaV0(), memory.alphaV0(), 0);
+        assertEquals(freshMemory.alphaT(), memory.alphaT(), 0);
+        assertEquals(freshNoise.getAccError(), noise.getAccError(), 0);
+
+        // routing decisions
+        assertEquals(fresh.routingDecisions().hasServiceProvider(), recycled.routingDecisions().hasServiceProvider());
+        assertFalse(recycled.routingDecisions().hasServiceProvider());
+        assertEquals(fresh.routingDecisions().getUncertainty(), recycled.routingDecisions().getUncertainty(), 0);
+        assertEquals(fresh.routingDecisions().getReroutingThreshold(), recycled.routingDecisions()
+                .getReroutingThreshold(), 0);
+
+        // road segment, exit and speed limit
+        assertEquals(fresh.exitRoadSegmentId(), recycled.exitRoadSegmentId());
+        assertEquals(fresh.originRoadSegmentId(), recycled.originRoadSegmentId());
+        assertEquals(fresh.roadSegmentId(), recycled.roadSegmentId());
+        assertEquals(fresh.getSpeedlimit(), recycled.getSpeedlimit(), 0);
+
+        // route
+        assertSame(fresh.getRoute(), recycled.getRoute());
+        assertNull(recycled.getRoute());
+        assertSame(fresh.routingPlan(), recycled.routingPlan());
+        assertEquals(fresh.routeIndex(), recycled.routeIndex());
+
+        // traffic light approaching
+        recycled.setFrontPosition(100);
+        fresh.setFrontPosition(100);
+        recycled.getTrafficLightApproaching().update(recycled, roadSegment);
+        fresh.getTrafficLightApproaching().update(fresh, roadSegment);
+        assertTrafficLightApproaching(fresh.getTrafficLightApproaching(), recycled.getTrafficLightApproaching());
+        assertFalse(recycled.getTrafficLightApproaching().considerTrafficLight());
+    }
+
+    @Test
+    public final void testReleasedVehicleNotReusedInSameStep() {
+        final VehicleType car = createVehicleType("Car");
+        final Vehicle vehicle = vehicleFactory.create(car);
+        pool.release(vehicle);
+        assertEquals(0, pool.availableCount());
+        assertNotSame(vehicle, vehicleFactory.create(car));
+        pool.timeStep(0.2, 0.2, 1);
+        assertEquals(1, pool.availableCount());
+    }
+
+    @Test
+    public final void testPoolPerPrototype() {
+        final Vehicle truck = vehicleFactory.create(createVehicleType("Truck"));
+        pool.release(truck);
+        pool.timeStep(0.2, 0.2, 1);
+        final Vehicle car = vehicleFactory.create(createVehicleType("Car"));
+        assertNotSame(truck, car);
+        assertEquals(5, car.getLength(), 0);
+        assertSame(truck, vehicleFactory.create(createVehicleType("Truck")));
+    }
+}
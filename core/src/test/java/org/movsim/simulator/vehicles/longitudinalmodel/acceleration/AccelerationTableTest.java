@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.simulator.vehicles.longitudinalmodel.acceleration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.movsim.autogen.AccelerationTableType;
+import org.movsim.autogen.ModelParameterGipps;
+
+public class AccelerationTableTest {
+    private static final double delta = 0.00001;
+
+    private IDM idm;
+    private AccelerationTable table;
+
+    @Before
+    public void setUp() throws Exception {
+        idm = new IDM(33.0, 1.0, 1.5, 1.2, 2.0, 0.0);
+        table = idm.createAccelerationTable(new AccelerationTableType());
+    }
+
+    @Test
+    public final void testMaxErrorReported() {
+        assertTrue(table.getMaxError() > 0);
+        final double s = 30.3;
+        final double v = 20.1;
+        final double dv = 1.7;
+        final double analytic = idm.calcAccSimple(s, v, dv);
+        idm.setAccelerationTable(table);
+        assertTrue(table.covers(s, v, dv));
+        assertEquals(analytic, idm.calcAccSimple(s, v, dv), table.getMaxError());
+    }
+
+    @Test
+    public final void testGridNodesExact() {
+        // default grid: inverse gap 1/200..1 with 200 points, speed 0..50 with 60 points, dv -15..15 with 40 points
+        final double s = 1.0 / (1.0 / 200 + 10 * (1.0 - 1.0 / 200) / 199);
+        final double v = 10 * (50.0 / 59);
+        final double dv = -15.0 + 20 * (30.0 / 39);
+        assertEquals(idm.calcAccSimple(s, v, dv), table.interpolate(s, v, dv), delta);
+    }
+
+    @Test
+    public final void testAnalyticOutsideBounds() {
+        final double s = 500.0;
+        final double v = 20.0;
+        final double dv = 0.0;
+        assertFalse(table.covers(s, v, dv));
+        final double analytic = idm.calcAccSimple(s, v, dv);
+        idm.setAccelerationTable(table);
+        assertEquals(analytic, idm.calcAccSimple(s, v, dv), 0.0);
+    }
+
+    @Test
+    public final void testNotApplicableForOtherParameters() {
+        assertTrue(table.isApplicable(1.2, 33.0, 1.0));
+        assertFalse(table.isApplicable(1.2, 30.0, 1.0));
+        assertFalse(table.isApplicable(1.5 * 1.2, 33.0, 1.0));
+    }
+
+    @Test
+    public final void testNoTableForUnsupportedModel() {
+        final ModelParameterGipps parameter = new ModelParameterGipps();
+        parameter.setV0(30);
+        parameter.setS0(2);
+        parameter.setA(1.5);
+        parameter.setB(1);
+        final Gipps gipps = new Gipps(0.5, parameter);
+        assertNull(gipps.createAccelerationTable(new AccelerationTableType()));
+    }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2010, 2011, 2012 by Arne Kesting, Martin Treiber, Ralph Germ, Martin Budden
+ * <movsim.org@gmail.com>
+ * -----------------------------------------------------------------------------------------
+ * 
+ * This file is part of
+ * 
+ * MovSim - the multi-model open-source vehicular-traffic simulator.
+ * 
+ * MovSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MovSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with MovSim. If not, see <http://www.gnu.org/licenses/>
+ * or <http://www.movsim.org>.
+ * 
+ * -----------------------------------------------------------------------------------------
+ */
+package org.movsim.simulator.vehicles.longitudinalmodel.acceleration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.movsim.autogen.AccelerationModelType;
+import org.movsim.autogen.ModelParameterACC;
+import org.movsim.autogen.ModelParameterIDM;
+import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.parameter.IModelParameter;
+import org.movsim.simulator.vehicles.longitudinalmodel.acceleration.parameter.IModelParameterIDM;
+
+public class ImmutableModelParametersTest {
+
+    private static final double delta = 1e-12;
+
+    @Test
+    public final void testCopyIncludesDefaults() {
+        final ModelParameterIDM idm = ModelParameters.getDefaultModelParameterIDM();
+        idm.unsetDelta();
+        final AccelerationModelType modelType = new AccelerationModelType();
+        modelType.setModelParameterIDM(idm);
+
+        final IModelParameter parameter = ImmutableModelParameters.of(modelType);
+        assertTrue(parameter instanceof IModelParameterIDM);
+        final IModelParameterIDM copy = (IModelParameterIDM) parameter;
+        assertNotSame(idm, copy);
+        assertEquals(idm.getV0(), copy.getV0(), delta);
+        assertEquals(idm.getS0(), copy.getS0(), delta);
+        assertEquals(idm.getT(), copy.getT(), delta);
+        assertEquals(idm.getA(), copy.getA(), delta);
+        assertEquals(idm.getB(), copy.getB(), delta);
+        assertEquals(idm.getS1(), copy.getS1(), delta);
+        assertEquals(4, copy.getDelta(), delta);
+
+        // later changes of the input do not affect the copy
+        idm.setV0(10);
+        assertEquals(120 / 3.6, copy.getV0(), delta);
+    }
+
+    @Test
+    public final void testModelsShareParameters() {
+        final ModelParameterACC acc = new ModelParameterACC();
+        acc.setV0(30);
+        acc.setS0(2);
+        acc.setT(1.2);
+        acc.setA(1.2);
+        acc.setB(2);
+        final AccelerationModelType modelType = new AccelerationModelType();
+        modelType.setModelParameterACC(acc);
+
+        final IModelParameter parameter = ImmutableModelParameters.of(modelType);
+        final LongitudinalModelBase model1 = LongitudinalModelFactory.create(5, parameter, 0.2);
+        final LongitudinalModelBase model2 = LongitudinalModelFactory.create(5, parameter, 0.2);
+        assertTrue(model1 instanceof ACC);
+        assertNotSame(model1, model2);
+        assertSame(model1.getParameter(), model2.getParameter());
+        assertEquals(30, model1.getDesiredSpeed(), delta);
+    }
+}